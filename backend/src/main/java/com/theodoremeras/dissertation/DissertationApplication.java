@@ -1,17 +1,21 @@
 package com.theodoremeras.dissertation;
 
+import com.theodoremeras.dissertation.conf.DatasetProperties;
+import com.theodoremeras.dissertation.conf.EmailOutboxProperties;
 import com.theodoremeras.dissertation.conf.StorageProperties;
+import com.theodoremeras.dissertation.dataset.DatasetGenerator;
 import com.theodoremeras.dissertation.evidence.EvidenceService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @SpringBootApplication
-@EnableConfigurationProperties(StorageProperties.class)
+@EnableConfigurationProperties({StorageProperties.class, EmailOutboxProperties.class, DatasetProperties.class})
 public class DissertationApplication {
 
     public static void main(String[] args) {
@@ -28,4 +32,17 @@ public class DissertationApplication {
         };
     }
 
+    /*
+        Loads a synthetic dataset (see DatasetGenerator) and exits, e.g.
+        mvn spring-boot:run -Dspring-boot.run.profiles=dataset -Dspring-boot.run.arguments=--dataset.students=1000
+     */
+    @Profile("dataset")
+    @Bean
+    CommandLineRunner generateDataset(DatasetGenerator datasetGenerator, ConfigurableApplicationContext context) {
+        return (args) -> {
+            datasetGenerator.generate();
+            System.exit(SpringApplication.exit(context));
+        };
+    }
+
 }
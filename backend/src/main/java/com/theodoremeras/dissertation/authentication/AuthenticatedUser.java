@@ -0,0 +1,29 @@
+package com.theodoremeras.dissertation.authentication;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+// The claims of the logged in user's token that controllers need to authorise a request
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class AuthenticatedUser {
+
+    private final Long userId;
+
+    private final String role;
+
+    private final String email;
+
+    public static AuthenticatedUser from(Jwt jwt) {
+        Object subject = jwt.getClaim("sub");
+        return new AuthenticatedUser(
+                jwt.getClaim("userId"), jwt.getClaim("roles"), subject == null ? null : subject.toString()
+        );
+    }
+
+}
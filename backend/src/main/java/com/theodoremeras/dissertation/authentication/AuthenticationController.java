@@ -11,8 +11,6 @@ import com.theodoremeras.dissertation.user.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -32,14 +30,11 @@ public class AuthenticationController {
 
     private final UserMapper userMapper;
 
-    private final JwtDecoder jwtDecoder;
-
 
     public AuthenticationController(
             AuthenticationService authenticationService, UserService userService,
             RoleService roleService, DepartmentService departmentService,
             UserRegistrationMapper userRegistrationMapper, UserMapper userMapper
-            , JwtDecoder jwtDecoder
     ) {
         this.authenticationService = authenticationService;
         this.userService = userService;
@@ -47,7 +42,6 @@ public class AuthenticationController {
         this.departmentService = departmentService;
         this.userRegistrationMapper = userRegistrationMapper;
         this.userMapper = userMapper;
-        this.jwtDecoder = jwtDecoder;
     }
 
     @PostMapping(path = "/auth/register")
@@ -92,12 +86,11 @@ public class AuthenticationController {
 
     @GetMapping(path = "/auth/me")
     public ResponseEntity<UserDto> getLoggedInUser(
-            @RequestHeader(name = "Authorization") String token
+            @CurrentUser AuthenticatedUser currentUser
     ) {
 
-        // Extract user email from token and fetch user
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        String userEmail = jwt.getClaim("sub").toString();
+        // Fetch the user identified by the token's subject
+        String userEmail = currentUser.getEmail();
         UserEntity loggedInUser = userService.findOneByEmail(userEmail).get();
 
         return new ResponseEntity<>(userMapper.mapToDto(loggedInUser), HttpStatus.OK);
@@ -0,0 +1,13 @@
+package com.theodoremeras.dissertation.authentication;
+
+import java.lang.annotation.*;
+
+/*
+    Marks a controller method parameter of type AuthenticatedUser, which is resolved
+    from the JWT the request was authenticated with
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,81 @@
+package com.theodoremeras.dissertation.conf;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.module.ModuleEntity;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/*
+    Hibernate second-level and query cache for the reference data (modules, departments and roles),
+    which is read on almost every request but rarely changes. Caches are held in memory by Caffeine
+    and are bounded in size; hit and miss counts are available through the Hibernate statistics, when
+    hibernate.generate_statistics is enabled.
+    Entity entries are updated by Hibernate when a cached entity is written through the persistence
+    context, and cached query results are invalidated whenever one of the tables they read is written
+ */
+@Configuration
+public class CacheConfig {
+
+    // Upper bound on the number of entries held by each cache region
+    public static final long MAX_ENTRIES_PER_REGION = 10_000;
+
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        /*
+            Every application context gets its own cache manager, so that contexts started side by side
+            (e.g. in tests) never read each other's cached entities
+         */
+        CacheManager cacheManager = Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (Class<?> entityClass : new Class<?>[]{ModuleEntity.class, DepartmentEntity.class, RoleEntity.class})
+            cacheManager.createCache(entityClass.getName(), regionConfiguration());
+
+        cacheManager.createCache(QUERY_RESULTS_REGION, regionConfiguration());
+
+        // Timestamps must never be evicted, otherwise stale query results could be served
+        CaffeineConfiguration<Object, Object> timestampsConfiguration = new CaffeineConfiguration<>();
+        timestampsConfiguration.setStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, timestampsConfiguration);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return (Map<String, Object> properties) -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above, so a missing one is a configuration error
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(MAX_ENTRIES_PER_REGION));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.theodoremeras.dissertation.conf;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/*
+    Size and shape of the synthetic dataset loaded by the DatasetGenerator when running with the
+    "dataset" profile. The same seed and sizes always produce the same rows
+ */
+@ConfigurationProperties("dataset")
+@Getter
+@Setter
+public class DatasetProperties {
+
+    // Seed of the random choices, e.g. dates, decisions and the student behind each application
+    private long seed = 42;
+
+    private int departments = 10;
+
+    private int modulesPerDepartment = 50;
+
+    private int students = 50_000;
+
+    // Academic staff members, who make the module decisions of their department's students
+    private int staffMembers = 1_000;
+
+    // Clerical staff members, who review their department's EC applications
+    private int clericalStaffMembers = 200;
+
+    private int ecApplications = 200_000;
+
+    // Spread evenly over the EC applications
+    private int moduleRequests = 1_000_000;
+
+    // Spread evenly over the module requests
+    private int moduleDecisions = 1_000_000;
+
+    // Spread evenly over the EC applications
+    private int evidence = 500_000;
+
+    // Number of EC applications, with their requests, decisions and evidence, inserted per transaction
+    private int batchSize = 1_000;
+
+    // Store a placeholder file for every evidence row, so that downloads can be load tested too
+    private boolean createEvidenceFiles = true;
+
+    private DataSize evidenceFileSize = DataSize.ofKilobytes(16);
+
+    // Password of every generated user
+    private String password = "pass123";
+
+}
@@ -0,0 +1,34 @@
+package com.theodoremeras.dissertation.conf;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("email.outbox")
+@Getter
+@Setter
+public class EmailOutboxProperties {
+
+    // Address that outgoing emails are sent from
+    private String from = "ecfportal@gmail.com";
+
+    // How often the outbox is checked for emails that are due to be sent
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    // Largest number of emails sent over a single SMTP connection
+    private int batchSize = 50;
+
+    // Number of recipients of a bulk email job whose emails are queued in a single transaction
+    private int recipientPageSize = 500;
+
+    // Number of failed attempts after which an email is given up on
+    private int maxAttempts = 8;
+
+    // Delay before the first retry; it doubles with every further failed attempt, up to the maximum
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    private Duration maxBackoff = Duration.ofHours(1);
+
+}
@@ -0,0 +1,62 @@
+package com.theodoremeras.dissertation.conf;
+
+import com.theodoremeras.dissertation.evidence.EvidenceStorage;
+import com.theodoremeras.dissertation.evidence.FileSystemEvidenceStorage;
+import com.theodoremeras.dissertation.evidence.S3EvidenceStorage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.nio.file.Paths;
+
+/*
+    Selects where evidence content is kept, through the storage.backend property:
+    "filesystem" (the default) or "s3"
+ */
+@Configuration
+public class EvidenceStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "filesystem", matchIfMissing = true)
+    public EvidenceStorage fileSystemEvidenceStorage(StorageProperties properties) {
+        return new FileSystemEvidenceStorage(Paths.get(properties.getLocation()));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+    public S3Client evidenceS3Client(StorageProperties properties) {
+        StorageProperties.S3 s3 = properties.getS3();
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(s3.getRegion()))
+                .forcePathStyle(s3.isPathStyleAccess());
+
+        if (s3.getEndpoint() != null)
+            builder.endpointOverride(s3.getEndpoint());
+
+        if (s3.getAccessKey() != null)
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey())
+            ));
+        else
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
+
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+    public EvidenceStorage s3EvidenceStorage(S3Client evidenceS3Client, StorageProperties properties) {
+        StorageProperties.S3 s3 = properties.getS3();
+        return new S3EvidenceStorage(
+                evidenceS3Client, s3.getBucket(), s3.getKeyPrefix(), (int) s3.getPartSize().toBytes()
+        );
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.theodoremeras.dissertation.conf;
+
+import com.theodoremeras.dissertation.email.EmailDispatcher;
+import com.theodoremeras.dissertation.email.EmailJobService;
+import com.theodoremeras.dissertation.evidence.EvidenceReconciler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Instant;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer, DisposableBean {
+
+    private final EmailDispatcher emailDispatcher;
+
+    private final EmailJobService emailJobService;
+
+    private final EmailOutboxProperties emailOutboxProperties;
+
+    private final EvidenceReconciler evidenceReconciler;
+
+    private final StorageProperties storageProperties;
+
+    /*
+        A run of the reconciler walks the whole store, which can take hours on S3, so it has a thread of its
+        own rather than holding up the email tasks on the shared scheduler. Not a bean, as any TaskScheduler
+        bean would replace the scheduler that Spring Boot configures for the other tasks
+     */
+    private final ThreadPoolTaskScheduler reconciliationScheduler = new ThreadPoolTaskScheduler();
+
+    public SchedulingConfig(
+            EmailDispatcher emailDispatcher, EmailJobService emailJobService,
+            EmailOutboxProperties emailOutboxProperties, EvidenceReconciler evidenceReconciler,
+            StorageProperties storageProperties
+    ) {
+        this.emailDispatcher = emailDispatcher;
+        this.emailJobService = emailJobService;
+        this.emailOutboxProperties = emailOutboxProperties;
+        this.evidenceReconciler = evidenceReconciler;
+        this.storageProperties = storageProperties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        // The first poll waits a full interval, so that start-up is not slowed down by sending a backlog
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(
+                emailDispatcher::dispatchPending,
+                emailOutboxProperties.getPollInterval(), emailOutboxProperties.getPollInterval()
+        ));
+
+        // Bulk email jobs queue their recipients' emails in the outbox, for the dispatcher to send
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(
+                emailJobService::preparePending,
+                emailOutboxProperties.getPollInterval(), emailOutboxProperties.getPollInterval()
+        ));
+
+        // Stored files that no evidence refers to are removed here, rather than while deleting the evidence
+        StorageProperties.Reconciliation reconciliation = storageProperties.getReconciliation();
+        if (reconciliation.isEnabled()) {
+            reconciliationScheduler.setThreadNamePrefix("evidence-reconciler-");
+            reconciliationScheduler.initialize();
+            reconciliationScheduler.scheduleWithFixedDelay(
+                    evidenceReconciler::reconcile,
+                    Instant.now().plus(reconciliation.getInterval()), reconciliation.getInterval()
+            );
+        }
+    }
+
+    @Override
+    public void destroy() {
+        reconciliationScheduler.shutdown();
+    }
+
+}
@@ -6,7 +6,11 @@ import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.theodoremeras.dissertation.authentication.CachingJwtDecoder;
 import com.theodoremeras.dissertation.utils.RSAKeyProperties;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -29,6 +33,9 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 public class SecurityConfig {
 
+    // Maximum number of verified tokens remembered by the JWT decoder
+    public static final long VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
     private final RSAKeyProperties keys;
 
     public SecurityConfig(RSAKeyProperties keys) {
@@ -59,12 +66,19 @@ public class SecurityConfig {
         // Enforce endpoint protection
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> {
+                    // Actuator endpoints, served on the management port: health checks and the metrics
+                    // scraper do not log in, while the other endpoints may reveal internals
+                    auth.requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class))
+                            .permitAll();
+                    auth.requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("Administrator");
                     auth.requestMatchers("/auth/login").permitAll();
                     auth.requestMatchers("/auth/register").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/departments/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/roles/**").permitAll();
                     auth.requestMatchers(HttpMethod.POST, "/student-information/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/users").hasAnyRole("Administrator", "Clerical_Staff", "Academic_Staff");
+                    // Any user may abort the chunked uploads they started
+                    auth.requestMatchers(HttpMethod.DELETE, "/evidence/uploads/**").authenticated();
                     auth.requestMatchers(HttpMethod.DELETE, "/**").hasRole("Administrator");
                     auth.requestMatchers(HttpMethod.POST, "/modules/**").hasRole("Administrator");
                     auth.requestMatchers(HttpMethod.PATCH, "/modules/**").hasRole("Administrator");
@@ -73,6 +87,8 @@ public class SecurityConfig {
                     auth.requestMatchers(HttpMethod.PATCH, "/users/**").hasRole("Administrator");
                     auth.requestMatchers(HttpMethod.POST, "/roles/**").hasRole("Administrator");
                     auth.requestMatchers(HttpMethod.POST, "/module-decisions/**").hasRole("Academic_Staff");
+                    auth.requestMatchers("/email-outbox/**").hasRole("Administrator");
+                    auth.requestMatchers("/email-jobs/**").hasAnyRole("Administrator", "Clerical_Staff");
                     auth.anyRequest().authenticated();
                 });
 
@@ -89,7 +105,9 @@ public class SecurityConfig {
 
     @Bean
     public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(keys.getPublicKey()).build();
+        return new CachingJwtDecoder(
+                NimbusJwtDecoder.withPublicKey(keys.getPublicKey()).build(), VERIFIED_TOKEN_CACHE_SIZE
+        );
     }
 
     @Bean
@@ -1,13 +1,96 @@
 package com.theodoremeras.dissertation.conf;
 
 import lombok.Getter;
+import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
 
 @ConfigurationProperties("storage")
 @Getter
+@Setter
 public class StorageProperties {
 
-    // Folder location for uploading files
+    public enum Backend {
+        // Files under the location folder
+        FILESYSTEM,
+        // Objects in an S3-compatible object store, shared by every instance of the application
+        S3
+    }
+
+    // Where the content of evidence files is kept
+    private Backend backend = Backend.FILESYSTEM;
+
+    // Folder location for uploading files; also holds chunked uploads in progress when evidence is kept in S3
     private final String location = "uploaded-evidence";
 
+    private S3 s3 = new S3();
+
+    private Reconciliation reconciliation = new Reconciliation();
+
+    /*
+        Store files under the hash of their content, so that identical uploads share one file.
+        When disabled, every upload is written to its own file directly under the location folder
+     */
+    private boolean contentAddressed = true;
+
+    // Largest file accepted by chunked uploads, the same as the limit on multipart uploads
+    private DataSize maxUploadSize = DataSize.ofMegabytes(50);
+
+    // Number of chunked uploads that a single user may have in progress at the same time
+    private int maxUploadsPerUser = 3;
+
+    // Chunked uploads that receive nothing for this long are abandoned, and their partial file is removed
+    private Duration uploadExpiry = Duration.ofHours(24);
+
+    @Getter
+    @Setter
+    public static class S3 {
+
+        // Leave unset for AWS; set to the address of any other S3-compatible store, e.g. MinIO
+        private URI endpoint;
+
+        private String region = "us-east-1";
+
+        private String bucket;
+
+        /*
+            Prepended to the key of every object, so that the bucket can be shared with other data.
+            Stored files are only reconciled when it is set, as otherwise any object in the bucket could be taken
+            for an unreferenced evidence file
+         */
+        private String keyPrefix = "";
+
+        // Leave unset to use the default AWS credentials (environment, instance profile, ...)
+        private String accessKey;
+
+        private String secretKey;
+
+        // Address objects as endpoint/bucket/key rather than bucket.endpoint/key, as MinIO expects by default
+        private boolean pathStyleAccess = true;
+
+        // Size of the parts that files are uploaded in, and so the memory used per file being stored
+        private DataSize partSize = DataSize.ofMegabytes(8);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Reconciliation {
+
+        // Periodically remove stored files that no evidence refers to, and report evidence whose file is missing
+        private boolean enabled = true;
+
+        private Duration interval = Duration.ofHours(1);
+
+        // Files modified more recently than this are left alone, as their evidence may not have been saved yet
+        private Duration gracePeriod = Duration.ofHours(24);
+
+        // Number of files, and of evidence rows, checked against each other at a time
+        private int batchSize = 500;
+
+    }
+
 }
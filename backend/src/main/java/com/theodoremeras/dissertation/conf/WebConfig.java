@@ -1,15 +1,45 @@
 package com.theodoremeras.dissertation.conf;
 
+import com.theodoremeras.dissertation.authentication.CurrentUserArgumentResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
+    // How long a streamed response (e.g. an evidence bundle) may take to be sent
+    public static final Duration ASYNC_REQUEST_TIMEOUT = Duration.ofMinutes(10);
+
+    private final ObjectProvider<AsyncTaskExecutor> taskExecutor;
+
+    public WebConfig(ObjectProvider<AsyncTaskExecutor> taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    // Streamed responses are written by the application's pooled task executor
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(ASYNC_REQUEST_TIMEOUT.toMillis());
+        taskExecutor.ifUnique(configurer::setTaskExecutor);
+    }
+
+    // Resolve @CurrentUser controller parameters from the request's JWT
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+
     // Enable CORS for all HTTP methods
     @Override
     public void addCorsMappings(CorsRegistry registry) {
@@ -0,0 +1,399 @@
+package com.theodoremeras.dissertation.dataset;
+
+import com.theodoremeras.dissertation.conf.DatasetProperties;
+import com.theodoremeras.dissertation.ec_application.EcApplicationStatus;
+import com.theodoremeras.dissertation.evidence.EvidenceStorage;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/*
+    Bulk-loads a synthetic dataset of the size given by DatasetProperties, as a known baseline for load and
+    capacity tests. Rows are written with batched JDBC inserts rather than through JPA, one batch of EC
+    applications (with their module requests, decisions and evidence) per transaction, so memory use does
+    not grow with the size of the dataset. Each table's ids are reserved past its sequence, and the sequence
+    is moved past them, so the application goes on allocating ids that do not clash with the generated ones.
+    Loaded into the same database, the same properties always produce the same rows; loading a second
+    dataset into a database is refused
+ */
+@Component
+@Profile("dataset")
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    // Domain of the generated users' emails, which marks a database as already holding a dataset
+    public static final String EMAIL_DOMAIN = "@dataset.test";
+
+    // Allocation size of the application's id sequences, see V1__init.sql
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final LocalDate FIRST_SUBMISSION_DATE = LocalDate.of(2023, 9, 1);
+
+    private static final int SUBMISSION_PERIOD_DAYS = 730;
+
+    private static final String[] REQUESTED_OUTCOMES = {"Extension", "Deferral", "Late submission without penalty"};
+
+    private static final String INSERT_DEPARTMENT =
+            "INSERT INTO department (id, name, version) VALUES (?, ?, 0)";
+
+    private static final String INSERT_MODULE =
+            "INSERT INTO module (code, name, department_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_USER =
+            "INSERT INTO _user (id, name, email, password, is_approved, role_id, department_id, version) " +
+                    "VALUES (?, ?, ?, ?, TRUE, ?, ?, 0)";
+
+    private static final String INSERT_STUDENT_INFORMATION =
+            "INSERT INTO student_information " +
+                    "(id, has_health_issues, has_disability, has_lsp, additional_details, student_id, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_EC_APPLICATION =
+            "INSERT INTO ec_application (id, circumstances_details, affected_date_start, affected_date_end, " +
+                    "submitted_on, requires_further_evidence, is_referred, status, student_id, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final int[] EC_APPLICATION_TYPES = {
+            Types.INTEGER, Types.VARCHAR, Types.DATE, Types.DATE, Types.DATE,
+            Types.BOOLEAN, Types.BOOLEAN, Types.VARCHAR, Types.INTEGER
+    };
+
+    private static final String INSERT_MODULE_REQUEST =
+            "INSERT INTO module_outcome_request (id, requested_outcome, related_assessment, " +
+                    "approval_count, rejection_count, final_outcome, application_id, module_code) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] MODULE_REQUEST_TYPES = {
+            Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.INTEGER, Types.BOOLEAN, Types.INTEGER, Types.VARCHAR
+    };
+
+    private static final String INSERT_MODULE_DECISION =
+            "INSERT INTO module_request_decision " +
+                    "(id, comments, is_approved, module_request_id, staff_id, application_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_EVIDENCE =
+            "INSERT INTO evidence (id, file_name, content_hash, application_id) VALUES (?, ?, NULL, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EvidenceStorage storage;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final DatasetProperties properties;
+
+    public DatasetGenerator(
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            EvidenceStorage storage, PasswordEncoder passwordEncoder, DatasetProperties properties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.storage = storage;
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+    }
+
+    public void generate() throws IOException {
+        int departments = properties.getDepartments();
+        if (departments < 1 || properties.getModulesPerDepartment() < 1)
+            throw new IllegalArgumentException("The dataset needs at least one department with a module");
+        if (properties.getStudents() < departments || properties.getStaffMembers() < departments)
+            throw new IllegalArgumentException("Every department needs at least one student and one staff member");
+
+        Integer generatedUsers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM _user WHERE email LIKE ?", Integer.class, "%" + EMAIL_DOMAIN
+        );
+        if (generatedUsers != null && generatedUsers > 0)
+            throw new IllegalStateException("The database already holds a generated dataset");
+
+        Random random = new Random(properties.getSeed());
+
+        int studentRoleId = findOrCreateRole("Student");
+        int staffRoleId = findOrCreateRole("Academic_Staff");
+        int clericalStaffRoleId = findOrCreateRole("Clerical_Staff");
+
+        int firstDepartmentId = insertDepartmentsAndModules();
+        int firstStudentId = insertUsers("student", properties.getStudents(), studentRoleId, firstDepartmentId, random);
+        int firstStaffId = insertUsers("staff", properties.getStaffMembers(), staffRoleId, firstDepartmentId, random);
+        insertUsers(
+                "clerical", properties.getClericalStaffMembers(), clericalStaffRoleId, firstDepartmentId, random
+        );
+        insertEcApplications(firstStudentId, firstStaffId, random);
+
+        log.info("Generated a dataset of {} students, {} academic and {} clerical staff members, " +
+                        "{} EC applications, {} module requests, {} module decisions and {} evidence",
+                properties.getStudents(), properties.getStaffMembers(), properties.getClericalStaffMembers(),
+                properties.getEcApplications(),
+                properties.getModuleRequests(), properties.getModuleDecisions(), properties.getEvidence());
+    }
+
+    /*
+        Reserve count consecutive ids of the given table, past both the ids already in it and those that
+        the application may have allocated from its sequence. The sequence is moved past the reserved ids
+        straight away, as the application uses every id up to the value that the sequence hands out
+     */
+    private int reserveIds(String table, String sequence, int count) {
+        Integer sequenceValue = jdbcTemplate.queryForObject("SELECT NEXTVAL('" + sequence + "')", Integer.class);
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Integer.class);
+        int firstId = Math.max(sequenceValue, maxId) + 1;
+
+        jdbcTemplate.execute(
+                "ALTER SEQUENCE " + sequence + " RESTART WITH " + (firstId + count + SEQUENCE_INCREMENT)
+        );
+        return firstId;
+    }
+
+    private int findOrCreateRole(String name) {
+        List<Integer> roleIds = jdbcTemplate.queryForList("SELECT id FROM role WHERE name = ?", Integer.class, name);
+        if (!roleIds.isEmpty())
+            return roleIds.get(0);
+
+        int roleId = reserveIds("role", "role_seq", 1);
+        jdbcTemplate.update("INSERT INTO role (id, name) VALUES (?, ?)", roleId, name);
+        return roleId;
+    }
+
+    // Insert the departments and their modules, returning the id of the first department
+    private int insertDepartmentsAndModules() {
+        int departments = properties.getDepartments();
+        int firstDepartmentId = reserveIds("department", "department_seq", departments);
+
+        List<Object[]> departmentRows = new ArrayList<>();
+        List<Object[]> moduleRows = new ArrayList<>();
+        for (int department = 0; department < departments; department++) {
+            int departmentId = firstDepartmentId + department;
+            departmentRows.add(new Object[]{departmentId, "Dataset Department " + department});
+
+            for (int module = 0; module < properties.getModulesPerDepartment(); module++)
+                moduleRows.add(new Object[]{moduleCode(department, module), "Dataset Module " + module, departmentId});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            batchInsert(INSERT_DEPARTMENT, departmentRows, null);
+            batchInsert(INSERT_MODULE, moduleRows, null);
+        });
+
+        return firstDepartmentId;
+    }
+
+    private static String moduleCode(int department, int module) {
+        return String.format("DS%03d%03d", department, module);
+    }
+
+    /*
+        Insert count users with the given role, the index-th of them in department index % departments,
+        together with the student information of students. Returns the id of the first user
+     */
+    private int insertUsers(String kind, int count, int roleId, int firstDepartmentId, Random random) {
+        boolean students = kind.equals("student");
+        int firstUserId = reserveIds("_user", "_user_seq", count);
+        int firstStudentInformationId =
+                students ? reserveIds("student_information", "student_information_seq", count) : 0;
+
+        // BCrypt is slow by design, so every user shares the hash of the same password
+        String passwordHash = passwordEncoder.encode(properties.getPassword());
+
+        for (int start = 0; start < count; start += properties.getBatchSize()) {
+            int end = Math.min(count, start + properties.getBatchSize());
+
+            List<Object[]> userRows = new ArrayList<>();
+            List<Object[]> studentInformationRows = new ArrayList<>();
+            for (int index = start; index < end; index++) {
+                int userId = firstUserId + index;
+                userRows.add(new Object[]{
+                        userId, "Dataset " + kind + " " + index, kind + index + EMAIL_DOMAIN, passwordHash,
+                        roleId, firstDepartmentId + index % properties.getDepartments()
+                });
+
+                if (students)
+                    studentInformationRows.add(new Object[]{
+                            firstStudentInformationId + index, random.nextInt(5) == 0, random.nextInt(10) == 0,
+                            random.nextInt(10) == 0, "Synthetic details of student " + index, userId
+                    });
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                batchInsert(INSERT_USER, userRows, null);
+                batchInsert(INSERT_STUDENT_INFORMATION, studentInformationRows, null);
+            });
+        }
+
+        return firstUserId;
+    }
+
+    private void insertEcApplications(int firstStudentId, int firstStaffId, Random random) throws IOException {
+        int departments = properties.getDepartments();
+        int modulesPerDepartment = properties.getModulesPerDepartment();
+        int ecApplications = properties.getEcApplications();
+        int moduleRequests = properties.getModuleRequests();
+
+        int firstEcApplicationId = reserveIds("ec_application", "ec_application_seq", ecApplications);
+        int firstModuleRequestId = reserveIds("module_outcome_request", "module_outcome_request_seq", moduleRequests);
+        int firstModuleDecisionId =
+                reserveIds("module_request_decision", "module_request_decision_seq", properties.getModuleDecisions());
+        int firstEvidenceId = reserveIds("evidence", "evidence_seq", properties.getEvidence());
+
+        byte[] placeholderContent = placeholderContent();
+
+        // Indexes of the next module request, module decision and evidence
+        int moduleRequest = 0;
+        int moduleDecision = 0;
+        int evidence = 0;
+
+        for (int start = 0; start < ecApplications; start += properties.getBatchSize()) {
+            int end = Math.min(ecApplications, start + properties.getBatchSize());
+
+            List<Object[]> ecApplicationRows = new ArrayList<>();
+            List<Object[]> moduleRequestRows = new ArrayList<>();
+            List<Object[]> moduleDecisionRows = new ArrayList<>();
+            List<Object[]> evidenceRows = new ArrayList<>();
+
+            for (int ecApplication = start; ecApplication < end; ecApplication++) {
+                int ecApplicationId = firstEcApplicationId + ecApplication;
+                int student = random.nextInt(properties.getStudents());
+                int department = student % departments;
+                // Staff members of the department are those whose index is department, department + departments, ...
+                int departmentStaffMembers =
+                        (properties.getStaffMembers() - department + departments - 1) / departments;
+
+                boolean hasDecisions = false;
+                boolean hasUndecidedModuleRequests = false;
+
+                int firstModule = random.nextInt(modulesPerDepartment);
+                int requestCount = share(moduleRequests, ecApplications, ecApplication);
+                for (int request = 0; request < requestCount; request++, moduleRequest++) {
+                    int moduleRequestId = firstModuleRequestId + moduleRequest;
+
+                    // The decisions on a request are made by different staff members, where there are enough of them
+                    int firstStaffMember = random.nextInt(departmentStaffMembers);
+                    int approvalCount = 0;
+                    int rejectionCount = 0;
+                    Boolean finalOutcome = null;
+
+                    int decisionCount = share(properties.getModuleDecisions(), moduleRequests, moduleRequest);
+                    for (int decision = 0; decision < decisionCount; decision++, moduleDecision++) {
+                        int staffMember =
+                                department + departments * ((firstStaffMember + decision) % departmentStaffMembers);
+                        boolean isApproved = random.nextInt(4) != 0;
+
+                        // Tallied as ModuleDecisionService would, the first outcome to reach the quorum being final
+                        if (isApproved)
+                            approvalCount++;
+                        else
+                            rejectionCount++;
+                        if (finalOutcome == null && approvalCount >= ModuleDecisionService.DECISION_QUORUM)
+                            finalOutcome = true;
+                        else if (finalOutcome == null && rejectionCount >= ModuleDecisionService.DECISION_QUORUM)
+                            finalOutcome = false;
+
+                        moduleDecisionRows.add(new Object[]{
+                                firstModuleDecisionId + moduleDecision, "Synthetic decision " + moduleDecision,
+                                isApproved, moduleRequestId, firstStaffId + staffMember, ecApplicationId
+                        });
+                    }
+
+                    hasDecisions |= decisionCount > 0;
+                    hasUndecidedModuleRequests |= finalOutcome == null;
+
+                    moduleRequestRows.add(new Object[]{
+                            moduleRequestId, REQUESTED_OUTCOMES[random.nextInt(REQUESTED_OUTCOMES.length)],
+                            "Assessment " + (1 + random.nextInt(3)), approvalCount, rejectionCount, finalOutcome,
+                            ecApplicationId, moduleCode(department, (firstModule + request) % modulesPerDepartment)
+                    });
+                }
+
+                int evidenceCount = share(properties.getEvidence(), ecApplications, ecApplication);
+                for (int file = 0; file < evidenceCount; file++, evidence++) {
+                    int evidenceId = firstEvidenceId + evidence;
+                    evidenceRows.add(new Object[]{
+                            evidenceId, "dataset-evidence-" + evidenceId + ".pdf", ecApplicationId
+                    });
+                }
+
+                // Only referred applications reach academic staff, so only they have decisions
+                Boolean isReferred = hasDecisions ? Boolean.TRUE :
+                        switch (random.nextInt(4)) {
+                            case 0 -> Boolean.TRUE;
+                            case 1 -> Boolean.FALSE;
+                            default -> null;
+                        };
+                boolean requiresFurtherEvidence = random.nextInt(10) == 0;
+                EcApplicationStatus status =
+                        EcApplicationStatus.of(isReferred, requiresFurtherEvidence, hasUndecidedModuleRequests);
+
+                LocalDate submittedOn = FIRST_SUBMISSION_DATE.plusDays(random.nextInt(SUBMISSION_PERIOD_DAYS));
+                LocalDate affectedDateStart = submittedOn.minusDays(1 + random.nextInt(60));
+                LocalDate affectedDateEnd = affectedDateStart.plusDays(random.nextInt(15));
+
+                ecApplicationRows.add(new Object[]{
+                        ecApplicationId, "Synthetic circumstances of application " + ecApplication,
+                        Date.valueOf(affectedDateStart), Date.valueOf(affectedDateEnd), Date.valueOf(submittedOn),
+                        requiresFurtherEvidence, isReferred, status.name(), firstStudentId + student
+                });
+            }
+
+            // Files are stored before their evidence, so that no evidence is ever without its file
+            if (properties.isCreateEvidenceFiles())
+                for (Object[] evidenceRow : evidenceRows)
+                    storage.store((String) evidenceRow[1], new ByteArrayInputStream(placeholderContent));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                batchInsert(INSERT_EC_APPLICATION, ecApplicationRows, EC_APPLICATION_TYPES);
+                batchInsert(INSERT_MODULE_REQUEST, moduleRequestRows, MODULE_REQUEST_TYPES);
+                batchInsert(INSERT_MODULE_DECISION, moduleDecisionRows, null);
+                batchInsert(INSERT_EVIDENCE, evidenceRows, null);
+            });
+
+            log.info("Inserted {} of {} EC applications", end, ecApplications);
+        }
+    }
+
+    // Number of the total items that belong to the index-th of count owners, spreading the items evenly
+    private static int share(long total, int count, int index) {
+        return (int) ((index + 1) * total / count - index * total / count);
+    }
+
+    // Content of every placeholder evidence file: a PDF header padded to the configured size
+    private byte[] placeholderContent() {
+        byte[] header = "%PDF-1.4\n% Placeholder evidence generated for load testing\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[Math.max(header.length, (int) properties.getEvidenceFileSize().toBytes())];
+        Arrays.fill(content, (byte) ' ');
+        System.arraycopy(header, 0, content, 0, header.length);
+        return content;
+    }
+
+    // Types are given for statements with nullable columns, whose type can not be told from a null value
+    private void batchInsert(String sql, List<Object[]> rows, int[] types) {
+        if (rows.isEmpty())
+            return;
+
+        if (types == null)
+            jdbcTemplate.batchUpdate(sql, rows);
+        else
+            jdbcTemplate.batchUpdate(sql, rows, types);
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.theodoremeras.dissertation.department;
 
 
+import com.theodoremeras.dissertation.utils.VersionETagUtility;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
@@ -49,22 +52,27 @@ public class DepartmentController {
         Optional<DepartmentEntity> foundDepartment = departmentService.findOneById(id);
         return foundDepartment.map(departmentEntity -> {
             DepartmentDto departmentDto = departmentMapper.mapToDto(departmentEntity);
-            return new ResponseEntity<>(departmentDto, HttpStatus.OK);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .eTag(VersionETagUtility.toETag(departmentEntity.getVersion()))
+                    .body(departmentDto);
         }).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
 
     @PatchMapping(path = "/departments/{id}")
     public ResponseEntity<DepartmentDto> partialUpdateDepartment(
-            @PathVariable("id") Integer id, @RequestBody DepartmentDto departmentDto
+            @PathVariable("id") Integer id, @RequestBody DepartmentDto departmentDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        if (!departmentService.exists(id))
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
         departmentDto.setId(id);
         DepartmentEntity departmentEntity = departmentMapper.mapFromDto(departmentDto);
-        DepartmentEntity updatedDepartmentEntity = departmentService.partialUpdate(id, departmentEntity);
-        return new ResponseEntity<>(departmentMapper.mapToDto(updatedDepartmentEntity), HttpStatus.OK);
+
+        // Nothing is returned if there is no department with this id
+        return departmentService.partialUpdate(id, departmentEntity, VersionETagUtility.parseIfMatch(ifMatch))
+                .map(updatedDepartmentEntity -> ResponseEntity.status(HttpStatus.OK)
+                        .eTag(VersionETagUtility.toETag(updatedDepartmentEntity.getVersion()))
+                        .body(departmentMapper.mapToDto(updatedDepartmentEntity)))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping(path = "/departments/{id}")
@@ -73,6 +81,13 @@ public class DepartmentController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // Thrown when an If-Match header names a version of the department that has since been updated
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public Map<String, String> handleOptimisticLockingExceptions(ObjectOptimisticLockingFailureException ex) {
+        return Map.of("version", "The department has been updated since it was read");
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, String> handleValidationExceptions(
@@ -16,4 +16,7 @@ public class DepartmentDto {
 
     @NotBlank
     private String name;
+
+    // Read-only; can be sent back as an If-Match header when updating
+    private Long version;
 }
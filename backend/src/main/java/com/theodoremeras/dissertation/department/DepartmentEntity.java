@@ -1,11 +1,15 @@
 package com.theodoremeras.dissertation.department;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.util.Objects;
@@ -17,6 +21,8 @@ import java.util.Objects;
 @NoArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "department")
 public class DepartmentEntity {
 
@@ -27,6 +33,10 @@ public class DepartmentEntity {
     @NotNull
     private String name;
 
+    // Incremented by every update, so that updates based on a stale copy can be rejected
+    @Version
+    private long version;
+
     @Generated
     @Override
     public final boolean equals(Object o) {
@@ -9,6 +9,7 @@ public class DepartmentMapper {
         return DepartmentDto.builder()
                 .id(departmentEntity.getId())
                 .name(departmentEntity.getName())
+                .version(departmentEntity.getVersion())
                 .build();
 
     }
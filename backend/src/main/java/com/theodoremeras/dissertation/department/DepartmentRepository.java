@@ -1,8 +1,19 @@
 package com.theodoremeras.dissertation.department;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
+// Departments are reference data, so the list of all departments is kept in the query cache
 @Repository
 public interface DepartmentRepository extends JpaRepository<DepartmentEntity, Integer> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<DepartmentEntity> findAll();
+
 }
@@ -1,8 +1,12 @@
 package com.theodoremeras.dissertation.department;
 
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -10,10 +14,14 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
 
-    public DepartmentService(DepartmentRepository departmentRepository) {
+    private final PartialUpdater partialUpdater;
+
+    public DepartmentService(DepartmentRepository departmentRepository, PartialUpdater partialUpdater) {
         this.departmentRepository = departmentRepository;
+        this.partialUpdater = partialUpdater;
     }
 
+    @Transactional
     public DepartmentEntity save(DepartmentEntity departmentEntity) {
         return departmentRepository.save(departmentEntity);
     }
@@ -26,19 +34,35 @@ public class DepartmentService {
         return departmentRepository.findById(id);
     }
 
+    // Reference to the department for use as a foreign key, without loading it
+    public DepartmentEntity getReferenceById(Integer id) {
+        return departmentRepository.getReferenceById(id);
+    }
+
     public Boolean exists(Integer id) {
         return departmentRepository.existsById(id);
     }
 
-    public DepartmentEntity partialUpdate(Integer id, DepartmentEntity departmentEntity) {
-        departmentEntity.setId(id);
+    /*
+        Write the supplied fields in a single UPDATE statement and read the department back, or return
+        nothing if there is no such department. The UPDATE evicts the cached departments. If an expected
+        version is given and the department has been updated since, nothing is written and an
+        ObjectOptimisticLockingFailureException is thrown
+     */
+    @Transactional
+    public Optional<DepartmentEntity> partialUpdate(
+            Integer id, DepartmentEntity departmentEntity, Long expectedVersion
+    ) {
+        Map<String, Object> values = new HashMap<>();
+        Optional.ofNullable(departmentEntity.getName()).ifPresent(name -> values.put("name", name));
 
-        return departmentRepository.findById(id).map(existingDepartment -> {
-            Optional.ofNullable(departmentEntity.getName()).ifPresent(existingDepartment::setName);
-            return departmentRepository.save(existingDepartment);
-        }).orElseThrow(() -> new RuntimeException("Could not find department with id " + id));
+        if (!partialUpdater.update(DepartmentEntity.class, "id", id, expectedVersion, values))
+            return Optional.empty();
+
+        return departmentRepository.findById(id);
     }
 
+    @Transactional
     public void delete(Integer id) {
         departmentRepository.deleteById(id);
     }
@@ -1,12 +1,16 @@
 package com.theodoremeras.dissertation.ec_application;
 
-import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.authentication.AuthenticatedUser;
+import com.theodoremeras.dissertation.authentication.CurrentUser;
 import com.theodoremeras.dissertation.user.UserService;
+import com.theodoremeras.dissertation.utils.ConstraintViolationUtility;
+import com.theodoremeras.dissertation.utils.VersionETagUtility;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
@@ -20,22 +24,29 @@ import java.util.stream.Collectors;
 @RestController
 public class EcApplicationController {
 
+    // Upper bound on the number of EC applications returned in a single page
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final EcApplicationService ecApplicationService;
 
+    private final EcApplicationDetailsService ecApplicationDetailsService;
+
+    private final EcApplicationDeletionService ecApplicationDeletionService;
+
     private final UserService userService;
 
     private final EcApplicationMapper ecApplicationMapper;
 
-    private final JwtDecoder jwtDecoder;
-
     public EcApplicationController(
-            EcApplicationService ecApplicationService, UserService userService,
-            EcApplicationMapper ecApplicationMapper, JwtDecoder jwtDecoder
+            EcApplicationService ecApplicationService, EcApplicationDetailsService ecApplicationDetailsService,
+            EcApplicationDeletionService ecApplicationDeletionService, UserService userService,
+            EcApplicationMapper ecApplicationMapper
     ) {
         this.ecApplicationService = ecApplicationService;
+        this.ecApplicationDetailsService = ecApplicationDetailsService;
+        this.ecApplicationDeletionService = ecApplicationDeletionService;
         this.userService = userService;
         this.ecApplicationMapper = ecApplicationMapper;
-        this.jwtDecoder = jwtDecoder;
     }
 
     @PostMapping(path = "/ec-applications")
@@ -46,16 +57,17 @@ public class EcApplicationController {
         ecApplicationDto.setId(null);
 
         EcApplicationEntity ecApplicationEntity = ecApplicationMapper.mapFromDto(ecApplicationDto);
+        ecApplicationEntity.setStudent(userService.getReferenceById(ecApplicationEntity.getStudent().getId()));
 
-        // Verify that the specified student exists
-        Optional<UserEntity> student = userService.findOneById(ecApplicationEntity.getStudent().getId());
-        if (student.isPresent())
-            ecApplicationEntity.setStudent(student.get());
-        else
+        // The student is not loaded; if they do not exist, the insert violates the foreign key
+        try {
+            EcApplicationEntity savedEcApplicationEntity = ecApplicationService.save(ecApplicationEntity);
+            return new ResponseEntity<>(ecApplicationMapper.mapToDto(savedEcApplicationEntity), HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        EcApplicationEntity savedEcApplicationEntity = ecApplicationService.save(ecApplicationEntity);
-        return new ResponseEntity<>(ecApplicationMapper.mapToDto(savedEcApplicationEntity), HttpStatus.CREATED);
+        }
     }
 
     @GetMapping(path = "/ec-applications")
@@ -64,12 +76,12 @@ public class EcApplicationController {
             @RequestParam(value = "studentId", required = false) Integer studentId,
             @RequestParam(value = "studentDepartmentId", required = false) Integer studentDepartmentId,
             @RequestParam(value = "isReferred", required = false) Boolean isReferred,
-            @RequestHeader(name = "Authorization") String token
+            @RequestParam(value = "status", required = false) EcApplicationStatus status,
+            @CurrentUser AuthenticatedUser currentUser
     ) {
-        // Extract the user's id and role from the token
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        Long userId = jwt.getClaim("userId");
-        String userRole = jwt.getClaim("roles");
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
 
         List<EcApplicationEntity> ecApplicationEntities;
 
@@ -89,6 +101,16 @@ public class EcApplicationController {
             else
                 ecApplicationEntities = ecApplicationService.findAllByStudentId(studentId);
 
+        // Fetch all EC applications submitted by students who belong to the specified department
+        // and which are at the specified status
+        else if (studentDepartmentId != null && status != null)
+            // Students are only allowed to fetch EC applications related to them
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities =
+                        ecApplicationService.findAllByStudentDepartmentIdAndStatus(studentDepartmentId, status);
+
         // Fetch all EC applications submitted by students who belong to the specified department
         // and according to their referred status
         else if (studentDepartmentId != null && isReferred != null)
@@ -107,6 +129,14 @@ public class EcApplicationController {
             else
                 ecApplicationEntities = ecApplicationService.findAllByStudentDepartmentId(studentDepartmentId);
 
+        // Fetch all EC applications which are at the specified status
+        else if (status != null)
+            // Students are not allowed to fetch all EC applications
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService.findAllByStatus(status);
+
         // Otherwise, fetch all EC applications
         else
             // Students are not allowed to fetch all EC applications
@@ -120,15 +150,121 @@ public class EcApplicationController {
                 .collect(Collectors.toList()), HttpStatus.OK);
     }
 
+    // Paginated variant of the above, selected when a page size is requested
+    @GetMapping(path = "/ec-applications", params = "limit")
+    public ResponseEntity<EcApplicationPageDto> getEcApplicationPage(
+            @RequestParam(value = "limit") Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "ids", required = false) List<Integer> ids,
+            @RequestParam(value = "studentId", required = false) Integer studentId,
+            @RequestParam(value = "studentDepartmentId", required = false) Integer studentDepartmentId,
+            @RequestParam(value = "isReferred", required = false) Boolean isReferred,
+            @RequestParam(value = "status", required = false) EcApplicationStatus status,
+            @CurrentUser AuthenticatedUser currentUser
+    ) {
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        EcApplicationCursor position;
+        try {
+            position = (cursor == null) ? EcApplicationCursor.FIRST : EcApplicationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // Fetch one more application than requested to determine whether another page follows
+        int fetchSize = limit + 1;
+        List<EcApplicationEntity> ecApplicationEntities;
+
+        // Fetch a page of the EC applications whose id is in the provided list
+        if (ids != null)
+            // Students are not allowed to fetch all EC applications
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService.findPageByIdIn(ids, position, fetchSize);
+
+        // Fetch a page of the EC applications submitted by the student with the specified student id
+        else if (studentId != null)
+            // Students are not allowed to view EC applications made by other students
+            if (userRole.equals("Student") && userId.intValue() != studentId)
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService.findPageByStudentId(studentId, position, fetchSize);
+
+        // Fetch a page of the EC applications submitted by students who belong to the specified department
+        // and which are at the specified status
+        else if (studentDepartmentId != null && status != null)
+            // Students are only allowed to fetch EC applications related to them
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService
+                        .findPageByStudentDepartmentIdAndStatus(studentDepartmentId, status, position, fetchSize);
+
+        // Fetch a page of the EC applications submitted by students who belong to the specified department
+        // and according to their referred status
+        else if (studentDepartmentId != null && isReferred != null)
+            // Students are only allowed to fetch EC applications related to them
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService
+                        .findPageByStudentDepartmentIdAndIsReferred(studentDepartmentId, isReferred, position, fetchSize);
+
+        // Fetch a page of the EC applications submitted by students who belong to the specified department
+        else if (studentDepartmentId != null)
+            // Students are only allowed to fetch EC applications related to them
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities =
+                        ecApplicationService.findPageByStudentDepartmentId(studentDepartmentId, position, fetchSize);
+
+        // Fetch a page of the EC applications which are at the specified status
+        else if (status != null)
+            // Students are not allowed to fetch all EC applications
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService.findPageByStatus(status, position, fetchSize);
+
+        // Otherwise, fetch a page of all EC applications
+        else
+            // Students are not allowed to fetch all EC applications
+            if (userRole.equals("Student"))
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            else
+                ecApplicationEntities = ecApplicationService.findPage(position, fetchSize);
+
+        // Only hand out a cursor if there are more applications after this page
+        String nextCursor = null;
+        if (ecApplicationEntities.size() > limit) {
+            ecApplicationEntities = ecApplicationEntities.subList(0, limit);
+            nextCursor = EcApplicationCursor.after(ecApplicationEntities.get(limit - 1)).encode();
+        }
+
+        EcApplicationPageDto ecApplicationPageDto = EcApplicationPageDto.builder()
+                .items(ecApplicationEntities.stream()
+                        .map(ecApplicationMapper::mapToDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+        return new ResponseEntity<>(ecApplicationPageDto, HttpStatus.OK);
+    }
+
     @GetMapping(path = "/ec-applications/{id}")
     public ResponseEntity<EcApplicationDto> getEcApplicationById(
             @PathVariable("id") Integer id,
-            @RequestHeader(name = "Authorization") String token
+            @CurrentUser AuthenticatedUser currentUser
     ) {
-        // Extract the user's id and role from the token
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        Long userId = jwt.getClaim("userId");
-        String userRole = jwt.getClaim("roles");
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
 
         Optional<EcApplicationEntity> foundEcApplicationEntity = ecApplicationService.findOneById(id);
         if (foundEcApplicationEntity.isEmpty())
@@ -139,40 +275,86 @@ public class EcApplicationController {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
         EcApplicationDto ecApplicationDto = ecApplicationMapper.mapToDto(foundEcApplicationEntity.get());
-        return new ResponseEntity<>(ecApplicationDto, HttpStatus.OK);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(VersionETagUtility.toETag(foundEcApplicationEntity.get().getVersion()))
+                .body(ecApplicationDto);
     }
 
-    @PatchMapping(path = "/ec-applications/{id}")
-    public ResponseEntity<EcApplicationDto> partialUpdateEcApplication(
-            @PathVariable("id") Integer id, @RequestBody EcApplicationDto ecApplicationDto,
-            @RequestHeader(name = "Authorization") String token
+    @GetMapping(path = "/ec-applications/{id}/details")
+    public ResponseEntity<EcApplicationDetailsDto> getEcApplicationDetailsById(
+            @PathVariable("id") Integer id,
+            @CurrentUser AuthenticatedUser currentUser
     ) {
-        // Extract the user's id and role from the token
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        Long userId = jwt.getClaim("userId");
-        String userRole = jwt.getClaim("roles");
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
 
-        if (!ecApplicationService.exists(id))
+        Optional<EcApplicationDetailsDto> foundEcApplicationDetails = ecApplicationDetailsService.findOneById(id);
+        if (foundEcApplicationDetails.isEmpty())
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-        // Students are only allowed to update their own EC applications
+        // Students are only allowed to view the details of their own EC applications
         if (userRole.equals("Student") &&
-                ecApplicationService.findOneById(id).get().getStudent().getId() != userId.intValue()) {
+                userId.intValue() != foundEcApplicationDetails.get().getEcApplication().getStudentId())
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+
+        return new ResponseEntity<>(foundEcApplicationDetails.get(), HttpStatus.OK);
+    }
+
+    @PatchMapping(path = "/ec-applications/{id}")
+    public ResponseEntity<EcApplicationDto> partialUpdateEcApplication(
+            @PathVariable("id") Integer id, @RequestBody EcApplicationDto ecApplicationDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @CurrentUser AuthenticatedUser currentUser
+    ) {
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
+
+        // Students are only allowed to update their own EC applications, so only then is the application read first
+        if (userRole.equals("Student")) {
+            Optional<EcApplicationEntity> foundEcApplicationEntity = ecApplicationService.findOneById(id);
+            if (foundEcApplicationEntity.isEmpty())
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            if (foundEcApplicationEntity.get().getStudent().getId() != userId.intValue())
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
         ecApplicationDto.setId(id);
         EcApplicationEntity ecApplicationEntity = ecApplicationMapper.mapFromDto(ecApplicationDto);
-        EcApplicationEntity updatedEcApplicationEntity = ecApplicationService.partialUpdate(id, ecApplicationEntity);
-        return new ResponseEntity<>(ecApplicationMapper.mapToDto(updatedEcApplicationEntity), HttpStatus.OK);
+
+        // Nothing is returned if there is no EC application with this id
+        return ecApplicationService.partialUpdate(id, ecApplicationEntity, VersionETagUtility.parseIfMatch(ifMatch))
+                .map(updatedEcApplicationEntity -> ResponseEntity.status(HttpStatus.OK)
+                        .eTag(VersionETagUtility.toETag(updatedEcApplicationEntity.getVersion()))
+                        .body(ecApplicationMapper.mapToDto(updatedEcApplicationEntity)))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    // Delete the EC application along with its module requests, their decisions and its evidence
     @DeleteMapping(path = "/ec-applications/{id}")
     public ResponseEntity<String> deleteEcApplication(@PathVariable("id") Integer id) {
-        ecApplicationService.delete(id);
+        ecApplicationDeletionService.delete(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // Delete many EC applications at once, e.g. when cleaning up test data
+    @DeleteMapping(path = "/ec-applications", params = "ids")
+    public ResponseEntity<String> deleteEcApplications(@RequestParam("ids") List<Integer> ids) {
+        if (ids.size() > EcApplicationDeletionService.MAX_BATCH_SIZE)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        ecApplicationDeletionService.deleteAll(ids);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // Thrown when an If-Match header names a version of the EC application that has since been updated
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public Map<String, String> handleOptimisticLockingExceptions(ObjectOptimisticLockingFailureException ex) {
+        return Map.of("version", "The EC application has been updated since it was read");
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, String> handleValidationExceptions(
@@ -0,0 +1,54 @@
+package com.theodoremeras.dissertation.ec_application;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/*
+    Position of the last EC application returned in a page, used for keyset pagination.
+    Applications are ordered by (submittedOn DESC, id DESC), so the next page starts
+    strictly after this (submittedOn, id) pair
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class EcApplicationCursor {
+
+    // Position before the newest possible application, used when fetching the first page
+    public static final EcApplicationCursor FIRST = new EcApplicationCursor(LocalDate.of(9999, 12, 31), Integer.MAX_VALUE);
+
+    private final LocalDate submittedOn;
+
+    private final Integer id;
+
+    public static EcApplicationCursor after(EcApplicationEntity ecApplicationEntity) {
+        return new EcApplicationCursor(ecApplicationEntity.getSubmittedOn(), ecApplicationEntity.getId());
+    }
+
+    // Encode the cursor as an opaque, URL-safe token
+    public String encode() {
+        String raw = submittedOn + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EcApplicationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("_");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+
+            return new EcApplicationCursor(LocalDate.parse(parts[0]), Integer.valueOf(parts[1]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+
+}
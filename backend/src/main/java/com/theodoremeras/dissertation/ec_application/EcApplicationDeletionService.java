@@ -0,0 +1,102 @@
+package com.theodoremeras.dissertation.ec_application;
+
+import com.theodoremeras.dissertation.evidence.EvidenceEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceRepository;
+import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionRepository;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/*
+    Deletes EC applications together with everything that refers to them. Each table is cleared with a
+    single DELETE ... WHERE application_id IN (...) statement, in foreign key order (module decisions,
+    module requests, evidence and finally the applications), instead of loading and deleting every row.
+    The stored evidence files are removed in the background once the transaction has committed, so a
+    rolled back deletion never leaves evidence whose file is gone
+ */
+@Service
+public class EcApplicationDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(EcApplicationDeletionService.class);
+
+    // Upper bound on the number of EC applications deleted in a single call
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final EcApplicationRepository ecApplicationRepository;
+
+    private final ModuleRequestRepository moduleRequestRepository;
+
+    private final ModuleDecisionRepository moduleDecisionRepository;
+
+    private final EvidenceRepository evidenceRepository;
+
+    private final EvidenceService evidenceService;
+
+    private final TaskExecutor taskExecutor;
+
+    public EcApplicationDeletionService(
+            EcApplicationRepository ecApplicationRepository, ModuleRequestRepository moduleRequestRepository,
+            ModuleDecisionRepository moduleDecisionRepository, EvidenceRepository evidenceRepository,
+            EvidenceService evidenceService,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor
+    ) {
+        this.ecApplicationRepository = ecApplicationRepository;
+        this.moduleRequestRepository = moduleRequestRepository;
+        this.moduleDecisionRepository = moduleDecisionRepository;
+        this.evidenceRepository = evidenceRepository;
+        this.evidenceService = evidenceService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Transactional
+    public void delete(Integer id) {
+        deleteAll(List.of(id));
+    }
+
+    // Delete the given EC applications and everything referring to them; returns the number of applications deleted
+    @Transactional
+    public int deleteAll(List<Integer> ids) {
+        List<Integer> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.isEmpty())
+            return 0;
+
+        // The evidence is read first, as its files can only be found through the rows that are about to be deleted
+        List<EvidenceEntity> deletedEvidence = evidenceRepository.findAllByEcApplicationIdIn(distinctIds);
+
+        moduleDecisionRepository.deleteAllByEcApplicationIdIn(distinctIds);
+        moduleRequestRepository.deleteAllByEcApplicationIdIn(distinctIds);
+        evidenceRepository.deleteAllByEcApplicationIdIn(distinctIds);
+        int deleted = ecApplicationRepository.deleteAllByIdIn(distinctIds);
+
+        if (!deletedEvidence.isEmpty())
+            deleteStoredFilesAfterCommit(deletedEvidence);
+
+        return deleted;
+    }
+
+    private void deleteStoredFilesAfterCommit(List<EvidenceEntity> deletedEvidence) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    taskExecutor.execute(() -> evidenceService.deleteStoredFiles(deletedEvidence));
+                } catch (TaskRejectedException e) {
+                    // The rows are already gone; the files are left behind rather than failing the request
+                    log.warn("Could not queue the removal of {} evidence files", deletedEvidence.size(), e);
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.theodoremeras.dissertation.ec_application;
+
+import com.theodoremeras.dissertation.evidence.EvidenceDto;
+import com.theodoremeras.dissertation.module.ModuleDto;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionDto;
+import com.theodoremeras.dissertation.module_request.ModuleRequestDto;
+import com.theodoremeras.dissertation.student_information.StudentInformationDto;
+import com.theodoremeras.dissertation.user.UserDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+    Everything needed to display a single EC application, so that
+    clients can fetch it in one request instead of one per resource
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EcApplicationDetailsDto {
+
+    private EcApplicationDto ecApplication;
+
+    private UserDto student;
+
+    // Null if the student has not provided any information
+    private StudentInformationDto studentInformation;
+
+    private List<EvidenceDto> evidence;
+
+    private List<ModuleRequestDto> moduleRequests;
+
+    // Modules for which requests have been made
+    private List<ModuleDto> modules;
+
+    private List<ModuleDecisionDto> moduleDecisions;
+
+}
@@ -0,0 +1,125 @@
+package com.theodoremeras.dissertation.ec_application;
+
+import com.theodoremeras.dissertation.evidence.EvidenceMapper;
+import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.module.ModuleMapper;
+import com.theodoremeras.dissertation.module.ModuleService;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionMapper;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionService;
+import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestMapper;
+import com.theodoremeras.dissertation.module_request.ModuleRequestService;
+import com.theodoremeras.dissertation.student_information.StudentInformationMapper;
+import com.theodoremeras.dissertation.student_information.StudentInformationService;
+import com.theodoremeras.dissertation.user.UserMapper;
+import com.theodoremeras.dissertation.user.UserService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/*
+    Assembles the full details of an EC application, issuing one query per related
+    resource (rather than one per row) within a single read-only transaction
+ */
+@Service
+public class EcApplicationDetailsService {
+
+    private final EcApplicationService ecApplicationService;
+
+    private final UserService userService;
+
+    private final StudentInformationService studentInformationService;
+
+    private final EvidenceService evidenceService;
+
+    private final ModuleRequestService moduleRequestService;
+
+    private final ModuleService moduleService;
+
+    private final ModuleDecisionService moduleDecisionService;
+
+    private final EcApplicationMapper ecApplicationMapper;
+
+    private final UserMapper userMapper;
+
+    private final StudentInformationMapper studentInformationMapper;
+
+    private final EvidenceMapper evidenceMapper;
+
+    private final ModuleRequestMapper moduleRequestMapper;
+
+    private final ModuleMapper moduleMapper;
+
+    private final ModuleDecisionMapper moduleDecisionMapper;
+
+    public EcApplicationDetailsService(
+            EcApplicationService ecApplicationService, UserService userService,
+            StudentInformationService studentInformationService, EvidenceService evidenceService,
+            ModuleRequestService moduleRequestService, ModuleService moduleService,
+            ModuleDecisionService moduleDecisionService, EcApplicationMapper ecApplicationMapper,
+            UserMapper userMapper, StudentInformationMapper studentInformationMapper,
+            EvidenceMapper evidenceMapper, ModuleRequestMapper moduleRequestMapper,
+            ModuleMapper moduleMapper, ModuleDecisionMapper moduleDecisionMapper
+    ) {
+        this.ecApplicationService = ecApplicationService;
+        this.userService = userService;
+        this.studentInformationService = studentInformationService;
+        this.evidenceService = evidenceService;
+        this.moduleRequestService = moduleRequestService;
+        this.moduleService = moduleService;
+        this.moduleDecisionService = moduleDecisionService;
+        this.ecApplicationMapper = ecApplicationMapper;
+        this.userMapper = userMapper;
+        this.studentInformationMapper = studentInformationMapper;
+        this.evidenceMapper = evidenceMapper;
+        this.moduleRequestMapper = moduleRequestMapper;
+        this.moduleMapper = moduleMapper;
+        this.moduleDecisionMapper = moduleDecisionMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<EcApplicationDetailsDto> findOneById(Integer id) {
+        Optional<EcApplicationEntity> foundEcApplication = ecApplicationService.findOneById(id);
+        if (foundEcApplication.isEmpty())
+            return Optional.empty();
+
+        EcApplicationEntity ecApplicationEntity = foundEcApplication.get();
+        Integer studentId = ecApplicationEntity.getStudent().getId();
+
+        List<ModuleRequestEntity> moduleRequestEntities =
+                moduleRequestService.findAllByEcApplicationIdIn(List.of(id));
+
+        // Fetch all modules for which requests have been made at once
+        List<String> moduleCodes = moduleRequestEntities.stream()
+                .map(moduleRequestEntity -> moduleRequestEntity.getModule().getCode())
+                .distinct()
+                .collect(Collectors.toList());
+
+        return Optional.of(EcApplicationDetailsDto.builder()
+                .ecApplication(ecApplicationMapper.mapToDto(ecApplicationEntity))
+                .student(userService.findOneById(studentId)
+                        .map(userMapper::mapToDto)
+                        .orElse(null))
+                .studentInformation(studentInformationService.findOneByStudentId(studentId)
+                        .map(studentInformationMapper::mapToDto)
+                        .orElse(null))
+                .evidence(evidenceService.findAllByApplicationId(id).stream()
+                        .map(evidenceMapper::mapToDto)
+                        .collect(Collectors.toList()))
+                .moduleRequests(moduleRequestEntities.stream()
+                        .map(moduleRequestMapper::mapToDto)
+                        .collect(Collectors.toList()))
+                .modules(moduleCodes.isEmpty() ? List.of() :
+                        moduleService.findAllByModuleCodeIn(moduleCodes).stream()
+                                .map(moduleMapper::mapToDto)
+                                .collect(Collectors.toList()))
+                .moduleDecisions(moduleDecisionService.findAllByApplicationIdIn(List.of(id)).stream()
+                        .map(moduleDecisionMapper::mapToDto)
+                        .collect(Collectors.toList()))
+                .build());
+    }
+
+}
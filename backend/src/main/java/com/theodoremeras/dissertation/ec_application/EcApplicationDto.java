@@ -33,7 +33,13 @@ public class EcApplicationDto {
 
     private Boolean isReferred;
 
+    // Read-only; derived by the server
+    private EcApplicationStatus status;
+
     @NotNull
     private Integer studentId;
 
+    // Read-only; can be sent back as an If-Match header when updating
+    private Long version;
+
 }
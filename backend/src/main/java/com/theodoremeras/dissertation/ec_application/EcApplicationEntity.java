@@ -43,12 +43,22 @@ public class EcApplicationEntity {
 
     private Boolean isReferred;
 
+    // Maintained by EcApplicationService whenever the flags above or the module decisions change
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private EcApplicationStatus status = EcApplicationStatus.SUBMITTED;
+
     // Id of student who submitted the application
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     @ToString.Exclude
     private UserEntity student;
 
+    // Incremented by every update, so that updates based on a stale copy can be rejected
+    @Version
+    private long version;
+
     @Generated
     @Override
     public final boolean equals(Object o) {
@@ -15,7 +15,9 @@ public class EcApplicationMapper {
                 .submittedOn(ecApplicationEntity.getSubmittedOn())
                 .requiresFurtherEvidence(ecApplicationEntity.getRequiresFurtherEvidence())
                 .isReferred(ecApplicationEntity.getIsReferred())
+                .status(ecApplicationEntity.getStatus())
                 .studentId(ecApplicationEntity.getStudent().getId())
+                .version(ecApplicationEntity.getVersion())
                 .build();
     }
 
@@ -0,0 +1,21 @@
+package com.theodoremeras.dissertation.ec_application;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EcApplicationPageDto {
+
+    private List<EcApplicationDto> items;
+
+    // Opaque token to pass as the cursor of the next request, null if this is the last page
+    private String nextCursor;
+
+}
@@ -1,9 +1,17 @@
 package com.theodoremeras.dissertation.ec_application;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EcApplicationRepository extends JpaRepository<EcApplicationEntity, Integer> {
@@ -16,4 +24,93 @@ public interface EcApplicationRepository extends JpaRepository<EcApplicationEnti
 
     List<EcApplicationEntity> findAllByStudentDepartmentIdAndIsReferred(Integer departmentId, Boolean isReferred);
 
+    List<EcApplicationEntity> findAllByStatus(EcApplicationStatus status);
+
+    List<EcApplicationEntity> findAllByStudentDepartmentIdAndStatus(Integer departmentId, EcApplicationStatus status);
+
+    // Lock the application row for the rest of the transaction, so status updates are serialised
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EcApplicationEntity e WHERE e.id = :id")
+    Optional<EcApplicationEntity> findByIdForUpdate(@Param("id") Integer id);
+
+    // Delete the given applications in a single statement; everything referring to them must be deleted first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM EcApplicationEntity e WHERE e.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") List<Integer> ids);
+
+    /*
+        Keyset pagination queries: each returns the applications that come strictly after the
+        given (submittedOn, id) position, ordered by (submittedOn DESC, id DESC), so the cost of
+        fetching a page does not depend on how deep into the result set it is. The redundant
+        submittedOn <= :submittedOn bound lets the database use it as an index range condition
+     */
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPage(
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.id IN :ids " +
+            "AND e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPageByIdIn(
+            @Param("ids") List<Integer> ids,
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.student.id = :studentId " +
+            "AND e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPageByStudentId(
+            @Param("studentId") Integer studentId,
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.student.department.id = :departmentId " +
+            "AND e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPageByStudentDepartmentId(
+            @Param("departmentId") Integer departmentId,
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.student.department.id = :departmentId AND e.isReferred = :isReferred " +
+            "AND e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPageByStudentDepartmentIdAndIsReferred(
+            @Param("departmentId") Integer departmentId, @Param("isReferred") Boolean isReferred,
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.status = :status " +
+            "AND e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPageByStatus(
+            @Param("status") EcApplicationStatus status,
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
+    @Query("SELECT e FROM EcApplicationEntity e " +
+            "WHERE e.student.department.id = :departmentId AND e.status = :status " +
+            "AND e.submittedOn <= :submittedOn " +
+            "AND (e.submittedOn < :submittedOn OR (e.submittedOn = :submittedOn AND e.id < :id)) " +
+            "ORDER BY e.submittedOn DESC, e.id DESC")
+    List<EcApplicationEntity> findPageByStudentDepartmentIdAndStatus(
+            @Param("departmentId") Integer departmentId, @Param("status") EcApplicationStatus status,
+            @Param("submittedOn") LocalDate submittedOn, @Param("id") Integer id, Limit limit
+    );
+
 }
@@ -1,20 +1,40 @@
 package com.theodoremeras.dissertation.ec_application;
 
+import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
+import com.theodoremeras.dissertation.utils.PartialUpdater;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class EcApplicationService {
 
     private final EcApplicationRepository ecApplicationRepository;
 
-    public EcApplicationService(EcApplicationRepository ecApplicationRepository) {
+    private final ModuleRequestRepository moduleRequestRepository;
+
+    private final PartialUpdater partialUpdater;
+
+    public EcApplicationService(
+            EcApplicationRepository ecApplicationRepository, ModuleRequestRepository moduleRequestRepository,
+            PartialUpdater partialUpdater
+    ) {
         this.ecApplicationRepository = ecApplicationRepository;
+        this.moduleRequestRepository = moduleRequestRepository;
+        this.partialUpdater = partialUpdater;
     }
 
+    @Transactional
     public EcApplicationEntity save(EcApplicationEntity ecApplicationEntity) {
+        ecApplicationEntity.setStatus(deriveStatus(ecApplicationEntity));
         return ecApplicationRepository.save(ecApplicationEntity);
     }
 
@@ -38,34 +58,161 @@ public class EcApplicationService {
         return ecApplicationRepository.findAllByStudentDepartmentIdAndIsReferred(departmentId, isReferred);
     }
 
+    public List<EcApplicationEntity> findAllByStatus(EcApplicationStatus status) {
+        return ecApplicationRepository.findAllByStatus(status);
+    }
+
+    public List<EcApplicationEntity> findAllByStudentDepartmentIdAndStatus(
+            Integer departmentId, EcApplicationStatus status
+    ) {
+        return ecApplicationRepository.findAllByStudentDepartmentIdAndStatus(departmentId, status);
+    }
+
+    public List<EcApplicationEntity> findPage(EcApplicationCursor cursor, int limit) {
+        return ecApplicationRepository.findPage(cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit));
+    }
+
+    public List<EcApplicationEntity> findPageByIdIn(List<Integer> ids, EcApplicationCursor cursor, int limit) {
+        return ecApplicationRepository.findPageByIdIn(ids, cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit));
+    }
+
+    public List<EcApplicationEntity> findPageByStudentId(Integer studentId, EcApplicationCursor cursor, int limit) {
+        return ecApplicationRepository
+                .findPageByStudentId(studentId, cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit));
+    }
+
+    public List<EcApplicationEntity> findPageByStudentDepartmentId(
+            Integer departmentId, EcApplicationCursor cursor, int limit
+    ) {
+        return ecApplicationRepository
+                .findPageByStudentDepartmentId(departmentId, cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit));
+    }
+
+    public List<EcApplicationEntity> findPageByStudentDepartmentIdAndIsReferred(
+            Integer departmentId, Boolean isReferred, EcApplicationCursor cursor, int limit
+    ) {
+        return ecApplicationRepository.findPageByStudentDepartmentIdAndIsReferred(
+                departmentId, isReferred, cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit)
+        );
+    }
+
+    public List<EcApplicationEntity> findPageByStatus(
+            EcApplicationStatus status, EcApplicationCursor cursor, int limit
+    ) {
+        return ecApplicationRepository
+                .findPageByStatus(status, cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit));
+    }
+
+    public List<EcApplicationEntity> findPageByStudentDepartmentIdAndStatus(
+            Integer departmentId, EcApplicationStatus status, EcApplicationCursor cursor, int limit
+    ) {
+        return ecApplicationRepository.findPageByStudentDepartmentIdAndStatus(
+                departmentId, status, cursor.getSubmittedOn(), cursor.getId(), Limit.of(limit)
+        );
+    }
+
     public Optional<EcApplicationEntity> findOneById(Integer id) {
         return ecApplicationRepository.findById(id);
     }
 
+    // Reference to the EC application for use as a foreign key, without loading it
+    public EcApplicationEntity getReferenceById(Integer id) {
+        return ecApplicationRepository.getReferenceById(id);
+    }
+
     public Boolean exists(Integer id) {
         return ecApplicationRepository.existsById(id);
     }
 
-    public EcApplicationEntity partialUpdate(Integer id, EcApplicationEntity ecApplicationEntity) {
-        ecApplicationEntity.setId(id);
+    /*
+        Write the supplied fields in a single UPDATE statement and read the EC application back, or
+        return nothing if there is no such application. The status is only recomputed when a field
+        that it depends on has been supplied, and then by the same statement. If an expected version is
+        given and the application has been updated since, nothing is written and an
+        ObjectOptimisticLockingFailureException is thrown
+     */
+    @Transactional
+    public Optional<EcApplicationEntity> partialUpdate(
+            Integer id, EcApplicationEntity ecApplicationEntity, Long expectedVersion
+    ) {
+        Map<String, Object> values = new HashMap<>();
+        Optional.ofNullable(ecApplicationEntity.getCircumstancesDetails())
+                .ifPresent(circumstancesDetails -> values.put("circumstancesDetails", circumstancesDetails));
+        Optional.ofNullable(ecApplicationEntity.getAffectedDateStart())
+                .ifPresent(affectedDateStart -> values.put("affectedDateStart", affectedDateStart));
+        Optional.ofNullable(ecApplicationEntity.getAffectedDateEnd())
+                .ifPresent(affectedDateEnd -> values.put("affectedDateEnd", affectedDateEnd));
+        Optional.ofNullable(ecApplicationEntity.getRequiresFurtherEvidence())
+                .ifPresent(requiresFurtherEvidence -> values.put("requiresFurtherEvidence", requiresFurtherEvidence));
+        Optional.ofNullable(ecApplicationEntity.getIsReferred())
+                .ifPresent(isReferred -> values.put("isReferred", isReferred));
+
+        Map<String, PartialUpdater.Derivation<EcApplicationEntity>> derivations = new HashMap<>();
+        if (values.containsKey("requiresFurtherEvidence") || values.containsKey("isReferred")) {
+            /*
+                A concurrent module decision can change whether the application has undecided module
+                requests. Such writes lock the application first, so taking the same lock before the
+                UPDATE makes it see their module requests; if the UPDATE were left to wait on the row, it
+                would go on with module requests as they were when it started
+             */
+            lock(id);
+            derivations.put("status", this::deriveStatus);
+        }
+
+        if (!partialUpdater.update(EcApplicationEntity.class, "id", id, expectedVersion, values, derivations))
+            return Optional.empty();
+
+        return ecApplicationRepository.findById(id);
+    }
+
+    /*
+        Lock the EC application for the rest of the current transaction. Writes that can change the
+        status of an application without going through it (e.g. module decisions) take this lock first,
+        so that concurrent writes to the same application cannot each miss the other's changes
+     */
+    @Transactional
+    public void lock(Integer id) {
+        ecApplicationRepository.findByIdForUpdate(id);
+    }
+
+    // Recompute the status of the EC application after its module requests or their decisions have changed
+    @Transactional
+    public void refreshStatus(Integer id) {
+        ecApplicationRepository.findByIdForUpdate(id)
+                .ifPresent(ecApplicationEntity -> ecApplicationEntity.setStatus(deriveStatus(ecApplicationEntity)));
+    }
+
+    private EcApplicationStatus deriveStatus(EcApplicationEntity ecApplicationEntity) {
+        // A new application cannot have any module requests yet
+        boolean hasUndecidedModuleRequests = ecApplicationEntity.getId() != null &&
+                moduleRequestRepository.existsByEcApplicationIdAndFinalOutcomeIsNull(ecApplicationEntity.getId());
 
-        return ecApplicationRepository.findById(id).map(existingEcApplication -> {
-            Optional.ofNullable(ecApplicationEntity.getCircumstancesDetails()).
-                    ifPresent(existingEcApplication::setCircumstancesDetails);
-            Optional.ofNullable(ecApplicationEntity.getAffectedDateStart()).
-                    ifPresent(existingEcApplication::setAffectedDateStart);
-            Optional.ofNullable(ecApplicationEntity.getAffectedDateEnd()).
-                    ifPresent(existingEcApplication::setAffectedDateEnd);
-            Optional.ofNullable(ecApplicationEntity.getRequiresFurtherEvidence()).
-                    ifPresent(existingEcApplication::setRequiresFurtherEvidence);
-            Optional.ofNullable(ecApplicationEntity.getIsReferred()).
-                    ifPresent(existingEcApplication::setIsReferred);
-            return ecApplicationRepository.save(existingEcApplication);
-        }).orElseThrow(() -> new RuntimeException("Could not find EC application with id " + id));
+        return EcApplicationStatus.of(
+                ecApplicationEntity.getIsReferred(),
+                ecApplicationEntity.getRequiresFurtherEvidence(),
+                hasUndecidedModuleRequests
+        );
     }
 
-    public void delete(Integer id) {
-        ecApplicationRepository.deleteById(id);
+    // Status of the EC application after a partial update, for the UPDATE statement itself to set
+    @SuppressWarnings("unchecked")
+    private Expression<?> deriveStatus(
+            CriteriaBuilder criteriaBuilder, CriteriaUpdate<EcApplicationEntity> update,
+            Function<String, Expression<?>> updatedValueOf
+    ) {
+        Subquery<Integer> undecidedModuleRequests = update.subquery(Integer.class);
+        Root<ModuleRequestEntity> moduleRequest = undecidedModuleRequests.from(ModuleRequestEntity.class);
+        undecidedModuleRequests.select(moduleRequest.get("id")).where(
+                criteriaBuilder.equal(moduleRequest.get("ecApplication"), update.getRoot()),
+                criteriaBuilder.isNull(moduleRequest.get("finalOutcome"))
+        );
+
+        return EcApplicationStatus.of(
+                criteriaBuilder,
+                (Expression<Boolean>) updatedValueOf.apply("isReferred"),
+                (Expression<Boolean>) updatedValueOf.apply("requiresFurtherEvidence"),
+                criteriaBuilder.exists(undecidedModuleRequests)
+        );
     }
 
 }
@@ -0,0 +1,58 @@
+package com.theodoremeras.dissertation.ec_application;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/*
+    Stage of an EC application, kept on the application itself so that dashboards can filter
+    on it directly instead of deriving it from the application's flags and module decisions
+ */
+public enum EcApplicationStatus {
+
+    // Submitted and waiting for a clerical staff member to refer or reject it
+    SUBMITTED,
+
+    // The student has been asked to provide further evidence
+    AWAITING_EVIDENCE,
+
+    // Referred to academic staff, with at least one module request still undecided
+    REFERRED,
+
+    // Rejected by clerical staff
+    REJECTED,
+
+    // Referred and a final decision has been made on every module request
+    CLOSED;
+
+    public static EcApplicationStatus of(
+            Boolean isReferred, Boolean requiresFurtherEvidence, boolean hasUndecidedModuleRequests
+    ) {
+        if (Boolean.FALSE.equals(isReferred))
+            return REJECTED;
+        else if (Boolean.TRUE.equals(isReferred) && !hasUndecidedModuleRequests)
+            return CLOSED;
+        else if (Boolean.TRUE.equals(requiresFurtherEvidence))
+            return AWAITING_EVIDENCE;
+        else if (Boolean.TRUE.equals(isReferred))
+            return REFERRED;
+        else
+            return SUBMITTED;
+    }
+
+    // The same as the above, as an expression for the database to evaluate; keep the two in step
+    public static Expression<EcApplicationStatus> of(
+            CriteriaBuilder criteriaBuilder, Expression<Boolean> isReferred, Expression<Boolean> requiresFurtherEvidence,
+            Predicate hasUndecidedModuleRequests
+    ) {
+        return criteriaBuilder.<EcApplicationStatus>selectCase()
+                .when(criteriaBuilder.isFalse(isReferred), REJECTED)
+                .when(criteriaBuilder.and(
+                        criteriaBuilder.isTrue(isReferred), hasUndecidedModuleRequests.not()
+                ), CLOSED)
+                .when(criteriaBuilder.isTrue(requiresFurtherEvidence), AWAITING_EVIDENCE)
+                .when(criteriaBuilder.isTrue(isReferred), REFERRED)
+                .otherwise(SUBMITTED);
+    }
+
+}
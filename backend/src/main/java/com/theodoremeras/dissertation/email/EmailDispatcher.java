@@ -0,0 +1,174 @@
+package com.theodoremeras.dissertation.email;
+
+import com.theodoremeras.dissertation.conf.EmailOutboxProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Sends the emails queued in the outbox. Each batch of due emails is locked, sent over a single
+    SMTP connection and updated in one transaction, so that instances running side by side never
+    send the same email twice. Emails that fail are retried with exponential backoff until they
+    reach the maximum number of attempts, after which they are marked as failed
+ */
+@Component
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    // Longest error message kept on an email, matching the length of its column
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    private final JavaMailSender mailSender;
+
+    private final EmailOutboxProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Time taken to send each batch over its SMTP connection, by whether every email of it was sent
+    private final Timer sendSuccessTimer;
+
+    private final Timer sendFailureTimer;
+
+    public EmailDispatcher(
+            EmailOutboxRepository emailOutboxRepository, JavaMailSender mailSender,
+            EmailOutboxProperties properties, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sendSuccessTimer = sendTimer(meterRegistry, "success");
+        this.sendFailureTimer = sendTimer(meterRegistry, "failure");
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("email.send")
+                .description("Time taken to send a batch of emails over one SMTP connection")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Send due emails until the outbox has no full batch left, so a backlog does not wait for the next poll
+    public void dispatchPending() {
+        int sent;
+        do {
+            sent = dispatchBatch();
+        } while (sent >= properties.getBatchSize());
+    }
+
+    // Attempt to send one batch of due emails, returning the number of emails attempted
+    public int dispatchBatch() {
+        Integer attempted = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<EmailOutboxEntity> batch = emailOutboxRepository.findDueForUpdate(
+                    EmailOutboxStatus.PENDING, now, Limit.of(properties.getBatchSize())
+            );
+
+            if (batch.isEmpty())
+                return 0;
+
+            // Messages are keyed by identity, which is also how the mail sender reports the ones that failed
+            Map<MimeMessage, EmailOutboxEntity> messages = new LinkedHashMap<>();
+            for (EmailOutboxEntity email : batch) {
+                try {
+                    messages.put(createMessage(email), email);
+                } catch (MessagingException | MailException e) {
+                    // An email that cannot be built, e.g. because of a malformed address, will never be sent
+                    markFailed(email, e, now, true);
+                }
+            }
+
+            Map<Object, Exception> failedMessages = new IdentityHashMap<>();
+            if (!messages.isEmpty()) {
+                long sendStart = System.nanoTime();
+                try {
+                    mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+                } catch (MailSendException e) {
+                    failedMessages.putAll(e.getFailedMessages());
+                    // Reported when the connection could not be closed cleanly, after every message was sent
+                    if (failedMessages.isEmpty())
+                        log.warn("Email batch sent with errors", e);
+                } catch (MailException e) {
+                    // e.g. authentication failure, in which case nothing has been sent
+                    messages.keySet().forEach(message -> failedMessages.put(message, e));
+                }
+                (failedMessages.isEmpty() ? sendSuccessTimer : sendFailureTimer)
+                        .record(System.nanoTime() - sendStart, TimeUnit.NANOSECONDS);
+            }
+
+            for (Map.Entry<MimeMessage, EmailOutboxEntity> entry : messages.entrySet()) {
+                Exception failure = failedMessages.get(entry.getKey());
+                if (failure == null)
+                    markSent(entry.getValue(), now);
+                else
+                    markFailed(entry.getValue(), failure, now, false);
+            }
+
+            return batch.size();
+        });
+
+        return attempted == null ? 0 : attempted;
+    }
+
+    // Delay before the next attempt of an email that has failed the given number of times
+    public Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private MimeMessage createMessage(EmailOutboxEntity email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(properties.getFrom());
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        return message;
+    }
+
+    private void markSent(EmailOutboxEntity email, Instant now) {
+        email.setStatus(EmailOutboxStatus.SENT);
+        email.setSentAt(now);
+        email.setLastError(null);
+    }
+
+    private void markFailed(EmailOutboxEntity email, Exception failure, Instant now, boolean permanent) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(describe(failure));
+
+        if (permanent || attempts >= properties.getMaxAttempts()) {
+            email.setStatus(EmailOutboxStatus.FAILED);
+            log.warn("Giving up on email {} after {} attempt(s): {}", email.getId(), attempts, email.getLastError());
+        } else {
+            email.setNextAttemptAt(now.plus(backoff(attempts)));
+        }
+    }
+
+    private static String describe(Exception failure) {
+        String description = Objects.requireNonNullElse(failure.getMessage(), failure.getClass().getName());
+        return description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+    }
+
+}
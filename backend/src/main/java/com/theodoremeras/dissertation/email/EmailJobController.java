@@ -0,0 +1,94 @@
+package com.theodoremeras.dissertation.email;
+
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.department.DepartmentService;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import com.theodoremeras.dissertation.role.RoleService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+public class EmailJobController {
+
+    private final EmailJobService emailJobService;
+
+    private final EmailJobMapper emailJobMapper;
+
+    private final DepartmentService departmentService;
+
+    private final RoleService roleService;
+
+    public EmailJobController(
+            EmailJobService emailJobService, EmailJobMapper emailJobMapper,
+            DepartmentService departmentService, RoleService roleService
+    ) {
+        this.emailJobService = emailJobService;
+        this.emailJobMapper = emailJobMapper;
+        this.departmentService = departmentService;
+        this.roleService = roleService;
+    }
+
+    /*
+        Email every user of a role within a department. The recipients' emails are queued and sent
+        in the background, and the job's progress can be followed through GET /email-jobs/{id}
+     */
+    @PostMapping(path = "/email-jobs")
+    public ResponseEntity<EmailJobDto> createEmailJob(@Valid @RequestBody EmailJobDto emailJobDto) {
+        // Verify that the specified department and role exist
+        Optional<DepartmentEntity> department = departmentService.findOneById(emailJobDto.getDepartmentId());
+        Optional<RoleEntity> role = roleService.findOneById(emailJobDto.getRoleId());
+        if (department.isEmpty() || role.isEmpty())
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        // Malformed templates are rejected here, before any email is queued
+        EmailJobEntity savedEmailJob = emailJobService.create(
+                department.get(), role.get(), emailJobDto.getSubject(), emailJobDto.getBody()
+        );
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/email-jobs/" + savedEmailJob.getId()))
+                .body(emailJobMapper.mapToDto(savedEmailJob, Map.of()));
+    }
+
+    @GetMapping(path = "/email-jobs/{id}")
+    public ResponseEntity<EmailJobDto> getEmailJobById(@PathVariable("id") Long id) {
+        Optional<EmailJobEntity> foundEmailJob = emailJobService.findOneById(id);
+        if (foundEmailJob.isEmpty())
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        EmailJobDto emailJobDto = emailJobMapper.mapToDto(
+                foundEmailJob.get(), emailJobService.countEmailsByStatus(id)
+        );
+        return new ResponseEntity<>(emailJobDto, HttpStatus.OK);
+    }
+
+    // Thrown when a template is malformed or uses an unknown placeholder
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(EmailTemplateException.class)
+    public Map<String, String> handleTemplateExceptions(EmailTemplateException ex) {
+        return Map.of("template", ex.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public Map<String, String> handleValidationExceptions(
+            MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return errors;
+    }
+
+}
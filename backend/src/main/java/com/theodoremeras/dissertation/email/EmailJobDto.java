@@ -0,0 +1,51 @@
+package com.theodoremeras.dissertation.email;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmailJobDto {
+
+    private Long id;
+
+    // The email is sent to every user with this role in this department
+    @NotNull
+    private Integer departmentId;
+
+    @NotNull
+    private Integer roleId;
+
+    // Templates, in which {{name}} and {{email}} are replaced with each recipient's name and email
+    @NotBlank
+    @Size(max = 255)
+    private String subject;
+
+    @NotBlank
+    private String body;
+
+    private EmailJobStatus status;
+
+    // Number of recipients whose email has been queued so far
+    private Integer recipientCount;
+
+    private Long pendingCount;
+
+    private Long sentCount;
+
+    private Long failedCount;
+
+    private Instant createdAt;
+
+    private Instant preparedAt;
+
+}
@@ -0,0 +1,80 @@
+package com.theodoremeras.dissertation.email;
+
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/*
+    An email sent to every user of a role within a department. Each recipient's email is rendered
+    from the subject and body templates and queued in the email outbox, a page of recipients at a time
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "email_job")
+public class EmailJobEntity {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id", nullable = false)
+    @ToString.Exclude
+    private DepartmentEntity department;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "role_id", nullable = false)
+    @ToString.Exclude
+    private RoleEntity role;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    @ToString.Exclude
+    private String body;
+
+    // Id of the last recipient whose email has been queued, recipients are queued in order of id
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer lastRecipientId = 0;
+
+    // Number of recipients whose email has been queued so far
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer recipientCount = 0;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Set once every recipient's email has been queued
+    private Instant preparedAt;
+
+    @Generated
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        Class<?> oEffectiveClass = o instanceof HibernateProxy ? ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) return false;
+        EmailJobEntity that = (EmailJobEntity) o;
+        return getId() != null && Objects.equals(getId(), that.getId());
+    }
+
+    @Generated
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass().hashCode() : getClass().hashCode();
+    }
+}
@@ -0,0 +1,29 @@
+package com.theodoremeras.dissertation.email;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+public class EmailJobMapper {
+
+    public EmailJobDto mapToDto(EmailJobEntity emailJobEntity, Map<EmailOutboxStatus, Long> emailCounts) {
+        long pendingCount = emailCounts.getOrDefault(EmailOutboxStatus.PENDING, 0L);
+
+        return EmailJobDto.builder()
+                .id(emailJobEntity.getId())
+                .departmentId(emailJobEntity.getDepartment().getId())
+                .roleId(emailJobEntity.getRole().getId())
+                .subject(emailJobEntity.getSubject())
+                .body(emailJobEntity.getBody())
+                .status(EmailJobStatus.of(emailJobEntity.getPreparedAt() != null, pendingCount))
+                .recipientCount(emailJobEntity.getRecipientCount())
+                .pendingCount(pendingCount)
+                .sentCount(emailCounts.getOrDefault(EmailOutboxStatus.SENT, 0L))
+                .failedCount(emailCounts.getOrDefault(EmailOutboxStatus.FAILED, 0L))
+                .createdAt(emailJobEntity.getCreatedAt())
+                .preparedAt(emailJobEntity.getPreparedAt())
+                .build();
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.theodoremeras.dissertation.email;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmailJobRepository extends JpaRepository<EmailJobEntity, Long> {
+
+    // Lock the oldest job that still has recipients to queue, skipping jobs locked by other instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM EmailJobEntity j WHERE j.preparedAt IS NULL ORDER BY j.id")
+    List<EmailJobEntity> findUnpreparedForUpdate(Limit limit);
+
+}
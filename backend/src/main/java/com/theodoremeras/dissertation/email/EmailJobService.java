@@ -0,0 +1,159 @@
+package com.theodoremeras.dissertation.email;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.theodoremeras.dissertation.conf.EmailOutboxProperties;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.user.UserService;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+
+/*
+    Bulk email jobs are prepared in the background: a page of recipients at a time, each job's
+    templates are rendered for every recipient and the results queued in the email outbox, from
+    which the EmailDispatcher sends them in batches. Every page is queued in its own transaction
+    together with the job's position, so a job interrupted by a restart resumes where it stopped
+ */
+@Service
+public class EmailJobService {
+
+    // Placeholders that job templates may use
+    public static final Set<String> TEMPLATE_VARIABLES = Set.of("name", "email");
+
+    // Length of the subject column of the email outbox
+    private static final int MAX_SUBJECT_LENGTH = 255;
+
+    // Number of jobs whose compiled templates are kept between pages
+    private static final int MAX_COMPILED_JOBS = 16;
+
+    private final EmailJobRepository emailJobRepository;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    private final UserService userService;
+
+    private final EmailOutboxProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /*
+        The compiled templates of the jobs being prepared, by job id, so that each job's templates are
+        parsed once rather than for every page of recipients. A job's templates never change once it
+        has been created, and are dropped when it has been prepared
+     */
+    private final Cache<Long, JobTemplates> jobTemplates = Caffeine.newBuilder()
+            .maximumSize(MAX_COMPILED_JOBS)
+            .build();
+
+    public EmailJobService(
+            EmailJobRepository emailJobRepository, EmailOutboxRepository emailOutboxRepository,
+            UserService userService, EmailOutboxProperties properties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.emailJobRepository = emailJobRepository;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.userService = userService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Create a job, throwing EmailTemplateException if either template is malformed
+    @Transactional
+    public EmailJobEntity create(DepartmentEntity department, RoleEntity role, String subject, String body) {
+        EmailTemplate.compile(subject, TEMPLATE_VARIABLES);
+        EmailTemplate.compile(body, TEMPLATE_VARIABLES);
+
+        EmailJobEntity job = EmailJobEntity.builder()
+                .department(department)
+                .role(role)
+                .subject(subject)
+                .body(body)
+                .createdAt(Instant.now())
+                .build();
+
+        return emailJobRepository.save(job);
+    }
+
+    public Optional<EmailJobEntity> findOneById(Long id) {
+        return emailJobRepository.findById(id);
+    }
+
+    // Number of the job's emails with each status, statuses with no emails are left out
+    public Map<EmailOutboxStatus, Long> countEmailsByStatus(Long jobId) {
+        Map<EmailOutboxStatus, Long> counts = new EnumMap<>(EmailOutboxStatus.class);
+        for (EmailStatusCount statusCount : emailOutboxRepository.countByJobIdGroupByStatus(jobId))
+            counts.put(statusCount.status(), statusCount.count());
+        return counts;
+    }
+
+    // Queue the emails of every job that is still being prepared
+    public void preparePending() {
+        boolean prepared;
+        do {
+            prepared = prepareNextPage();
+        } while (prepared);
+    }
+
+    // Queue the emails of the next page of recipients of the oldest unprepared job, if there is one
+    public boolean prepareNextPage() {
+        Boolean prepared = transactionTemplate.execute(status -> {
+            List<EmailJobEntity> jobs = emailJobRepository.findUnpreparedForUpdate(Limit.of(1));
+            if (jobs.isEmpty())
+                return false;
+
+            EmailJobEntity job = jobs.get(0);
+            int pageSize = properties.getRecipientPageSize();
+            List<UserEntity> recipients = userService.findPageByDepartmentIdAndRoleId(
+                    job.getDepartment().getId(), job.getRole().getId(), job.getLastRecipientId(), pageSize
+            );
+
+            JobTemplates templates = jobTemplates.get(job.getId(), id -> new JobTemplates(
+                    EmailTemplate.compile(job.getSubject(), TEMPLATE_VARIABLES),
+                    EmailTemplate.compile(job.getBody(), TEMPLATE_VARIABLES)
+            ));
+            Instant now = Instant.now();
+
+            List<EmailOutboxEntity> emails = new ArrayList<>(recipients.size());
+            for (UserEntity recipient : recipients) {
+                Map<String, String> values = Map.of("name", recipient.getName(), "email", recipient.getEmail());
+                String renderedSubject = templates.subject().render(values);
+
+                emails.add(EmailOutboxEntity.builder()
+                        .recipient(recipient.getEmail())
+                        .subject(renderedSubject.length() > MAX_SUBJECT_LENGTH
+                                ? renderedSubject.substring(0, MAX_SUBJECT_LENGTH) : renderedSubject)
+                        .body(templates.body().render(values))
+                        .job(job)
+                        .createdAt(now)
+                        .nextAttemptAt(now)
+                        .build());
+            }
+            emailOutboxRepository.saveAll(emails);
+
+            if (!recipients.isEmpty())
+                job.setLastRecipientId(recipients.get(recipients.size() - 1).getId());
+            job.setRecipientCount(job.getRecipientCount() + recipients.size());
+
+            // A short page means that there are no recipients left
+            if (recipients.size() < pageSize) {
+                job.setPreparedAt(now);
+                jobTemplates.invalidate(job.getId());
+            }
+
+            return true;
+        });
+
+        return Boolean.TRUE.equals(prepared);
+    }
+
+    private record JobTemplates(EmailTemplate subject, EmailTemplate body) {}
+
+}
@@ -0,0 +1,26 @@
+package com.theodoremeras.dissertation.email;
+
+/*
+    Progress of a bulk email job, derived from the job and the outbox emails created for it
+ */
+public enum EmailJobStatus {
+
+    // Recipients are still being selected and their emails queued
+    PREPARING,
+
+    // Every recipient's email is queued, and some are still waiting to be sent
+    SENDING,
+
+    // Every recipient's email has been sent or given up on
+    COMPLETED;
+
+    public static EmailJobStatus of(boolean prepared, long pendingEmails) {
+        if (!prepared)
+            return PREPARING;
+        else if (pendingEmails > 0)
+            return SENDING;
+        else
+            return COMPLETED;
+    }
+
+}
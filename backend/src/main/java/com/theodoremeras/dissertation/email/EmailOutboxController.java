@@ -0,0 +1,35 @@
+package com.theodoremeras.dissertation.email;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+public class EmailOutboxController {
+
+    private final EmailOutboxService emailOutboxService;
+
+    public EmailOutboxController(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
+    }
+
+    @GetMapping(path = "/email-outbox/stats")
+    public ResponseEntity<EmailOutboxStatsDto> getEmailOutboxStats() {
+        long oldestPendingAgeSeconds = emailOutboxService.findOldestPendingCreatedAt()
+                .map(createdAt -> Duration.between(createdAt, Instant.now()).toSeconds())
+                .orElse(0L);
+
+        EmailOutboxStatsDto statsDto = EmailOutboxStatsDto.builder()
+                .pending(emailOutboxService.countByStatus(EmailOutboxStatus.PENDING))
+                .failed(emailOutboxService.countByStatus(EmailOutboxStatus.FAILED))
+                .oldestPendingAgeSeconds(oldestPendingAgeSeconds)
+                .build();
+
+        return new ResponseEntity<>(statsDto, HttpStatus.OK);
+    }
+
+}
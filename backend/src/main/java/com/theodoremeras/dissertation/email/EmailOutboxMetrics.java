@@ -0,0 +1,45 @@
+package com.theodoremeras.dissertation.email;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/*
+    Outbox queue depth gauges, registered with every meter registry in the application context:
+    the number of emails waiting to be sent, the number given up on, and how long the oldest
+    waiting email has been queued for, which grows when the dispatcher falls behind
+ */
+@Component
+public class EmailOutboxMetrics implements MeterBinder {
+
+    private final EmailOutboxService emailOutboxService;
+
+    public EmailOutboxMetrics(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (EmailOutboxStatus status : new EmailOutboxStatus[]{EmailOutboxStatus.PENDING, EmailOutboxStatus.FAILED})
+            Gauge.builder("email.outbox.size", emailOutboxService, service -> service.countByStatus(status))
+                    .description("Number of emails in the outbox")
+                    .tag("status", status.name().toLowerCase())
+                    .register(registry);
+
+        Gauge.builder("email.outbox.oldest.pending.age", emailOutboxService, EmailOutboxMetrics::oldestPendingAge)
+                .description("Time the oldest email waiting to be sent has been queued for")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private static double oldestPendingAge(EmailOutboxService emailOutboxService) {
+        return emailOutboxService.findOldestPendingCreatedAt()
+                .map(createdAt -> Duration.between(createdAt, Instant.now()).toMillis() / 1000.0)
+                .orElse(0.0);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.theodoremeras.dissertation.email;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    /*
+        Lock the pending emails that are due, oldest first, for the rest of the transaction.
+        A lock timeout of -2 makes Hibernate add SKIP LOCKED, so that instances polling the outbox
+        at the same time each claim a different batch instead of waiting for one another
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutboxEntity e " +
+            "WHERE e.status = :status AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.nextAttemptAt, e.id")
+    List<EmailOutboxEntity> findDueForUpdate(
+            @Param("status") EmailOutboxStatus status, @Param("now") Instant now, Limit limit
+    );
+
+    long countByStatus(EmailOutboxStatus status);
+
+    @Query("SELECT new com.theodoremeras.dissertation.email.EmailStatusCount(e.status, COUNT(e)) " +
+            "FROM EmailOutboxEntity e WHERE e.job.id = :jobId GROUP BY e.status")
+    List<EmailStatusCount> countByJobIdGroupByStatus(@Param("jobId") Long jobId);
+
+    @Query("SELECT MIN(e.createdAt) FROM EmailOutboxEntity e WHERE e.status = :status")
+    Optional<Instant> findOldestCreatedAtByStatus(@Param("status") EmailOutboxStatus status);
+
+}
@@ -0,0 +1,49 @@
+package com.theodoremeras.dissertation.email;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Service
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
+    }
+
+    /*
+        Queue an email for the EmailDispatcher to send. When called within a transaction the email
+        is only queued if that transaction commits, so no email is sent for a change that was rolled back
+     */
+    @Transactional
+    public EmailOutboxEntity enqueue(String recipient, String subject, String body) {
+        Instant now = Instant.now();
+        EmailOutboxEntity email = EmailOutboxEntity.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+
+        return emailOutboxRepository.save(email);
+    }
+
+    public Optional<EmailOutboxEntity> findOneById(Long id) {
+        return emailOutboxRepository.findById(id);
+    }
+
+    public long countByStatus(EmailOutboxStatus status) {
+        return emailOutboxRepository.countByStatus(status);
+    }
+
+    // Creation time of the email that has been waiting to be sent the longest, if any is waiting
+    public Optional<Instant> findOldestPendingCreatedAt() {
+        return emailOutboxRepository.findOldestCreatedAtByStatus(EmailOutboxStatus.PENDING);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.theodoremeras.dissertation.email;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmailOutboxStatsDto {
+
+    // Number of emails waiting to be sent
+    private Long pending;
+
+    // Number of emails given up on after the maximum number of attempts
+    private Long failed;
+
+    // How long the oldest waiting email has been queued for, 0 when none is waiting
+    private Long oldestPendingAgeSeconds;
+
+}
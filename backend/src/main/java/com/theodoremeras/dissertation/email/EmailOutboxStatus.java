@@ -0,0 +1,19 @@
+package com.theodoremeras.dissertation.email;
+
+/*
+    Delivery state of an email in the outbox. Emails are written as PENDING in the same transaction
+    as the change that caused them, and moved on by the EmailDispatcher once the SMTP server has
+    accepted them or every attempt to send them has failed
+ */
+public enum EmailOutboxStatus {
+
+    // Waiting to be sent, either for the first time or after a failed attempt
+    PENDING,
+
+    // Accepted by the SMTP server
+    SENT,
+
+    // Given up on after the maximum number of attempts
+    FAILED
+
+}
@@ -0,0 +1,5 @@
+package com.theodoremeras.dissertation.email;
+
+// Number of outbox emails with a given status
+public record EmailStatusCount(EmailOutboxStatus status, Long count) {
+}
@@ -0,0 +1,67 @@
+package com.theodoremeras.dissertation.email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    Plain text template with {{variable}} placeholders, parsed once and then rendered for every
+    recipient by concatenating its literal text with the recipient's values, without any further
+    parsing. Only the variables passed to compile are accepted, so that a mistyped placeholder is
+    reported when the template is submitted rather than sent to every recipient
+ */
+public class EmailTemplate {
+
+    private static final String OPENING = "{{";
+
+    private static final String CLOSING = "}}";
+
+    // Literal text before each variable, followed by the text after the last one
+    private final List<String> literals;
+
+    private final List<String> variables;
+
+    private final int length;
+
+    private EmailTemplate(List<String> literals, List<String> variables) {
+        this.literals = literals;
+        this.variables = variables;
+        this.length = literals.stream().mapToInt(String::length).sum();
+    }
+
+    // Parse the template, throwing EmailTemplateException if it is malformed or uses an unknown variable
+    public static EmailTemplate compile(String template, Set<String> allowedVariables) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+
+        int position = 0;
+        int opening;
+        while ((opening = template.indexOf(OPENING, position)) >= 0) {
+            int closing = template.indexOf(CLOSING, opening + OPENING.length());
+            if (closing < 0)
+                throw new EmailTemplateException("Unclosed placeholder at position " + opening);
+
+            String variable = template.substring(opening + OPENING.length(), closing).strip();
+            if (!allowedVariables.contains(variable))
+                throw new EmailTemplateException("Unknown placeholder {{" + variable + "}}");
+
+            literals.add(template.substring(position, opening));
+            variables.add(variable);
+            position = closing + CLOSING.length();
+        }
+        literals.add(template.substring(position));
+
+        return new EmailTemplate(List.copyOf(literals), List.copyOf(variables));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder rendered = new StringBuilder(length + 32 * variables.size());
+        for (int i = 0; i < variables.size(); i++) {
+            rendered.append(literals.get(i));
+            rendered.append(values.getOrDefault(variables.get(i), ""));
+        }
+        return rendered.append(literals.get(variables.size())).toString();
+    }
+
+}
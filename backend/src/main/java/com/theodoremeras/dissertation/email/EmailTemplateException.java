@@ -0,0 +1,10 @@
+package com.theodoremeras.dissertation.email;
+
+// Thrown when an email template is malformed or uses a placeholder that is not allowed
+public class EmailTemplateException extends RuntimeException {
+
+    public EmailTemplateException(String message) {
+        super(message);
+    }
+
+}
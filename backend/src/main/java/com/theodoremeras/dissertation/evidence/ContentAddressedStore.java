@@ -0,0 +1,113 @@
+package com.theodoremeras.dissertation.evidence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+    Stores evidence files under the SHA-256 hash of their content, so identical files are only kept once.
+    Files are spread over a two-level fan-out tree (blobs/ab/cd/abcd...) to keep every directory small.
+    Writing a file is split into two steps: staging streams the content into a temporary object while hashing
+    it, and publishing moves it into place, or discards it if a file with the same content is already stored
+ */
+public class ContentAddressedStore {
+
+    private static final String BLOB_PREFIX = "blobs/";
+
+    private static final String STAGING_PREFIX = BLOB_PREFIX + "tmp/";
+
+    // The key of a stored file, as made by keyFor
+    private static final Pattern BLOB_KEY = Pattern.compile("blobs/([0-9a-f]{2})/([0-9a-f]{2})/(\\1\\2[0-9a-f]{60})");
+
+    private final EvidenceStorage storage;
+
+    // A file whose content has been hashed, but which is not yet part of the store
+    public record StagedFile(String contentHash, String temporaryKey) {
+    }
+
+    public ContentAddressedStore(EvidenceStorage storage) {
+        this.storage = storage;
+    }
+
+    public StagedFile stage(InputStream inputStream) throws IOException {
+        String temporaryKey = STAGING_PREFIX + "upload-" + UUID.randomUUID() + ".part";
+
+        MessageDigest digest = sha256();
+        try (InputStream digestInputStream = new DigestInputStream(inputStream, digest)) {
+            storage.store(temporaryKey, digestInputStream);
+        } catch (IOException e) {
+            storage.delete(temporaryKey);
+            throw e;
+        }
+
+        return new StagedFile(HexFormat.of().formatHex(digest.digest()), temporaryKey);
+    }
+
+    // Make the staged file available under its hash; returns false if the content was already stored
+    public boolean publish(StagedFile stagedFile) throws IOException {
+        String key = keyFor(stagedFile.contentHash());
+
+        if (storage.stat(key).isPresent()) {
+            storage.delete(stagedFile.temporaryKey());
+            return false;
+        }
+
+        storage.move(stagedFile.temporaryKey(), key);
+        return true;
+    }
+
+    // Publish a local file whose hash is already known, which is consumed either way
+    public boolean publish(String contentHash, Path file) throws IOException {
+        String key = keyFor(contentHash);
+
+        if (storage.stat(key).isPresent()) {
+            Files.deleteIfExists(file);
+            return false;
+        }
+
+        storage.store(key, file);
+        return true;
+    }
+
+    public void discard(StagedFile stagedFile) throws IOException {
+        storage.delete(stagedFile.temporaryKey());
+    }
+
+    public String keyFor(String contentHash) {
+        return BLOB_PREFIX + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+    }
+
+    // The hash of the content stored under the given key, or empty if it is not the key of a stored file
+    public Optional<String> contentHashOf(String key) {
+        Matcher matcher = BLOB_KEY.matcher(key);
+        return matcher.matches() ? Optional.of(matcher.group(3)) : Optional.empty();
+    }
+
+    // Whether the key belongs to the store, e.g. a stored file or a file being staged
+    public boolean isStoreKey(String key) {
+        return key.startsWith(BLOB_PREFIX);
+    }
+
+    public void delete(String contentHash) throws IOException {
+        storage.delete(keyFor(contentHash));
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
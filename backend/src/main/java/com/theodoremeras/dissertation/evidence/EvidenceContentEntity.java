@@ -0,0 +1,23 @@
+package com.theodoremeras.dissertation.evidence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+// The row locked while a stored file with this content is published or deleted, see EvidenceService
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "evidence_content")
+public class EvidenceContentEntity {
+
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+}
@@ -0,0 +1,30 @@
+package com.theodoremeras.dissertation.evidence;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EvidenceContentRepository extends JpaRepository<EvidenceContentEntity, String> {
+
+    /*
+        Create the row of the given content unless it exists. If another transaction is inserting the same row,
+        this waits for it to finish rather than failing, so it is safe to call from several instances at once
+     */
+    @Modifying
+    @Query(value = "INSERT INTO evidence_content (content_hash) VALUES (:contentHash) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash);
+
+    // Lock the row of the given content for the rest of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM EvidenceContentEntity c WHERE c.contentHash = :contentHash")
+    Optional<EvidenceContentEntity> findByIdForUpdate(@Param("contentHash") String contentHash);
+
+}
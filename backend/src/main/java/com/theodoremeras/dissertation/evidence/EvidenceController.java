@@ -1,13 +1,21 @@
 package com.theodoremeras.dissertation.evidence;
 
+import com.theodoremeras.dissertation.authentication.AuthenticatedUser;
+import com.theodoremeras.dissertation.authentication.CurrentUser;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationService;
-import org.springframework.core.io.Resource;
+import com.theodoremeras.dissertation.utils.ConstraintViolationUtility;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -23,13 +31,23 @@ public class EvidenceController {
 
     private final EvidenceMapper evidenceMapper;
 
+    private final EvidenceFileSender evidenceFileSender;
+
+    private final EvidenceZipWriter evidenceZipWriter;
+
+    private final EvidenceUploadService evidenceUploadService;
+
     public EvidenceController(
-            EvidenceService evidenceService,
-            EcApplicationService ecApplicationService, EvidenceMapper evidenceMapper
+            EvidenceService evidenceService, EcApplicationService ecApplicationService,
+            EvidenceMapper evidenceMapper, EvidenceFileSender evidenceFileSender,
+            EvidenceZipWriter evidenceZipWriter, EvidenceUploadService evidenceUploadService
     ) {
         this.evidenceService = evidenceService;
+        this.evidenceUploadService = evidenceUploadService;
         this.ecApplicationService = ecApplicationService;
         this.evidenceMapper = evidenceMapper;
+        this.evidenceFileSender = evidenceFileSender;
+        this.evidenceZipWriter = evidenceZipWriter;
     }
 
     @PostMapping(path = "/evidence")
@@ -41,25 +59,123 @@ public class EvidenceController {
         if (file.isEmpty() || file.getName().isBlank() || ecApplicationId == null)
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        EvidenceEntity evidenceEntity =
-                EvidenceEntity.builder().fileName(file.getName()).build();
-
-        // Verify that the specified EC application exists
-        Optional<EcApplicationEntity> ecApplication =
-                ecApplicationService.findOneById(ecApplicationId);
-        if (ecApplication.isPresent())
-            evidenceEntity.setEcApplication(ecApplication.get());
-        else
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        EvidenceEntity evidenceEntity = EvidenceEntity.builder()
+                .fileName(file.getName())
+                .ecApplication(ecApplicationService.getReferenceById(ecApplicationId))
+                .build();
 
         try {
             EvidenceEntity savedEvidenceEntity = evidenceService.save(file, evidenceEntity);
             return new ResponseEntity<>(evidenceMapper.mapToDto(savedEvidenceEntity), HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            // The EC application is not loaded; if it does not exist, the insert violates the foreign key
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /*
+        Chunked uploads: an upload is started with the name and size of the file, its content is sent in
+        one or more PATCH requests, each starting at the offset where the previous one ended, and it is
+        completed once all of the content has arrived. After a dropped connection, the client looks up
+        how much of the file was received and continues from there
+     */
+
+    @PostMapping(path = "/evidence/uploads")
+    public ResponseEntity<EvidenceUploadDto> initiateUpload(
+            @RequestParam("ecApplicationId") Integer ecApplicationId,
+            @RequestParam("fileName") String fileName,
+            @RequestParam("size") Long size,
+            @CurrentUser AuthenticatedUser currentUser
+    ) throws IOException {
+        if (fileName.isBlank() || size <= 0)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        if (size > evidenceUploadService.getMaxUploadSize())
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+
+        Optional<EcApplicationEntity> ecApplication = ecApplicationService.findOneById(ecApplicationId);
+        if (ecApplication.isEmpty())
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        // Students are only allowed to upload evidence for their own EC applications
+        if (currentUser.getRole().equals("Student") &&
+                currentUser.getUserId().intValue() != ecApplication.get().getStudent().getId())
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+
+        Optional<EvidenceUpload> upload = evidenceUploadService
+                .initiate(currentUser.getUserId(), ecApplication.get(), fileName, size);
+
+        return upload
+                .map(evidenceUpload -> new ResponseEntity<>(evidenceMapper.mapToDto(evidenceUpload), HttpStatus.CREATED))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @GetMapping(path = "/evidence/uploads/{uploadId}")
+    public ResponseEntity<EvidenceUploadDto> getUpload(
+            @PathVariable("uploadId") String uploadId,
+            @CurrentUser AuthenticatedUser currentUser
+    ) {
+        return findOwnUpload(uploadId, currentUser)
+                .map(upload -> new ResponseEntity<>(evidenceMapper.mapToDto(upload), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // The request body is the raw content of the chunk
+    @PatchMapping(path = "/evidence/uploads/{uploadId}")
+    public ResponseEntity<EvidenceUploadDto> appendToUpload(
+            @PathVariable("uploadId") String uploadId,
+            @RequestParam("offset") Long offset,
+            @CurrentUser AuthenticatedUser currentUser,
+            HttpServletRequest request
+    ) throws IOException {
+        Optional<EvidenceUpload> upload = findOwnUpload(uploadId, currentUser);
+        if (upload.isEmpty())
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        if (request.getContentLengthLong() > upload.get().getSize() - offset)
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+
+        // A chunk that does not continue from the current offset is rejected, along with the offset to resume from
+        if (evidenceUploadService.append(upload.get(), offset, request.getInputStream()).isEmpty())
+            return new ResponseEntity<>(evidenceMapper.mapToDto(upload.get()), HttpStatus.CONFLICT);
+
+        return new ResponseEntity<>(evidenceMapper.mapToDto(upload.get()), HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/evidence/uploads/{uploadId}/complete")
+    public ResponseEntity<EvidenceDto> completeUpload(
+            @PathVariable("uploadId") String uploadId,
+            @CurrentUser AuthenticatedUser currentUser
+    ) throws IOException {
+        Optional<EvidenceUpload> upload = findOwnUpload(uploadId, currentUser);
+        if (upload.isEmpty())
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        return evidenceUploadService.complete(upload.get())
+                .map(evidenceEntity -> new ResponseEntity<>(evidenceMapper.mapToDto(evidenceEntity), HttpStatus.CREATED))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.CONFLICT));
+    }
+
+    @DeleteMapping(path = "/evidence/uploads/{uploadId}")
+    public ResponseEntity<HttpStatus> abortUpload(
+            @PathVariable("uploadId") String uploadId,
+            @CurrentUser AuthenticatedUser currentUser
+    ) {
+        findOwnUpload(uploadId, currentUser).ifPresent(evidenceUploadService::abort);
+
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // Uploads are only visible to the user who started them
+    private Optional<EvidenceUpload> findOwnUpload(String uploadId, AuthenticatedUser currentUser) {
+        return evidenceUploadService.findOneById(uploadId)
+                .filter(upload -> upload.getUserId().equals(currentUser.getUserId()));
+    }
+
     @GetMapping(path = "/evidence")
     public List<EvidenceDto> getAllEvidenceByApplicationId(
             @RequestParam("ecApplicationId") Integer ecApplicationId
@@ -71,15 +187,50 @@ public class EvidenceController {
                 .collect(Collectors.toList());
     }
 
+    // Supports conditional (If-None-Match / If-Modified-Since) and partial (Range) requests
     @GetMapping(path = "/evidence/{fileName}")
-    public ResponseEntity<Resource> serveFile(@PathVariable("fileName") String fileName) {
-        Resource file = evidenceService.loadAsResource(fileName);
+    public void serveFile(
+            @PathVariable("fileName") String fileName,
+            HttpServletRequest request, HttpServletResponse response
+    ) throws IOException {
+        Optional<StoredEvidenceFile> file = evidenceService.findStoredFile(fileName);
+
+        if (file.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        evidenceService.recordDownload(evidenceFileSender.send(file.get(), request, response));
+    }
 
-        if (file == null)
+    // All evidence of an EC application in one ZIP archive, built while it is being sent
+    @GetMapping(path = "/ec-applications/{id}/evidence.zip")
+    public ResponseEntity<StreamingResponseBody> downloadEvidenceBundle(
+            @PathVariable("id") Integer id,
+            @CurrentUser AuthenticatedUser currentUser
+    ) {
+        Optional<EcApplicationEntity> foundEcApplicationEntity = ecApplicationService.findOneById(id);
+        if (foundEcApplicationEntity.isEmpty())
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-        return ResponseEntity.ok().header(HttpHeaders.CONTENT_DISPOSITION,
-                "attachment; filename=\"" + file.getFilename() + "\"").body(file);
+        // Students are only allowed to download the evidence of their own EC applications
+        if (currentUser.getRole().equals("Student") &&
+                currentUser.getUserId().intValue() != foundEcApplicationEntity.get().getStudent().getId())
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+
+        List<StoredEvidenceFile> files = evidenceService.findAllByApplicationId(id).stream()
+                .map(evidenceService::findStoredFile)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+
+        StreamingResponseBody body = outputStream ->
+                evidenceService.recordDownload(evidenceZipWriter.write(files, outputStream));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("ec-application-" + id + "-evidence.zip").build().toString())
+                .body(body);
     }
 
     @DeleteMapping(path = "/evidence/{id}")
@@ -25,6 +25,10 @@ public class EvidenceEntity {
     @NotBlank
     private String fileName;
 
+    // SHA-256 of the file's content when it is kept in the content-addressed store, null for flat files
+    @Column(length = 64)
+    private String contentHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "application_id", nullable = false)
     @ToString.Exclude
@@ -0,0 +1,135 @@
+package com.theodoremeras.dissertation.evidence;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+    Writes evidence files to the response without copying them through the heap. Conditional requests
+    (If-None-Match / If-Modified-Since) are answered with 304 and a single byte range with 206, so clients
+    only download what they do not already have. Files in local storage are handed over to the servlet container
+    to be sent by the kernel when it supports sendfile, and are otherwise transferred from a FileChannel.
+    Files in remote storage are streamed from it, reading no more than the requested range
+ */
+@Component
+public class EvidenceFileSender {
+
+    private final EvidenceStorage storage;
+
+    public EvidenceFileSender(EvidenceStorage storage) {
+        this.storage = storage;
+    }
+
+    // Request attributes through which Tomcat is asked to send a file with sendfile
+    static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    // Send the file, or the requested range of it, returning the number of bytes of content sent
+    public long send(StoredEvidenceFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Sets the ETag and Last-Modified headers, and answers with 304 if the client's copy is current
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (webRequest.checkNotModified(file.eTag(), file.lastModified().toEpochMilli()))
+            return 0;
+
+        // Evidence is private, and must be revalidated before a cached copy is reused
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(file.fileName()).build().toString());
+        response.setContentType(MediaTypeFactory.getMediaType(file.fileName())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = file.size() - 1;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && file.size() > 0 && rangeApplies(file, request)) {
+            try {
+                // Several ranges are answered with the whole file, which HTTP allows
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(file.size());
+                    end = ranges.get(0).getRangeEnd(file.size());
+                    if (start >= file.size() || start > end)
+                        throw new IllegalArgumentException("Range not satisfiable: " + rangeHeader);
+
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + start + "-" + end + "/" + file.size());
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return 0;
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if (length <= 0)
+            return 0;
+
+        if (file.localFile() == null) {
+            try (InputStream inputStream = storage.open(file.key(), start, length)) {
+                return inputStream.transferTo(response.getOutputStream());
+            }
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.localFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, end + 1);
+            return length;
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(file.localFile(), StandardOpenOption.READ)) {
+            WritableByteChannel responseChannel = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = fileChannel.transferTo(position, remaining, responseChannel);
+                // The file was truncated while being sent
+                if (transferred <= 0)
+                    break;
+
+                position += transferred;
+                remaining -= transferred;
+            }
+            return length - remaining;
+        }
+    }
+
+    // A range is only served if the If-Range validator, when given, still matches the file
+    private static boolean rangeApplies(StoredEvidenceFile file, HttpServletRequest request) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+            return true;
+
+        if (ifRange.startsWith("\""))
+            return ifRange.equals(file.eTag());
+
+        try {
+            // HTTP dates have a precision of one second
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == file.lastModified().getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+}
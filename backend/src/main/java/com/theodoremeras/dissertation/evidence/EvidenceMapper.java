@@ -13,4 +13,14 @@ public class EvidenceMapper {
                 .build();
     }
 
+    public EvidenceUploadDto mapToDto(EvidenceUpload evidenceUpload) {
+        return EvidenceUploadDto.builder()
+                .uploadId(evidenceUpload.getUploadId())
+                .ecApplicationId(evidenceUpload.getEcApplication().getId())
+                .fileName(evidenceUpload.getOriginalFileName())
+                .size(evidenceUpload.getSize())
+                .offset(evidenceUpload.getOffset())
+                .build();
+    }
+
 }
@@ -0,0 +1,230 @@
+package com.theodoremeras.dissertation.evidence;
+
+import com.theodoremeras.dissertation.conf.StorageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/*
+    Brings the stored evidence files and the evidence table back in line. Deleting evidence leaves its
+    file behind, as does a failure between storing a file and saving its evidence, so files that no
+    evidence refers to are removed here, once they are older than the grace period; newer files may
+    belong to evidence that is still being saved. The store is walked lazily and checked against the
+    table a batch of files at a time, so memory use does not grow with the number of files. Only keys
+    the application writes are considered: the content-addressed store under blobs/, and evidence files
+    directly under the root; anything else in the store is left alone. Chunked uploads are kept in a local
+    directory whichever backend evidence is stored in, so that directory is checked separately. Evidence
+    whose file is missing can not be repaired, so it is only reported
+ */
+@Component
+public class EvidenceReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(EvidenceReconciler.class);
+
+    // Largest number of dangling evidence ids kept in a report
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private final EvidenceRepository evidenceRepository;
+
+    private final EvidenceService evidenceService;
+
+    private final EvidenceStorage storage;
+
+    private final ContentAddressedStore contentAddressedStore;
+
+    private final StorageProperties properties;
+
+    public EvidenceReconciler(
+            EvidenceRepository evidenceRepository, EvidenceService evidenceService,
+            EvidenceStorage storage, StorageProperties properties
+    ) {
+        this.evidenceRepository = evidenceRepository;
+        this.evidenceService = evidenceService;
+        this.storage = storage;
+        this.contentAddressedStore = new ContentAddressedStore(storage);
+        this.properties = properties;
+    }
+
+    // Counts of the files found in one place, and of those of them that were removed
+    private record RemovedFiles(int checked, int removed) {
+    }
+
+    public EvidenceReconciliationReport reconcile() {
+        /*
+            Without a key prefix the bucket may be shared with data that is not evidence, and an object
+            that no evidence refers to can not be told apart from someone else's
+         */
+        if (properties.getBackend() == StorageProperties.Backend.S3 &&
+                !StringUtils.hasLength(properties.getS3().getKeyPrefix())) {
+            log.warn("Not reconciling the stored evidence files, as storage.s3.key-prefix is not set");
+            return new EvidenceReconciliationReport(0, 0, 0, List.of());
+        }
+
+        Instant now = Instant.now();
+        Duration gracePeriod = properties.getReconciliation().getGracePeriod();
+        Instant cutoff = now.minus(gracePeriod);
+        // Chunked uploads in progress are kept for as long as the upload service would keep them
+        Instant uploadCutoff = now.minus(
+                gracePeriod.compareTo(properties.getUploadExpiry()) > 0 ? gracePeriod : properties.getUploadExpiry()
+        );
+        int batchSize = properties.getReconciliation().getBatchSize();
+
+        int checkedFiles = 0;
+        int removedFiles = 0;
+        try (Stream<EvidenceStorage.ListedObject> objects = storage.list()) {
+            Iterator<EvidenceStorage.ListedObject> iterator = objects
+                    .filter(object -> isEvidenceKey(object.key()))
+                    .filter(object -> object.lastModified().isBefore(cutoff))
+                    .iterator();
+
+            List<EvidenceStorage.ListedObject> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() < batchSize && iterator.hasNext())
+                    continue;
+
+                checkedFiles += batch.size();
+                removedFiles += removeUnreferencedFiles(batch);
+                batch.clear();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The files checked so far have been dealt with; the rest are checked on the next run
+            log.warn("Could not list the stored evidence files", e);
+        }
+
+        RemovedFiles uploadFiles = removeAbandonedUploadFiles(uploadCutoff);
+        checkedFiles += uploadFiles.checked();
+        removedFiles += uploadFiles.removed();
+
+        List<Integer> danglingEvidenceIds = new ArrayList<>();
+        int danglingEvidence = findDanglingEvidence(batchSize, danglingEvidenceIds);
+
+        EvidenceReconciliationReport report = new EvidenceReconciliationReport(
+                checkedFiles, removedFiles, danglingEvidence, danglingEvidenceIds
+        );
+        if (danglingEvidence > 0)
+            log.warn("Found {} evidence whose file is missing: {}", danglingEvidence, danglingEvidenceIds);
+        log.info("Reconciled evidence: checked {} files and removed {}", checkedFiles, removedFiles);
+
+        return report;
+    }
+
+    // Keys of stored files and files being staged, or of evidence files stored under their own name
+    private boolean isEvidenceKey(String key) {
+        return contentAddressedStore.isStoreKey(key) || key.indexOf('/') < 0;
+    }
+
+    // Remove the files of the batch that no evidence refers to, returning how many were removed
+    private int removeUnreferencedFiles(List<EvidenceStorage.ListedObject> batch) {
+        List<String> unreferencedKeys = new ArrayList<>();
+        Set<String> contentHashes = new HashSet<>();
+        Set<String> fileNames = new HashSet<>();
+
+        for (EvidenceStorage.ListedObject object : batch) {
+            String key = object.key();
+            Optional<String> contentHash = contentAddressedStore.contentHashOf(key);
+
+            if (contentHash.isPresent()) {
+                contentHashes.add(contentHash.get());
+            } else if (contentAddressedStore.isStoreKey(key)) {
+                // Left behind by an upload that failed while its file was being staged or published
+                unreferencedKeys.add(key);
+            } else {
+                fileNames.add(key);
+            }
+        }
+
+        // Each kind of file is checked against the evidence table with a single query per batch
+        if (!contentHashes.isEmpty())
+            evidenceRepository.findContentHashesIn(contentHashes).forEach(contentHashes::remove);
+        if (!fileNames.isEmpty())
+            evidenceRepository.findUnhashedFileNamesIn(fileNames).forEach(fileNames::remove);
+        unreferencedKeys.addAll(fileNames);
+
+        int removed = 0;
+        for (String key : unreferencedKeys) {
+            try {
+                storage.delete(key);
+                removed++;
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not remove the unreferenced evidence file {}", key, e);
+            }
+        }
+
+        // Checked again under the upload lock, as new evidence may have started referring to the content
+        for (String contentHash : contentHashes) {
+            if (evidenceService.deleteUnreferencedContent(contentHash))
+                removed++;
+        }
+
+        return removed;
+    }
+
+    // Remove the files of chunked uploads that were abandoned, e.g. by an instance that stopped
+    private RemovedFiles removeAbandonedUploadFiles(Instant uploadCutoff) {
+        Path uploadLocation = Paths.get(properties.getLocation()).resolve(EvidenceService.UPLOAD_DIRECTORY);
+        if (!Files.isDirectory(uploadLocation))
+            return new RemovedFiles(0, 0);
+
+        int checked = 0;
+        int removed = 0;
+        try (Stream<Path> uploadFiles = Files.list(uploadLocation)) {
+            for (Path uploadFile : (Iterable<Path>) uploadFiles::iterator) {
+                if (!Files.isRegularFile(uploadFile))
+                    continue;
+
+                checked++;
+                try {
+                    if (Files.getLastModifiedTime(uploadFile).toInstant().isBefore(uploadCutoff) &&
+                            Files.deleteIfExists(uploadFile))
+                        removed++;
+                } catch (IOException e) {
+                    log.warn("Could not remove the abandoned upload file {}", uploadFile, e);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not list the upload files in {}", uploadLocation, e);
+        }
+
+        return new RemovedFiles(checked, removed);
+    }
+
+    // Count the evidence whose file is missing, adding the first of their ids to danglingEvidenceIds
+    private int findDanglingEvidence(int batchSize, List<Integer> danglingEvidenceIds) {
+        int danglingEvidence = 0;
+
+        // Evidence ids are generated from a sequence starting at 1
+        Integer lastId = 0;
+        List<EvidenceEntity> page;
+        do {
+            page = evidenceRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize));
+
+            for (EvidenceEntity evidenceEntity : page) {
+                if (evidenceService.findStoredFile(evidenceEntity).isPresent())
+                    continue;
+
+                danglingEvidence++;
+                if (danglingEvidenceIds.size() < MAX_REPORTED_IDS)
+                    danglingEvidenceIds.add(evidenceEntity.getId());
+            }
+
+            if (!page.isEmpty())
+                lastId = page.get(page.size() - 1).getId();
+        } while (page.size() == batchSize);
+
+        return danglingEvidence;
+    }
+
+}
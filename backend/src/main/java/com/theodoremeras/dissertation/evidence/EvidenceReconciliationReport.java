@@ -0,0 +1,13 @@
+package com.theodoremeras.dissertation.evidence;
+
+import java.util.List;
+
+/*
+    The outcome of a run of the EvidenceReconciler: the number of stored files old enough to be checked,
+    how many of them no evidence referred to and were removed, and the evidence whose file is missing.
+    Only the first few ids of such dangling evidence are kept
+ */
+public record EvidenceReconciliationReport(
+        int checkedFiles, int removedFiles, int danglingEvidence, List<Integer> danglingEvidenceIds
+) {
+}
@@ -1,13 +1,42 @@
 package com.theodoremeras.dissertation.evidence;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EvidenceRepository extends JpaRepository<EvidenceEntity, Integer> {
 
     List<EvidenceEntity> findAllByEcApplicationId(Integer ecApplicationId);
 
+    List<EvidenceEntity> findAllByEcApplicationIdIn(List<Integer> ecApplicationIds);
+
+    Optional<EvidenceEntity> findFirstByFileName(String fileName);
+
+    // Whether any evidence still refers to the stored file with the given content
+    boolean existsByContentHash(String contentHash);
+
+    // Which of the given content hashes are still referred to by evidence
+    @Query("SELECT DISTINCT e.contentHash FROM EvidenceEntity e WHERE e.contentHash IN :contentHashes")
+    List<String> findContentHashesIn(@Param("contentHashes") Collection<String> contentHashes);
+
+    // Which of the given file names belong to evidence that is stored under its own file name
+    @Query("SELECT e.fileName FROM EvidenceEntity e WHERE e.contentHash IS NULL AND e.fileName IN :fileNames")
+    List<String> findUnhashedFileNamesIn(@Param("fileNames") Collection<String> fileNames);
+
+    // Keyset pagination over all evidence, ordered by id
+    List<EvidenceEntity> findAllByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    // Delete the evidence of all the given EC applications in a single statement, leaving their stored files
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM EvidenceEntity e WHERE e.ecApplication.id IN :ecApplicationIds")
+    int deleteAllByEcApplicationIdIn(@Param("ecApplicationIds") List<Integer> ecApplicationIds);
+
 }
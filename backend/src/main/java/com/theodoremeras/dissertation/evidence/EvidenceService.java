@@ -1,65 +1,230 @@
 package com.theodoremeras.dissertation.evidence;
 
 import com.theodoremeras.dissertation.conf.StorageProperties;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class EvidenceService {
 
+    private static final Logger log = LoggerFactory.getLogger(EvidenceService.class);
+
     private final EvidenceRepository evidenceRepository;
 
-    // Path to directory where files will be uploaded
+    private final EvidenceContentRepository evidenceContentRepository;
+
+    // Directory under the storage location, and so key prefix, of chunked uploads in progress
+    public static final String UPLOAD_DIRECTORY = "uploads";
+
+    // Local directory holding chunked uploads until they are complete
     private final Path uploadLocation;
 
-    public EvidenceService(EvidenceRepository evidenceRepository, StorageProperties properties) {
+    private final EvidenceStorage storage;
+
+    private final boolean contentAddressed;
+
+    private final ContentAddressedStore contentAddressedStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Evidence content received from and sent to clients
+    private final Counter uploadedBytes;
+
+    private final Counter downloadedBytes;
+
+    public EvidenceService(
+            EvidenceRepository evidenceRepository, EvidenceContentRepository evidenceContentRepository,
+            StorageProperties properties, EvidenceStorage storage, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
         this.evidenceRepository = evidenceRepository;
-        this.uploadLocation = Paths.get(properties.getLocation());
+        this.evidenceContentRepository = evidenceContentRepository;
+        this.uploadLocation = Paths.get(properties.getLocation()).resolve(UPLOAD_DIRECTORY);
+        this.storage = storage;
+        this.contentAddressed = properties.isContentAddressed();
+        this.contentAddressedStore = new ContentAddressedStore(storage);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.uploadedBytes = Counter.builder("evidence.uploaded")
+                .description("Evidence content stored from uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.downloadedBytes = Counter.builder("evidence.downloaded")
+                .description("Evidence content sent to clients, as single files or ZIP bundles")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
     public EvidenceEntity save(MultipartFile file, EvidenceEntity evidenceEntity) throws IOException {
-        String newFileName = (LocalDateTime.now() + file.getOriginalFilename()).replace(":", "_");
+        String newFileName = uniqueFileName(file.getOriginalFilename());
         evidenceEntity.setFileName(newFileName);
 
-        Path destinationFile =
-                this.uploadLocation.resolve(Paths.get(newFileName))
-                        .normalize().toAbsolutePath();
+        EvidenceEntity savedEvidenceEntity;
+        if (contentAddressed) {
+            savedEvidenceEntity = saveContentAddressed(file, evidenceEntity);
+        } else {
+            try (InputStream inputStream = file.getInputStream()) {
+                storage.store(newFileName, inputStream);
+            }
+            savedEvidenceEntity = evidenceRepository.save(evidenceEntity);
+        }
 
+        uploadedBytes.increment(file.getSize());
+        return savedEvidenceEntity;
+    }
+
+    private EvidenceEntity saveContentAddressed(MultipartFile file, EvidenceEntity evidenceEntity) throws IOException {
+        ContentAddressedStore.StagedFile stagedFile;
         try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            stagedFile = contentAddressedStore.stage(inputStream);
+        }
+        evidenceEntity.setContentHash(stagedFile.contentHash());
+
+        try {
+            return publishAndSave(
+                    stagedFile.contentHash(), () -> contentAddressedStore.publish(stagedFile), evidenceEntity
+            );
+        } finally {
+            contentAddressedStore.discard(stagedFile);
+        }
+    }
+
+    // Places a file in the content-addressed store
+    @FunctionalInterface
+    private interface Publication {
+        void publish() throws IOException;
+    }
+
+    /*
+        Publishing the file and saving the evidence that refers to it happen in one transaction, holding the
+        lock on the content's row that deletions also take. So on no instance can the last reference to a file
+        be removed (deleting the file) between the file being found to exist and the new reference being saved
+     */
+    private EvidenceEntity publishAndSave(
+            String contentHash, Publication publication, EvidenceEntity evidenceEntity
+    ) throws IOException {
+        try {
+            return transactionTemplate.execute(status -> {
+                lockContent(contentHash);
+                try {
+                    publication.publish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return evidenceRepository.save(evidenceEntity);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // The file name stays unique per upload, even when the content is shared with other evidence
+    public String uniqueFileName(String originalFileName) {
+        return (LocalDateTime.now() + originalFileName).replace(":", "_");
+    }
+
+    /*
+        An empty local file for a chunked upload to write to. It is kept next to the stored evidence when
+        that is on the local file system, so the finished upload can be moved into place instead of copied
+     */
+    public Path createUploadFile() throws IOException {
+        Files.createDirectories(uploadLocation);
+        return Files.createTempFile(uploadLocation, "upload-", ".part");
+    }
+
+    // Save evidence whose content has been fully written to a file from createUploadFile
+    public EvidenceEntity saveUploadedFile(
+            Path uploadFile, String contentHash, EvidenceEntity evidenceEntity
+    ) throws IOException {
+        // Read before the file is stored, which may move it
+        long size = Files.size(uploadFile);
+
+        if (!contentAddressed) {
+            storage.store(evidenceEntity.getFileName(), uploadFile);
+            EvidenceEntity savedEvidenceEntity = evidenceRepository.save(evidenceEntity);
+            uploadedBytes.increment(size);
+            return savedEvidenceEntity;
+        }
+
+        evidenceEntity.setContentHash(contentHash);
+
+        try {
+            EvidenceEntity savedEvidenceEntity = publishAndSave(
+                    contentHash, () -> contentAddressedStore.publish(contentHash, uploadFile), evidenceEntity
+            );
+            uploadedBytes.increment(size);
+            return savedEvidenceEntity;
+        } finally {
+            Files.deleteIfExists(uploadFile);
         }
+    }
 
-        return evidenceRepository.save(evidenceEntity);
+    // Count evidence content sent to a client
+    public void recordDownload(long bytes) {
+        downloadedBytes.increment(bytes);
     }
 
-    public Path load(String filename) {
-        return uploadLocation.resolve(filename);
+    // The evidence file with the given name and the metadata needed to serve it, if it exists
+    public Optional<StoredEvidenceFile> findStoredFile(String filename) {
+        return findStoredFile(filename, findContentHash(filename));
     }
 
-    public Resource loadAsResource(String filename) {
+    public Optional<StoredEvidenceFile> findStoredFile(EvidenceEntity evidenceEntity) {
+        return findStoredFile(evidenceEntity.getFileName(), Optional.ofNullable(evidenceEntity.getContentHash()));
+    }
+
+    private Optional<StoredEvidenceFile> findStoredFile(String filename, Optional<String> contentHash) {
+        String key = keyFor(filename, contentHash);
+
+        Optional<EvidenceStorage.StoredObject> storedObject;
         try {
-            Path file = load(filename);
-            Resource resource = new UrlResource(file.toUri());
-            if (resource.exists() || resource.isReadable())
-                return resource;
-            else
-                return null;
-        } catch (MalformedURLException e) {
-            return null;
+            storedObject = storage.stat(key);
+        } catch (IOException | IllegalArgumentException e) {
+            return Optional.empty();
         }
+        if (storedObject.isEmpty())
+            return Optional.empty();
+        EvidenceStorage.StoredObject attributes = storedObject.get();
+
+        /*
+            Files in the content-addressed store are identified by their hash; other files by their size
+            and modification time, which change whenever the file is replaced
+         */
+        String eTag = contentHash
+                .map(hash -> "\"" + hash + "\"")
+                .orElseGet(() -> "\"" + Long.toHexString(attributes.size()) + "-"
+                        + Long.toHexString(attributes.lastModified().toEpochMilli()) + "\"");
+
+        return Optional.of(new StoredEvidenceFile(
+                filename, key, storage.localFile(key).orElse(null), attributes.size(), attributes.lastModified(), eTag
+        ));
+    }
+
+    // Files in the content-addressed store are found through the evidence that refers to them
+    private Optional<String> findContentHash(String filename) {
+        return evidenceRepository.findFirstByFileName(filename).map(EvidenceEntity::getContentHash);
+    }
+
+    private String keyFor(String filename, Optional<String> contentHash) {
+        return contentHash.map(contentAddressedStore::keyFor).orElse(filename);
     }
 
     public void init() throws IOException {
@@ -70,19 +235,71 @@ public class EvidenceService {
         return evidenceRepository.findAllByEcApplicationId(ecApplicationId);
     }
 
+    /*
+        Only the evidence is deleted; its stored file is left for the EvidenceReconciler to remove once no
+        evidence refers to it, so a failure to remove the file can neither fail nor slow down the request
+     */
     public void delete(Integer id) {
-        Optional<EvidenceEntity> foundEntity = evidenceRepository.findById(id);
-        try {
-            if (foundEntity.isPresent()) {
-                String fileName = foundEntity.get().getFileName();
-                Files.delete(load(fileName));
+        evidenceRepository.deleteById(id);
+    }
+
+    /*
+        Remove the stored files of evidence whose rows have already been deleted, e.g. along with their EC
+        application. A file in the content-addressed store is only removed if no evidence refers to its
+        content any more, which is checked holding the same lock that uploads take
+     */
+    public void deleteStoredFiles(List<EvidenceEntity> deletedEvidence) {
+        Set<String> contentHashes = new LinkedHashSet<>();
+        for (EvidenceEntity evidenceEntity : deletedEvidence) {
+            if (evidenceEntity.getContentHash() != null) {
+                contentHashes.add(evidenceEntity.getContentHash());
+                continue;
+            }
+
+            try {
+                storage.delete(evidenceEntity.getFileName());
+            } catch (IOException | IllegalArgumentException e) {
+                // The file is left behind, for the EvidenceReconciler to remove
+                log.warn("Could not remove the evidence file {}", evidenceEntity.getFileName(), e);
             }
-        } catch (IOException ignored) {
-            // Do not perform any action if file doesn't exist
-            ignored.printStackTrace();
         }
 
-        evidenceRepository.deleteById(id);
+        contentHashes.forEach(this::deleteUnreferencedContent);
+    }
+
+    /*
+        Remove the stored file with the given content if no evidence refers to it, returning whether it was
+        removed. Checked and removed in one transaction holding the same lock that uploads take, see
+        publishAndSave
+     */
+    public boolean deleteUnreferencedContent(String contentHash) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                lockContent(contentHash);
+                if (evidenceRepository.existsByContentHash(contentHash))
+                    return false;
+
+                try {
+                    contentAddressedStore.delete(contentHash);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }));
+        } catch (UncheckedIOException e) {
+            // The file is left behind, for the EvidenceReconciler to remove
+            log.warn("Could not remove the evidence file with content {}", contentHash, e.getCause());
+            return false;
+        }
+    }
+
+    /*
+        Lock the row of the given content until the current transaction ends, creating the row first if this
+        content has not been stored before. The lock is held in the database, so it is shared by all instances
+     */
+    private void lockContent(String contentHash) {
+        evidenceContentRepository.insertIfAbsent(contentHash);
+        evidenceContentRepository.findByIdForUpdate(contentHash);
     }
 
 }
@@ -0,0 +1,65 @@
+package com.theodoremeras.dissertation.evidence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/*
+    Where the content of evidence files is kept. Objects are identified by keys, which are relative,
+    slash-separated paths such as "blobs/ab/cd/abcd..."; every implementation maps them onto its own
+    namespace. Objects are written whole: readers never see a partially stored object
+ */
+public interface EvidenceStorage {
+
+    record StoredObject(long size, Instant lastModified) {
+    }
+
+    record ListedObject(String key, long size, Instant lastModified) {
+    }
+
+    // Write the content to the object with the given key, replacing any object already stored there
+    void store(String key, InputStream content) throws IOException;
+
+    // Store the content of a local file, which is consumed: implementations may move it into place
+    default void store(String key, Path file) throws IOException {
+        try (InputStream content = Files.newInputStream(file)) {
+            store(key, content);
+        }
+        Files.delete(file);
+    }
+
+    // The size and modification time of the object, or empty if there is none with the given key
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    // Throws NoSuchFileException if there is no object with the given key
+    InputStream open(String key) throws IOException;
+
+    // The given number of bytes of the object, starting at offset
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    // Give an object a new key, replacing any object already stored under it
+    void move(String sourceKey, String targetKey) throws IOException;
+
+    // Does nothing if there is no object with the given key
+    void delete(String key) throws IOException;
+
+    /*
+        Every stored object, in no particular order. Objects are listed lazily as the stream is consumed, a
+        directory or a page of keys at a time, so the whole store is never held in memory. The stream must
+        be closed; errors while it is being consumed are thrown as UncheckedIOException
+     */
+    Stream<ListedObject> list() throws IOException;
+
+    /*
+        The file holding the object on this node's file system, for storage that keeps objects in local
+        files. Such objects can be sent without being copied through the heap (see EvidenceFileSender)
+     */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+}
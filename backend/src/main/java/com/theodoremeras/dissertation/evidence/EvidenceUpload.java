@@ -0,0 +1,60 @@
+package com.theodoremeras.dissertation.evidence;
+
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+/*
+    A chunked upload in progress. The content received so far is held in uploadFile, and the hash of
+    that content is kept up to date as chunks arrive, so completing the upload does not read it again
+ */
+@Getter
+public class EvidenceUpload {
+
+    private final String uploadId;
+
+    private final Long userId;
+
+    private final EcApplicationEntity ecApplication;
+
+    private final String originalFileName;
+
+    private final long size;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final Path uploadFile;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final MessageDigest digest;
+
+    private long offset;
+
+    public EvidenceUpload(
+            String uploadId, Long userId, EcApplicationEntity ecApplication,
+            String originalFileName, long size, Path uploadFile
+    ) {
+        this.uploadId = uploadId;
+        this.userId = userId;
+        this.ecApplication = ecApplication;
+        this.originalFileName = originalFileName;
+        this.size = size;
+        this.uploadFile = uploadFile;
+        this.digest = ContentAddressedStore.sha256();
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    synchronized void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public boolean isComplete() {
+        return getOffset() == size;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.theodoremeras.dissertation.evidence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EvidenceUploadDto {
+
+    private String uploadId;
+
+    private Integer ecApplicationId;
+
+    private String fileName;
+
+    // Total size of the file in bytes, as declared when the upload was started
+    private Long size;
+
+    // Number of bytes received so far, where the next chunk has to start
+    private Long offset;
+
+}
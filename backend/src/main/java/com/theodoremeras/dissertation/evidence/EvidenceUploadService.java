@@ -0,0 +1,158 @@
+package com.theodoremeras.dissertation.evidence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.theodoremeras.dissertation.conf.StorageProperties;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/*
+    Chunked evidence uploads, which can be resumed after a connection drops. Chunks are written
+    straight into the file that becomes the stored evidence, through one fixed-size buffer per
+    request, so an upload is never buffered in memory or copied. Uploads in progress are kept in
+    memory and are abandoned, along with their partial file, once they have been idle for too long
+ */
+@Service
+public class EvidenceUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(EvidenceUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EvidenceService evidenceService;
+
+    private final long maxUploadSize;
+
+    private final int maxUploadsPerUser;
+
+    private final Cache<String, EvidenceUpload> uploads;
+
+    public EvidenceUploadService(EvidenceService evidenceService, StorageProperties properties) {
+        this.evidenceService = evidenceService;
+        this.maxUploadSize = properties.getMaxUploadSize().toBytes();
+        this.maxUploadsPerUser = properties.getMaxUploadsPerUser();
+        this.uploads = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getUploadExpiry())
+                // Remove abandoned uploads when they expire, rather than on the next cache access
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String uploadId, EvidenceUpload upload, RemovalCause cause) -> deleteUploadFile(upload))
+                .build();
+    }
+
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    // Start an upload, unless the user already has as many uploads in progress as they are allowed
+    public synchronized Optional<EvidenceUpload> initiate(
+            Long userId, EcApplicationEntity ecApplication, String fileName, long size
+    ) throws IOException {
+        long uploadsInProgress = uploads.asMap().values().stream()
+                .filter(upload -> upload.getUserId().equals(userId))
+                .count();
+        if (uploadsInProgress >= maxUploadsPerUser)
+            return Optional.empty();
+
+        EvidenceUpload upload = new EvidenceUpload(
+                UUID.randomUUID().toString(), userId, ecApplication, fileName, size, evidenceService.createUploadFile()
+        );
+        uploads.put(upload.getUploadId(), upload);
+
+        return Optional.of(upload);
+    }
+
+    public Optional<EvidenceUpload> findOneById(String uploadId) {
+        return Optional.ofNullable(uploads.getIfPresent(uploadId));
+    }
+
+    /*
+        Write a chunk, which has to start where the content received so far ends. Returns the new offset,
+        or empty if the chunk starts at any other offset. The part of a chunk that arrives before its
+        connection drops is kept, so the client can resume from the offset reported by findOneById.
+        Content beyond the size declared when the upload was started is not read
+     */
+    public Optional<Long> append(EvidenceUpload upload, long offset, InputStream inputStream) throws IOException {
+        synchronized (upload) {
+            if (offset != upload.getOffset())
+                return Optional.empty();
+
+            ReadableByteChannel source = Channels.newChannel(inputStream);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = offset;
+
+            try (FileChannel channel = FileChannel.open(upload.getUploadFile(), StandardOpenOption.WRITE)) {
+                while (position < upload.getSize()) {
+                    buffer.clear().limit((int) Math.min(BUFFER_SIZE, upload.getSize() - position));
+                    if (source.read(buffer) == -1)
+                        break;
+                    buffer.flip();
+
+                    ByteBuffer written = buffer.duplicate();
+                    while (buffer.hasRemaining())
+                        position += channel.write(buffer, position);
+
+                    // Only content that is on disk counts towards the offset and the hash
+                    upload.getDigest().update(written);
+                    upload.setOffset(position);
+                }
+            }
+
+            return Optional.of(position);
+        }
+    }
+
+    // Store a finished upload as evidence; returns empty if some of its content has not been received yet
+    public Optional<EvidenceEntity> complete(EvidenceUpload upload) throws IOException {
+        synchronized (upload) {
+            if (!upload.isComplete() || uploads.getIfPresent(upload.getUploadId()) == null)
+                return Optional.empty();
+
+            String contentHash = HexFormat.of().formatHex(upload.getDigest().digest());
+            EvidenceEntity evidenceEntity = EvidenceEntity.builder()
+                    .fileName(evidenceService.uniqueFileName(upload.getOriginalFileName()))
+                    .ecApplication(upload.getEcApplication())
+                    .build();
+
+            try {
+                return Optional.of(evidenceService.saveUploadedFile(upload.getUploadFile(), contentHash, evidenceEntity));
+            } finally {
+                // The hash can only be taken once, so the upload is over even if it could not be saved
+                uploads.invalidate(upload.getUploadId());
+            }
+        }
+    }
+
+    public void abort(EvidenceUpload upload) {
+        // Waits for a chunk being written or the upload being stored, so neither loses its file midway
+        synchronized (upload) {
+            uploads.invalidate(upload.getUploadId());
+            deleteUploadFile(upload);
+        }
+    }
+
+    private static void deleteUploadFile(EvidenceUpload upload) {
+        try {
+            Files.deleteIfExists(upload.getUploadFile());
+        } catch (IOException e) {
+            // The file is left behind, for the EvidenceReconciler to remove
+            log.warn("Could not remove the upload file {}", upload.getUploadFile(), e);
+        }
+    }
+
+}
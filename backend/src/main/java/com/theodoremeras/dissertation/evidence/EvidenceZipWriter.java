@@ -0,0 +1,118 @@
+package com.theodoremeras.dissertation.evidence;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+    Writes evidence files into a ZIP archive as it is being sent, through a single fixed-size buffer,
+    so that bundling an application's evidence takes constant memory and no temporary files.
+    Formats that are already compressed are stored as they are instead of being compressed again
+ */
+@Component
+public class EvidenceZipWriter {
+
+    private final EvidenceStorage storage;
+
+    public EvidenceZipWriter(EvidenceStorage storage) {
+        this.storage = storage;
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Extensions of file formats which are compressed already, and so would barely shrink
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "pdf", "jpg", "jpeg", "png", "gif", "webp", "heic",
+            "zip", "gz", "7z", "rar", "docx", "xlsx", "pptx", "odt", "mp3", "mp4", "mov"
+    );
+
+    // Write the archive, returning the number of bytes of evidence content put into it
+    public long write(List<StoredEvidenceFile> files, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Set<String> entryNames = new HashSet<>();
+        long contentBytes = 0;
+
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        for (StoredEvidenceFile file : files) {
+            try (InputStream inputStream = storage.open(file.key())) {
+                ZipEntry entry = new ZipEntry(entryName(file.fileName(), entryNames));
+                entry.setLastModifiedTime(FileTime.from(file.lastModified()));
+
+                boolean compressed = isCompressed(file.fileName());
+                if (compressed && file.localFile() != null) {
+                    /*
+                        Stored entries must declare their size and checksum before their content,
+                        which takes an extra read of the file (usually served from the page cache)
+                     */
+                    CRC32 crc = new CRC32();
+                    long size = checksum(file.localFile(), crc, buffer);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(size);
+                    entry.setCompressedSize(size);
+                    entry.setCrc(crc.getValue());
+                } else {
+                    // Reading remote files twice would cost more than passing them through uncompressed
+                    zipOutputStream.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+                }
+
+                zipOutputStream.putNextEntry(entry);
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    zipOutputStream.write(buffer, 0, read);
+                    contentBytes += read;
+                }
+                zipOutputStream.closeEntry();
+            } catch (NoSuchFileException ignored) {
+                // Leave out files that were removed since the evidence was listed
+            }
+        }
+
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+        return contentBytes;
+    }
+
+    private static boolean isCompressed(String fileName) {
+        int extensionStart = fileName.lastIndexOf('.');
+        return extensionStart != -1 &&
+                COMPRESSED_EXTENSIONS.contains(fileName.substring(extensionStart + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static long checksum(Path file, CRC32 crc, byte[] buffer) throws IOException {
+        long size = 0;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    // Entry names are kept flat and unique within the archive
+    private static String entryName(String fileName, Set<String> entryNames) {
+        String baseName = fileName.replace('\\', '_').replace('/', '_');
+
+        String entryName = baseName;
+        for (int i = 1; !entryNames.add(entryName); i++)
+            entryName = i + "_" + baseName;
+
+        return entryName;
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.theodoremeras.dissertation.evidence;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/*
+    Keeps evidence in files under a root directory of the local file system, with keys as relative paths.
+    Content is written to a temporary file next to its destination and then renamed, so a stored object
+    appears all at once. Only suitable for running more than one instance if the root directory is shared
+ */
+public class FileSystemEvidenceStorage implements EvidenceStorage {
+
+    private final Path root;
+
+    public FileSystemEvidenceStorage(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void store(String key, InputStream content) throws IOException {
+        Path destinationFile = resolve(key);
+        Files.createDirectories(destinationFile.getParent());
+
+        Path temporaryFile = Files.createTempFile(destinationFile.getParent(), ".store-", ".part");
+        try {
+            Files.copy(content, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporaryFile, destinationFile, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @Override
+    public void store(String key, Path file) throws IOException {
+        Path destinationFile = resolve(key);
+        Files.createDirectories(destinationFile.getParent());
+
+        try {
+            Files.move(file, destinationFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // The file is on another file system, so it has to be copied
+            EvidenceStorage.super.store(key, file);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+
+        if (!attributes.isRegularFile())
+            return Optional.empty();
+
+        return Optional.of(new StoredObject(attributes.size(), attributes.lastModifiedTime().toInstant()));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(offset);
+
+        // Ends the stream after the requested number of bytes
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0)
+                    return -1;
+
+                int next = super.read();
+                if (next != -1)
+                    remaining--;
+                return next;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (remaining <= 0)
+                    return -1;
+
+                int read = super.read(bytes, offset, (int) Math.min(length, remaining));
+                if (read != -1)
+                    remaining -= read;
+                return read;
+            }
+        };
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        Path destinationFile = resolve(targetKey);
+        Files.createDirectories(destinationFile.getParent());
+        Files.move(resolve(sourceKey), destinationFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Stream<ListedObject> list() throws IOException {
+        if (!Files.isDirectory(root))
+            return Stream.empty();
+
+        return Files.walk(root)
+                .map(this::listedObject)
+                .flatMap(Optional::stream);
+    }
+
+    // Empty for directories, and for files removed since the directory was read
+    private Optional<ListedObject> listedObject(Path file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!attributes.isRegularFile())
+            return Optional.empty();
+
+        String key = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        return Optional.of(new ListedObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    // Keys can not refer to files outside of the root directory
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.equals(root))
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+
+        return file;
+    }
+
+}
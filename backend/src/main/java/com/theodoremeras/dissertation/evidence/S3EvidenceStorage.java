@@ -0,0 +1,166 @@
+package com.theodoremeras.dissertation.evidence;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/*
+    Keeps evidence as objects in a bucket of an S3-compatible object store (AWS S3, MinIO, ...), so every
+    instance of the application reads and writes the same evidence. Content is streamed to the store as a
+    multipart upload, one part at a time, so storing a file only ever holds a single part in memory;
+    content that fits in one part is sent with a single request instead
+ */
+public class S3EvidenceStorage implements EvidenceStorage {
+
+    // S3 requires every part of a multipart upload except the last to be at least 5 MB
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3Client;
+
+    private final String bucket;
+
+    private final String keyPrefix;
+
+    private final int partSize;
+
+    public S3EvidenceStorage(S3Client s3Client, String bucket, String keyPrefix, int partSize) {
+        if (partSize < MIN_PART_SIZE)
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.keyPrefix = keyPrefix;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public void store(String key, InputStream content) throws IOException {
+        byte[] part = new byte[partSize];
+
+        int partLength = content.readNBytes(part, 0, partSize);
+        if (partLength < partSize) {
+            s3Client.putObject(
+                    PutObjectRequest.builder().bucket(bucket).key(objectKey(key)).build(),
+                    requestBody(part, partLength)
+            );
+            return;
+        }
+
+        String uploadId = s3Client.createMultipartUpload(
+                CreateMultipartUploadRequest.builder().bucket(bucket).key(objectKey(key)).build()
+        ).uploadId();
+
+        try {
+            List<CompletedPart> completedParts = new ArrayList<>();
+            while (partLength > 0) {
+                int partNumber = completedParts.size() + 1;
+                UploadPartResponse response = s3Client.uploadPart(
+                        UploadPartRequest.builder()
+                                .bucket(bucket).key(objectKey(key))
+                                .uploadId(uploadId).partNumber(partNumber)
+                                .build(),
+                        requestBody(part, partLength)
+                );
+                completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+
+                partLength = content.readNBytes(part, 0, partSize);
+            }
+
+            s3Client.completeMultipartUpload(
+                    CompleteMultipartUploadRequest.builder()
+                            .bucket(bucket).key(objectKey(key)).uploadId(uploadId)
+                            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                            .build()
+            );
+        } catch (IOException | RuntimeException e) {
+            // Otherwise the parts uploaded so far would be kept (and billed) by the store
+            s3Client.abortMultipartUpload(
+                    AbortMultipartUploadRequest.builder().bucket(bucket).key(objectKey(key)).uploadId(uploadId).build()
+            );
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        try {
+            HeadObjectResponse response = s3Client.headObject(
+                    HeadObjectRequest.builder().bucket(bucket).key(objectKey(key)).build()
+            );
+            return Optional.of(new StoredObject(response.contentLength(), response.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            // Responses to HEAD requests have no body, so a missing object is only told apart by its status
+            if (e.statusCode() == 404)
+                return Optional.empty();
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return getObject(key, GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        return getObject(key, GetObjectRequest.builder()
+                .bucket(bucket).key(objectKey(key))
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build());
+    }
+
+    // Objects are copied within the store, without their content passing through the application
+    @Override
+    public void move(String sourceKey, String targetKey) {
+        s3Client.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucket).sourceKey(objectKey(sourceKey))
+                .destinationBucket(bucket).destinationKey(objectKey(targetKey))
+                .build());
+        delete(sourceKey);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+    }
+
+    // Objects are listed a page of up to 1000 keys at a time, each page being requested as the stream reaches it
+    @Override
+    public Stream<ListedObject> list() {
+        ListObjectsV2Request request = ListObjectsV2Request.builder().bucket(bucket).prefix(keyPrefix).build();
+
+        return s3Client.listObjectsV2Paginator(request).contents().stream()
+                .map(object -> new ListedObject(
+                        object.key().substring(keyPrefix.length()), object.size(), object.lastModified()
+                ));
+    }
+
+    private InputStream getObject(String key, GetObjectRequest request) throws IOException {
+        try {
+            return s3Client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        }
+    }
+
+    private String objectKey(String key) {
+        return keyPrefix + key;
+    }
+
+    // Sends the first length bytes of the buffer, without copying them
+    private static RequestBody requestBody(byte[] buffer, int length) {
+        return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length);
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.theodoremeras.dissertation.evidence;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/*
+    A stored evidence file, along with the metadata needed to serve it: its size, when it was last
+    modified and a strong entity tag identifying this exact content. The content is read from the
+    evidence storage under key; localFile is the file holding it, if the storage keeps it on this
+    node's file system, and null otherwise
+ */
+public record StoredEvidenceFile(
+        String fileName, String key, Path localFile, long size, Instant lastModified, String eTag
+) {
+}
@@ -1,8 +1,9 @@
 package com.theodoremeras.dissertation.module;
 
-import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.department.DepartmentService;
+import com.theodoremeras.dissertation.utils.ConstraintViolationUtility;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -39,17 +40,17 @@ public class ModuleController {
             return new ResponseEntity<>(HttpStatus.CONFLICT);
 
         ModuleEntity moduleEntity = moduleMapper.mapFromDto(moduleDto);
-
-        // Verify that the specified department exists
-        Optional<DepartmentEntity> department = departmentService.findOneById(moduleEntity.getDepartment().getId());
-        if (department.isPresent())
-            moduleEntity.setDepartment(department.get());
-        else
+        moduleEntity.setDepartment(departmentService.getReferenceById(moduleEntity.getDepartment().getId()));
+
+        // The department is not loaded; if it does not exist, the insert violates the foreign key
+        try {
+            ModuleEntity savedModuleEntity = moduleService.save(moduleEntity);
+            return new ResponseEntity<>(moduleMapper.mapToDto(savedModuleEntity), HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        ModuleEntity savedModuleEntity = moduleService.save(moduleEntity);
-
-        return new ResponseEntity<>(moduleMapper.mapToDto(savedModuleEntity), HttpStatus.CREATED);
+        }
     }
 
     @GetMapping(path = "/modules")
@@ -78,13 +79,21 @@ public class ModuleController {
     public ResponseEntity<ModuleDto> partialUpdateModule(
             @PathVariable("code") String moduleCode, @RequestBody ModuleDto moduleDto
     ) {
-        if (!moduleService.exists(moduleCode))
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
         moduleDto.setCode(moduleCode);
         ModuleEntity moduleEntity = moduleMapper.mapFromDto(moduleDto);
-        ModuleEntity updatedModuleEntity = moduleService.partialUpdate(moduleCode, moduleEntity);
-        return new ResponseEntity<>(moduleMapper.mapToDto(updatedModuleEntity), HttpStatus.OK);
+        if (moduleEntity.getDepartment() != null)
+            moduleEntity.setDepartment(departmentService.getReferenceById(moduleEntity.getDepartment().getId()));
+
+        // Nothing is returned if there is no module with this code, and a missing department violates the foreign key
+        try {
+            return moduleService.partialUpdate(moduleCode, moduleEntity)
+                    .map(updatedModuleEntity -> new ResponseEntity<>(moduleMapper.mapToDto(updatedModuleEntity), HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
     }
 
     @DeleteMapping(path = "/modules/{code}")
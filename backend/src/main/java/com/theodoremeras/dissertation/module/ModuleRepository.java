@@ -1,13 +1,25 @@
 package com.theodoremeras.dissertation.module;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+/*
+    Modules are reference data, so query results are kept in the query cache; the modules themselves
+    are then resolved from the second-level cache
+ */
 @Repository
 public interface ModuleRepository extends JpaRepository<ModuleEntity, String> {
 
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ModuleEntity> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ModuleEntity> findAllByCodeIn(List<String> codes);
 
 }
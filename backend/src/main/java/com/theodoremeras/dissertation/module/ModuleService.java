@@ -1,8 +1,12 @@
 package com.theodoremeras.dissertation.module;
 
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -10,10 +14,14 @@ public class ModuleService {
 
     private final ModuleRepository moduleRepository;
 
-    public ModuleService(ModuleRepository moduleRepository) {
+    private final PartialUpdater partialUpdater;
+
+    public ModuleService(ModuleRepository moduleRepository, PartialUpdater partialUpdater) {
         this.moduleRepository = moduleRepository;
+        this.partialUpdater = partialUpdater;
     }
 
+    @Transactional
     public ModuleEntity save(ModuleEntity moduleEntity) {
         return moduleRepository.save(moduleEntity);
     }
@@ -30,20 +38,32 @@ public class ModuleService {
         return moduleRepository.findById(moduleCode);
     }
 
+    // Reference to the module for use as a foreign key, without loading it
+    public ModuleEntity getReferenceByCode(String moduleCode) {
+        return moduleRepository.getReferenceById(moduleCode);
+    }
+
     public Boolean exists(String moduleCode) {
         return moduleRepository.existsById(moduleCode);
     }
 
-    public ModuleEntity partialUpdate(String moduleCode, ModuleEntity moduleEntity) {
-        moduleEntity.setCode(moduleCode);
+    /*
+        Write the supplied fields in a single UPDATE statement and read the module back, or return
+        nothing if there is no such module. The UPDATE evicts the cached modules
+     */
+    @Transactional
+    public Optional<ModuleEntity> partialUpdate(String moduleCode, ModuleEntity moduleEntity) {
+        Map<String, Object> values = new HashMap<>();
+        Optional.ofNullable(moduleEntity.getName()).ifPresent(name -> values.put("name", name));
+        Optional.ofNullable(moduleEntity.getDepartment()).ifPresent(department -> values.put("department", department));
 
-        return moduleRepository.findById(moduleCode).map(existingModule -> {
-            Optional.ofNullable(moduleEntity.getName()).ifPresent(existingModule::setName);
-            Optional.ofNullable(moduleEntity.getDepartment()).ifPresent(existingModule::setDepartment);
-            return moduleRepository.save(existingModule);
-        }).orElseThrow(() -> new RuntimeException("Could not find module with code " + moduleCode));
+        if (!partialUpdater.update(ModuleEntity.class, "code", moduleCode, values))
+            return Optional.empty();
+
+        return moduleRepository.findById(moduleCode);
     }
 
+    @Transactional
     public void delete(String moduleCode) {
         moduleRepository.deleteById(moduleCode);
     }
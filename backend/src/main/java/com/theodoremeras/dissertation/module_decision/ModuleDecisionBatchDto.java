@@ -0,0 +1,23 @@
+package com.theodoremeras.dissertation.module_decision;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ModuleDecisionBatchDto {
+
+    @NotEmpty
+    @Size(max = ModuleDecisionService.MAX_BATCH_SIZE)
+    private List<@Valid ModuleDecisionDto> moduleDecisions;
+
+}
@@ -4,7 +4,9 @@ import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
 import com.theodoremeras.dissertation.module_request.ModuleRequestService;
 import com.theodoremeras.dissertation.user.UserEntity;
 import com.theodoremeras.dissertation.user.UserService;
+import com.theodoremeras.dissertation.utils.ConstraintViolationUtility;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -43,29 +46,79 @@ public class ModuleDecisionController {
         moduleDecisionDto.setId(null);
 
         ModuleDecisionEntity moduleDecisionEntity = moduleDecisionMapper.mapFromDto(moduleDecisionDto);
+        Integer moduleRequestId = moduleDecisionEntity.getModuleRequest().getId();
 
-        // Verify that the specified module request exists
-        Optional<ModuleRequestEntity> moduleRequest =
-                moduleRequestService.findOneById(moduleDecisionEntity.getModuleRequest().getId());
-        if (moduleRequest.isPresent())
-            moduleDecisionEntity.setModuleRequest(moduleRequest.get());
-        else
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        // Verify that the specified staff member exists
-        Optional<UserEntity> staff =
-                userService.findOneById(moduleDecisionEntity.getStaffMember().getId());
-        if (staff.isPresent())
-            moduleDecisionEntity.setStaffMember(staff.get());
-        else
+        // Verify that the specified module request exists, reading only the id of its EC application
+        Optional<Integer> requestEcApplicationId = moduleRequestService.findEcApplicationIdById(moduleRequestId);
+        if (requestEcApplicationId.isEmpty())
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
         // Verify that the EC application id is the same as in the module request
-        if (!Objects.equals(moduleDecisionEntity.getEcApplication().getId(), moduleRequest.get().getEcApplication().getId()))
+        if (!Objects.equals(moduleDecisionEntity.getEcApplication().getId(), requestEcApplicationId.get()))
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        ModuleDecisionEntity savedModuleDecisionEntity = moduleDecisionService.save(moduleDecisionEntity);
-        return new ResponseEntity<>(moduleDecisionMapper.mapToDto(savedModuleDecisionEntity), HttpStatus.CREATED);
+        moduleDecisionEntity.setModuleRequest(moduleRequestService.getReferenceById(moduleRequestId));
+        moduleDecisionEntity.setStaffMember(userService.getReferenceById(moduleDecisionEntity.getStaffMember().getId()));
+
+        // The staff member is not loaded; if they do not exist, the insert violates the foreign key
+        try {
+            ModuleDecisionEntity savedModuleDecisionEntity = moduleDecisionService.save(moduleDecisionEntity);
+            return new ResponseEntity<>(moduleDecisionMapper.mapToDto(savedModuleDecisionEntity), HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /*
+        Create several module decisions at once. The referenced module requests and staff members are
+        each verified with a single query, and the decisions are created in one transaction, so that
+        either all or none of them are created
+     */
+    @PostMapping(path = "/module-decisions/batch")
+    public ResponseEntity<List<ModuleDecisionDto>> createModuleDecisions(
+            @RequestBody @Valid ModuleDecisionBatchDto moduleDecisionBatchDto
+    ) {
+        List<ModuleDecisionEntity> moduleDecisionEntities = moduleDecisionBatchDto.getModuleDecisions().stream()
+                .map(moduleDecisionDto -> {
+                    // Ids will be autogenerated
+                    moduleDecisionDto.setId(null);
+                    return moduleDecisionMapper.mapFromDto(moduleDecisionDto);
+                })
+                .collect(Collectors.toList());
+
+        // Verify that the specified module requests exist
+        Map<Integer, ModuleRequestEntity> moduleRequests = moduleRequestService.findAllByIdIn(
+                moduleDecisionEntities.stream().map(entity -> entity.getModuleRequest().getId())
+                        .distinct().collect(Collectors.toList())
+        ).stream().collect(Collectors.toMap(ModuleRequestEntity::getId, Function.identity()));
+
+        // Verify that the specified staff members exist
+        Map<Integer, UserEntity> staff = userService.findAllByIdIn(
+                moduleDecisionEntities.stream().map(entity -> entity.getStaffMember().getId())
+                        .distinct().collect(Collectors.toList())
+        ).stream().collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+
+        for (ModuleDecisionEntity moduleDecisionEntity : moduleDecisionEntities) {
+            ModuleRequestEntity moduleRequest = moduleRequests.get(moduleDecisionEntity.getModuleRequest().getId());
+            UserEntity staffMember = staff.get(moduleDecisionEntity.getStaffMember().getId());
+            if (moduleRequest == null || staffMember == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            // Verify that the EC application id is the same as in the module request
+            if (!Objects.equals(moduleDecisionEntity.getEcApplication().getId(), moduleRequest.getEcApplication().getId()))
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+            moduleDecisionEntity.setModuleRequest(moduleRequest);
+            moduleDecisionEntity.setStaffMember(staffMember);
+        }
+
+        List<ModuleDecisionEntity> savedModuleDecisionEntities = moduleDecisionService.saveAll(moduleDecisionEntities);
+        return new ResponseEntity<>(
+                savedModuleDecisionEntities.stream().map(moduleDecisionMapper::mapToDto).collect(Collectors.toList()),
+                HttpStatus.CREATED
+        );
     }
 
     @GetMapping(path = "/module-decisions")
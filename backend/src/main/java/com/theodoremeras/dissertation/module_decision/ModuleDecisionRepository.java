@@ -1,6 +1,9 @@
 package com.theodoremeras.dissertation.module_decision;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,9 @@ public interface ModuleDecisionRepository extends JpaRepository<ModuleDecisionEn
 
     List<ModuleDecisionEntity> findAllByEcApplicationIdIn(List<Integer> ecApplicationIds);
 
+    // Delete the decisions of all the given EC applications in a single statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ModuleDecisionEntity d WHERE d.ecApplication.id IN :ecApplicationIds")
+    int deleteAllByEcApplicationIdIn(@Param("ecApplicationIds") List<Integer> ecApplicationIds);
+
 }
@@ -1,6 +1,9 @@
 package com.theodoremeras.dissertation.module_decision;
 
+import com.theodoremeras.dissertation.ec_application.EcApplicationService;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -8,14 +11,84 @@ import java.util.Optional;
 @Service
 public class ModuleDecisionService {
 
+    // A decision (i.e. approve or reject) must be shared by this many staff members for it to be final
+    public static final int DECISION_QUORUM = 2;
+
+    // Largest number of module decisions that can be created in a single batch
+    public static final int MAX_BATCH_SIZE = 100;
+
     private final ModuleDecisionRepository moduleDecisionRepository;
 
-    public ModuleDecisionService(ModuleDecisionRepository moduleDecisionRepository) {
+    private final ModuleRequestRepository moduleRequestRepository;
+
+    private final EcApplicationService ecApplicationService;
+
+    public ModuleDecisionService(
+            ModuleDecisionRepository moduleDecisionRepository, ModuleRequestRepository moduleRequestRepository,
+            EcApplicationService ecApplicationService
+    ) {
         this.moduleDecisionRepository = moduleDecisionRepository;
+        this.moduleRequestRepository = moduleRequestRepository;
+        this.ecApplicationService = ecApplicationService;
     }
 
+    /*
+        Save the decision and, if it is a new one, add it to the tally of its module request in the
+        same transaction, finalising the request's outcome once the quorum is reached and updating
+        the status of the EC application accordingly
+     */
+    @Transactional
     public ModuleDecisionEntity save(ModuleDecisionEntity moduleDecisionEntity) {
-        return moduleDecisionRepository.save(moduleDecisionEntity);
+        boolean isNew = moduleDecisionEntity.getId() == null ||
+                !moduleDecisionRepository.existsById(moduleDecisionEntity.getId());
+        Integer ecApplicationId = moduleDecisionEntity.getEcApplication().getId();
+
+        if (isNew)
+            ecApplicationService.lock(ecApplicationId);
+
+        ModuleDecisionEntity savedModuleDecisionEntity = moduleDecisionRepository.save(moduleDecisionEntity);
+
+        if (isNew) {
+            Integer moduleRequestId = savedModuleDecisionEntity.getModuleRequest().getId();
+            if (Boolean.TRUE.equals(savedModuleDecisionEntity.getIsApproved()))
+                moduleRequestRepository.recordApproval(moduleRequestId, DECISION_QUORUM);
+            else if (Boolean.FALSE.equals(savedModuleDecisionEntity.getIsApproved()))
+                moduleRequestRepository.recordRejection(moduleRequestId, DECISION_QUORUM);
+
+            ecApplicationService.refreshStatus(ecApplicationId);
+        }
+
+        return savedModuleDecisionEntity;
+    }
+
+    /*
+        Save new decisions in one transaction, so that either all or none of them are created. The
+        affected EC applications are locked in order of id, so that concurrent batches cannot deadlock.
+        The inserts are sent in JDBC batches before the first tally update, after which each decision
+        is added to the tally of its module request and each EC application's status refreshed once
+     */
+    @Transactional
+    public List<ModuleDecisionEntity> saveAll(List<ModuleDecisionEntity> moduleDecisionEntities) {
+        List<Integer> ecApplicationIds = moduleDecisionEntities.stream()
+                .map(moduleDecisionEntity -> moduleDecisionEntity.getEcApplication().getId())
+                .distinct()
+                .sorted()
+                .toList();
+        ecApplicationIds.forEach(ecApplicationService::lock);
+
+        List<ModuleDecisionEntity> savedModuleDecisionEntities = moduleDecisionRepository.saveAll(moduleDecisionEntities);
+
+        for (ModuleDecisionEntity savedModuleDecisionEntity : savedModuleDecisionEntities) {
+            Integer moduleRequestId = savedModuleDecisionEntity.getModuleRequest().getId();
+            if (Boolean.TRUE.equals(savedModuleDecisionEntity.getIsApproved()))
+                moduleRequestRepository.recordApproval(moduleRequestId, DECISION_QUORUM);
+            else if (Boolean.FALSE.equals(savedModuleDecisionEntity.getIsApproved()))
+                moduleRequestRepository.recordRejection(moduleRequestId, DECISION_QUORUM);
+        }
+
+        ecApplicationIds.forEach(ecApplicationService::refreshStatus);
+
+        return savedModuleDecisionEntities;
     }
 
     public List<ModuleDecisionEntity> findAll() {
@@ -42,8 +115,24 @@ public class ModuleDecisionService {
         return moduleDecisionRepository.existsById(id);
     }
 
+    // Delete the decision and remove it from the tally of its module request
+    @Transactional
     public void delete(Integer id) {
-        moduleDecisionRepository.deleteById(id);
+        moduleDecisionRepository.findById(id).ifPresent(moduleDecisionEntity -> {
+            Integer moduleRequestId = moduleDecisionEntity.getModuleRequest().getId();
+            Integer ecApplicationId = moduleDecisionEntity.getEcApplication().getId();
+            Boolean isApproved = moduleDecisionEntity.getIsApproved();
+
+            ecApplicationService.lock(ecApplicationId);
+            moduleDecisionRepository.delete(moduleDecisionEntity);
+
+            if (Boolean.TRUE.equals(isApproved))
+                moduleRequestRepository.revokeApproval(moduleRequestId, DECISION_QUORUM);
+            else if (Boolean.FALSE.equals(isApproved))
+                moduleRequestRepository.revokeRejection(moduleRequestId, DECISION_QUORUM);
+
+            ecApplicationService.refreshStatus(ecApplicationId);
+        });
     }
 
 }
@@ -0,0 +1,24 @@
+package com.theodoremeras.dissertation.module_request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ModuleRequestBatchDto {
+
+    // Module requests created together, e.g. those of a newly submitted EC application
+    @NotEmpty
+    @Size(max = ModuleRequestService.MAX_BATCH_SIZE)
+    private List<@Valid ModuleRequestDto> moduleRequests;
+
+}
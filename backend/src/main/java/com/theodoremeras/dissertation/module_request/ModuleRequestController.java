@@ -4,7 +4,9 @@ import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationService;
 import com.theodoremeras.dissertation.module.ModuleEntity;
 import com.theodoremeras.dissertation.module.ModuleService;
+import com.theodoremeras.dissertation.utils.ConstraintViolationUtility;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -14,7 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -46,25 +48,64 @@ public class ModuleRequestController {
         requestDto.setId(null);
 
         ModuleRequestEntity requestEntity = moduleRequestMapper.mapFromDto(requestDto);
-
-        // Verify that the specified EC application exists
-        Optional<EcApplicationEntity> ecApplication =
-                ecApplicationService.findOneById(requestEntity.getEcApplication().getId());
-        if (ecApplication.isPresent())
-            requestEntity.setEcApplication(ecApplication.get());
-        else
+        requestEntity.setEcApplication(ecApplicationService.getReferenceById(requestEntity.getEcApplication().getId()));
+        requestEntity.setModule(moduleService.getReferenceByCode(requestEntity.getModule().getCode()));
+
+        // The EC application and module are not loaded; if either does not exist, the insert violates a foreign key
+        try {
+            ModuleRequestEntity savedRequestEntity = moduleRequestService.save(requestEntity);
+            return new ResponseEntity<>(moduleRequestMapper.mapToDto(savedRequestEntity), HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
 
-        // Verify that the specified module exists
-        Optional<ModuleEntity> module =
-                moduleService.findOneByCode(requestEntity.getModule().getCode());
-        if (module.isPresent())
-            requestEntity.setModule(module.get());
-        else
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    /*
+        Create several module requests at once, e.g. all those of a newly submitted EC application.
+        The referenced EC applications and modules are each verified with a single query, and the
+        requests are created in one transaction, so that either all or none of them are created
+     */
+    @PostMapping(path = "/module-requests/batch")
+    public ResponseEntity<List<ModuleRequestDto>> createModuleRequests(
+            @RequestBody @Valid ModuleRequestBatchDto requestBatchDto
+    ) {
+        List<ModuleRequestEntity> requestEntities = requestBatchDto.getModuleRequests().stream()
+                .map(requestDto -> {
+                    // Ids will be autogenerated
+                    requestDto.setId(null);
+                    return moduleRequestMapper.mapFromDto(requestDto);
+                })
+                .collect(Collectors.toList());
 
-        ModuleRequestEntity savedRequestEntity = moduleRequestService.save(requestEntity);
-        return new ResponseEntity<>(moduleRequestMapper.mapToDto(savedRequestEntity), HttpStatus.CREATED);
+        // Verify that the specified EC applications exist
+        Map<Integer, EcApplicationEntity> ecApplications = ecApplicationService.findAllByIdIn(
+                requestEntities.stream().map(requestEntity -> requestEntity.getEcApplication().getId())
+                        .distinct().collect(Collectors.toList())
+        ).stream().collect(Collectors.toMap(EcApplicationEntity::getId, Function.identity()));
+
+        // Verify that the specified modules exist
+        Map<String, ModuleEntity> modules = moduleService.findAllByModuleCodeIn(
+                requestEntities.stream().map(requestEntity -> requestEntity.getModule().getCode())
+                        .distinct().collect(Collectors.toList())
+        ).stream().collect(Collectors.toMap(ModuleEntity::getCode, Function.identity()));
+
+        for (ModuleRequestEntity requestEntity : requestEntities) {
+            EcApplicationEntity ecApplication = ecApplications.get(requestEntity.getEcApplication().getId());
+            ModuleEntity module = modules.get(requestEntity.getModule().getCode());
+            if (ecApplication == null || module == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            requestEntity.setEcApplication(ecApplication);
+            requestEntity.setModule(module);
+        }
+
+        List<ModuleRequestEntity> savedRequestEntities = moduleRequestService.saveAll(requestEntities);
+        return new ResponseEntity<>(
+                savedRequestEntities.stream().map(moduleRequestMapper::mapToDto).collect(Collectors.toList()),
+                HttpStatus.CREATED
+        );
     }
 
     @GetMapping(path = "/module-requests")
@@ -26,4 +26,11 @@ public class ModuleRequestDto {
     @NotBlank
     private String moduleCode;
 
+    // Read-only; derived from the module decisions made on the request
+    private Integer approvalCount;
+
+    private Integer rejectionCount;
+
+    private Boolean finalOutcome;
+
 }
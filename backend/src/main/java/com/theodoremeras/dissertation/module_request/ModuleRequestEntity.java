@@ -29,6 +29,21 @@ public class ModuleRequestEntity {
 
     private String relatedAssessment;
 
+    /*
+        Running tally of the staff decisions made on this request, maintained by ModuleDecisionService
+        so that the outcome of a request can be read without loading all of its decisions
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer approvalCount = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer rejectionCount = 0;
+
+    // True if approved, false if rejected, null while no final decision has been made
+    private Boolean finalOutcome;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "application_id", nullable = false)
     @ToString.Exclude
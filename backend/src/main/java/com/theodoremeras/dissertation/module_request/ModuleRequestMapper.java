@@ -14,6 +14,9 @@ public class ModuleRequestMapper {
                 .relatedAssessment(moduleRequestEntity.getRelatedAssessment())
                 .ecApplicationId(moduleRequestEntity.getEcApplication().getId())
                 .moduleCode(moduleRequestEntity.getModule().getCode())
+                .approvalCount(moduleRequestEntity.getApprovalCount())
+                .rejectionCount(moduleRequestEntity.getRejectionCount())
+                .finalOutcome(moduleRequestEntity.getFinalOutcome())
                 .build();
     }
 
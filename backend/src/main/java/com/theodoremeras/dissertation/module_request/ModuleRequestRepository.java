@@ -2,13 +2,74 @@ package com.theodoremeras.dissertation.module_request;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ModuleRequestRepository extends JpaRepository<ModuleRequestEntity, Integer> {
 
     List<ModuleRequestEntity> findAllByEcApplicationIdIn(List<Integer> ids);
 
+    List<ModuleRequestEntity> findAllByIdIn(List<Integer> ids);
+
+    // Only the id of the EC application is read, without loading the request or the application
+    @Query("SELECT r.ecApplication.id FROM ModuleRequestEntity r WHERE r.id = :id")
+    Optional<Integer> findEcApplicationIdById(@Param("id") Integer id);
+
+    boolean existsByEcApplicationIdAndFinalOutcomeIsNull(Integer ecApplicationId);
+
+    // Delete the requests of all the given EC applications in a single statement; their decisions must be deleted first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ModuleRequestEntity r WHERE r.ecApplication.id IN :ecApplicationIds")
+    int deleteAllByEcApplicationIdIn(@Param("ecApplicationIds") List<Integer> ecApplicationIds);
+
+    /*
+        Decision tally updates: each is a single UPDATE statement, so concurrent decisions on the same
+        request are serialised by the row lock and always see each other's counts. All SET expressions
+        are evaluated against the row as it was before the update. Once a final outcome has been
+        reached, further decisions do not change it
+     */
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ModuleRequestEntity r SET " +
+            "r.approvalCount = r.approvalCount + 1, " +
+            "r.finalOutcome = CASE WHEN r.finalOutcome IS NULL AND r.approvalCount + 1 >= :quorum THEN true " +
+            "ELSE r.finalOutcome END " +
+            "WHERE r.id = :id")
+    int recordApproval(@Param("id") Integer id, @Param("quorum") int quorum);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ModuleRequestEntity r SET " +
+            "r.rejectionCount = r.rejectionCount + 1, " +
+            "r.finalOutcome = CASE WHEN r.finalOutcome IS NULL AND r.rejectionCount + 1 >= :quorum THEN false " +
+            "ELSE r.finalOutcome END " +
+            "WHERE r.id = :id")
+    int recordRejection(@Param("id") Integer id, @Param("quorum") int quorum);
+
+    // Removing an approval can only undo an approved outcome, in which case a rejection quorum may now apply
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ModuleRequestEntity r SET " +
+            "r.approvalCount = r.approvalCount - 1, " +
+            "r.finalOutcome = CASE WHEN r.finalOutcome = false THEN false " +
+            "WHEN r.approvalCount - 1 >= :quorum THEN true " +
+            "WHEN r.rejectionCount >= :quorum THEN false " +
+            "ELSE NULL END " +
+            "WHERE r.id = :id")
+    int revokeApproval(@Param("id") Integer id, @Param("quorum") int quorum);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ModuleRequestEntity r SET " +
+            "r.rejectionCount = r.rejectionCount - 1, " +
+            "r.finalOutcome = CASE WHEN r.finalOutcome = true THEN true " +
+            "WHEN r.rejectionCount - 1 >= :quorum THEN false " +
+            "WHEN r.approvalCount >= :quorum THEN true " +
+            "ELSE NULL END " +
+            "WHERE r.id = :id")
+    int revokeRejection(@Param("id") Integer id, @Param("quorum") int quorum);
+
 }
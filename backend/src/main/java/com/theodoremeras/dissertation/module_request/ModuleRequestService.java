@@ -1,6 +1,8 @@
 package com.theodoremeras.dissertation.module_request;
 
+import com.theodoremeras.dissertation.ec_application.EcApplicationService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -8,14 +10,43 @@ import java.util.Optional;
 @Service
 public class ModuleRequestService {
 
+    // Largest number of module requests that can be created in a single batch
+    public static final int MAX_BATCH_SIZE = 100;
+
     private final ModuleRequestRepository moduleRequestRepository;
 
-    public ModuleRequestService(ModuleRequestRepository moduleRequestRepository) {
+    private final EcApplicationService ecApplicationService;
+
+    public ModuleRequestService(
+            ModuleRequestRepository moduleRequestRepository, EcApplicationService ecApplicationService
+    ) {
         this.moduleRequestRepository = moduleRequestRepository;
+        this.ecApplicationService = ecApplicationService;
     }
 
+    // Adding a module request can reopen a closed EC application, so its status is refreshed
+    @Transactional
     public ModuleRequestEntity save(ModuleRequestEntity moduleRequestEntity) {
-        return moduleRequestRepository.save(moduleRequestEntity);
+        ModuleRequestEntity savedModuleRequestEntity = moduleRequestRepository.save(moduleRequestEntity);
+        ecApplicationService.refreshStatus(savedModuleRequestEntity.getEcApplication().getId());
+        return savedModuleRequestEntity;
+    }
+
+    /*
+        Save the module requests in one transaction, so that either all or none of them are created.
+        Their inserts are sent to the database in JDBC batches, and the status of each affected EC
+        application is refreshed once, after all of its requests have been added
+     */
+    @Transactional
+    public List<ModuleRequestEntity> saveAll(List<ModuleRequestEntity> moduleRequestEntities) {
+        List<ModuleRequestEntity> savedModuleRequestEntities = moduleRequestRepository.saveAll(moduleRequestEntities);
+
+        savedModuleRequestEntities.stream()
+                .map(moduleRequestEntity -> moduleRequestEntity.getEcApplication().getId())
+                .distinct()
+                .forEach(ecApplicationService::refreshStatus);
+
+        return savedModuleRequestEntities;
     }
 
     public List<ModuleRequestEntity> findAll() {
@@ -26,16 +57,34 @@ public class ModuleRequestService {
         return moduleRequestRepository.findAllByEcApplicationIdIn(ecApplicationIds);
     }
 
+    public List<ModuleRequestEntity> findAllByIdIn(List<Integer> ids) {
+        return moduleRequestRepository.findAllByIdIn(ids);
+    }
+
     public Optional<ModuleRequestEntity> findOneById(Integer id) {
         return moduleRequestRepository.findById(id);
     }
 
+    public Optional<Integer> findEcApplicationIdById(Integer id) {
+        return moduleRequestRepository.findEcApplicationIdById(id);
+    }
+
+    public ModuleRequestEntity getReferenceById(Integer id) {
+        return moduleRequestRepository.getReferenceById(id);
+    }
+
     public Boolean exists(Integer id) {
         return moduleRequestRepository.existsById(id);
     }
 
+    // Removing an undecided module request can close its EC application, so its status is refreshed
+    @Transactional
     public void delete(Integer id) {
-        moduleRequestRepository.deleteById(id);
+        moduleRequestRepository.findById(id).ifPresent(moduleRequestEntity -> {
+            Integer ecApplicationId = moduleRequestEntity.getEcApplication().getId();
+            moduleRequestRepository.delete(moduleRequestEntity);
+            ecApplicationService.refreshStatus(ecApplicationId);
+        });
     }
 
 }
@@ -1,13 +1,22 @@
 package com.theodoremeras.dissertation.role;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+// Roles are reference data, so role queries are kept in the query cache
 @Repository
 public interface RoleRepository extends JpaRepository<RoleEntity, Integer> {
 
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<RoleEntity> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<RoleEntity> findAllByName(String roleName);
 
 }
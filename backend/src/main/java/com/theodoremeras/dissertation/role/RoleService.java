@@ -1,6 +1,7 @@
 package com.theodoremeras.dissertation.role;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +15,7 @@ public class RoleService {
         this.roleRepository = roleRepository;
     }
 
+    @Transactional
     public RoleEntity save(RoleEntity roleEntity) {
         return roleRepository.save(roleEntity);
     }
@@ -34,6 +36,7 @@ public class RoleService {
         return roleRepository.existsById(id);
     }
 
+    @Transactional
     public void delete(Integer id) {
         roleRepository.deleteById(id);
     }
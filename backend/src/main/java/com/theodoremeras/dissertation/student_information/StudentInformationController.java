@@ -1,12 +1,16 @@
 package com.theodoremeras.dissertation.student_information;
 
-import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.authentication.AuthenticatedUser;
+import com.theodoremeras.dissertation.authentication.CurrentUser;
 import com.theodoremeras.dissertation.user.UserService;
+import com.theodoremeras.dissertation.utils.ConstraintViolationUtility;
+import com.theodoremeras.dissertation.utils.VersionETagUtility;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
@@ -23,16 +27,13 @@ public class StudentInformationController {
 
     private final StudentInformationMapper studentInformationMapper;
 
-    private final JwtDecoder jwtDecoder;
-
     public StudentInformationController(
             StudentInformationService studentInformationService,
-            UserService userService, StudentInformationMapper studentInformationMapper, JwtDecoder jwtDecoder
+            UserService userService, StudentInformationMapper studentInformationMapper
     ) {
         this.studentInformationService = studentInformationService;
         this.userService = userService;
         this.studentInformationMapper = studentInformationMapper;
-        this.jwtDecoder = jwtDecoder;
     }
 
     @PostMapping(path = "/student-information")
@@ -43,32 +44,32 @@ public class StudentInformationController {
         studentInformationDto.setId(null);
 
         StudentInformationEntity studentInformationEntity = studentInformationMapper.mapFromDto(studentInformationDto);
-
-        // Verify that the specified student exists
-        Optional<UserEntity> student = userService.findOneById(studentInformationEntity.getStudent().getId());
-        if (student.isPresent())
-            studentInformationEntity.setStudent(student.get());
-        else
+        studentInformationEntity.setStudent(userService.getReferenceById(studentInformationEntity.getStudent().getId()));
+
+        // The student is not loaded; if they do not exist, the insert violates the foreign key
+        try {
+            StudentInformationEntity savedStudentInformationEntity =
+                    studentInformationService.save(studentInformationEntity);
+
+            return new ResponseEntity<>(
+                    studentInformationMapper.mapToDto(savedStudentInformationEntity),
+                    HttpStatus.CREATED
+            );
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolationUtility.isForeignKeyViolation(e))
+                throw e;
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        StudentInformationEntity savedStudentInformationEntity =
-                studentInformationService.save(studentInformationEntity);
-
-        return new ResponseEntity<>(
-                studentInformationMapper.mapToDto(savedStudentInformationEntity),
-                HttpStatus.CREATED
-        );
+        }
     }
 
     @GetMapping(path = "/student-information")
     public ResponseEntity<List<StudentInformationDto>> getAllStudentInformation(
             @RequestParam(value = "studentId", required = false) Integer studentId,
-            @RequestHeader(name = "Authorization") String token
+            @CurrentUser AuthenticatedUser currentUser
     ) {
-        // Extract the user's id and role from the token
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        Long userId = jwt.getClaim("userId");
-        String userRole = jwt.getClaim("roles");
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
 
         List<StudentInformationEntity> studentInformationEntities;
 
@@ -101,31 +102,32 @@ public class StudentInformationController {
     @PatchMapping(path = "/student-information/{id}")
     public ResponseEntity<StudentInformationDto> partialUpdateStudentInformation(
             @PathVariable("id") Integer id, @RequestBody StudentInformationDto studentInformationDto,
-            @RequestHeader(name = "Authorization") String token
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @CurrentUser AuthenticatedUser currentUser
     ) {
-        // Extract the user's id and role from the token
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        Long userId = jwt.getClaim("userId");
-        String userRole = jwt.getClaim("roles");
-
-        if (!studentInformationService.exists(id))
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        // Students are only allowed to edit their own information
-        if (userRole.equals("Student") &&
-                studentInformationService.findOneById(id).get().getStudent().getId() != userId.intValue()) {
-            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
+
+        // Students are only allowed to edit their own information, so only then is it read first
+        if (userRole.equals("Student")) {
+            Optional<StudentInformationEntity> foundStudentInformation = studentInformationService.findOneById(id);
+            if (foundStudentInformation.isEmpty())
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            if (foundStudentInformation.get().getStudent().getId() != userId.intValue())
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
-
         studentInformationDto.setId(id);
         StudentInformationEntity studentInformationEntity = studentInformationMapper.mapFromDto(studentInformationDto);
-        StudentInformationEntity updatedStudentInformationEntity =
-                studentInformationService.partialUpdate(id, studentInformationEntity);
-        return new ResponseEntity<>(
-                studentInformationMapper.mapToDto(updatedStudentInformationEntity),
-                HttpStatus.OK
-        );
+
+        // Nothing is returned if there is no student information with this id
+        return studentInformationService
+                .partialUpdate(id, studentInformationEntity, VersionETagUtility.parseIfMatch(ifMatch))
+                .map(updatedStudentInformationEntity -> ResponseEntity.status(HttpStatus.OK)
+                        .eTag(VersionETagUtility.toETag(updatedStudentInformationEntity.getVersion()))
+                        .body(studentInformationMapper.mapToDto(updatedStudentInformationEntity)))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping(path = "/student-information/{id}")
@@ -134,6 +136,13 @@ public class StudentInformationController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // Thrown when an If-Match header names a version of the student information that has since been updated
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public Map<String, String> handleOptimisticLockingExceptions(ObjectOptimisticLockingFailureException ex) {
+        return Map.of("version", "The student information has been updated since it was read");
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, String> handleValidationExceptions(
@@ -24,4 +24,7 @@ public class StudentInformationDto {
 
     @NotNull
     private Integer studentId;
+
+    // Read-only; can be sent back as an If-Match header when updating
+    private Long version;
 }
@@ -37,6 +37,10 @@ public class StudentInformationEntity {
     @ToString.Exclude
     private UserEntity student;
 
+    // Incremented by every update, so that updates based on a stale copy can be rejected
+    @Version
+    private long version;
+
     @Generated
     @Override
     public final boolean equals(Object o) {
@@ -14,6 +14,7 @@ public class StudentInformationMapper {
                 .hasLsp(studentInformationEntity.getHasLsp())
                 .additionalDetails(studentInformationEntity.getAdditionalDetails())
                 .studentId(studentInformationEntity.getStudent().getId())
+                .version(studentInformationEntity.getVersion())
                 .build();
     }
 
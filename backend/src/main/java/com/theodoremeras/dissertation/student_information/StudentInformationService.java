@@ -1,8 +1,12 @@
 package com.theodoremeras.dissertation.student_information;
 
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -10,8 +14,13 @@ public class StudentInformationService {
 
     private final StudentInformationRepository studentInformationRepository;
 
-    public StudentInformationService(StudentInformationRepository studentInformationRepository) {
+    private final PartialUpdater partialUpdater;
+
+    public StudentInformationService(
+            StudentInformationRepository studentInformationRepository, PartialUpdater partialUpdater
+    ) {
         this.studentInformationRepository = studentInformationRepository;
+        this.partialUpdater = partialUpdater;
     }
 
     public StudentInformationEntity save(StudentInformationEntity studentInformationEntity) {
@@ -34,20 +43,30 @@ public class StudentInformationService {
         return studentInformationRepository.existsById(id);
     }
 
-    public StudentInformationEntity partialUpdate(Integer id, StudentInformationEntity studentInformationEntity) {
-        studentInformationEntity.setId(id);
-
-        return studentInformationRepository.findById(id).map(existingStudentData -> {
-            Optional.ofNullable(studentInformationEntity.getHasHealthIssues())
-                    .ifPresent(existingStudentData::setHasHealthIssues);
-            Optional.ofNullable(studentInformationEntity.getHasDisability())
-                    .ifPresent(existingStudentData::setHasDisability);
-            Optional.ofNullable(studentInformationEntity.getHasLsp())
-                    .ifPresent(existingStudentData::setHasLsp);
-            Optional.ofNullable(studentInformationEntity.getAdditionalDetails())
-                    .ifPresent(existingStudentData::setAdditionalDetails);
-            return studentInformationRepository.save(existingStudentData);
-        }).orElseThrow(() -> new RuntimeException("Could not find student information with id " + id));
+    /*
+        Write the supplied fields in a single UPDATE statement and read the student information back,
+        or return nothing if there is no such student information. If an expected version is given and
+        the student information has been updated since, nothing is written and an
+        ObjectOptimisticLockingFailureException is thrown
+     */
+    @Transactional
+    public Optional<StudentInformationEntity> partialUpdate(
+            Integer id, StudentInformationEntity studentInformationEntity, Long expectedVersion
+    ) {
+        Map<String, Object> values = new HashMap<>();
+        Optional.ofNullable(studentInformationEntity.getHasHealthIssues())
+                .ifPresent(hasHealthIssues -> values.put("hasHealthIssues", hasHealthIssues));
+        Optional.ofNullable(studentInformationEntity.getHasDisability())
+                .ifPresent(hasDisability -> values.put("hasDisability", hasDisability));
+        Optional.ofNullable(studentInformationEntity.getHasLsp())
+                .ifPresent(hasLsp -> values.put("hasLsp", hasLsp));
+        Optional.ofNullable(studentInformationEntity.getAdditionalDetails())
+                .ifPresent(additionalDetails -> values.put("additionalDetails", additionalDetails));
+
+        if (!partialUpdater.update(StudentInformationEntity.class, "id", id, expectedVersion, values))
+            return Optional.empty();
+
+        return studentInformationRepository.findById(id);
     }
 
     public void delete(Integer id) {
@@ -1,6 +1,7 @@
 package com.theodoremeras.dissertation.user;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +14,8 @@ import lombok.NoArgsConstructor;
 public class EmailDto {
 
     @NotBlank
+    // Length of the subject column of the email outbox
+    @Size(max = 255)
     private String subject;
 
     @NotBlank
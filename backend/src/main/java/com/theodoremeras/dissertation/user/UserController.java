@@ -1,12 +1,14 @@
 package com.theodoremeras.dissertation.user;
 
+import com.theodoremeras.dissertation.authentication.AuthenticatedUser;
+import com.theodoremeras.dissertation.authentication.CurrentUser;
+import com.theodoremeras.dissertation.email.EmailOutboxService;
+import com.theodoremeras.dissertation.utils.VersionETagUtility;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
@@ -24,18 +26,15 @@ public class UserController {
 
     private final UserMapper userMapper;
 
-    private final JwtDecoder jwtDecoder;
-
-    private final JavaMailSender emailSender;
+    private final EmailOutboxService emailOutboxService;
 
     public UserController(
             UserService userService, UserMapper userMapper,
-            JwtDecoder jwtDecoder, JavaMailSender emailSender
+            EmailOutboxService emailOutboxService
     ) {
         this.userService = userService;
         this.userMapper = userMapper;
-        this.jwtDecoder = jwtDecoder;
-        this.emailSender = emailSender;
+        this.emailOutboxService = emailOutboxService;
     }
 
     @GetMapping(path = "/users")
@@ -71,12 +70,11 @@ public class UserController {
     @GetMapping(path = "/users/{id}")
     public ResponseEntity<UserDto> getUserById(
             @PathVariable("id") Integer id,
-            @RequestHeader(name = "Authorization") String token
+            @CurrentUser AuthenticatedUser currentUser
     ) {
-        // Extract the user's id and role from the token
-        Jwt jwt = jwtDecoder.decode(token.split(" ")[1]);
-        Long userId = jwt.getClaim("userId");
-        String userRole = jwt.getClaim("roles");
+        // The user's id and role, as carried by their token
+        Long userId = currentUser.getUserId();
+        String userRole = currentUser.getRole();
 
         Optional<UserEntity> foundUser = userService.findOneById(id);
         if (foundUser.isEmpty())
@@ -87,7 +85,9 @@ public class UserController {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
         UserDto userDto = userMapper.mapToDto(foundUser.get());
-        return new ResponseEntity<>(userDto, HttpStatus.OK);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(VersionETagUtility.toETag(foundUser.get().getVersion()))
+                .body(userDto);
     }
 
     @PostMapping(path = "/users/{id}/mail")
@@ -100,28 +100,26 @@ public class UserController {
         if (foundUser.isEmpty())
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-        // Send email to the specified user
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("ecfportal@gmail.com");
-        message.setTo(foundUser.get().getEmail());
-        message.setSubject(emailDto.getSubject());
-        message.setText(emailDto.getBody());
-        emailSender.send(message);
+        // Queue the email to the specified user, it is sent in the background by the email dispatcher
+        emailOutboxService.enqueue(foundUser.get().getEmail(), emailDto.getSubject(), emailDto.getBody());
 
-        return new ResponseEntity<>(HttpStatus.OK);
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
     }
 
     @PatchMapping(path = "/users/{id}")
     public ResponseEntity<UserDto> partialUpdateUser(
-            @PathVariable("id") Integer id, @RequestBody UserDto userDto
+            @PathVariable("id") Integer id, @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        if (!userService.exists(id))
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
         userDto.setId(id);
         UserEntity userEntity = userMapper.mapFromDto(userDto);
-        UserEntity updatedUserEntity = userService.partialUpdate(id, userEntity);
-        return new ResponseEntity<>(userMapper.mapToDto(updatedUserEntity), HttpStatus.OK);
+
+        // Nothing is returned if there is no user with this id
+        return userService.partialUpdate(id, userEntity, VersionETagUtility.parseIfMatch(ifMatch))
+                .map(updatedUserEntity -> ResponseEntity.status(HttpStatus.OK)
+                        .eTag(VersionETagUtility.toETag(updatedUserEntity.getVersion()))
+                        .body(userMapper.mapToDto(updatedUserEntity)))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping(path = "/users/{id}")
@@ -130,6 +128,13 @@ public class UserController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // Thrown when an If-Match header names a version of the user that has since been updated
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public Map<String, String> handleOptimisticLockingExceptions(ObjectOptimisticLockingFailureException ex) {
+        return Map.of("version", "The user has been updated since it was read");
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, String> handleValidationExceptions(
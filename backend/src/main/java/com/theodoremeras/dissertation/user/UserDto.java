@@ -29,4 +29,7 @@ public class UserDto {
     @NotNull
     private Integer departmentId;
 
+    // Read-only; can be sent back as an If-Match header when updating
+    private Long version;
+
 }
@@ -52,6 +52,10 @@ public class UserEntity implements UserDetails {
     @ToString.Exclude
     private DepartmentEntity department;
 
+    // Incremented by every update, so that updates based on a stale copy can be rejected
+    @Version
+    private long version;
+
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
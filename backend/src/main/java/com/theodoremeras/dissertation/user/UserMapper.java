@@ -15,6 +15,7 @@ public class UserMapper {
                 .isApproved(userEntity.getIsApproved())
                 .roleId(userEntity.getRole().getId())
                 .departmentId(userEntity.getDepartment().getId())
+                .version(userEntity.getVersion())
                 .build();
     }
 
@@ -1,20 +1,53 @@
 package com.theodoremeras.dissertation.user;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+/*
+    User reads load the role and department in the same statement as the user,
+    since both are needed when mapping users to DTOs; otherwise every distinct
+    role and department would cost an extra select
+ */
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Integer> {
 
+    @Override
+    @EntityGraph(attributePaths = {"role", "department"})
+    List<UserEntity> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"role", "department"})
+    Optional<UserEntity> findById(Integer id);
+
+    @EntityGraph(attributePaths = {"role", "department"})
     List<UserEntity> findAllByEmail(String email);
 
+    @EntityGraph(attributePaths = {"role", "department"})
     List<UserEntity> findAllByDepartmentIdAndRoleId(Integer departmentId, Integer roleId);
 
+    /*
+        Keyset pagination over the users of a role within a department: returns the users whose id
+        comes after the given one, in order of id, so that every page is an index range scan
+     */
+    @Query("SELECT u FROM UserEntity u " +
+            "WHERE u.department.id = :departmentId AND u.role.id = :roleId AND u.id > :id " +
+            "ORDER BY u.id")
+    List<UserEntity> findPageByDepartmentIdAndRoleId(
+            @Param("departmentId") Integer departmentId, @Param("roleId") Integer roleId,
+            @Param("id") Integer id, Limit limit
+    );
+
+    @EntityGraph(attributePaths = {"role", "department"})
     List<UserEntity> findAllByIdIn(List<Integer> ids);
 
+    @EntityGraph(attributePaths = {"role", "department"})
     Optional<UserEntity> findByEmail(String email);
 
 }
@@ -1,11 +1,16 @@
 package com.theodoremeras.dissertation.user;
 
+import com.theodoremeras.dissertation.utils.PartialUpdater;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -13,8 +18,11 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final PartialUpdater partialUpdater;
+
+    public UserService(UserRepository userRepository, PartialUpdater partialUpdater) {
         this.userRepository = userRepository;
+        this.partialUpdater = partialUpdater;
     }
 
     public UserEntity save(UserEntity userEntity) {
@@ -33,10 +41,22 @@ public class UserService implements UserDetailsService {
         return userRepository.findAllByDepartmentIdAndRoleId(departmentId, roleId);
     }
 
+    // Up to limit users of the role within the department whose id comes after afterId, in order of id
+    public List<UserEntity> findPageByDepartmentIdAndRoleId(
+            Integer departmentId, Integer roleId, Integer afterId, int limit
+    ) {
+        return userRepository.findPageByDepartmentIdAndRoleId(departmentId, roleId, afterId, Limit.of(limit));
+    }
+
     public List<UserEntity> findAllByIdIn(List<Integer> ids) {
         return userRepository.findAllByIdIn(ids);
     }
 
+    // Reference to the user for use as a foreign key, without loading them
+    public UserEntity getReferenceById(Integer id) {
+        return userRepository.getReferenceById(id);
+    }
+
     public Optional<UserEntity> findOneById(Integer id) {
         return userRepository.findById(id);
     }
@@ -49,15 +69,22 @@ public class UserService implements UserDetailsService {
         return userRepository.existsById(id);
     }
 
-    public UserEntity partialUpdate(Integer id, UserEntity userEntity) {
-        userEntity.setId(id);
+    /*
+        Write the supplied fields in a single UPDATE statement and read the user back,
+        or return nothing if there is no such user. If an expected version is given and the user
+        has been updated since, nothing is written and an ObjectOptimisticLockingFailureException is thrown
+     */
+    @Transactional
+    public Optional<UserEntity> partialUpdate(Integer id, UserEntity userEntity, Long expectedVersion) {
+        Map<String, Object> values = new HashMap<>();
+        Optional.ofNullable(userEntity.getName()).ifPresent(name -> values.put("name", name));
+        Optional.ofNullable(userEntity.getEmail()).ifPresent(email -> values.put("email", email));
+        Optional.ofNullable(userEntity.getIsApproved()).ifPresent(isApproved -> values.put("isApproved", isApproved));
+
+        if (!partialUpdater.update(UserEntity.class, "id", id, expectedVersion, values))
+            return Optional.empty();
 
-        return userRepository.findById(id).map(existingUser -> {
-            Optional.ofNullable(userEntity.getName()).ifPresent(existingUser::setName);
-            Optional.ofNullable(userEntity.getEmail()).ifPresent(existingUser::setEmail);
-            Optional.ofNullable(userEntity.getIsApproved()).ifPresent(existingUser::setIsApproved);
-            return userRepository.save(existingUser);
-        }).orElseThrow(() -> new RuntimeException("Could not find user with id: " + id));
+        return userRepository.findById(id);
     }
 
     public void delete(Integer id) {
@@ -0,0 +1,27 @@
+package com.theodoremeras.dissertation.utils;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+/*
+    Parents are attached by reference rather than loaded, so a missing parent only shows up as a
+    foreign key violation when the child is written. Only those violations mean "not found"; any other
+    (unique, not-null, check) is a different error and must not be reported as one
+ */
+public class ConstraintViolationUtility {
+
+    // SQLState of a foreign key violation in PostgreSQL, and of a missing parent row in H2
+    private static final Set<String> FOREIGN_KEY_VIOLATION_SQL_STATES = Set.of("23503", "23506");
+
+    public static boolean isForeignKeyViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException &&
+                    FOREIGN_KEY_VIOLATION_SQL_STATES.contains(sqlException.getSQLState()))
+                return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.theodoremeras.dissertation.utils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+    Applies a partial update as a single UPDATE statement that sets only the supplied attributes,
+    instead of reading the entity, copying the supplied fields onto it and writing every column back.
+    Like the repositories' @Modifying queries, pending changes are flushed before the statement and
+    the persistence context is cleared after it. The entity is also evicted from the second-level cache,
+    so that neither cache returns a stale copy of it when it is read afterwards
+ */
+@Component
+public class PartialUpdater {
+
+    // Name of the @Version attribute of versioned entities
+    private static final String VERSION_ATTRIBUTE = "version";
+
+    private final EntityManager entityManager;
+
+    /*
+        Value of an attribute that the database computes from the other attributes in the same statement.
+        Every expression of an UPDATE sees the row as it was before it, so the derivation is given each
+        attribute as it will be after the update: the supplied value if there is one, otherwise its column
+     */
+    @FunctionalInterface
+    public interface Derivation<T> {
+        Expression<?> derive(
+                CriteriaBuilder criteriaBuilder, CriteriaUpdate<T> update, Function<String, Expression<?>> updatedValueOf
+        );
+    }
+
+    public PartialUpdater(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /*
+        Set the given attributes of the entity with the given id, returning whether such an entity exists.
+        Associations are set from references, e.g. those returned by getReferenceById. Must be called
+        within a transaction
+     */
+    public <T> boolean update(Class<T> entityClass, String idAttribute, Object id, Map<String, Object> values) {
+        return update(entityClass, idAttribute, id, null, values);
+    }
+
+    /*
+        As above, but for a versioned entity the same statement also increments its version and, if an
+        expected version is given, only matches the entity at that version. Throws an
+        ObjectOptimisticLockingFailureException if the entity exists but has been updated since
+     */
+    public <T> boolean update(
+            Class<T> entityClass, String idAttribute, Object id, Long expectedVersion, Map<String, Object> values
+    ) {
+        return update(entityClass, idAttribute, id, expectedVersion, values, Map.of());
+    }
+
+    /*
+        As above, but the same statement also sets each of the derived attributes. Nothing is derived when
+        no values are supplied, as none of the attributes they are derived from can have changed
+     */
+    public <T> boolean update(
+            Class<T> entityClass, String idAttribute, Object id, Long expectedVersion, Map<String, Object> values,
+            Map<String, Derivation<T>> derivations
+    ) {
+        boolean isVersioned = entityManager.getMetamodel().entity(entityClass).hasVersionAttribute();
+
+        // There is nothing to write, so only the existence and version of the entity are checked
+        if (values.isEmpty()) {
+            if (!isVersioned)
+                return entityManager.find(entityClass, id) != null;
+
+            List<Long> versions = findVersions(entityClass, idAttribute, id);
+            if (versions.isEmpty())
+                return false;
+            if (expectedVersion != null && versions.get(0) != expectedVersion.longValue())
+                throw new ObjectOptimisticLockingFailureException(entityClass, id);
+            return true;
+        }
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = criteriaBuilder.createCriteriaUpdate(entityClass);
+        Root<T> root = update.from(entityClass);
+        values.forEach((attribute, value) -> update.set(root.get(attribute), value));
+
+        Function<String, Expression<?>> updatedValueOf = attribute -> values.containsKey(attribute) ?
+                criteriaBuilder.literal(values.get(attribute)) : root.get(attribute);
+        derivations.forEach((attribute, derivation) ->
+                update.<Object>set(root.get(attribute), derivation.derive(criteriaBuilder, update, updatedValueOf)));
+
+        Predicate matchesId = criteriaBuilder.equal(root.get(idAttribute), id);
+        if (isVersioned) {
+            Path<Long> version = root.get(VERSION_ATTRIBUTE);
+            update.set(version, criteriaBuilder.sum(version, 1L));
+            if (expectedVersion != null)
+                matchesId = criteriaBuilder.and(matchesId, criteriaBuilder.equal(version, expectedVersion));
+        }
+        update.where(matchesId);
+
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evict(entityClass, id);
+
+        if (updated > 0)
+            return true;
+
+        // Nothing matched; either there is no such entity, or it is no longer at the expected version
+        if (expectedVersion != null && isVersioned && !findVersions(entityClass, idAttribute, id).isEmpty())
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
+        return false;
+    }
+
+    private <T> List<Long> findVersions(Class<T> entityClass, String idAttribute, Object id) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(root.<Long>get(VERSION_ATTRIBUTE)).where(criteriaBuilder.equal(root.get(idAttribute), id));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+}
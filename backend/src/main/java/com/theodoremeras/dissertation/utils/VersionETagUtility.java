@@ -0,0 +1,34 @@
+package com.theodoremeras.dissertation.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/*
+    Entity versions are exposed as ETags, so that clients can send them back in an If-Match
+    header to only update an entity that has not been updated since they read it
+ */
+public class VersionETagUtility {
+
+    public static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Return the version named by an If-Match header, or null if the header is absent or is "*"
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/"))
+            eTag = eTag.substring(2);
+        if (eTag.length() >= 2 && eTag.startsWith("\"") && eTag.endsWith("\""))
+            eTag = eTag.substring(1, eTag.length() - 1);
+
+        try {
+            return Long.parseLong(eTag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed If-Match header");
+        }
+    }
+
+}
@@ -0,0 +1,11 @@
+/*
+    One row per stored file content, locked by the transaction that publishes a file with that content and
+    saves its evidence, and by the one that checks the content is unreferenced and deletes its file. Taken by
+    every instance, so no instance can delete a file that another has just found and is about to refer to.
+    Rows are created on first use and never deleted, so a waiting transaction always finds the row it locks
+ */
+CREATE TABLE IF NOT EXISTS evidence_content
+(
+    content_hash VARCHAR(64) NOT NULL,
+    CONSTRAINT pk_evidence_content PRIMARY KEY (content_hash)
+);
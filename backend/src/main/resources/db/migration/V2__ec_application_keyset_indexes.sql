@@ -0,0 +1,6 @@
+/* Support keyset pagination of EC applications, ordered by (submitted_on DESC, id DESC) */
+CREATE INDEX IF NOT EXISTS idx_ec_application_submitted_on_id
+    ON ec_application (submitted_on DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_ec_application_student_submitted_on_id
+    ON ec_application (student_id, submitted_on DESC, id DESC);
@@ -0,0 +1,26 @@
+/* Keep a running tally of staff decisions and the final outcome on each module request */
+ALTER TABLE module_outcome_request
+    ADD COLUMN approval_count INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE module_outcome_request
+    ADD COLUMN rejection_count INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE module_outcome_request
+    ADD COLUMN final_outcome BOOLEAN;
+
+/* Backfill the tally from the decisions made so far */
+UPDATE module_outcome_request r
+SET approval_count  = (SELECT COUNT(*) FROM module_request_decision d
+                       WHERE d.module_request_id = r.id AND d.is_approved = TRUE),
+    rejection_count = (SELECT COUNT(*) FROM module_request_decision d
+                       WHERE d.module_request_id = r.id AND d.is_approved = FALSE);
+
+UPDATE module_outcome_request
+SET final_outcome = CASE
+                        WHEN approval_count >= 2 THEN TRUE
+                        WHEN rejection_count >= 2 THEN FALSE
+                    END;
+
+/* Look up the outcome of the requests of an application, e.g. to tell whether it is closed */
+CREATE INDEX IF NOT EXISTS idx_module_outcome_request_application_final_outcome
+    ON module_outcome_request (application_id, final_outcome);
@@ -0,0 +1,40 @@
+/* Persist the status of each EC application, see EcApplicationStatus */
+ALTER TABLE ec_application
+    ADD COLUMN status VARCHAR(32) NOT NULL DEFAULT 'SUBMITTED';
+
+/* Backfill the status of existing applications from their flags and module request outcomes */
+UPDATE ec_application e
+SET status = CASE
+                 WHEN e.is_referred = FALSE THEN 'REJECTED'
+                 WHEN e.is_referred = TRUE AND NOT EXISTS (SELECT 1
+                                                           FROM module_outcome_request r
+                                                           WHERE r.application_id = e.id
+                                                             AND r.final_outcome IS NULL) THEN 'CLOSED'
+                 WHEN e.requires_further_evidence = TRUE THEN 'AWAITING_EVIDENCE'
+                 WHEN e.is_referred = TRUE THEN 'REFERRED'
+                 ELSE 'SUBMITTED'
+             END;
+
+/*
+    One partial index per status, keyed by student so that department dashboards (which join
+    through _user.department_id) only touch the applications at the requested status, and
+    ordered like the keyset pagination queries
+ */
+CREATE INDEX IF NOT EXISTS idx_ec_application_submitted_student
+    ON ec_application (student_id, submitted_on DESC, id DESC) WHERE status = 'SUBMITTED';
+
+CREATE INDEX IF NOT EXISTS idx_ec_application_awaiting_evidence_student
+    ON ec_application (student_id, submitted_on DESC, id DESC) WHERE status = 'AWAITING_EVIDENCE';
+
+CREATE INDEX IF NOT EXISTS idx_ec_application_referred_student
+    ON ec_application (student_id, submitted_on DESC, id DESC) WHERE status = 'REFERRED';
+
+CREATE INDEX IF NOT EXISTS idx_ec_application_rejected_student
+    ON ec_application (student_id, submitted_on DESC, id DESC) WHERE status = 'REJECTED';
+
+CREATE INDEX IF NOT EXISTS idx_ec_application_closed_student
+    ON ec_application (student_id, submitted_on DESC, id DESC) WHERE status = 'CLOSED';
+
+/* Status filter across all departments */
+CREATE INDEX IF NOT EXISTS idx_ec_application_status_submitted_on_id
+    ON ec_application (status, submitted_on DESC, id DESC);
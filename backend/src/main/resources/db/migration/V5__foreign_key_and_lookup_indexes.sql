@@ -0,0 +1,37 @@
+/*
+    Index the foreign keys and lookup columns used by the repositories, so that the derived
+    findAllBy... queries (and the checks made when deleting a referenced row) do not need to
+    scan whole tables. Foreign keys already covered by the leading column of an earlier index
+    (ec_application.student_id, module_outcome_request.application_id) are not indexed again
+ */
+
+/* Staff of a given role within a department, e.g. when emailing a department's staff */
+CREATE INDEX IF NOT EXISTS idx__user_department_role
+    ON _user (department_id, role_id);
+
+CREATE INDEX IF NOT EXISTS idx__user_role
+    ON _user (role_id);
+
+CREATE INDEX IF NOT EXISTS idx_role_name
+    ON role (name);
+
+CREATE INDEX IF NOT EXISTS idx_evidence_application
+    ON evidence (application_id);
+
+CREATE INDEX IF NOT EXISTS idx_module_department
+    ON module (department_id);
+
+CREATE INDEX IF NOT EXISTS idx_module_outcome_request_module_code
+    ON module_outcome_request (module_code);
+
+CREATE INDEX IF NOT EXISTS idx_module_request_decision_module_request
+    ON module_request_decision (module_request_id);
+
+CREATE INDEX IF NOT EXISTS idx_module_request_decision_staff
+    ON module_request_decision (staff_id);
+
+CREATE INDEX IF NOT EXISTS idx_module_request_decision_application
+    ON module_request_decision (application_id);
+
+CREATE INDEX IF NOT EXISTS idx_student_information_student
+    ON student_information (student_id);
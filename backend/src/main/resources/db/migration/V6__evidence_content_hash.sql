@@ -0,0 +1,15 @@
+/*
+    Evidence files can be stored under the SHA-256 hash of their content, so that identical uploads
+    share a single file. The number of evidence rows with a given hash is that file's reference count;
+    rows uploaded before this change keep a null hash and their own file
+ */
+ALTER TABLE evidence
+    ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+/* Counting the remaining references to a file when evidence is deleted */
+CREATE INDEX IF NOT EXISTS idx_evidence_content_hash
+    ON evidence (content_hash);
+
+/* Finding the evidence, and so the stored file, behind a download */
+CREATE INDEX IF NOT EXISTS idx_evidence_file_name
+    ON evidence (file_name);
@@ -0,0 +1,24 @@
+/*
+    Emails are queued in this table, in the same transaction as the change that caused them, and
+    sent in batches by the email dispatcher, which retries failed emails with exponential backoff
+ */
+CREATE SEQUENCE IF NOT EXISTS email_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS email_outbox
+(
+    id              BIGINT        NOT NULL,
+    recipient       VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    body            TEXT          NOT NULL,
+    status          VARCHAR(32)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    sent_at         TIMESTAMP(6) WITH TIME ZONE,
+    last_error      VARCHAR(1000),
+    CONSTRAINT pk_email_outbox PRIMARY KEY (id)
+);
+
+/* Finding the pending emails that are due, in the order they are sent */
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt_at
+    ON email_outbox (status, next_attempt_at);
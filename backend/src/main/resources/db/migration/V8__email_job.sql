@@ -0,0 +1,42 @@
+/*
+    Bulk email jobs, each of which emails every user of a role within a department. Recipients are
+    selected a page at a time in order of id, and their emails queued in the outbox with the job's id,
+    from which the job's progress is counted
+ */
+CREATE SEQUENCE IF NOT EXISTS email_job_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS email_job
+(
+    id                BIGINT       NOT NULL,
+    department_id     INTEGER      NOT NULL,
+    role_id           INTEGER      NOT NULL,
+    subject           VARCHAR(255) NOT NULL,
+    body              TEXT         NOT NULL,
+    last_recipient_id INTEGER      NOT NULL,
+    recipient_count   INTEGER      NOT NULL,
+    created_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    prepared_at       TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_email_job PRIMARY KEY (id)
+);
+
+ALTER TABLE email_job
+    ADD CONSTRAINT FK_EMAIL_JOB_ON_DEPARTMENT FOREIGN KEY (department_id) REFERENCES department (id);
+
+ALTER TABLE email_job
+    ADD CONSTRAINT FK_EMAIL_JOB_ON_ROLE FOREIGN KEY (role_id) REFERENCES role (id);
+
+ALTER TABLE email_outbox
+    ADD COLUMN IF NOT EXISTS job_id BIGINT;
+
+ALTER TABLE email_outbox
+    ADD CONSTRAINT FK_EMAIL_OUTBOX_ON_JOB FOREIGN KEY (job_id) REFERENCES email_job (id);
+
+/* Counting a job's emails by status */
+CREATE INDEX IF NOT EXISTS idx_email_outbox_job_status
+    ON email_outbox (job_id, status);
+
+/* Each page of a job's recipients is a range scan of this index, in order of id */
+DROP INDEX IF EXISTS idx__user_department_role;
+
+CREATE INDEX IF NOT EXISTS idx__user_department_role
+    ON _user (department_id, role_id, id);
@@ -0,0 +1,15 @@
+/*
+    Version columns for optimistic locking, see PartialUpdater. Every partial update increments
+    the version, and an update that names a stale version (If-Match) is rejected
+ */
+ALTER TABLE department
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE _user
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE ec_application
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE student_information
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -75,6 +75,13 @@ public class ParentCreationService {
         return moduleRepository.save(TestDataUtil.createTestModuleEntityA(department));
     }
 
+    // Alternative module parent entity, in the same department as the first one
+    public ModuleEntity createModuleParentEntityB() {
+        DepartmentEntity department = createDepartmentParentEntity();
+
+        return moduleRepository.save(TestDataUtil.createTestModuleEntityB(department));
+    }
+
     public EcApplicationEntity createEcApplicationParentEntity() {
         UserEntity student = createUserParentEntityB();
 
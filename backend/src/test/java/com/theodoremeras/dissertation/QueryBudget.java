@@ -0,0 +1,46 @@
+package com.theodoremeras.dissertation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+    Service class that performs a request and fails the test if serving it issued more SQL statements
+    than the endpoint's budget. Budgets are checked against fixtures with many rows, so a change that
+    loads an association once per row (an N+1 query) fails the build instead of going unnoticed
+ */
+@Service
+public class QueryBudget {
+
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        // Relies on hibernate.generate_statistics, which is enabled for the tests
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public ResultActions perform(
+            MockMvc mockMvc, RequestBuilder requestBuilder, long maxStatements
+    ) throws Exception {
+        statistics.clear();
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        long statementCount = statistics.getPrepareStatementCount();
+
+        MockHttpServletRequest request = resultActions.andReturn().getRequest();
+        assertTrue(statementCount <= maxStatements, () -> String.format(
+                "%s %s issued %d SQL statements, but its budget is %d. Queries run: %s",
+                request.getMethod(), request.getRequestURI(), statementCount, maxStatements,
+                String.join("; ", statistics.getQueries())
+        ));
+
+        return resultActions;
+    }
+
+}
@@ -21,7 +21,9 @@ import com.theodoremeras.dissertation.student_information.StudentInformationDto;
 import com.theodoremeras.dissertation.student_information.StudentInformationEntity;
 import com.theodoremeras.dissertation.user.UserDto;
 import com.theodoremeras.dissertation.user.UserEntity;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 
 public final class TestDataUtil {
@@ -400,4 +402,18 @@ public final class TestDataUtil {
                 .build();
     }
 
+    // Thrown when a referenced parent does not exist, as PostgreSQL reports it
+    public static DataIntegrityViolationException createForeignKeyViolation(String parent) {
+        return new DataIntegrityViolationException(
+                parent, new SQLException(parent + " does not exist", "23503")
+        );
+    }
+
+    // Thrown when a unique constraint is violated, as PostgreSQL reports it
+    public static DataIntegrityViolationException createUniqueViolation(String constraint) {
+        return new DataIntegrityViolationException(
+                constraint, new SQLException("Duplicate key violates " + constraint, "23505")
+        );
+    }
+
 }
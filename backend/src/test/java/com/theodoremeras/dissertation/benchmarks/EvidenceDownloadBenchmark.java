@@ -0,0 +1,98 @@
+package com.theodoremeras.dissertation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Throughput and heap allocation of sending an evidence file, run with the gc profiler to report the
+    bytes allocated per download (gc.alloc.rate.norm). Streamed output is discarded, like a response stream
+    writing into the connection's buffer; the channel transfer writes to /dev/null.
+
+    urlResource: the previous download path, copying the UrlResource's InputStream to the response stream
+    transferToStream: the FileChannel fallback used when the container does not support sendfile
+    transferToChannel: a FileChannel to FileChannel transfer, which the kernel performs without user space
+    copies, as it does for the sendfile path
+
+    Run with: mvn -P benchmark test -Djmh.include=EvidenceDownloadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvidenceDownloadBenchmark {
+
+    // Size of a typical scanned PDF
+    @Param({"10485760"})
+    private int fileSize;
+
+    private Path file;
+
+    private OutputStream responseStream;
+
+    private WritableByteChannel responseStreamChannel;
+
+    private FileChannel responseFileChannel;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        file = Files.createTempFile("evidence-benchmark-", ".pdf");
+        Files.write(file, content);
+
+        // Not a FileOutputStream, which Channels.newChannel would turn into a FileChannel
+        responseStream = OutputStream.nullOutputStream();
+        responseStreamChannel = Channels.newChannel(responseStream);
+        responseFileChannel = FileChannel.open(Path.of("/dev/null"), StandardOpenOption.WRITE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        responseFileChannel.close();
+        responseStream.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int urlResource() throws IOException {
+        try (InputStream inputStream = new UrlResource(file.toUri()).getInputStream()) {
+            return StreamUtils.copy(inputStream, responseStream);
+        }
+    }
+
+    @Benchmark
+    public long transferToStream() throws IOException {
+        return transfer(responseStreamChannel);
+    }
+
+    @Benchmark
+    public long transferToChannel() throws IOException {
+        return transfer(responseFileChannel);
+    }
+
+    private long transfer(WritableByteChannel target) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = fileChannel.size();
+            while (position < size)
+                position += fileChannel.transferTo(position, size - position, target);
+            return position;
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.theodoremeras.dissertation.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.conf.Config;
+import com.theodoremeras.dissertation.ec_application.EcApplicationDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Cost of serialising the response of GET /ec-applications with the application's ObjectMapper.
+
+    writeValueAsBytes: the whole response is built in memory first
+    writeValueToStream: the response is written straight to the output stream, as the message converter
+    does; the stream discards it, like a response stream writing into the connection's buffer
+
+    Run with: mvn -P benchmark test -Djmh.include=JsonSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // Number of EC applications in the response
+    @Param({"100", "10000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+
+    private List<EcApplicationDto> ecApplicationDtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new Config().objectMapper();
+
+        ecApplicationDtos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            EcApplicationDto ecApplicationDto = TestDataUtil.createTestEcApplicationDtoA(i);
+            ecApplicationDto.setId(i);
+            ecApplicationDtos.add(ecApplicationDto);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ecApplicationDtos);
+    }
+
+    @Benchmark
+    public void writeValueToStream() throws IOException {
+        // A new stream each time, as the ObjectMapper closes the stream it writes to
+        objectMapper.writeValue(OutputStream.nullOutputStream(), ecApplicationDtos);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.theodoremeras.dissertation.benchmarks;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.theodoremeras.dissertation.authentication.AuthenticatedUser;
+import com.theodoremeras.dissertation.authentication.CachingJwtDecoder;
+import com.theodoremeras.dissertation.conf.SecurityConfig;
+import com.theodoremeras.dissertation.utils.RSAKeyProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Per-request cost of finding out who sent a request, for a client reusing the same token.
+
+    before: the resource server filter verifies the token, then the controller decodes and verifies it again
+    after: the filter verifies the token through the caching decoder, and the controller reads the claims
+    of the already verified token
+    afterFirstRequest: as "after", but for a token that has not been seen before (cache miss)
+
+    Run with: mvn -P benchmark test -Djmh.include=JwtResolutionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtResolutionBenchmark {
+
+    private JwtDecoder nimbusJwtDecoder;
+
+    private CachingJwtDecoder cachingJwtDecoder;
+
+    private String authorizationHeader;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        RSAKeyProperties keys = new RSAKeyProperties();
+        JWK jwk = new RSAKey.Builder(keys.getPublicKey()).privateKey(keys.getPrivateKey()).build();
+        JwtEncoder jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60 * 60 * 24))
+                .subject("student@test.com")
+                .claim("roles", "Student")
+                .claim("userId", 1)
+                .build();
+        token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        authorizationHeader = "Bearer " + token;
+
+        nimbusJwtDecoder = NimbusJwtDecoder.withPublicKey(keys.getPublicKey()).build();
+        cachingJwtDecoder = new CachingJwtDecoder(nimbusJwtDecoder, SecurityConfig.VERIFIED_TOKEN_CACHE_SIZE);
+        cachingJwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser before() {
+        Jwt filterJwt = nimbusJwtDecoder.decode(token);
+
+        Jwt controllerJwt = nimbusJwtDecoder.decode(authorizationHeader.split(" ")[1]);
+        return new AuthenticatedUser(controllerJwt.getClaim("userId"), controllerJwt.getClaim("roles"), filterJwt.getSubject());
+    }
+
+    @Benchmark
+    public AuthenticatedUser after() {
+        Jwt filterJwt = cachingJwtDecoder.decode(token);
+
+        return AuthenticatedUser.from(filterJwt);
+    }
+
+    @Benchmark
+    public AuthenticatedUser afterFirstRequest() {
+        Jwt filterJwt = nimbusJwtDecoder.decode(token);
+
+        return AuthenticatedUser.from(filterJwt);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.theodoremeras.dissertation.benchmarks;
+
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationDto;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationMapper;
+import com.theodoremeras.dissertation.module.ModuleEntity;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionDto;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionEntity;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionMapper;
+import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import com.theodoremeras.dissertation.user.UserDto;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.user.UserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Cost of mapping the rows of a list endpoint's response to DTOs, for each of the mappers used by the
+    busiest list endpoints. Every row refers to its own student, staff member and module request, as
+    returned by the repositories.
+
+    Run with: mvn -P benchmark test -Djmh.include=MapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    // Number of rows in the response
+    @Param({"1000"})
+    private int rows;
+
+    private final EcApplicationMapper ecApplicationMapper = new EcApplicationMapper();
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private final ModuleDecisionMapper moduleDecisionMapper = new ModuleDecisionMapper();
+
+    private List<EcApplicationEntity> ecApplicationEntities;
+
+    private List<UserEntity> userEntities;
+
+    private List<ModuleDecisionEntity> moduleDecisionEntities;
+
+    @Setup
+    public void setUp() {
+        RoleEntity role = TestDataUtil.createTestRoleEntityA();
+        DepartmentEntity department = TestDataUtil.createTestDepartmentEntityA();
+        ModuleEntity module = TestDataUtil.createTestModuleEntityA(department);
+
+        ecApplicationEntities = new ArrayList<>(rows);
+        userEntities = new ArrayList<>(rows);
+        moduleDecisionEntities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            UserEntity user = TestDataUtil.createTestUserEntityA(role, department);
+            user.setId(i);
+            userEntities.add(user);
+
+            EcApplicationEntity ecApplication = TestDataUtil.createTestEcApplicationEntityA(user);
+            ecApplication.setId(i);
+            ecApplicationEntities.add(ecApplication);
+
+            ModuleRequestEntity moduleRequest = TestDataUtil.createTestRequestEntityA(ecApplication, module);
+            moduleRequest.setId(i);
+            ModuleDecisionEntity moduleDecision =
+                    TestDataUtil.createTestModuleDecisionEntityA(moduleRequest, user, ecApplication);
+            moduleDecision.setId(i);
+            moduleDecisionEntities.add(moduleDecision);
+        }
+    }
+
+    @Benchmark
+    public List<EcApplicationDto> ecApplicationMapToDto() {
+        return ecApplicationEntities.stream()
+                .map(ecApplicationMapper::mapToDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<UserDto> userMapToDto() {
+        return userEntities.stream()
+                .map(userMapper::mapToDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<ModuleDecisionDto> moduleDecisionMapToDto() {
+        return moduleDecisionEntities.stream()
+                .map(moduleDecisionMapper::mapToDto)
+                .toList();
+    }
+
+}
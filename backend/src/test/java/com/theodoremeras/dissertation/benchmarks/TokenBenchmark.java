@@ -0,0 +1,73 @@
+package com.theodoremeras.dissertation.benchmarks;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.authentication.TokenService;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.utils.RSAKeyProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    Cost of the RSA signed tokens, with keys generated the same way as the application's.
+
+    generateJwt: signing a token on login
+    decode: verifying a token with the Nimbus decoder, as happens on every request whose token is not
+    in the caching decoder yet
+
+    Run with: mvn -P benchmark test -Djmh.include=TokenBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private TokenService tokenService;
+
+    private JwtDecoder nimbusJwtDecoder;
+
+    private Authentication authentication;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        RSAKeyProperties keys = new RSAKeyProperties();
+        JWK jwk = new RSAKey.Builder(keys.getPublicKey()).privateKey(keys.getPrivateKey()).build();
+        JwtEncoder jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+        nimbusJwtDecoder = NimbusJwtDecoder.withPublicKey(keys.getPublicKey()).build();
+        tokenService = new TokenService(jwtEncoder, nimbusJwtDecoder);
+
+        UserEntity user = TestDataUtil.createTestUserEntityA(
+                TestDataUtil.createTestRoleEntityA(),
+                TestDataUtil.createTestDepartmentEntityA()
+        );
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = tokenService.generateJwt(authentication);
+    }
+
+    @Benchmark
+    public String generateJwt() {
+        return tokenService.generateJwt(authentication);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return nimbusJwtDecoder.decode(token);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.theodoremeras.dissertation.integration_tests;
+
+import com.theodoremeras.dissertation.conf.DatasetProperties;
+import com.theodoremeras.dissertation.dataset.DatasetGenerator;
+import com.theodoremeras.dissertation.evidence.FileSystemEvidenceStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+    Runs on its own in-memory database. Otherwise this context would share its key with the one cached for
+    DissertationApplicationTests, whose schema is dropped whenever another test context is closed
+ */
+@SpringBootTest(properties = "spring.datasource.url=" +
+        "jdbc:h2:mem:dataset;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class DatasetGeneratorIntegrationTests {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final PasswordEncoder passwordEncoder;
+
+    @TempDir
+    private Path root;
+
+    private DatasetProperties properties;
+
+    private DatasetGenerator datasetGenerator;
+
+    @Autowired
+    public DatasetGeneratorIntegrationTests(
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // A small dataset, inserted over several batches
+        properties = new DatasetProperties();
+        properties.setDepartments(2);
+        properties.setModulesPerDepartment(3);
+        properties.setStudents(10);
+        properties.setStaffMembers(4);
+        properties.setClericalStaffMembers(2);
+        properties.setEcApplications(20);
+        properties.setModuleRequests(50);
+        properties.setModuleDecisions(80);
+        properties.setEvidence(30);
+        properties.setBatchSize(7);
+        properties.setEvidenceFileSize(DataSize.ofBytes(512));
+
+        datasetGenerator = new DatasetGenerator(
+                jdbcTemplate, transactionManager, new FileSystemEvidenceStorage(root), passwordEncoder, properties
+        );
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    @Test
+    public void testGenerate() throws IOException {
+        datasetGenerator.generate();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM department"));
+        assertEquals(6, count("SELECT COUNT(*) FROM module"));
+        assertEquals(16, count("SELECT COUNT(*) FROM _user"));
+        assertEquals(10, count("SELECT COUNT(*) FROM student_information"));
+        assertEquals(20, count("SELECT COUNT(*) FROM ec_application"));
+        assertEquals(50, count("SELECT COUNT(*) FROM module_outcome_request"));
+        assertEquals(80, count("SELECT COUNT(*) FROM module_request_decision"));
+        assertEquals(30, count("SELECT COUNT(*) FROM evidence"));
+
+        // The tally on each module request matches its decisions
+        assertEquals(0, count("SELECT COUNT(*) FROM module_outcome_request r " +
+                "WHERE r.approval_count + r.rejection_count <> " +
+                "(SELECT COUNT(*) FROM module_request_decision d WHERE d.module_request_id = r.id)"));
+
+        // Decisions are made by staff members of the student's department
+        assertEquals(0, count("SELECT COUNT(*) FROM module_request_decision d " +
+                "JOIN ec_application e ON e.id = d.application_id " +
+                "JOIN _user student ON student.id = e.student_id " +
+                "JOIN _user staff ON staff.id = d.staff_id " +
+                "WHERE student.department_id <> staff.department_id"));
+
+        // Every evidence has its placeholder file
+        try (Stream<Path> files = Files.list(root)) {
+            assertEquals(30, files.count());
+        }
+        assertEquals(512, Files.size(root.resolve(
+                jdbcTemplate.queryForObject("SELECT MIN(file_name) FROM evidence", String.class)
+        )));
+    }
+
+    @Test
+    public void testGenerateMovesSequencesPastGeneratedIds() throws IOException {
+        datasetGenerator.generate();
+
+        // The application allocates ids from the value of the sequence downwards, in blocks of 50
+        Integer nextSequenceValue = jdbcTemplate.queryForObject("SELECT NEXTVAL('ec_application_seq')", Integer.class);
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM ec_application", Integer.class);
+
+        assertTrue(nextSequenceValue - 49 > maxId);
+    }
+
+    @Test
+    public void testGenerateWhenDatasetAlreadyLoaded() throws IOException {
+        datasetGenerator.generate();
+
+        assertThrows(IllegalStateException.class, () -> datasetGenerator.generate());
+        assertEquals(20, count("SELECT COUNT(*) FROM ec_application"));
+    }
+
+}
@@ -5,10 +5,14 @@ import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentDto;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.department.DepartmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
@@ -16,6 +20,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
@@ -28,11 +34,17 @@ class DepartmentControllerIntegrationTests {
 
     private final ObjectMapper objectMapper;
 
+    private final EntityManagerFactory entityManagerFactory;
+
     @Autowired
-    public DepartmentControllerIntegrationTests(DepartmentService departmentService, MockMvc mockMvc, ObjectMapper objectMapper) {
+    public DepartmentControllerIntegrationTests(
+            DepartmentService departmentService, MockMvc mockMvc, ObjectMapper objectMapper,
+            EntityManagerFactory entityManagerFactory
+    ) {
         this.departmentService = departmentService;
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Test
@@ -105,6 +117,8 @@ class DepartmentControllerIntegrationTests {
                 MockMvcResultMatchers.jsonPath("$.id").value(savedDepartment.getId())
         ).andExpect(
                 MockMvcResultMatchers.jsonPath("$.name").value(savedDepartment.getName())
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"" + savedDepartment.getVersion() + "\"")
         );
     }
 
@@ -156,6 +170,116 @@ class DepartmentControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testPartialUpdateDepartmentWhenVersionIsCurrent() throws Exception {
+        DepartmentEntity savedDepartmentEntity = departmentService.save(TestDataUtil.createTestDepartmentEntityA());
+
+        DepartmentDto testDepartmentDto = TestDataUtil.createTestDepartmentDtoB();
+        String departmentUpdateJson = objectMapper.writeValueAsString(testDepartmentDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .patch("/departments/" + savedDepartmentEntity.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(departmentUpdateJson)
+                        .header(HttpHeaders.IF_MATCH, "\"" + savedDepartmentEntity.getVersion() + "\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header()
+                        .string(HttpHeaders.ETAG, "\"" + (savedDepartmentEntity.getVersion() + 1) + "\"")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value(testDepartmentDto.getName())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.version").value((int) savedDepartmentEntity.getVersion() + 1)
+        );
+    }
+
+    @Test
+    public void testPartialUpdateDepartmentWithETagOfUpdatedDepartment() throws Exception {
+        DepartmentEntity savedDepartmentEntity = departmentService.save(TestDataUtil.createTestDepartmentEntityA());
+        DepartmentDto testDepartmentDto = TestDataUtil.createTestDepartmentDtoB();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .patch("/departments/" + savedDepartmentEntity.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testDepartmentDto))
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        // The department is read again, as a client would before its next update, and not from a stale cache
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/departments/" + savedDepartmentEntity.getId())
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value(testDepartmentDto.getName())
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .patch("/departments/" + savedDepartmentEntity.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestDataUtil.createTestDepartmentDtoA()))
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\"")
+        );
+    }
+
+    @Test
+    public void testPartialUpdateDepartmentWhenVersionIsStale() throws Exception {
+        DepartmentEntity savedDepartmentEntity = departmentService.save(TestDataUtil.createTestDepartmentEntityA());
+        String staleETag = "\"" + savedDepartmentEntity.getVersion() + "\"";
+
+        // Another client updates the department first
+        DepartmentDto firstUpdateDto = TestDataUtil.createTestDepartmentDtoB();
+        departmentService.partialUpdate(
+                savedDepartmentEntity.getId(), DepartmentEntity.builder().name(firstUpdateDto.getName()).build(), null
+        );
+
+        DepartmentDto staleUpdateDto = TestDataUtil.createTestDepartmentDtoA();
+        String departmentUpdateJson = objectMapper.writeValueAsString(staleUpdateDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .patch("/departments/" + savedDepartmentEntity.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(departmentUpdateJson)
+                        .header(HttpHeaders.IF_MATCH, staleETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isConflict()
+        );
+
+        // The stale update has not been written
+        assertEquals(
+                firstUpdateDto.getName(),
+                departmentService.findOneById(savedDepartmentEntity.getId()).get().getName()
+        );
+    }
+
+    @Test
+    public void testPartialUpdateDepartmentWhenIfMatchIsMalformed() throws Exception {
+        DepartmentEntity savedDepartmentEntity = departmentService.save(TestDataUtil.createTestDepartmentEntityA());
+
+        String departmentUpdateJson = objectMapper.writeValueAsString(TestDataUtil.createTestDepartmentDtoB());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .patch("/departments/" + savedDepartmentEntity.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(departmentUpdateJson)
+                        .header(HttpHeaders.IF_MATCH, "\"not-a-version\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
     @Test
     public void testDeleteDepartment() throws Exception {
         DepartmentEntity testDepartment = TestDataUtil.createTestDepartmentEntityA();
@@ -174,4 +298,37 @@ class DepartmentControllerIntegrationTests {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(MockMvcResultMatchers.status().isNoContent());
     }
+
+    @Test
+    public void testGetAllDepartmentsIsServedFromCacheUntilDepartmentsChange() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        departmentService.save(TestDataUtil.createTestDepartmentEntityA());
+
+        // The first request populates the query cache
+        mockMvc.perform(MockMvcRequestBuilders.get("/departments").contentType(MediaType.APPLICATION_JSON));
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/departments")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(1)
+        );
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        departmentService.save(TestDataUtil.createTestDepartmentEntityB());
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/departments")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        );
+
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
 }
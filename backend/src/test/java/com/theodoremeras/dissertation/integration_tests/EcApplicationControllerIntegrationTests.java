@@ -5,7 +5,12 @@ import com.theodoremeras.dissertation.ParentCreationService;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.ec_application.EcApplicationDto;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationPageDto;
 import com.theodoremeras.dissertation.ec_application.EcApplicationService;
+import com.theodoremeras.dissertation.evidence.EvidenceRepository;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionRepository;
+import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
 import com.theodoremeras.dissertation.user.UserEntity;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +27,9 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -33,6 +41,12 @@ public class EcApplicationControllerIntegrationTests {
 
     private final ParentCreationService parentCreationService;
 
+    private final ModuleRequestRepository moduleRequestRepository;
+
+    private final ModuleDecisionRepository moduleDecisionRepository;
+
+    private final EvidenceRepository evidenceRepository;
+
     private final MockMvc mockMvc;
 
     private final ObjectMapper objectMapper;
@@ -42,10 +56,14 @@ public class EcApplicationControllerIntegrationTests {
     @Autowired
     public EcApplicationControllerIntegrationTests(
             EcApplicationService ecApplicationService, ParentCreationService parentCreationService,
-            MockMvc mockMvc, ObjectMapper objectMapper, JwtEncoder jwtEncoder
+            ModuleRequestRepository moduleRequestRepository, ModuleDecisionRepository moduleDecisionRepository,
+            EvidenceRepository evidenceRepository, MockMvc mockMvc, ObjectMapper objectMapper, JwtEncoder jwtEncoder
     ) {
         this.ecApplicationService = ecApplicationService;
         this.parentCreationService = parentCreationService;
+        this.moduleRequestRepository = moduleRequestRepository;
+        this.moduleDecisionRepository = moduleDecisionRepository;
+        this.evidenceRepository = evidenceRepository;
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
         this.jwtEncoder = jwtEncoder;
@@ -523,6 +541,138 @@ public class EcApplicationControllerIntegrationTests {
     }
 
 
+    @Test
+    public void testGetAllEcApplicationsByStudentDepartmentIdAndStatus() throws Exception {
+        UserEntity savedUser = parentCreationService.createUserParentEntity();
+
+        // Build jwt with academic staff role specified
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("staff@staff.com")
+                .claim("roles", "Academic_Staff")
+                .claim("userId", 5)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        // Application A is referred with no undecided module requests (closed), application B is rejected
+        EcApplicationEntity savedEcApplicationA =
+                ecApplicationService.save(TestDataUtil.createTestEcApplicationEntityA(savedUser));
+        ecApplicationService.save(TestDataUtil.createTestEcApplicationEntityB(savedUser));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?studentDepartmentId=" + savedUser.getDepartment().getId()
+                                + "&status=CLOSED")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].id")
+                        .value(savedEcApplicationA.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].status").value("CLOSED")
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?studentDepartmentId=" + savedUser.getDepartment().getId()
+                                + "&status=REFERRED")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$").isEmpty()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPage() throws Exception {
+        UserEntity savedUser = parentCreationService.createUserParentEntity();
+
+        // Build jwt with admin role specified
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("admin@admin.com")
+                .claim("roles", "Administrator")
+                .claim("userId", 5)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        EcApplicationEntity testEcApplicationA = TestDataUtil.createTestEcApplicationEntityA(savedUser);
+        EcApplicationEntity savedEcApplicationA = ecApplicationService.save(testEcApplicationA);
+        EcApplicationEntity testEcApplicationB = TestDataUtil.createTestEcApplicationEntityB(savedUser);
+        EcApplicationEntity savedEcApplicationB = ecApplicationService.save(testEcApplicationB);
+
+        // Applications are returned newest first, one per page
+        String firstPageJson = mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?limit=1&studentDepartmentId=" + savedUser.getDepartment().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items[0].id").value(savedEcApplicationA.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").isString()
+        ).andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readValue(firstPageJson, EcApplicationPageDto.class).getNextCursor();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?limit=1&cursor=" + nextCursor
+                                + "&studentDepartmentId=" + savedUser.getDepartment().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items[0].id").value(savedEcApplicationB.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageWhenForbidden() throws Exception {
+
+        // Build jwt with student role specified, as students are only allowed to
+        // fetch EC applications relevant to them
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("admin@admin.com")
+                .claim("roles", "Student")
+                .claim("userId", 5)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?limit=10&studentDepartmentId=1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+    }
+
     @Test
     public void testGetEcApplicationById() throws Exception {
         UserEntity savedUser = parentCreationService.createUserParentEntity();
@@ -619,6 +769,71 @@ public class EcApplicationControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testGetEcApplicationDetailsById() throws Exception {
+        ModuleRequestEntity savedModuleRequest = parentCreationService.createModuleRequestParentEntity();
+        EcApplicationEntity savedEcApplication = savedModuleRequest.getEcApplication();
+
+        // Build jwt with admin role specified
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("admin@admin.com")
+                .claim("roles", "Administrator")
+                .claim("userId", 5)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + savedEcApplication.getId() + "/details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.ecApplication.id")
+                        .value(savedEcApplication.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.student.id").isNumber()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.moduleRequests[0].id")
+                        .value(savedModuleRequest.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.modules[0].code")
+                        .value(savedModuleRequest.getModule().getCode())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.evidence").isEmpty()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.moduleDecisions").isEmpty()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationDetailsByIdWhenNoApplicationExists() throws Exception {
+
+        // Build jwt with admin role specified
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("admin@admin.com")
+                .claim("roles", "Administrator")
+                .claim("userId", 5)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/123/details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
     @Test
     public void testPartialUpdateEcApplication() throws Exception {
         UserEntity savedUser = parentCreationService.createUserParentEntity();
@@ -658,12 +873,61 @@ public class EcApplicationControllerIntegrationTests {
         ).andExpect(
                 MockMvcResultMatchers.jsonPath("$.isReferred")
                         .value(testEcApplicationDto.getIsReferred())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("REJECTED")
         ).andExpect(
                 MockMvcResultMatchers.jsonPath("$.studentId")
                         .value(savedUser.getId())
         );
     }
 
+    @Test
+    public void testPartialUpdateEcApplicationStatus() throws Exception {
+        ModuleRequestEntity savedModuleRequest = parentCreationService.createModuleRequestParentEntity();
+        EcApplicationEntity savedEcApplication = savedModuleRequest.getEcApplication();
+
+        // Build jwt with admin role specified
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("admin@admin.com")
+                .claim("roles", "Administrator")
+                .claim("userId", 5)
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        // The module request of the application is still undecided
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/ec-applications/" + savedEcApplication.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("isReferred", true)))
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("REFERRED")
+        );
+
+        savedModuleRequest.setFinalOutcome(true);
+        moduleRequestRepository.save(savedModuleRequest);
+
+        // The application is still referred, and now has a final decision on every module request
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/ec-applications/" + savedEcApplication.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("requiresFurtherEvidence", false)))
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.isReferred").value(true)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("CLOSED")
+        );
+    }
+
     @Test
     public void testPartialUpdateEcApplicationWhenNoApplicationExists() throws Exception {
 
@@ -741,6 +1005,30 @@ public class EcApplicationControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testDeleteEcApplicationWithDependents() throws Exception {
+        ModuleRequestEntity savedModuleRequest = parentCreationService.createModuleRequestParentEntity();
+        EcApplicationEntity savedEcApplication = savedModuleRequest.getEcApplication();
+        UserEntity savedStaffMember = parentCreationService.createUserParentEntity();
+
+        evidenceRepository.save(TestDataUtil.createTestEvidenceEntityA(savedEcApplication));
+        moduleDecisionRepository.save(TestDataUtil.createTestModuleDecisionEntityA(
+                savedModuleRequest, savedStaffMember, savedEcApplication
+        ));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/ec-applications/" + savedEcApplication.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+
+        assertFalse(ecApplicationService.exists(savedEcApplication.getId()));
+        assertEquals(0, moduleDecisionRepository.count());
+        assertEquals(0, moduleRequestRepository.count());
+        assertEquals(0, evidenceRepository.count());
+    }
+
     @Test
     public void testDeleteEcApplicationWhenNoApplicationExists() throws Exception {
         mockMvc.perform(
@@ -751,5 +1039,26 @@ public class EcApplicationControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testDeleteEcApplications() throws Exception {
+        UserEntity savedUser = parentCreationService.createUserParentEntity();
+
+        EcApplicationEntity savedEcApplicationA =
+                ecApplicationService.save(TestDataUtil.createTestEcApplicationEntityA(savedUser));
+        EcApplicationEntity savedEcApplicationB =
+                ecApplicationService.save(TestDataUtil.createTestEcApplicationEntityB(savedUser));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/ec-applications")
+                        .param("ids", savedEcApplicationA.getId() + "," + savedEcApplicationB.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+
+        assertFalse(ecApplicationService.exists(savedEcApplicationA.getId()));
+        assertFalse(ecApplicationService.exists(savedEcApplicationB.getId()));
+    }
+
 
 }
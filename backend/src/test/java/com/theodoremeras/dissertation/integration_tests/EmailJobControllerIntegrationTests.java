@@ -0,0 +1,194 @@
+package com.theodoremeras.dissertation.integration_tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.theodoremeras.dissertation.ParentCreationService;
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.email.EmailDispatcher;
+import com.theodoremeras.dissertation.email.EmailJobDto;
+import com.theodoremeras.dissertation.email.EmailJobService;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.user.UserService;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"Clerical_Staff"})
+public class EmailJobControllerIntegrationTests {
+
+    // Stands in for the SMTP server that the email dispatcher sends to
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final UserService userService;
+
+    private final ParentCreationService parentCreationService;
+
+    private final EmailJobService emailJobService;
+
+    private final EmailDispatcher emailDispatcher;
+
+    private final MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public EmailJobControllerIntegrationTests(
+            UserService userService, ParentCreationService parentCreationService,
+            EmailJobService emailJobService, EmailDispatcher emailDispatcher,
+            MockMvc mockMvc, ObjectMapper objectMapper
+    ) {
+        this.userService = userService;
+        this.parentCreationService = parentCreationService;
+        this.emailJobService = emailJobService;
+        this.emailDispatcher = emailDispatcher;
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    private static EmailJobDto createTestEmailJobDto(Integer departmentId, Integer roleId) {
+        return EmailJobDto.builder()
+                .departmentId(departmentId)
+                .roleId(roleId)
+                .subject("Deadline for {{name}}")
+                .body("Dear {{name}}, your email is {{email}}")
+                .build();
+    }
+
+    @Test
+    public void testCreateEmailJobEmailsEveryRecipient() throws Exception {
+        UserEntity userA = parentCreationService.createUserParentEntity();
+        userService.save(TestDataUtil.createTestUserEntityB(userA.getRole(), userA.getDepartment()));
+        String emailJobJson = objectMapper.writeValueAsString(
+                createTestEmailJobDto(userA.getDepartment().getId(), userA.getRole().getId())
+        );
+
+        String response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isAccepted()
+        ).andExpect(
+                MockMvcResultMatchers.header().exists("Location")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("PREPARING")
+        ).andReturn().getResponse().getContentAsString();
+        Long jobId = objectMapper.readValue(response, EmailJobDto.class).getId();
+
+        // Nothing is queued or sent by the request itself
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        emailJobService.preparePending();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-jobs/" + jobId)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("SENDING")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.recipientCount").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pendingCount").value(2)
+        );
+
+        emailDispatcher.dispatchPending();
+
+        MimeMessage[] receivedMessages = greenMail.getReceivedMessages();
+        assertEquals(2, receivedMessages.length);
+        // Each recipient's email is rendered with their own name and email
+        Map<String, String> bodiesBySubject = new HashMap<>();
+        for (MimeMessage message : receivedMessages)
+            bodiesBySubject.put(message.getSubject(), GreenMailUtil.getBody(message));
+        assertEquals(Set.of("Deadline for User A", "Deadline for User B"), bodiesBySubject.keySet());
+        assertEquals("Dear User B, your email is userB@gmail.com", bodiesBySubject.get("Deadline for User B"));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-jobs/" + jobId)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("COMPLETED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.sentCount").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pendingCount").value(0)
+        );
+    }
+
+    @Test
+    public void testCreateEmailJobWithUnknownPlaceholder() throws Exception {
+        UserEntity user = parentCreationService.createUserParentEntity();
+        EmailJobDto emailJobDto = createTestEmailJobDto(user.getDepartment().getId(), user.getRole().getId());
+        emailJobDto.setBody("Dear {{surname}}");
+        String emailJobJson = objectMapper.writeValueAsString(emailJobDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.template").exists()
+        );
+    }
+
+    @Test
+    public void testCreateEmailJobWhenNoDepartmentExists() throws Exception {
+        String emailJobJson = objectMapper.writeValueAsString(createTestEmailJobDto(99, 99));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    @WithMockUser(roles = {"Student"})
+    public void testCreateEmailJobWhenNotStaff() throws Exception {
+        String emailJobJson = objectMapper.writeValueAsString(createTestEmailJobDto(1, 1));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+    }
+
+    @Test
+    public void testGetEmailJobByIdWhenNoEmailJobExists() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-jobs/99")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.theodoremeras.dissertation.integration_tests;
+
+import com.theodoremeras.dissertation.email.EmailOutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"Administrator"})
+public class EmailOutboxControllerIntegrationTests {
+
+    private final EmailOutboxService emailOutboxService;
+
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public EmailOutboxControllerIntegrationTests(EmailOutboxService emailOutboxService, MockMvc mockMvc) {
+        this.emailOutboxService = emailOutboxService;
+        this.mockMvc = mockMvc;
+    }
+
+    @Test
+    public void testGetEmailOutboxStats() throws Exception {
+        emailOutboxService.enqueue("user1@test.com", "Subject", "Body");
+        emailOutboxService.enqueue("user2@test.com", "Subject", "Body");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-outbox/stats")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pending").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.failed").value(0)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.oldestPendingAgeSeconds").isNumber()
+        );
+    }
+
+    @Test
+    @WithMockUser(roles = {"Student"})
+    public void testGetEmailOutboxStatsWhenNotAdministrator() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-outbox/stats")
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+    }
+
+}
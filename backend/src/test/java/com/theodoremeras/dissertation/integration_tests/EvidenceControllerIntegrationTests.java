@@ -1,6 +1,7 @@
 package com.theodoremeras.dissertation.integration_tests;
 
 
+import com.jayway.jsonpath.JsonPath;
 import com.theodoremeras.dissertation.ParentCreationService;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
@@ -10,14 +11,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
@@ -30,13 +50,17 @@ public class EvidenceControllerIntegrationTests {
 
     private final MockMvc mockMvc;
 
+    private final JwtEncoder jwtEncoder;
+
     @Autowired
     public EvidenceControllerIntegrationTests(
-            EvidenceService evidenceService, ParentCreationService parentCreationService, MockMvc mockMvc
+            EvidenceService evidenceService, ParentCreationService parentCreationService,
+            MockMvc mockMvc, JwtEncoder jwtEncoder
     ) {
         this.evidenceService = evidenceService;
         this.parentCreationService = parentCreationService;
         this.mockMvc = mockMvc;
+        this.jwtEncoder = jwtEncoder;
     }
 
     @Test
@@ -130,6 +154,50 @@ public class EvidenceControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testServeFileSupportsConditionalAndRangeRequests() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        MockMultipartFile multipartFile =
+                new MockMultipartFile("file", "scan.pdf",
+                        "application/pdf", ("Scanned letter " + UUID.randomUUID()).getBytes());
+
+        EvidenceEntity testEvidenceEntity = TestDataUtil.createTestEvidenceEntityA(savedEcApplication);
+        EvidenceEntity savedEvidenceEntity = evidenceService.save(multipartFile, testEvidenceEntity);
+        String eTag = "\"" + savedEvidenceEntity.getContentHash() + "\"";
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/" + savedEvidenceEntity.getFileName())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache")
+        ).andExpect(
+                MockMvcResultMatchers.content().bytes(multipartFile.getBytes())
+        );
+
+        // A client holding the current version gets no body back
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/" + savedEvidenceEntity.getFileName())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/" + savedEvidenceEntity.getFileName())
+                        .header(HttpHeaders.RANGE, "bytes=0-6")
+        ).andExpect(
+                MockMvcResultMatchers.status().isPartialContent()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes 0-6/" + multipartFile.getSize())
+        ).andExpect(
+                MockMvcResultMatchers.content().string("Scanned")
+        );
+    }
+
     @Test
     public void testServeFileWhenNoFileExists() throws Exception {
         mockMvc.perform(
@@ -159,6 +227,49 @@ public class EvidenceControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testUploadIdenticalEvidenceIsStoredOnce() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        byte[] content = ("Standard medical letter " + UUID.randomUUID()).getBytes();
+
+        for (String fileName : List.of("letter.pdf", "letter-copy.pdf"))
+            mockMvc.perform(
+                    MockMvcRequestBuilders.multipart("/evidence?ecApplicationId=" + savedEcApplication.getId())
+                            .file(new MockMultipartFile("file", fileName, "application/pdf", content))
+            ).andExpect(
+                    MockMvcResultMatchers.status().isCreated()
+            );
+
+        List<EvidenceEntity> savedEvidence = evidenceService.findAllByApplicationId(savedEcApplication.getId());
+        assertEquals(2, savedEvidence.size());
+        assertNotNull(savedEvidence.get(0).getContentHash());
+        assertEquals(savedEvidence.get(0).getContentHash(), savedEvidence.get(1).getContentHash());
+
+        Path storedFile = evidenceService.findStoredFile(savedEvidence.get(0)).orElseThrow().localFile();
+        assertEquals(storedFile, evidenceService.findStoredFile(savedEvidence.get(1)).orElseThrow().localFile());
+
+        // Both uploads are served from the same file
+        for (EvidenceEntity evidenceEntity : savedEvidence)
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get("/evidence/" + evidenceEntity.getFileName())
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            ).andExpect(
+                    MockMvcResultMatchers.content().bytes(content)
+            );
+
+        // Deleting evidence leaves the file, which can only be removed once no evidence refers to it
+        String contentHash = savedEvidence.get(0).getContentHash();
+        evidenceService.delete(savedEvidence.get(0).getId());
+        assertFalse(evidenceService.deleteUnreferencedContent(contentHash));
+        assertTrue(Files.exists(storedFile));
+
+        evidenceService.delete(savedEvidence.get(1).getId());
+        assertTrue(Files.exists(storedFile));
+        assertTrue(evidenceService.deleteUnreferencedContent(contentHash));
+        assertFalse(Files.exists(storedFile));
+    }
+
     @Test
     public void testDeleteEvidenceWhenNoEvidenceExists() throws Exception {
         mockMvc.perform(
@@ -169,4 +280,161 @@ public class EvidenceControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testDownloadEvidenceBundle() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        byte[] pdfContent = ("Scanned letter " + UUID.randomUUID()).getBytes();
+        byte[] textContent = "Notes about the circumstances".getBytes();
+
+        for (MockMultipartFile multipartFile : List.of(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", pdfContent),
+                new MockMultipartFile("file", "notes.txt", "text/plain", textContent)
+        ))
+            mockMvc.perform(
+                    MockMvcRequestBuilders.multipart("/evidence?ecApplicationId=" + savedEcApplication.getId())
+                            .file(multipartFile)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isCreated()
+            );
+
+        // Build jwt for the student who submitted the application
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("student@student.com")
+                .claim("roles", "Student")
+                .claim("userId", savedEcApplication.getStudent().getId())
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        MvcResult mvcResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + savedEcApplication.getId() + "/evidence.zip")
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        byte[] archive = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(mvcResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType("application/zip")
+        ).andReturn().getResponse().getContentAsByteArray();
+
+        Map<String, Integer> entryMethods = new HashMap<>();
+        Map<String, byte[]> entryContents = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entryMethods.put(entry.getName(), entry.getMethod());
+                entryContents.put(entry.getName(), zipInputStream.readAllBytes());
+            }
+        }
+
+        // Entries are named after the stored files, and the PDF is stored without recompression
+        assertEquals(2, entryMethods.size());
+        for (EvidenceEntity evidenceEntity : evidenceService.findAllByApplicationId(savedEcApplication.getId())) {
+            boolean isPdf = evidenceEntity.getFileName().endsWith(".pdf");
+            assertEquals(isPdf ? ZipEntry.STORED : ZipEntry.DEFLATED, entryMethods.get(evidenceEntity.getFileName()));
+            assertArrayEquals(isPdf ? pdfContent : textContent, entryContents.get(evidenceEntity.getFileName()));
+        }
+    }
+
+    @Test
+    public void testChunkedUpload() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        byte[] content = ("Scanned letter " + UUID.randomUUID()).getBytes();
+        int half = content.length / 2;
+
+        // Build jwt for the student who submitted the application
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("student@student.com")
+                .claim("roles", "Student")
+                .claim("userId", savedEcApplication.getStudent().getId())
+                .build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        String response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/evidence/uploads")
+                        .param("ecApplicationId", savedEcApplication.getId().toString())
+                        .param("fileName", "letter.pdf")
+                        .param("size", String.valueOf(content.length))
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.offset").value(0)
+        ).andReturn().getResponse().getContentAsString();
+        String uploadId = JsonPath.read(response, "$.uploadId");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/evidence/uploads/" + uploadId + "?offset=0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOfRange(content, 0, half))
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.offset").value(half)
+        );
+
+        // The upload can not be completed before all of the content has arrived
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/evidence/uploads/" + uploadId + "/complete")
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isConflict()
+        );
+
+        // After an interruption, the client finds out where to resume from
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/uploads/" + uploadId)
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.offset").value(half)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/evidence/uploads/" + uploadId + "?offset=" + half)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOfRange(content, half, content.length))
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.offset").value(content.length)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/evidence/uploads/" + uploadId + "/complete")
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.ecApplicationId").value(savedEcApplication.getId())
+        );
+
+        List<EvidenceEntity> savedEvidence = evidenceService.findAllByApplicationId(savedEcApplication.getId());
+        assertEquals(1, savedEvidence.size());
+        assertTrue(savedEvidence.get(0).getFileName().endsWith("letter.pdf"));
+        assertNotNull(savedEvidence.get(0).getContentHash());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/" + savedEvidence.get(0).getFileName())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().bytes(content)
+        );
+    }
+
 }
@@ -0,0 +1,96 @@
+package com.theodoremeras.dissertation.integration_tests;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+    Scrapes the Prometheus endpoint the way the metrics server does: over HTTP, on the management port,
+    without logging in
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0"
+)
+@AutoConfigureObservability
+public class MetricsIntegrationTests {
+
+    private final TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    public MetricsIntegrationTests(TestRestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Test
+    public void testScrapePrometheusEndpoint() {
+        // A request to be measured; the list of departments needs no login
+        assertEquals(HttpStatus.OK,
+                restTemplate.getForEntity("http://localhost:" + serverPort + "/departments", String.class)
+                        .getStatusCode());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(managementUrl("/actuator/prometheus"), String.class);
+
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        String metrics = scrape.getBody();
+        assertNotNull(metrics);
+        // Latency histogram per controller method
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metrics.contains("handler=\"DepartmentController.getAllDepartments\""));
+        // Connection pool usage and wait time
+        assertTrue(metrics.contains("hikaricp_connections_active"));
+        assertTrue(metrics.contains("hikaricp_connections_acquire_seconds_bucket{"));
+        assertTrue(metrics.contains("hikaricp_connections_usage_seconds_bucket{"));
+        // Hibernate session and query statistics
+        assertTrue(metrics.contains("hibernate_sessions_open_total"));
+        assertTrue(metrics.contains("hibernate_query_executions_total"));
+        // Evidence content and email sending
+        assertTrue(metrics.contains("evidence_uploaded_bytes_total"));
+        assertTrue(metrics.contains("evidence_downloaded_bytes_total"));
+        assertTrue(metrics.contains("email_send_seconds_bucket{"));
+        assertTrue(metrics.contains("email_outbox_size"));
+        assertTrue(metrics.contains("jvm_memory_used_bytes"));
+    }
+
+    @Test
+    public void testHealthEndpointNeedsNoLogin() {
+        ResponseEntity<String> health = restTemplate.getForEntity(managementUrl("/actuator/health"), String.class);
+
+        assertEquals(HttpStatus.OK, health.getStatusCode());
+    }
+
+    @Test
+    public void testOtherActuatorEndpointsNeedLogin() {
+        ResponseEntity<String> metrics = restTemplate.getForEntity(managementUrl("/actuator/metrics"), String.class);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, metrics.getStatusCode());
+    }
+
+    @Test
+    public void testActuatorIsNotServedOnApplicationPort() {
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://localhost:" + serverPort + "/actuator/prometheus", String.class
+        );
+
+        assertNotEquals(HttpStatus.OK, scrape.getStatusCode());
+    }
+
+    private String managementUrl(String path) {
+        return "http://localhost:" + managementPort + path;
+    }
+
+}
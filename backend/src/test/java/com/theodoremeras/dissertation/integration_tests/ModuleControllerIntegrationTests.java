@@ -7,6 +7,10 @@ import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.module.ModuleDto;
 import com.theodoremeras.dissertation.module.ModuleEntity;
 import com.theodoremeras.dissertation.module.ModuleService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -18,6 +22,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
@@ -32,15 +38,18 @@ public class ModuleControllerIntegrationTests {
 
     private final ObjectMapper objectMapper;
 
+    private final EntityManagerFactory entityManagerFactory;
+
     @Autowired
     public ModuleControllerIntegrationTests(
             ModuleService moduleService, ParentCreationService parentCreationService,
-            MockMvc mockMvc, ObjectMapper objectMapper
+            MockMvc mockMvc, ObjectMapper objectMapper, EntityManagerFactory entityManagerFactory
     ) {
         this.moduleService = moduleService;
         this.parentCreationService = parentCreationService;
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Test
@@ -225,6 +234,94 @@ public class ModuleControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testGetAllModulesIsServedFromCache() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        DepartmentEntity savedDepartment = parentCreationService.createDepartmentParentEntity();
+        moduleService.save(TestDataUtil.createTestModuleEntityA(savedDepartment));
+        moduleService.save(TestDataUtil.createTestModuleEntityB(savedDepartment));
+
+        // The first request populates the query cache
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/modules")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        );
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/modules")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        );
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void testGetModuleIsServedFromCache() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        DepartmentEntity savedDepartment = parentCreationService.createDepartmentParentEntity();
+        ModuleEntity savedModuleEntity = moduleService.save(TestDataUtil.createTestModuleEntityA(savedDepartment));
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/modules/" + savedModuleEntity.getCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value(savedModuleEntity.getName())
+        );
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    public void testPartialUpdateModuleInvalidatesCache() throws Exception {
+        DepartmentEntity savedDepartment = parentCreationService.createDepartmentParentEntity();
+        ModuleEntity savedModuleEntity = moduleService.save(TestDataUtil.createTestModuleEntityA(savedDepartment));
+
+        // Populate both the query cache and the entity cache
+        mockMvc.perform(MockMvcRequestBuilders.get("/modules").contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(MockMvcRequestBuilders.get("/modules/" + savedModuleEntity.getCode()).contentType(MediaType.APPLICATION_JSON));
+
+        ModuleDto testModuleDto = TestDataUtil.createTestModuleDtoB(null);
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/modules/" + savedModuleEntity.getCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testModuleDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/modules/" + savedModuleEntity.getCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value(testModuleDto.getName())
+        );
+
+        moduleService.save(TestDataUtil.createTestModuleEntityB(savedDepartment));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/modules")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[*].name", Matchers.hasItem(testModuleDto.getName()))
+        );
+    }
+
     @Test
     public void testPartialUpdateModuleWhenNoModuleExists() throws Exception {
         ModuleDto testModuleDto = TestDataUtil.createTestModuleDtoB(1);
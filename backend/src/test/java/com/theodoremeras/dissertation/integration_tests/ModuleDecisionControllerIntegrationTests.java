@@ -5,6 +5,7 @@ import com.theodoremeras.dissertation.ParentCreationService;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationService;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionBatchDto;
 import com.theodoremeras.dissertation.module_decision.ModuleDecisionDto;
 import com.theodoremeras.dissertation.module_decision.ModuleDecisionEntity;
 import com.theodoremeras.dissertation.module_decision.ModuleDecisionService;
@@ -21,6 +22,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
@@ -91,6 +96,107 @@ public class ModuleDecisionControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testCreateModuleDecisionFinalisesModuleRequest() throws Exception {
+        ModuleRequestEntity savedModuleRequest = parentCreationService.createModuleRequestParentEntity();
+        UserEntity savedStaff = parentCreationService.createUserParentEntity();
+        UserEntity savedStaffB = parentCreationService.createUserParentEntityB();
+        Integer ecApplicationId = savedModuleRequest.getEcApplication().getId();
+
+        // Two staff members reject the request, which makes the rejection final
+        for (UserEntity staff : List.of(savedStaff, savedStaffB)) {
+            ModuleDecisionDto testModuleDecisionDto =
+                    TestDataUtil.createTestModuleDecisionDtoA(savedModuleRequest.getId(), staff.getId(), ecApplicationId);
+
+            mockMvc.perform(
+                    MockMvcRequestBuilders.post("/module-decisions")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(testModuleDecisionDto))
+            ).andExpect(
+                    MockMvcResultMatchers.status().isCreated()
+            );
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/module-requests?ecApplicationIds=" + ecApplicationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].approvalCount").value(0)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].rejectionCount").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].finalOutcome").value(false)
+        );
+    }
+
+    @Test
+    public void testCreateModuleDecisionsFinalisesModuleRequest() throws Exception {
+        ModuleRequestEntity savedModuleRequest = parentCreationService.createModuleRequestParentEntity();
+        UserEntity savedStaff = parentCreationService.createUserParentEntity();
+        UserEntity savedStaffB = parentCreationService.createUserParentEntityB();
+        Integer ecApplicationId = savedModuleRequest.getEcApplication().getId();
+
+        // Both rejections are made in one batch, which makes the rejection final
+        ModuleDecisionBatchDto testModuleDecisionBatchDto = ModuleDecisionBatchDto.builder()
+                .moduleDecisions(List.of(
+                        TestDataUtil.createTestModuleDecisionDtoA(savedModuleRequest.getId(), savedStaff.getId(), ecApplicationId),
+                        TestDataUtil.createTestModuleDecisionDtoA(savedModuleRequest.getId(), savedStaffB.getId(), ecApplicationId)
+                ))
+                .build();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/module-decisions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testModuleDecisionBatchDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].id").isNumber()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].staffMemberId").value(savedStaffB.getId())
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/module-requests?ecApplicationIds=" + ecApplicationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].rejectionCount").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].finalOutcome").value(false)
+        );
+    }
+
+    @Test
+    public void testCreateModuleDecisionsWhenApplicationDoesNotMatchModuleRequest() throws Exception {
+        ModuleRequestEntity savedModuleRequest = parentCreationService.createModuleRequestParentEntity();
+        UserEntity savedStaff = parentCreationService.createUserParentEntity();
+        Integer ecApplicationId = savedModuleRequest.getEcApplication().getId();
+
+        ModuleDecisionBatchDto testModuleDecisionBatchDto = ModuleDecisionBatchDto.builder()
+                .moduleDecisions(List.of(
+                        TestDataUtil.createTestModuleDecisionDtoA(savedModuleRequest.getId(), savedStaff.getId(), ecApplicationId),
+                        TestDataUtil.createTestModuleDecisionDtoA(savedModuleRequest.getId(), savedStaff.getId(), ecApplicationId + 1)
+                ))
+                .build();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/module-decisions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testModuleDecisionBatchDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+
+        // None of the decisions are created
+        assertEquals(0, moduleDecisionService.findAllByModuleRequestId(savedModuleRequest.getId()).size());
+    }
+
     @Test
     public void testCreateModuleDecisionWhenNoModuleRequestOrStaffOrApplicationIsSpecified() throws Exception {
         ModuleDecisionDto testModuleDecisionDto =
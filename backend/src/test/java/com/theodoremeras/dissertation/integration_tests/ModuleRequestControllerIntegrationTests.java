@@ -6,6 +6,7 @@ import com.theodoremeras.dissertation.ParentCreationService;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
 import com.theodoremeras.dissertation.module.ModuleEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestBatchDto;
 import com.theodoremeras.dissertation.module_request.ModuleRequestDto;
 import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
 import com.theodoremeras.dissertation.module_request.ModuleRequestService;
@@ -20,6 +21,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
@@ -227,6 +232,82 @@ public class ModuleRequestControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testCreateModuleRequests() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        ModuleEntity savedModuleA = parentCreationService.createModuleParentEntity();
+        ModuleEntity savedModuleB = parentCreationService.createModuleParentEntityB();
+
+        ModuleRequestBatchDto testRequestBatchDto = ModuleRequestBatchDto.builder()
+                .moduleRequests(List.of(
+                        TestDataUtil.createTestRequestDtoA(savedEcApplication.getId(), savedModuleA.getCode()),
+                        TestDataUtil.createTestRequestDtoA(savedEcApplication.getId(), savedModuleB.getCode())
+                ))
+                .build();
+        String requestBatchJson = objectMapper.writeValueAsString(testRequestBatchDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/module-requests/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBatchJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].id").isNumber()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].moduleCode").value(savedModuleA.getCode())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].moduleCode").value(savedModuleB.getCode())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].ecApplicationId").value(savedEcApplication.getId())
+        );
+
+        assertEquals(2, moduleRequestService.findAllByEcApplicationIdIn(List.of(savedEcApplication.getId())).size());
+    }
+
+    @Test
+    public void testCreateModuleRequestsWhenOneModuleDoesNotExist() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        ModuleEntity savedModule = parentCreationService.createModuleParentEntity();
+
+        ModuleRequestBatchDto testRequestBatchDto = ModuleRequestBatchDto.builder()
+                .moduleRequests(List.of(
+                        TestDataUtil.createTestRequestDtoA(savedEcApplication.getId(), savedModule.getCode()),
+                        TestDataUtil.createTestRequestDtoA(savedEcApplication.getId(), "NOT_A_MODULE")
+                ))
+                .build();
+        String requestBatchJson = objectMapper.writeValueAsString(testRequestBatchDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/module-requests/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBatchJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+
+        // None of the requests are created
+        assertEquals(0, moduleRequestService.findAllByEcApplicationIdIn(List.of(savedEcApplication.getId())).size());
+    }
+
+    @Test
+    public void testCreateModuleRequestsWhenBatchIsInvalid() throws Exception {
+        ModuleRequestBatchDto testRequestBatchDto = ModuleRequestBatchDto.builder()
+                .moduleRequests(List.of(TestDataUtil.createTestRequestDtoA(null, null)))
+                .build();
+        String requestBatchJson = objectMapper.writeValueAsString(testRequestBatchDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/module-requests/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBatchJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
     @Test
     public void testDeleteModuleRequest() throws Exception {
         EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
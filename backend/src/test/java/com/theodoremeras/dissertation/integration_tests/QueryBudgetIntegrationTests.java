@@ -0,0 +1,299 @@
+package com.theodoremeras.dissertation.integration_tests;
+
+import com.theodoremeras.dissertation.ParentCreationService;
+import com.theodoremeras.dissertation.QueryBudget;
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationRepository;
+import com.theodoremeras.dissertation.evidence.EvidenceEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceRepository;
+import com.theodoremeras.dissertation.module.ModuleEntity;
+import com.theodoremeras.dissertation.module.ModuleRepository;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionEntity;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionRepository;
+import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import com.theodoremeras.dissertation.student_information.StudentInformationEntity;
+import com.theodoremeras.dissertation.student_information.StudentInformationRepository;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+    Checks that the list endpoints issue a fixed number of SQL statements, however many rows they return.
+    Each endpoint is given a budget and is called against a fixture where every row refers to its own
+    student, staff member, role, department and module, so loading any of those once per row exceeds it
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"Administrator"})
+public class QueryBudgetIntegrationTests {
+
+    // Number of EC applications in the fixture
+    private static final int APPLICATION_COUNT = 20;
+
+    // Number of module requests, module decisions and evidence of each EC application
+    private static final int ROWS_PER_APPLICATION = 3;
+
+    // A single query, with any associations the response needs fetched along with it
+    private static final long LIST_BUDGET = 1;
+
+    // One query per related resource: the application, its student, their information,
+    // its evidence, module requests, modules and module decisions
+    private static final long DETAILS_BUDGET = 7;
+
+    private final QueryBudget queryBudget;
+
+    private final ParentCreationService parentCreationService;
+
+    private final UserRepository userRepository;
+
+    private final StudentInformationRepository studentInformationRepository;
+
+    private final EcApplicationRepository ecApplicationRepository;
+
+    private final ModuleRepository moduleRepository;
+
+    private final ModuleRequestRepository moduleRequestRepository;
+
+    private final ModuleDecisionRepository moduleDecisionRepository;
+
+    private final EvidenceRepository evidenceRepository;
+
+    private final MockMvc mockMvc;
+
+    private final JwtEncoder jwtEncoder;
+
+    private final List<Integer> ecApplicationIds = new ArrayList<>();
+
+    private String token;
+
+    @Autowired
+    public QueryBudgetIntegrationTests(
+            QueryBudget queryBudget, ParentCreationService parentCreationService,
+            UserRepository userRepository, StudentInformationRepository studentInformationRepository,
+            EcApplicationRepository ecApplicationRepository, ModuleRepository moduleRepository,
+            ModuleRequestRepository moduleRequestRepository, ModuleDecisionRepository moduleDecisionRepository,
+            EvidenceRepository evidenceRepository, MockMvc mockMvc, JwtEncoder jwtEncoder
+    ) {
+        this.queryBudget = queryBudget;
+        this.parentCreationService = parentCreationService;
+        this.userRepository = userRepository;
+        this.studentInformationRepository = studentInformationRepository;
+        this.ecApplicationRepository = ecApplicationRepository;
+        this.moduleRepository = moduleRepository;
+        this.moduleRequestRepository = moduleRequestRepository;
+        this.moduleDecisionRepository = moduleDecisionRepository;
+        this.evidenceRepository = evidenceRepository;
+        this.mockMvc = mockMvc;
+        this.jwtEncoder = jwtEncoder;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            UserEntity student = saveUser("student" + i + "@gmail.com");
+            UserEntity staffMember = saveUser("staff" + i + "@gmail.com");
+
+            StudentInformationEntity studentInformation =
+                    TestDataUtil.createTestStudentInformationEntityA(student);
+            studentInformation.setId(null);
+            studentInformationRepository.save(studentInformation);
+
+            EcApplicationEntity ecApplication = TestDataUtil.createTestEcApplicationEntityA(student);
+            ecApplication.setId(null);
+            EcApplicationEntity savedEcApplication = ecApplicationRepository.save(ecApplication);
+            ecApplicationIds.add(savedEcApplication.getId());
+
+            for (int j = 0; j < ROWS_PER_APPLICATION; j++) {
+                ModuleEntity module = TestDataUtil.createTestModuleEntityA(student.getDepartment());
+                module.setCode("COM" + i + "_" + j);
+                ModuleEntity savedModule = moduleRepository.save(module);
+
+                ModuleRequestEntity moduleRequest =
+                        TestDataUtil.createTestRequestEntityA(savedEcApplication, savedModule);
+                moduleRequest.setId(null);
+                ModuleRequestEntity savedModuleRequest = moduleRequestRepository.save(moduleRequest);
+
+                ModuleDecisionEntity moduleDecision = TestDataUtil.createTestModuleDecisionEntityA(
+                        savedModuleRequest, staffMember, savedEcApplication
+                );
+                moduleDecision.setId(null);
+                moduleDecisionRepository.save(moduleDecision);
+
+                EvidenceEntity evidence = TestDataUtil.createTestEvidenceEntityA(savedEcApplication);
+                evidence.setId(null);
+                evidence.setFileName("evidence" + i + "_" + j + ".pdf");
+                evidenceRepository.save(evidence);
+            }
+        }
+
+        // Build jwt with admin role specified
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("admin@admin.com")
+                .claim("roles", "Administrator")
+                .claim("userId", 5)
+                .build();
+        token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    // Save a user with a role and department of their own
+    private UserEntity saveUser(String email) {
+        RoleEntity savedRoleEntity = parentCreationService.createRoleParentEntity();
+        DepartmentEntity savedDepartmentEntity = parentCreationService.createDepartmentParentEntity();
+
+        UserEntity testUserEntity = TestDataUtil.createTestUserEntityA(savedRoleEntity, savedDepartmentEntity);
+        testUserEntity.setId(null);
+        testUserEntity.setEmail(email);
+        return userRepository.save(testUserEntity);
+    }
+
+    private String joinedEcApplicationIds() {
+        return ecApplicationIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    @Test
+    public void testGetAllEcApplicationsIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/ec-applications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(APPLICATION_COUNT)
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/ec-applications")
+                        .param("limit", String.valueOf(APPLICATION_COUNT))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items.length()").value(APPLICATION_COUNT)
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationDetailsIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/ec-applications/" + ecApplicationIds.get(0) + "/details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token),
+                DETAILS_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.moduleRequests.length()").value(ROWS_PER_APPLICATION)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.modules.length()").value(ROWS_PER_APPLICATION)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.moduleDecisions.length()").value(ROWS_PER_APPLICATION)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.evidence.length()").value(ROWS_PER_APPLICATION)
+        );
+    }
+
+    @Test
+    public void testGetAllModuleRequestsIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/module-requests")
+                        .param("ecApplicationIds", joinedEcApplicationIds())
+                        .contentType(MediaType.APPLICATION_JSON),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(APPLICATION_COUNT * ROWS_PER_APPLICATION)
+        );
+    }
+
+    @Test
+    public void testGetAllModuleDecisionsIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/module-decisions")
+                        .contentType(MediaType.APPLICATION_JSON),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(APPLICATION_COUNT * ROWS_PER_APPLICATION)
+        );
+    }
+
+    @Test
+    public void testGetModuleDecisionsByEcApplicationIdsIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/module-decisions")
+                        .param("ecApplicationIds", joinedEcApplicationIds())
+                        .contentType(MediaType.APPLICATION_JSON),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(APPLICATION_COUNT * ROWS_PER_APPLICATION)
+        );
+    }
+
+    @Test
+    public void testGetAllUsersIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/users")
+                        .contentType(MediaType.APPLICATION_JSON),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(APPLICATION_COUNT * 2)
+        );
+    }
+
+    @Test
+    public void testGetAllEvidenceIsWithinBudget() throws Exception {
+        queryBudget.perform(mockMvc,
+                MockMvcRequestBuilders.get("/evidence")
+                        .param("ecApplicationId", String.valueOf(ecApplicationIds.get(0)))
+                        .contentType(MediaType.APPLICATION_JSON),
+                LIST_BUDGET
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(ROWS_PER_APPLICATION)
+        );
+    }
+
+}
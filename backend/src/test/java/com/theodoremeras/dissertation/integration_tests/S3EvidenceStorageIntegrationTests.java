@@ -0,0 +1,153 @@
+package com.theodoremeras.dissertation.integration_tests;
+
+import com.theodoremeras.dissertation.ParentCreationService;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.evidence.EvidenceStorage;
+import com.theodoremeras.dissertation.evidence.S3EvidenceStorage;
+import com.theodoremeras.dissertation.evidence.StoredEvidenceFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+    Runs the evidence endpoints against a MinIO server standing in for S3, and
+    is skipped when Docker is not available to start one
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"Administrator"})
+@Testcontainers(disabledWithoutDocker = true)
+public class S3EvidenceStorageIntegrationTests {
+
+    private static final String BUCKET = "evidence";
+
+    @Container
+    private static final MinIOContainer minio = new MinIOContainer("minio/minio:RELEASE.2024-06-13T22-53-53Z");
+
+    @DynamicPropertySource
+    public static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("storage.backend", () -> "s3");
+        registry.add("storage.s3.endpoint", minio::getS3URL);
+        registry.add("storage.s3.access-key", minio::getUserName);
+        registry.add("storage.s3.secret-key", minio::getPassword);
+        registry.add("storage.s3.bucket", () -> BUCKET);
+        registry.add("storage.s3.key-prefix", () -> "evidence/");
+    }
+
+    private final EvidenceService evidenceService;
+
+    private final ParentCreationService parentCreationService;
+
+    private final MockMvc mockMvc;
+
+    private final S3Client s3Client;
+
+    @Autowired
+    public S3EvidenceStorageIntegrationTests(
+            EvidenceService evidenceService, ParentCreationService parentCreationService,
+            MockMvc mockMvc, S3Client s3Client
+    ) {
+        this.evidenceService = evidenceService;
+        this.parentCreationService = parentCreationService;
+        this.mockMvc = mockMvc;
+        this.s3Client = s3Client;
+    }
+
+    @BeforeEach
+    public void createBucket() {
+        try {
+            s3Client.createBucket(CreateBucketRequest.builder().bucket(BUCKET).build());
+        } catch (BucketAlreadyOwnedByYouException ignored) {
+            // Created by an earlier test
+        }
+    }
+
+    @Test
+    public void testUploadAndServeEvidence() throws Exception {
+        EcApplicationEntity savedEcApplication = parentCreationService.createEcApplicationParentEntity();
+        // Larger than one part, so it is stored with a multipart upload
+        byte[] content = new byte[S3EvidenceStorage.MIN_PART_SIZE * 2 + 100];
+        new Random(42).nextBytes(content);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.multipart("/evidence?ecApplicationId=" + savedEcApplication.getId())
+                        .file(new MockMultipartFile("file", "scan.pdf", "application/pdf", content))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        );
+
+        List<EvidenceEntity> savedEvidence = evidenceService.findAllByApplicationId(savedEcApplication.getId());
+        StoredEvidenceFile storedFile = evidenceService.findStoredFile(savedEvidence.get(0)).orElseThrow();
+        assertEquals(content.length, storedFile.size());
+        // The file is not kept on this node
+        assertNull(storedFile.localFile());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/" + savedEvidence.get(0).getFileName())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().bytes(content)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/evidence/" + savedEvidence.get(0).getFileName())
+                        .header(HttpHeaders.RANGE, "bytes=100-199")
+        ).andExpect(
+                MockMvcResultMatchers.status().isPartialContent()
+        ).andExpect(
+                MockMvcResultMatchers.content().bytes(Arrays.copyOfRange(content, 100, 200))
+        );
+
+        // Any other instance connected to the same bucket reads the same file
+        try (S3Client otherClient = S3Client.builder()
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(minio.getUserName(), minio.getPassword())))
+                .build()) {
+            EvidenceStorage otherStorage =
+                    new S3EvidenceStorage(otherClient, BUCKET, "evidence/", S3EvidenceStorage.MIN_PART_SIZE);
+            try (InputStream inputStream = otherStorage.open(storedFile.key())) {
+                assertArrayEquals(content, inputStream.readAllBytes());
+            }
+        }
+
+        evidenceService.delete(savedEvidence.get(0).getId());
+        evidenceService.deleteStoredFiles(List.of(savedEvidence.get(0)));
+        assertTrue(evidenceService.findStoredFile(savedEvidence.get(0)).isEmpty());
+    }
+
+}
@@ -1,15 +1,26 @@
 package com.theodoremeras.dissertation.integration_tests;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
 import com.theodoremeras.dissertation.ParentCreationService;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.email.EmailDispatcher;
+import com.theodoremeras.dissertation.email.EmailOutboxService;
+import com.theodoremeras.dissertation.email.EmailOutboxStatus;
 import com.theodoremeras.dissertation.role.RoleEntity;
 import com.theodoremeras.dissertation.user.EmailDto;
 import com.theodoremeras.dissertation.user.UserDto;
 import com.theodoremeras.dissertation.user.UserEntity;
 import com.theodoremeras.dissertation.user.UserService;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -25,12 +36,18 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.Instant;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
 @WithMockUser(roles = {"Administrator"})
 public class UserControllerIntegrationTests {
 
+    // Stands in for the SMTP server that the email dispatcher sends to
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
     private final UserService userService;
 
     private final ParentCreationService parentCreationService;
@@ -41,16 +58,27 @@ public class UserControllerIntegrationTests {
 
     private final JwtEncoder jwtEncoder;
 
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EmailOutboxService emailOutboxService;
+
+    private final EmailDispatcher emailDispatcher;
+
     @Autowired
     public UserControllerIntegrationTests(
             UserService userService, ParentCreationService parentCreationService,
-            ObjectMapper objectMapper, MockMvc mockMvc, JwtEncoder jwtEncoder
+            ObjectMapper objectMapper, MockMvc mockMvc, JwtEncoder jwtEncoder,
+            EntityManagerFactory entityManagerFactory, EmailOutboxService emailOutboxService,
+            EmailDispatcher emailDispatcher
     ) {
         this.userService = userService;
         this.parentCreationService = parentCreationService;
         this.objectMapper = objectMapper;
         this.mockMvc = mockMvc;
         this.jwtEncoder = jwtEncoder;
+        this.entityManagerFactory = entityManagerFactory;
+        this.emailOutboxService = emailOutboxService;
+        this.emailDispatcher = emailDispatcher;
     }
 
     @Test
@@ -95,6 +123,44 @@ public class UserControllerIntegrationTests {
         );
     }
 
+    @Test
+    public void testGetAllUsersRunsConstantNumberOfQueries() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Give every user their own role and department, so that any per-user lookup would show up
+        for (int i = 0; i < 2; i++)
+            saveUserWithOwnRoleAndDepartment(i);
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        );
+        long statementCountForFewUsers = statistics.getPrepareStatementCount();
+
+        for (int i = 2; i < 20; i++)
+            saveUserWithOwnRoleAndDepartment(i);
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(20)
+        );
+        long statementCountForManyUsers = statistics.getPrepareStatementCount();
+
+        // Users, roles and departments are all loaded by a single statement
+        assertEquals(1, statementCountForFewUsers);
+        assertEquals(statementCountForFewUsers, statementCountForManyUsers);
+    }
+
     @Test
     public void testGetAllUsersByIds() throws Exception {
         RoleEntity savedRoleEntity = parentCreationService.createRoleParentEntity();
@@ -369,8 +435,22 @@ public class UserControllerIntegrationTests {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(emailJson)
         ).andExpect(
-                MockMvcResultMatchers.status().isOk()
+                MockMvcResultMatchers.status().isAccepted()
         );
+
+        // The email is only queued by the request
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        assertEquals(1, emailOutboxService.countByStatus(EmailOutboxStatus.PENDING));
+
+        emailDispatcher.dispatchPending();
+
+        MimeMessage[] receivedMessages = greenMail.getReceivedMessages();
+        assertEquals(1, receivedMessages.length);
+        assertEquals(savedUserEntity.getEmail(), receivedMessages[0].getAllRecipients()[0].toString());
+        assertEquals("Test Email", receivedMessages[0].getSubject());
+        assertEquals("Test body", GreenMailUtil.getBody(receivedMessages[0]));
+        assertEquals(0, emailOutboxService.countByStatus(EmailOutboxStatus.PENDING));
+        assertEquals(1, emailOutboxService.countByStatus(EmailOutboxStatus.SENT));
     }
 
     @Test
@@ -463,4 +543,14 @@ public class UserControllerIntegrationTests {
         );
     }
 
+    private void saveUserWithOwnRoleAndDepartment(int index) {
+        RoleEntity savedRoleEntity = parentCreationService.createRoleParentEntity();
+        DepartmentEntity savedDepartmentEntity = parentCreationService.createDepartmentParentEntity();
+
+        UserEntity testUserEntity = TestDataUtil.createTestUserEntityA(savedRoleEntity, savedDepartmentEntity);
+        testUserEntity.setId(null);
+        testUserEntity.setEmail("user" + index + "@gmail.com");
+        userService.save(testUserEntity);
+    }
+
 }
@@ -21,7 +21,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -57,9 +58,6 @@ public class AuthenticationControllerUnitTests {
     @MockBean
     private UserMapper userMapper;
 
-    @MockBean
-    private JwtDecoder jwtDecoder;
-
     private final MockMvc mockMvc;
 
     private final ObjectMapper objectMapper;
@@ -212,15 +210,15 @@ public class AuthenticationControllerUnitTests {
     @Test
     public void testGetLoggedInUser() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("sub")).thenReturn("test@test.com");
         when(userService.findOneByEmail("test@test.com")).thenReturn(Optional.of(testUserEntity));
         when(userMapper.mapToDto(testUserEntity)).
                 thenReturn(TestDataUtil.createTestUserDtoA(testRoleEntity.getId(), testDepartmentEntity.getId()));
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/auth/me")
-                        .header("Authorization", "Bearer " + "token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
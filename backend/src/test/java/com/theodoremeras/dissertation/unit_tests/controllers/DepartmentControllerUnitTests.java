@@ -10,7 +10,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -131,10 +133,9 @@ public class DepartmentControllerUnitTests {
         updatedDepartmentDto.setId(testDepartmentEntity.getId());
         String departmentUpdateJson = objectMapper.writeValueAsString(updatedDepartmentDto);
 
-        when(departmentService.exists(testDepartmentEntity.getId())).thenReturn(true);
         when(departmentMapper.mapFromDto(any())).thenReturn(updatedDepartmentEntity);
-        when(departmentService.partialUpdate(testDepartmentEntity.getId(), testDepartmentEntity))
-                .thenReturn(updatedDepartmentEntity);
+        when(departmentService.partialUpdate(testDepartmentEntity.getId(), testDepartmentEntity, null))
+                .thenReturn(Optional.of(updatedDepartmentEntity));
         when(departmentMapper.mapToDto(updatedDepartmentEntity)).thenReturn(updatedDepartmentDto);
 
         mockMvc.perform(
@@ -157,7 +158,8 @@ public class DepartmentControllerUnitTests {
         updatedDepartmentDto.setId(testDepartmentEntity.getId());
         String departmentUpdateJson = objectMapper.writeValueAsString(updatedDepartmentDto);
 
-        when(departmentService.exists(testDepartmentEntity.getId())).thenReturn(false);
+        when(departmentService.partialUpdate(eq(testDepartmentEntity.getId()), any(), isNull()))
+                .thenReturn(Optional.empty());
 
         mockMvc.perform(
                 MockMvcRequestBuilders
@@ -169,6 +171,28 @@ public class DepartmentControllerUnitTests {
         );
     }
 
+    @Test
+    public void testPartialUpdateDepartmentWhenVersionIsStale() throws Exception {
+        DepartmentDto updatedDepartmentDto = TestDataUtil.createTestDepartmentDtoB();
+        String departmentUpdateJson = objectMapper.writeValueAsString(updatedDepartmentDto);
+
+        when(departmentMapper.mapFromDto(any())).thenReturn(testDepartmentEntity);
+        when(departmentService.partialUpdate(testDepartmentEntity.getId(), testDepartmentEntity, 0L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(DepartmentEntity.class, testDepartmentEntity.getId()));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .patch("/departments/" + testDepartmentEntity.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(departmentUpdateJson)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isConflict()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.version").isString()
+        );
+    }
+
     @Test
     public void testDeleteDepartment() throws Exception {
         mockMvc.perform(
@@ -5,15 +5,18 @@ import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.ec_application.*;
 import com.theodoremeras.dissertation.user.UserEntity;
 import com.theodoremeras.dissertation.user.UserService;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -21,7 +24,11 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
@@ -33,13 +40,16 @@ public class EcApplicationControllerUnitTests {
     private EcApplicationService ecApplicationService;
 
     @MockBean
-    private UserService userService;
+    private EcApplicationDetailsService ecApplicationDetailsService;
 
     @MockBean
-    private EcApplicationMapper ecApplicationMapper;
+    private EcApplicationDeletionService ecApplicationDeletionService;
+
+    @MockBean
+    private UserService userService;
 
     @MockBean
-    private JwtDecoder jwtDecoder;
+    private EcApplicationMapper ecApplicationMapper;
 
     private final MockMvc mockMvc;
 
@@ -71,8 +81,7 @@ public class EcApplicationControllerUnitTests {
         String ecApplicationJson = objectMapper.writeValueAsString(testEcApplicationDto);
 
         when(ecApplicationMapper.mapFromDto(any())).thenReturn(testEcApplicationEntity);
-        when(userService.findOneById(testEcApplicationEntity.getStudent().getId()))
-                .thenReturn(Optional.of(testUserEntity));
+        when(userService.getReferenceById(testEcApplicationEntity.getStudent().getId())).thenReturn(testUserEntity);
         when(ecApplicationService.save(testEcApplicationEntity)).thenReturn(testEcApplicationEntity);
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
@@ -115,8 +124,9 @@ public class EcApplicationControllerUnitTests {
         String ecApplicationJson = objectMapper.writeValueAsString(testEcApplicationDto);
 
         when(ecApplicationMapper.mapFromDto(any())).thenReturn(testEcApplicationEntity);
-        when(userService.findOneById(testEcApplicationEntity.getStudent().getId()))
-                .thenReturn(Optional.empty());
+        when(userService.getReferenceById(testEcApplicationEntity.getStudent().getId())).thenReturn(testUserEntity);
+        when(ecApplicationService.save(testEcApplicationEntity))
+                .thenThrow(TestDataUtil.createForeignKeyViolation("Student"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/ec-applications")
@@ -128,20 +138,36 @@ public class EcApplicationControllerUnitTests {
 
     }
 
+    @Test
+    public void testCreateEcApplicationWhenOtherConstraintIsViolated() {
+        when(ecApplicationMapper.mapFromDto(any())).thenReturn(testEcApplicationEntity);
+        when(userService.getReferenceById(testEcApplicationEntity.getStudent().getId())).thenReturn(testUserEntity);
+        when(ecApplicationService.save(testEcApplicationEntity))
+                .thenThrow(TestDataUtil.createUniqueViolation("ec_application_pkey"));
+
+        // Only a missing parent is reported as not found; other violations are not handled here
+        ServletException exception = assertThrows(ServletException.class, () -> mockMvc.perform(
+                MockMvcRequestBuilders.post("/ec-applications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testEcApplicationDto))
+        ));
+        assertInstanceOf(DataIntegrityViolationException.class, exception.getCause());
+    }
+
     @Test
     public void testGetAllEcApplications() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService.findAll()).thenReturn(List.of(testEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -166,14 +192,14 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -183,17 +209,17 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByIds() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService.findAllByIdIn(List.of(testEcApplicationEntity.getId())))
                 .thenReturn(List.of(testEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications?ids=" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -218,14 +244,14 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByIdsWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications?ids=" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -235,17 +261,17 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByStudentId() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService.findAllByStudentId(testUserEntity.getId()))
                 .thenReturn(List.of(testEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications?studentId=" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -270,14 +296,14 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByStudentIdWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(5L);
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications?studentId=" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -287,7 +313,6 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByStudentDepartmentIdAndIsReferred() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService
@@ -295,12 +320,13 @@ public class EcApplicationControllerUnitTests {
                 .thenReturn(List.of(testEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .get("/ec-applications?studentDepartmentId=" + testUserEntity.getDepartment().getId()
                                 + "&isReferred=" + testEcApplicationEntity.getIsReferred())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -325,37 +351,128 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByStudentDepartmentIdAndIsReferredWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .get("/ec-applications?studentDepartmentId=" + testUserEntity.getDepartment().getId()
                                 + "&isReferred=" + testEcApplicationEntity.getIsReferred())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
     }
 
+    @Test
+    public void testGetAllEcApplicationsByStudentDepartmentIdAndStatus() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Academic_Staff");
+        when(ecApplicationService.findAllByStudentDepartmentIdAndStatus(
+                testUserEntity.getDepartment().getId(), EcApplicationStatus.REFERRED
+        )).thenReturn(List.of(testEcApplicationEntity));
+        when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?studentDepartmentId=" + testUserEntity.getDepartment().getId()
+                                + "&status=REFERRED")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].id")
+                        .value(testEcApplicationEntity.getId())
+        );
+    }
+
+    @Test
+    public void testGetAllEcApplicationsByStatus() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(ecApplicationService.findAllByStatus(EcApplicationStatus.CLOSED))
+                .thenReturn(List.of(testEcApplicationEntity));
+        when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?status=CLOSED")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].id")
+                        .value(testEcApplicationEntity.getId())
+        );
+    }
+
+    @Test
+    public void testGetAllEcApplicationsByStatusWhenForbidden() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?status=CLOSED")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageByStatus() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(ecApplicationService.findPageByStatus(EcApplicationStatus.REFERRED, EcApplicationCursor.FIRST, 11))
+                .thenReturn(List.of(testEcApplicationEntity));
+        when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?limit=10&status=REFERRED")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items[0].id")
+                        .value(testEcApplicationEntity.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist()
+        );
+    }
+
     @Test
     public void testGetAllEcApplicationsByStudentDepartmentId() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService.findAllByStudentDepartmentId(testUserEntity.getDepartment().getId()))
                 .thenReturn(List.of(testEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .get("/ec-applications?studentDepartmentId=" + testUserEntity.getDepartment().getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -380,15 +497,123 @@ public class EcApplicationControllerUnitTests {
     public void testGetAllEcApplicationsByStudentDepartmentIdWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .get("/ec-applications?studentDepartmentId=" + testUserEntity.getDepartment().getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPage() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EcApplicationEntity testEcApplicationEntityB = TestDataUtil.createTestEcApplicationEntityB(testUserEntity);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(ecApplicationService.findPage(EcApplicationCursor.FIRST, 2))
+                .thenReturn(List.of(testEcApplicationEntity, testEcApplicationEntityB));
+        when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?limit=1")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items[0].id")
+                        .value(testEcApplicationEntity.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor")
+                        .value(EcApplicationCursor.after(testEcApplicationEntity).encode())
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageWhenLastPage() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EcApplicationCursor cursor = EcApplicationCursor.after(testEcApplicationEntity);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(ecApplicationService.findPageByStudentDepartmentId(testUserEntity.getDepartment().getId(), cursor, 11))
+                .thenReturn(List.of(testEcApplicationEntity));
+        when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/ec-applications?limit=10&cursor=" + cursor.encode()
+                                + "&studentDepartmentId=" + testUserEntity.getDepartment().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.items[0].id")
+                        .value(testEcApplicationEntity.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageWhenInvalidLimit() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?limit=" + (EcApplicationController.MAX_PAGE_SIZE + 1))
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageWhenInvalidCursor() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?limit=10&cursor=invalid")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationPageWhenForbidden() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications?limit=10")
+                        .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -398,17 +623,17 @@ public class EcApplicationControllerUnitTests {
     public void testGetEcApplicationById() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
                 .thenReturn(Optional.of(testEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(testEcApplicationEntity)).thenReturn(testEcApplicationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token" )
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -433,15 +658,15 @@ public class EcApplicationControllerUnitTests {
     public void testGetEcApplicationByIdWhenNoUserExists() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(ecApplicationService.findOneById(testEcApplicationEntity.getId())).thenReturn(Optional.empty());
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token" )
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
         );
@@ -451,16 +676,90 @@ public class EcApplicationControllerUnitTests {
     public void testGetEcApplicationByIdWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(5L);
         when(mockJwt.getClaim("roles")).thenReturn("Student");
         when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
                 .thenReturn(Optional.of(testEcApplicationEntity));
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token" )
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationDetailsById() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EcApplicationDetailsDto testEcApplicationDetailsDto = EcApplicationDetailsDto.builder()
+                .ecApplication(testEcApplicationDto)
+                .student(TestDataUtil.createTestUserDtoA(1, 1))
+                .evidence(List.of())
+                .moduleRequests(List.of())
+                .modules(List.of())
+                .moduleDecisions(List.of())
+                .build();
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+        when(ecApplicationDetailsService.findOneById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationDetailsDto));
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId() + "/details")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.ecApplication.id").value(testEcApplicationDto.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.student.id").value(testUserEntity.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.moduleRequests").isArray()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationDetailsByIdWhenNoApplicationExists() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(ecApplicationDetailsService.findOneById(testEcApplicationEntity.getId())).thenReturn(Optional.empty());
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId() + "/details")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testGetEcApplicationDetailsByIdWhenForbidden() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EcApplicationDetailsDto testEcApplicationDetailsDto = EcApplicationDetailsDto.builder()
+                .ecApplication(testEcApplicationDto)
+                .build();
+
+        // Students are only allowed to view the details of their own EC applications
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId() + 1));
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+        when(ecApplicationDetailsService.findOneById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationDetailsDto));
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId() + "/details")
+                        .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -475,20 +774,19 @@ public class EcApplicationControllerUnitTests {
         String ecApplicationUpdateJson = objectMapper.writeValueAsString(updatedEcApplicationDto);
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
-        when(ecApplicationService.exists(testEcApplicationEntity.getId())).thenReturn(true);
         when(ecApplicationMapper.mapFromDto(any())).thenReturn(updatedEcApplicationEntity);
-        when(ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity))
-                .thenReturn(updatedEcApplicationEntity);
+        when(ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity, null))
+                .thenReturn(Optional.of(updatedEcApplicationEntity));
         when(ecApplicationMapper.mapToDto(updatedEcApplicationEntity)).thenReturn(updatedEcApplicationDto);
 
-         mockMvc.perform(
+         TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
                 MockMvcRequestBuilders.patch("/ec-applications/" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(ecApplicationUpdateJson)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -513,16 +811,17 @@ public class EcApplicationControllerUnitTests {
         String ecApplicationUpdateJson = objectMapper.writeValueAsString(updatedEcApplicationDto);
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
-        when(ecApplicationService.exists(testEcApplicationEntity.getId())).thenReturn(false);
+        when(ecApplicationService.partialUpdate(eq(testEcApplicationEntity.getId()), any(), isNull()))
+                .thenReturn(Optional.empty());
 
-         mockMvc.perform(
+         TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
                 MockMvcRequestBuilders.patch("/ec-applications/" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(ecApplicationUpdateJson)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
         );
@@ -535,18 +834,17 @@ public class EcApplicationControllerUnitTests {
         String ecApplicationUpdateJson = objectMapper.writeValueAsString(updatedEcApplicationDto);
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(5L);
         when(mockJwt.getClaim("roles")).thenReturn("Student");
-        when(ecApplicationService.exists(testEcApplicationEntity.getId())).thenReturn(true);
         when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
                 .thenReturn(Optional.of(testEcApplicationEntity));
 
-         mockMvc.perform(
+         TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
                 MockMvcRequestBuilders.patch("/ec-applications/" + testEcApplicationEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(ecApplicationUpdateJson)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -561,7 +859,37 @@ public class EcApplicationControllerUnitTests {
                 MockMvcResultMatchers.status().isNoContent()
         );
 
-        verify(ecApplicationService, times(1)).delete(testEcApplicationEntity.getId());
+        verify(ecApplicationDeletionService, times(1)).delete(testEcApplicationEntity.getId());
+    }
+
+    @Test
+    public void testDeleteEcApplications() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/ec-applications")
+                        .param("ids", "1,2")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+
+        verify(ecApplicationDeletionService, times(1)).deleteAll(List.of(1, 2));
+    }
+
+    @Test
+    public void testDeleteEcApplicationsWhenTooManyIdsAreSpecified() throws Exception {
+        String ids = IntStream.rangeClosed(1, EcApplicationDeletionService.MAX_BATCH_SIZE + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/ec-applications")
+                        .param("ids", ids)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+
+        verifyNoInteractions(ecApplicationDeletionService);
     }
 
 }
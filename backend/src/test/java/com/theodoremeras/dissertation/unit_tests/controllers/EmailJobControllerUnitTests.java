@@ -0,0 +1,213 @@
+package com.theodoremeras.dissertation.unit_tests.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.department.DepartmentService;
+import com.theodoremeras.dissertation.email.*;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import com.theodoremeras.dissertation.role.RoleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@WebMvcTest(EmailJobController.class)
+@AutoConfigureMockMvc(addFilters = false) // circumvent spring security for unit tests
+public class EmailJobControllerUnitTests {
+
+    @MockBean
+    private EmailJobService emailJobService;
+
+    @MockBean
+    private EmailJobMapper emailJobMapper;
+
+    @MockBean
+    private DepartmentService departmentService;
+
+    @MockBean
+    private RoleService roleService;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private final MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper;
+
+    private DepartmentEntity testDepartmentEntity;
+
+    private RoleEntity testRoleEntity;
+
+    private EmailJobEntity testEmailJobEntity;
+
+    private EmailJobDto testEmailJobDto;
+
+    @Autowired
+    public EmailJobControllerUnitTests(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize test objects
+        testDepartmentEntity = TestDataUtil.createTestDepartmentEntityA();
+        testRoleEntity = TestDataUtil.createTestRoleEntityA();
+        testEmailJobEntity = EmailJobEntity.builder()
+                .id(1L)
+                .department(testDepartmentEntity)
+                .role(testRoleEntity)
+                .subject("Deadline for {{name}}")
+                .body("Dear {{name}}")
+                .createdAt(Instant.now())
+                .build();
+        testEmailJobDto = EmailJobDto.builder()
+                .departmentId(testDepartmentEntity.getId())
+                .roleId(testRoleEntity.getId())
+                .subject("Deadline for {{name}}")
+                .body("Dear {{name}}")
+                .build();
+    }
+
+    @Test
+    public void testCreateEmailJob() throws Exception {
+        String emailJobJson = objectMapper.writeValueAsString(testEmailJobDto);
+
+        when(departmentService.findOneById(testDepartmentEntity.getId())).thenReturn(Optional.of(testDepartmentEntity));
+        when(roleService.findOneById(testRoleEntity.getId())).thenReturn(Optional.of(testRoleEntity));
+        when(emailJobService.create(testDepartmentEntity, testRoleEntity, "Deadline for {{name}}", "Dear {{name}}"))
+                .thenReturn(testEmailJobEntity);
+        testEmailJobDto.setId(1L);
+        testEmailJobDto.setStatus(EmailJobStatus.PREPARING);
+        when(emailJobMapper.mapToDto(testEmailJobEntity, Map.of())).thenReturn(testEmailJobDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isAccepted()
+        ).andExpect(
+                MockMvcResultMatchers.header().string("Location", "/email-jobs/1")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.id").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value(EmailJobStatus.PREPARING.name())
+        );
+    }
+
+    @Test
+    public void testCreateEmailJobWithMalformedTemplate() throws Exception {
+        String emailJobJson = objectMapper.writeValueAsString(testEmailJobDto);
+
+        when(departmentService.findOneById(testDepartmentEntity.getId())).thenReturn(Optional.of(testDepartmentEntity));
+        when(roleService.findOneById(testRoleEntity.getId())).thenReturn(Optional.of(testRoleEntity));
+        when(emailJobService.create(any(), any(), anyString(), anyString()))
+                .thenThrow(new EmailTemplateException("Unknown placeholder {{surname}}"));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.template").value("Unknown placeholder {{surname}}")
+        );
+    }
+
+    @Test
+    public void testCreateEmailJobWhenNoRoleExists() throws Exception {
+        String emailJobJson = objectMapper.writeValueAsString(testEmailJobDto);
+
+        when(departmentService.findOneById(testDepartmentEntity.getId())).thenReturn(Optional.of(testDepartmentEntity));
+        when(roleService.findOneById(testRoleEntity.getId())).thenReturn(Optional.empty());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+
+        verify(emailJobService, never()).create(any(), any(), anyString(), anyString());
+    }
+
+    @Test
+    public void testCreateEmailJobWithInvalidBody() throws Exception {
+        testEmailJobDto.setSubject("");
+        String emailJobJson = objectMapper.writeValueAsString(testEmailJobDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/email-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(emailJobJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.subject").exists()
+        );
+    }
+
+    @Test
+    public void testGetEmailJobById() throws Exception {
+        Map<EmailOutboxStatus, Long> emailCounts = Map.of(EmailOutboxStatus.PENDING, 1L, EmailOutboxStatus.SENT, 2L);
+        testEmailJobDto.setId(1L);
+        testEmailJobDto.setStatus(EmailJobStatus.SENDING);
+        testEmailJobDto.setRecipientCount(3);
+        testEmailJobDto.setPendingCount(1L);
+        testEmailJobDto.setSentCount(2L);
+        testEmailJobDto.setFailedCount(0L);
+
+        when(emailJobService.findOneById(1L)).thenReturn(Optional.of(testEmailJobEntity));
+        when(emailJobService.countEmailsByStatus(1L)).thenReturn(emailCounts);
+        when(emailJobMapper.mapToDto(testEmailJobEntity, emailCounts)).thenReturn(testEmailJobDto);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-jobs/1")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value(EmailJobStatus.SENDING.name())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.recipientCount").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pendingCount").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.sentCount").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.failedCount").value(0)
+        );
+    }
+
+    @Test
+    public void testGetEmailJobByIdWhenNoEmailJobExists() throws Exception {
+        when(emailJobService.findOneById(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-jobs/1")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+}
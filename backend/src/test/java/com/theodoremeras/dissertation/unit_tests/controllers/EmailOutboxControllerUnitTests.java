@@ -0,0 +1,75 @@
+package com.theodoremeras.dissertation.unit_tests.controllers;
+
+import com.theodoremeras.dissertation.email.EmailOutboxController;
+import com.theodoremeras.dissertation.email.EmailOutboxService;
+import com.theodoremeras.dissertation.email.EmailOutboxStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@WebMvcTest(EmailOutboxController.class)
+@AutoConfigureMockMvc(addFilters = false) // circumvent spring security for unit tests
+public class EmailOutboxControllerUnitTests {
+
+    @MockBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public EmailOutboxControllerUnitTests(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @Test
+    public void testGetEmailOutboxStats() throws Exception {
+        when(emailOutboxService.countByStatus(EmailOutboxStatus.PENDING)).thenReturn(12L);
+        when(emailOutboxService.countByStatus(EmailOutboxStatus.FAILED)).thenReturn(2L);
+        when(emailOutboxService.findOldestPendingCreatedAt())
+                .thenReturn(Optional.of(Instant.now().minusSeconds(90)));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-outbox/stats")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pending").value(12)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.failed").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.oldestPendingAgeSeconds").value(90)
+        );
+    }
+
+    @Test
+    public void testGetEmailOutboxStatsWhenOutboxIsEmpty() throws Exception {
+        when(emailOutboxService.findOldestPendingCreatedAt()).thenReturn(Optional.empty());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/email-outbox/stats")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pending").value(0)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.oldestPendingAgeSeconds").value(0)
+        );
+    }
+
+}
@@ -12,14 +12,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +46,15 @@ public class EvidenceControllerUnitTests {
     @MockBean
     private EvidenceMapper evidenceMapper;
 
+    @MockBean
+    private EvidenceFileSender evidenceFileSender;
+
+    @MockBean
+    private EvidenceZipWriter evidenceZipWriter;
+
+    @MockBean
+    private EvidenceUploadService evidenceUploadService;
+
     private final MockMvc mockMvc;
 
     private EcApplicationEntity testEcApplicationEntity;
@@ -68,8 +84,7 @@ public class EvidenceControllerUnitTests {
                 new MockMultipartFile("file", "test.txt",
                         "text/plain", "Test file content" .getBytes());
 
-        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.of(testEcApplicationEntity));
+        when(ecApplicationService.getReferenceById(testEcApplicationEntity.getId())).thenReturn(testEcApplicationEntity);
         when(evidenceService.save(eq(multipartFile), any(EvidenceEntity.class))).thenReturn(testEvidenceEntity);
         when(evidenceMapper.mapToDto(testEvidenceEntity)).thenReturn(testEvidenceDto);
 
@@ -110,8 +125,9 @@ public class EvidenceControllerUnitTests {
                 new MockMultipartFile("file", "test.txt",
                         "text/plain", "Test file content" .getBytes());
 
-        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.empty());
+        when(ecApplicationService.getReferenceById(testEcApplicationEntity.getId())).thenReturn(testEcApplicationEntity);
+        when(evidenceService.save(eq(multipartFile), any(EvidenceEntity.class)))
+                .thenThrow(TestDataUtil.createForeignKeyViolation("EC application"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.multipart("/evidence?ecApplicationId=" + testEcApplicationEntity.getId())
@@ -142,20 +158,26 @@ public class EvidenceControllerUnitTests {
 
     @Test
     public void testServeFile() throws Exception {
-        when(evidenceService.loadAsResource(testEvidenceEntity.getFileName()))
-                .thenReturn(mock(Resource.class));
+        StoredEvidenceFile storedFile = new StoredEvidenceFile(
+                testEvidenceEntity.getFileName(), testEvidenceEntity.getFileName(),
+                Path.of(testEvidenceEntity.getFileName()), 0, Instant.now(), "\"0-0\""
+        );
+        when(evidenceService.findStoredFile(testEvidenceEntity.getFileName()))
+                .thenReturn(Optional.of(storedFile));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/evidence/" + testEvidenceEntity.getFileName())
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         );
+
+        verify(evidenceFileSender, times(1)).send(eq(storedFile), any(), any());
     }
 
     @Test
     public void testServeFileWhenNoFileExists() throws Exception {
-        when(evidenceService.loadAsResource(testEvidenceEntity.getFileName()))
-                .thenReturn(null);
+        when(evidenceService.findStoredFile(testEvidenceEntity.getFileName()))
+                .thenReturn(Optional.empty());
 
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/evidence/" + testEvidenceEntity.getFileName())
@@ -176,4 +198,212 @@ public class EvidenceControllerUnitTests {
         verify(evidenceService, times(1)).delete(testEvidenceEntity.getId());
     }
 
+    @Test
+    public void testDownloadEvidenceBundle() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        StoredEvidenceFile storedFile = new StoredEvidenceFile(
+                testEvidenceEntity.getFileName(), testEvidenceEntity.getFileName(),
+                Path.of(testEvidenceEntity.getFileName()), 17L,
+                Instant.parse("2024-01-01T00:00:00Z"), "\"hash\""
+        );
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testEcApplicationEntity.getStudent().getId()));
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity));
+        when(evidenceService.findAllByApplicationId(testEcApplicationEntity.getId()))
+                .thenReturn(List.of(testEvidenceEntity));
+        when(evidenceService.findStoredFile(testEvidenceEntity)).thenReturn(Optional.of(storedFile));
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        MvcResult mvcResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId() + "/evidence.zip")
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(mvcResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType("application/zip")
+        ).andExpect(
+                MockMvcResultMatchers.header().string("Content-Disposition",
+                        "attachment; filename=\"ec-application-" + testEcApplicationEntity.getId() + "-evidence.zip\"")
+        );
+
+        verify(evidenceZipWriter, times(1)).write(eq(List.of(storedFile)), any(OutputStream.class));
+    }
+
+    @Test
+    public void testDownloadEvidenceBundleWhenNoApplicationExists() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(1L);
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(ecApplicationService.findOneById(testEcApplicationEntity.getId())).thenReturn(Optional.empty());
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId() + "/evidence.zip")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testDownloadEvidenceBundleOfAnotherStudent() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testEcApplicationEntity.getStudent().getId() + 1));
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity));
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/ec-applications/" + testEcApplicationEntity.getId() + "/evidence.zip")
+        ).andExpect(
+                MockMvcResultMatchers.status().isForbidden()
+        );
+
+        verify(evidenceService, never()).findAllByApplicationId(any());
+    }
+
+    @Test
+    public void testInitiateUpload() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EvidenceUpload upload = new EvidenceUpload(
+                "upload-id", 1L, testEcApplicationEntity, "letter.pdf", 100, Path.of("upload.part")
+        );
+
+        when(mockJwt.getClaim("userId")).thenReturn(1L);
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(evidenceUploadService.getMaxUploadSize()).thenReturn(1000L);
+        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity));
+        when(evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", 100))
+                .thenReturn(Optional.of(upload));
+        when(evidenceMapper.mapToDto(upload)).thenReturn(
+                new EvidenceUploadDto("upload-id", testEcApplicationEntity.getId(), "letter.pdf", 100L, 0L)
+        );
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/evidence/uploads")
+                        .param("ecApplicationId", testEcApplicationEntity.getId().toString())
+                        .param("fileName", "letter.pdf")
+                        .param("size", "100")
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.uploadId").value("upload-id")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.offset").value(0)
+        );
+    }
+
+    @Test
+    public void testInitiateUploadWhenFileIsTooLarge() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(1L);
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(evidenceUploadService.getMaxUploadSize()).thenReturn(1000L);
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/evidence/uploads")
+                        .param("ecApplicationId", testEcApplicationEntity.getId().toString())
+                        .param("fileName", "letter.pdf")
+                        .param("size", "1001")
+        ).andExpect(
+                MockMvcResultMatchers.status().isPayloadTooLarge()
+        );
+
+        verify(evidenceUploadService, never()).initiate(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    public void testInitiateUploadWhenTooManyUploadsAreInProgress() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+
+        when(mockJwt.getClaim("userId")).thenReturn(1L);
+        when(mockJwt.getClaim("roles")).thenReturn("Administrator");
+        when(evidenceUploadService.getMaxUploadSize()).thenReturn(1000L);
+        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity));
+        when(evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", 100))
+                .thenReturn(Optional.empty());
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/evidence/uploads")
+                        .param("ecApplicationId", testEcApplicationEntity.getId().toString())
+                        .param("fileName", "letter.pdf")
+                        .param("size", "100")
+        ).andExpect(
+                MockMvcResultMatchers.status().isTooManyRequests()
+        );
+    }
+
+    @Test
+    public void testAppendToUploadAtWrongOffset() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EvidenceUpload upload = new EvidenceUpload(
+                "upload-id", 1L, testEcApplicationEntity, "letter.pdf", 100, Path.of("upload.part")
+        );
+
+        when(mockJwt.getClaim("userId")).thenReturn(1L);
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+        when(evidenceUploadService.findOneById("upload-id")).thenReturn(Optional.of(upload));
+        when(evidenceUploadService.append(eq(upload), eq(10L), any(InputStream.class))).thenReturn(Optional.empty());
+        when(evidenceMapper.mapToDto(upload)).thenReturn(
+                new EvidenceUploadDto("upload-id", testEcApplicationEntity.getId(), "letter.pdf", 100L, 0L)
+        );
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/evidence/uploads/upload-id?offset=10")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[10])
+        ).andExpect(
+                MockMvcResultMatchers.status().isConflict()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.offset").value(0)
+        );
+    }
+
+    @Test
+    public void testAppendToUploadOfAnotherUser() throws Exception {
+        Jwt mockJwt = mock(Jwt.class);
+        EvidenceUpload upload = new EvidenceUpload(
+                "upload-id", 2L, testEcApplicationEntity, "letter.pdf", 100, Path.of("upload.part")
+        );
+
+        when(mockJwt.getClaim("userId")).thenReturn(1L);
+        when(mockJwt.getClaim("roles")).thenReturn("Student");
+        when(evidenceUploadService.findOneById("upload-id")).thenReturn(Optional.of(upload));
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/evidence/uploads/upload-id?offset=0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[10])
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+
+        verify(evidenceUploadService, never()).append(any(), anyLong(), any());
+    }
+
 }
@@ -65,8 +65,7 @@ public class ModuleControllerUnitTests {
 
         when(moduleService.exists(testModuleDto.getCode())).thenReturn(false);
         when(moduleMapper.mapFromDto(any())).thenReturn(testModuleEntity);
-        when(departmentService.findOneById(testDepartmentEntity.getId()))
-                .thenReturn(Optional.of(testDepartmentEntity));
+        when(departmentService.getReferenceById(testDepartmentEntity.getId())).thenReturn(testDepartmentEntity);
         when(moduleService.save(testModuleEntity)).thenReturn(testModuleEntity);
         when(moduleMapper.mapToDto(testModuleEntity)).thenReturn(testModuleDto);
 
@@ -120,8 +119,8 @@ public class ModuleControllerUnitTests {
 
         when(moduleService.exists(testModuleDto.getCode())).thenReturn(false);
         when(moduleMapper.mapFromDto(any())).thenReturn(testModuleEntity);
-        when(departmentService.findOneById(testDepartmentEntity.getId()))
-                .thenReturn(Optional.empty());
+        when(departmentService.getReferenceById(testDepartmentEntity.getId())).thenReturn(testDepartmentEntity);
+        when(moduleService.save(testModuleEntity)).thenThrow(TestDataUtil.createForeignKeyViolation("Department"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/modules")
@@ -210,9 +209,10 @@ public class ModuleControllerUnitTests {
         updatedModuleDto.setCode(testModuleEntity.getCode());
         String moduleUpdateJson = objectMapper.writeValueAsString(updatedModuleDto);
 
-        when(moduleService.exists(testModuleEntity.getCode())).thenReturn(true);
         when(moduleMapper.mapFromDto(any())).thenReturn(updatedModuleEntity);
-        when(moduleService.partialUpdate(testModuleEntity.getCode(), updatedModuleEntity)).thenReturn(updatedModuleEntity);
+        when(departmentService.getReferenceById(testDepartmentEntity.getId())).thenReturn(testDepartmentEntity);
+        when(moduleService.partialUpdate(testModuleEntity.getCode(), updatedModuleEntity))
+                .thenReturn(Optional.of(updatedModuleEntity));
         when(moduleMapper.mapToDto(updatedModuleEntity)).thenReturn(updatedModuleDto);
 
         mockMvc.perform(
@@ -236,7 +236,8 @@ public class ModuleControllerUnitTests {
         updatedModuleDto.setCode(testModuleEntity.getCode());
         String moduleUpdateJson = objectMapper.writeValueAsString(updatedModuleDto);
 
-        when(moduleService.exists(testModuleEntity.getCode())).thenReturn(false);
+        when(moduleMapper.mapFromDto(any())).thenReturn(testModuleEntity);
+        when(moduleService.partialUpdate(eq(testModuleEntity.getCode()), any())).thenReturn(Optional.empty());
 
         mockMvc.perform(
                 MockMvcRequestBuilders.patch("/modules/" + testModuleEntity.getCode())
@@ -93,10 +93,10 @@ public class ModuleDecisionControllerUnitTests {
         String moduleDecisionJson = objectMapper.writeValueAsString(testModuleDecisionDto);
 
         when(moduleDecisionMapper.mapFromDto(any())).thenReturn(testModuleDecisionEntity);
-        when(moduleRequestService.findOneById(testModuleRequestEntity.getId()))
-                .thenReturn(Optional.of(testModuleRequestEntity));
-        when(userService.findOneById(testUserEntity.getId()))
-                .thenReturn(Optional.of(testUserEntity));
+        when(moduleRequestService.findEcApplicationIdById(testModuleRequestEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity.getId()));
+        when(moduleRequestService.getReferenceById(testModuleRequestEntity.getId())).thenReturn(testModuleRequestEntity);
+        when(userService.getReferenceById(testUserEntity.getId())).thenReturn(testUserEntity);
         when(moduleDecisionService.save(testModuleDecisionEntity)).thenReturn(testModuleDecisionEntity);
         when(moduleDecisionMapper.mapToDto(testModuleDecisionEntity)).thenReturn(testModuleDecisionDto);
 
@@ -148,7 +148,7 @@ public class ModuleDecisionControllerUnitTests {
         String moduleDecisionJson = objectMapper.writeValueAsString(testModuleDecisionDto);
 
         when(moduleDecisionMapper.mapFromDto(any())).thenReturn(testModuleDecisionEntity);
-        when(moduleRequestService.findOneById(testModuleRequestEntity.getId()))
+        when(moduleRequestService.findEcApplicationIdById(testModuleRequestEntity.getId()))
                 .thenReturn(Optional.empty());
 
         mockMvc.perform(
@@ -165,10 +165,12 @@ public class ModuleDecisionControllerUnitTests {
         String moduleDecisionJson = objectMapper.writeValueAsString(testModuleDecisionDto);
 
         when(moduleDecisionMapper.mapFromDto(any())).thenReturn(testModuleDecisionEntity);
-        when(moduleRequestService.findOneById(testModuleRequestEntity.getId()))
-                .thenReturn(Optional.of(testModuleRequestEntity));
-        when(userService.findOneById(testUserEntity.getId()))
-                .thenReturn(Optional.empty());
+        when(moduleRequestService.findEcApplicationIdById(testModuleRequestEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity.getId()));
+        when(moduleRequestService.getReferenceById(testModuleRequestEntity.getId())).thenReturn(testModuleRequestEntity);
+        when(userService.getReferenceById(testUserEntity.getId())).thenReturn(testUserEntity);
+        when(moduleDecisionService.save(testModuleDecisionEntity))
+                .thenThrow(TestDataUtil.createForeignKeyViolation("Staff member"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/module-decisions")
@@ -191,10 +193,8 @@ public class ModuleDecisionControllerUnitTests {
         String moduleDecisionJson = objectMapper.writeValueAsString(testModuleDecisionDto);
 
         when(moduleDecisionMapper.mapFromDto(any())).thenReturn(testModuleDecisionEntity);
-        when(moduleRequestService.findOneById(testModuleRequestEntity.getId()))
-                .thenReturn(Optional.of(testModuleRequestEntity));
-        when(userService.findOneById(testUserEntity.getId()))
-                .thenReturn(Optional.of(testUserEntity));
+        when(moduleRequestService.findEcApplicationIdById(testModuleRequestEntity.getId()))
+                .thenReturn(Optional.of(testModuleRequestEntity.getEcApplication().getId()));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/module-decisions")
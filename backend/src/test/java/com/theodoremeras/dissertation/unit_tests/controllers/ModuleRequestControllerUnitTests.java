@@ -23,7 +23,6 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.List;
-import java.util.Optional;
 
 import static org.mockito.Mockito.*;
 
@@ -80,9 +79,8 @@ public class ModuleRequestControllerUnitTests {
         String moduleRequestJson = objectMapper.writeValueAsString(testModuleRequestDto);
 
         when(moduleRequestMapper.mapFromDto(any())).thenReturn(testModuleRequestEntity);
-        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.of(testEcApplicationEntity));
-        when(moduleService.findOneByCode(testModuleEntity.getCode())).thenReturn(Optional.of(testModuleEntity));
+        when(ecApplicationService.getReferenceById(testEcApplicationEntity.getId())).thenReturn(testEcApplicationEntity);
+        when(moduleService.getReferenceByCode(testModuleEntity.getCode())).thenReturn(testModuleEntity);
         when(moduleRequestService.save(testModuleRequestEntity)).thenReturn(testModuleRequestEntity);
         when(moduleRequestMapper.mapToDto(testModuleRequestEntity)).thenReturn(testModuleRequestDto);
 
@@ -127,8 +125,10 @@ public class ModuleRequestControllerUnitTests {
         String moduleRequestJson = objectMapper.writeValueAsString(testModuleRequestDto);
 
         when(moduleRequestMapper.mapFromDto(any())).thenReturn(testModuleRequestEntity);
-        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.empty());
+        when(ecApplicationService.getReferenceById(testEcApplicationEntity.getId())).thenReturn(testEcApplicationEntity);
+        when(moduleService.getReferenceByCode(testModuleEntity.getCode())).thenReturn(testModuleEntity);
+        when(moduleRequestService.save(testModuleRequestEntity))
+                .thenThrow(TestDataUtil.createForeignKeyViolation("EC application"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/module-requests")
@@ -144,9 +144,10 @@ public class ModuleRequestControllerUnitTests {
         String moduleRequestJson = objectMapper.writeValueAsString(testModuleRequestDto);
 
         when(moduleRequestMapper.mapFromDto(any())).thenReturn(testModuleRequestEntity);
-        when(ecApplicationService.findOneById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.of(testEcApplicationEntity));
-        when(moduleService.findOneByCode(testModuleEntity.getCode())).thenReturn(Optional.empty());
+        when(ecApplicationService.getReferenceById(testEcApplicationEntity.getId())).thenReturn(testEcApplicationEntity);
+        when(moduleService.getReferenceByCode(testModuleEntity.getCode())).thenReturn(testModuleEntity);
+        when(moduleRequestService.save(testModuleRequestEntity))
+                .thenThrow(TestDataUtil.createForeignKeyViolation("Module"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/module-requests")
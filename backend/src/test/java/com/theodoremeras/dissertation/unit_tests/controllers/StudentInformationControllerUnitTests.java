@@ -5,6 +5,7 @@ import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.student_information.*;
 import com.theodoremeras.dissertation.user.UserEntity;
 import com.theodoremeras.dissertation.user.UserService;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +13,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -22,6 +25,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
@@ -38,9 +43,6 @@ public class StudentInformationControllerUnitTests {
     @MockBean
     private StudentInformationMapper studentInformationMapper;
 
-    @MockBean
-    private JwtDecoder jwtDecoder;
-
     private final MockMvc mockMvc;
 
     private final ObjectMapper objectMapper;
@@ -71,7 +73,7 @@ public class StudentInformationControllerUnitTests {
         String studentInformationJson = objectMapper.writeValueAsString(testStudentInformationDto);
 
         when(studentInformationMapper.mapFromDto(any())).thenReturn(testStudentInformationEntity);
-        when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.of(testUserEntity));
+        when(userService.getReferenceById(testUserEntity.getId())).thenReturn(testUserEntity);
         when(studentInformationService.save(testStudentInformationEntity)).thenReturn(testStudentInformationEntity);
         when(studentInformationMapper.mapToDto(testStudentInformationEntity)).thenReturn(testStudentInformationDto);
 
@@ -121,7 +123,9 @@ public class StudentInformationControllerUnitTests {
         String studentInformationJson = objectMapper.writeValueAsString(testStudentInformationDto);
 
         when(studentInformationMapper.mapFromDto(any())).thenReturn(testStudentInformationEntity);
-        when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.empty());
+        when(userService.getReferenceById(testUserEntity.getId())).thenReturn(testUserEntity);
+        when(studentInformationService.save(testStudentInformationEntity))
+                .thenThrow(TestDataUtil.createForeignKeyViolation("Student"));
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post("/student-information")
@@ -132,20 +136,32 @@ public class StudentInformationControllerUnitTests {
         );
     }
 
+    @Test
+    public void testGetAllStudentInformationWhenNotAuthenticatedWithJwt() {
+        // Without the security filters nothing has authenticated the request, so there is no current user
+        ServletException exception = assertThrows(ServletException.class, () -> mockMvc.perform(
+                MockMvcRequestBuilders.get("/student-information")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ));
+
+        assertInstanceOf(AuthenticationCredentialsNotFoundException.class, exception.getCause());
+        verify(studentInformationService, never()).findAll();
+    }
+
     @Test
     public void testGetAllStudentInformation() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(studentInformationService.findAll()).thenReturn(List.of(testStudentInformationEntity));
         when(studentInformationMapper.mapToDto(testStudentInformationEntity)).thenReturn(testStudentInformationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/student-information")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -173,14 +189,14 @@ public class StudentInformationControllerUnitTests {
     public void testGetAllStudentInformationWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/student-information")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -190,17 +206,17 @@ public class StudentInformationControllerUnitTests {
     public void testGetAllStudentInformationByStudentId() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(studentInformationService.findOneByStudentId(testUserEntity.getId()))
                 .thenReturn(Optional.of(testStudentInformationEntity));
         when(studentInformationMapper.mapToDto(testStudentInformationEntity)).thenReturn(testStudentInformationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/student-information?studentId=" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -228,14 +244,14 @@ public class StudentInformationControllerUnitTests {
     public void testGetAllStudentInformationByStudentIdWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(5L);
         when(mockJwt.getClaim("roles")).thenReturn("Student");
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/student-information?studentId=" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -252,23 +268,20 @@ public class StudentInformationControllerUnitTests {
         String studentInformationUpdateJson = objectMapper.writeValueAsString(updatedStudentInformationDto);
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
-        when(studentInformationService.exists(testStudentInformationEntity.getId())).thenReturn(true);
-        when(studentInformationService.findOneById(testStudentInformationEntity.getId()))
-                .thenReturn(Optional.of(testStudentInformationEntity));
         when(studentInformationMapper.mapFromDto(any())).thenReturn(updatedStudentInformationEntity);
-        when(studentInformationService.partialUpdate(testStudentInformationEntity.getId(), updatedStudentInformationEntity))
-                .thenReturn(updatedStudentInformationEntity);
+        when(studentInformationService.partialUpdate(testStudentInformationEntity.getId(), updatedStudentInformationEntity, null))
+                .thenReturn(Optional.of(updatedStudentInformationEntity));
         when(studentInformationMapper.mapToDto(updatedStudentInformationEntity)).thenReturn(updatedStudentInformationDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .patch("/student-information/" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(studentInformationUpdateJson)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -301,17 +314,18 @@ public class StudentInformationControllerUnitTests {
         String studentInformationUpdateJson = objectMapper.writeValueAsString(updatedStudentInformationDto);
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
-        when(studentInformationService.exists(testStudentInformationEntity.getId())).thenReturn(false);
+        when(studentInformationService.partialUpdate(eq(testStudentInformationEntity.getId()), any(), isNull()))
+                .thenReturn(Optional.empty());
+
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
 
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .patch("/student-information/" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(studentInformationUpdateJson)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
         );
@@ -325,19 +339,18 @@ public class StudentInformationControllerUnitTests {
         String studentInformationUpdateJson = objectMapper.writeValueAsString(updatedStudentInformationDto);
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(5L);
         when(mockJwt.getClaim("roles")).thenReturn("Student");
-        when(studentInformationService.exists(testStudentInformationEntity.getId())).thenReturn(true);
         when(studentInformationService.findOneById(testStudentInformationEntity.getId()))
                 .thenReturn(Optional.of(testStudentInformationEntity));
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders
                         .patch("/student-information/" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(studentInformationUpdateJson)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -4,6 +4,7 @@ package com.theodoremeras.dissertation.unit_tests.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.email.EmailOutboxService;
 import com.theodoremeras.dissertation.role.RoleEntity;
 import com.theodoremeras.dissertation.user.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +14,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -39,10 +39,7 @@ public class UserControllerUnitTests {
     private UserMapper userMapper;
 
     @MockBean
-    private JwtDecoder jwtDecoder;
-
-    @MockBean
-    private JavaMailSender javaMailSender;
+    private EmailOutboxService emailOutboxService;
 
     private final MockMvc mockMvc;
 
@@ -180,16 +177,16 @@ public class UserControllerUnitTests {
     public void testGetUserById() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.of(testUserEntity));
         when(userMapper.mapToDto(testUserEntity)).thenReturn(testUserDto);
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/users/" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
         ).andExpect(
@@ -211,15 +208,15 @@ public class UserControllerUnitTests {
     public void testGetUserByIdWhenNoUserExists() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(Long.valueOf(testUserEntity.getId()));
         when(mockJwt.getClaim("roles")).thenReturn("Administrator");
         when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.empty());
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/users/" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
         );
@@ -229,15 +226,15 @@ public class UserControllerUnitTests {
     public void testGetUserByIdWhenForbidden() throws Exception {
         Jwt mockJwt = mock(Jwt.class);
 
-        when(jwtDecoder.decode("token")).thenReturn(mockJwt);
         when(mockJwt.getClaim("userId")).thenReturn(5L);
         when(mockJwt.getClaim("roles")).thenReturn("Student");
         when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.of(testUserEntity));
 
+        TestSecurityContextHolder.setAuthentication(new JwtAuthenticationToken(mockJwt));
+
         mockMvc.perform(
                 MockMvcRequestBuilders.get("/users/" + testUserEntity.getId())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .header("Authorization", "Bearer token")
         ).andExpect(
                 MockMvcResultMatchers.status().isForbidden()
         );
@@ -258,10 +255,10 @@ public class UserControllerUnitTests {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(emailJson)
         ).andExpect(
-                MockMvcResultMatchers.status().isOk()
+                MockMvcResultMatchers.status().isAccepted()
         );
 
-        verify(javaMailSender, times(1)).send(any(SimpleMailMessage.class));
+        verify(emailOutboxService, times(1)).enqueue(testUserEntity.getEmail(), "Test Email", "Test body");
     }
 
     @Test
@@ -291,9 +288,9 @@ public class UserControllerUnitTests {
         updatedUserDto.setId(testUserEntity.getId());
         String userUpdateJson = objectMapper.writeValueAsString(updatedUserDto);
 
-        when(userService.exists(testUserEntity.getId())).thenReturn(true);
         when(userMapper.mapFromDto(any())).thenReturn(updatedUserEntity);
-        when(userService.partialUpdate(testUserEntity.getId(), updatedUserEntity)).thenReturn(updatedUserEntity);
+        when(userService.partialUpdate(testUserEntity.getId(), updatedUserEntity, null))
+                .thenReturn(Optional.of(updatedUserEntity));
         when(userMapper.mapToDto(updatedUserEntity)).thenReturn(updatedUserDto);
 
         mockMvc.perform(
@@ -323,7 +320,8 @@ public class UserControllerUnitTests {
         updatedUserDto.setId(testUserEntity.getId());
         String userUpdateJson = objectMapper.writeValueAsString(updatedUserDto);
 
-        when(userService.exists(testUserEntity.getId())).thenReturn(false);
+        when(userService.partialUpdate(eq(testUserEntity.getId()), any(), isNull()))
+                .thenReturn(Optional.empty());
 
         mockMvc.perform(
                 MockMvcRequestBuilders.patch("/users/" + testUserEntity.getId())
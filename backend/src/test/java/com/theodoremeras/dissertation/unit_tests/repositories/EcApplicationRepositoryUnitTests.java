@@ -3,8 +3,10 @@ package com.theodoremeras.dissertation.unit_tests.repositories;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.department.DepartmentRepository;
+import com.theodoremeras.dissertation.ec_application.EcApplicationCursor;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationRepository;
+import com.theodoremeras.dissertation.ec_application.EcApplicationStatus;
 import com.theodoremeras.dissertation.role.RoleEntity;
 import com.theodoremeras.dissertation.role.RoleRepository;
 import com.theodoremeras.dissertation.user.UserEntity;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -105,6 +108,149 @@ public class EcApplicationRepositoryUnitTests {
         assertEquals(result, List.of(testEcApplicationEntity));
     }
 
+    @Test
+    public void testFindAllByStatus() {
+        testEcApplicationEntity.setStatus(EcApplicationStatus.REFERRED);
+        ecApplicationRepository.save(testEcApplicationEntity);
+        ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findAllByStatus(EcApplicationStatus.REFERRED);
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindAllByStudentDepartmentIdAndStatus() {
+        testEcApplicationEntity.setStatus(EcApplicationStatus.REFERRED);
+        ecApplicationRepository.save(testEcApplicationEntity);
+        ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findAllByStudentDepartmentIdAndStatus(
+                testUserEntity.getDepartment().getId(), EcApplicationStatus.REFERRED
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPage() {
+        EcApplicationEntity savedEcApplicationEntityA = ecApplicationRepository.save(testEcApplicationEntity);
+        EcApplicationEntity savedEcApplicationEntityB =
+                ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        // Applications are returned newest first
+        List<EcApplicationEntity> firstPage = ecApplicationRepository.findPage(
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(1)
+        );
+        EcApplicationCursor cursor = EcApplicationCursor.after(firstPage.get(0));
+        List<EcApplicationEntity> secondPage =
+                ecApplicationRepository.findPage(cursor.getSubmittedOn(), cursor.getId(), Limit.of(1));
+        cursor = EcApplicationCursor.after(secondPage.get(0));
+        List<EcApplicationEntity> thirdPage =
+                ecApplicationRepository.findPage(cursor.getSubmittedOn(), cursor.getId(), Limit.of(1));
+
+        assertEquals(firstPage, List.of(savedEcApplicationEntityA));
+        assertEquals(secondPage, List.of(savedEcApplicationEntityB));
+        assertTrue(thirdPage.isEmpty());
+    }
+
+    @Test
+    public void testFindPageBreaksTiesById() {
+        EcApplicationEntity savedEcApplicationEntityA = ecApplicationRepository.save(testEcApplicationEntity);
+        EcApplicationEntity testEcApplicationEntityB = TestDataUtil.createTestEcApplicationEntityB(testUserEntity);
+        testEcApplicationEntityB.setSubmittedOn(testEcApplicationEntity.getSubmittedOn());
+        EcApplicationEntity savedEcApplicationEntityB = ecApplicationRepository.save(testEcApplicationEntityB);
+
+        List<EcApplicationEntity> firstPage = ecApplicationRepository.findPage(
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(1)
+        );
+        EcApplicationCursor cursor = EcApplicationCursor.after(firstPage.get(0));
+        List<EcApplicationEntity> secondPage =
+                ecApplicationRepository.findPage(cursor.getSubmittedOn(), cursor.getId(), Limit.of(1));
+
+        // Applications submitted on the same day are ordered by descending id
+        assertEquals(firstPage, List.of(savedEcApplicationEntityB));
+        assertEquals(secondPage, List.of(savedEcApplicationEntityA));
+    }
+
+    @Test
+    public void testFindPageByIdIn() {
+        EcApplicationEntity savedEcApplicationEntity = ecApplicationRepository.save(testEcApplicationEntity);
+        ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findPageByIdIn(
+                List.of(savedEcApplicationEntity.getId()),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10)
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentId() {
+        ecApplicationRepository.save(testEcApplicationEntity);
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findPageByStudentId(
+                testUserEntity.getId(),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10)
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentDepartmentId() {
+        ecApplicationRepository.save(testEcApplicationEntity);
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findPageByStudentDepartmentId(
+                testUserEntity.getDepartment().getId(),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10)
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentDepartmentIdAndIsReferred() {
+        ecApplicationRepository.save(testEcApplicationEntity);
+        ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findPageByStudentDepartmentIdAndIsReferred(
+                testUserEntity.getDepartment().getId(), testEcApplicationEntity.getIsReferred(),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10)
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStatus() {
+        testEcApplicationEntity.setStatus(EcApplicationStatus.CLOSED);
+        ecApplicationRepository.save(testEcApplicationEntity);
+        ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findPageByStatus(
+                EcApplicationStatus.CLOSED,
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10)
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentDepartmentIdAndStatus() {
+        testEcApplicationEntity.setStatus(EcApplicationStatus.CLOSED);
+        ecApplicationRepository.save(testEcApplicationEntity);
+        ecApplicationRepository.save(TestDataUtil.createTestEcApplicationEntityB(testUserEntity));
+
+        List<EcApplicationEntity> result = ecApplicationRepository.findPageByStudentDepartmentIdAndStatus(
+                testUserEntity.getDepartment().getId(), EcApplicationStatus.CLOSED,
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10)
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
     @Test
     public void testFindById() {
         EcApplicationEntity savedEcApplicationEntity = ecApplicationRepository.save(testEcApplicationEntity);
@@ -0,0 +1,89 @@
+package com.theodoremeras.dissertation.unit_tests.repositories;
+
+import com.theodoremeras.dissertation.email.EmailOutboxEntity;
+import com.theodoremeras.dissertation.email.EmailOutboxRepository;
+import com.theodoremeras.dissertation.email.EmailOutboxStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DataJpaTest
+public class EmailOutboxRepositoryUnitTests {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    private EmailOutboxEntity saveEmail(EmailOutboxStatus status, Instant nextAttemptAt, Instant createdAt) {
+        return emailOutboxRepository.save(EmailOutboxEntity.builder()
+                .recipient("user@test.com")
+                .subject("Subject")
+                .body("Body")
+                .status(status)
+                .nextAttemptAt(nextAttemptAt)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    @Test
+    public void testFindDueForUpdate() {
+        EmailOutboxEntity retried = saveEmail(EmailOutboxStatus.PENDING, now.minusSeconds(60), now.minusSeconds(600));
+        EmailOutboxEntity queued = saveEmail(EmailOutboxStatus.PENDING, now.minusSeconds(10), now.minusSeconds(10));
+        EmailOutboxEntity later = saveEmail(EmailOutboxStatus.PENDING, now.minusSeconds(5), now.minusSeconds(5));
+        // Not yet due, already sent and given up on
+        saveEmail(EmailOutboxStatus.PENDING, now.plusSeconds(60), now.minusSeconds(300));
+        saveEmail(EmailOutboxStatus.SENT, now.minusSeconds(60), now.minusSeconds(60));
+        saveEmail(EmailOutboxStatus.FAILED, now.minusSeconds(60), now.minusSeconds(60));
+
+        List<EmailOutboxEntity> result = emailOutboxRepository.findDueForUpdate(
+                EmailOutboxStatus.PENDING, now, Limit.of(10)
+        );
+
+        assertEquals(List.of(retried, queued, later), result);
+
+        // The batch size is respected, oldest first
+        result = emailOutboxRepository.findDueForUpdate(EmailOutboxStatus.PENDING, now, Limit.of(2));
+
+        assertEquals(List.of(retried, queued), result);
+    }
+
+    @Test
+    public void testCountByStatus() {
+        saveEmail(EmailOutboxStatus.PENDING, now, now);
+        saveEmail(EmailOutboxStatus.PENDING, now, now);
+        saveEmail(EmailOutboxStatus.SENT, now, now);
+
+        assertEquals(2, emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+        assertEquals(1, emailOutboxRepository.countByStatus(EmailOutboxStatus.SENT));
+        assertEquals(0, emailOutboxRepository.countByStatus(EmailOutboxStatus.FAILED));
+    }
+
+    @Test
+    public void testFindOldestCreatedAtByStatus() {
+        assertTrue(emailOutboxRepository.findOldestCreatedAtByStatus(EmailOutboxStatus.PENDING).isEmpty());
+
+        saveEmail(EmailOutboxStatus.PENDING, now, now.minus(Duration.ofMinutes(5)));
+        saveEmail(EmailOutboxStatus.PENDING, now, now.minus(Duration.ofMinutes(1)));
+        saveEmail(EmailOutboxStatus.SENT, now, now.minus(Duration.ofHours(1)));
+
+        Optional<Instant> result = emailOutboxRepository.findOldestCreatedAtByStatus(EmailOutboxStatus.PENDING);
+
+        assertEquals(Optional.of(now.minus(Duration.ofMinutes(5))), result);
+    }
+
+}
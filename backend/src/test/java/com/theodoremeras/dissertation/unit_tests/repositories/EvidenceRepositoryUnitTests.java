@@ -23,6 +23,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ActiveProfiles("test")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -96,4 +97,27 @@ public class EvidenceRepositoryUnitTests {
         assertFalse(evidenceRepository.existsById(savedEvidenceEntity.getId()));
     }
 
+    @Test
+    public void testFindFirstByFileName() {
+        evidenceRepository.save(testEvidenceEntity);
+
+        Optional<EvidenceEntity> result = evidenceRepository.findFirstByFileName(testEvidenceEntity.getFileName());
+
+        assertEquals(result.get(), testEvidenceEntity);
+    }
+
+    @Test
+    public void testExistsByContentHash() {
+        String contentHash = "a".repeat(64);
+        testEvidenceEntity.setContentHash(contentHash);
+        EvidenceEntity savedEvidenceEntity = evidenceRepository.save(testEvidenceEntity);
+
+        assertTrue(evidenceRepository.existsByContentHash(contentHash));
+        assertFalse(evidenceRepository.existsByContentHash("b".repeat(64)));
+
+        evidenceRepository.deleteById(savedEvidenceEntity.getId());
+
+        assertFalse(evidenceRepository.existsByContentHash(contentHash));
+    }
+
 }
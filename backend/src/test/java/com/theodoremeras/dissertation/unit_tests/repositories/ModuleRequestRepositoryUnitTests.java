@@ -116,6 +116,66 @@ public class ModuleRequestRepositoryUnitTests {
         assertTrue(result);
     }
 
+    @Test
+    public void testRecordApprovalReachesQuorum() {
+        ModuleRequestEntity savedModuleRequestEntity = moduleRequestRepository.save(testModuleRequestEntity);
+
+        moduleRequestRepository.recordApproval(savedModuleRequestEntity.getId(), 2);
+        ModuleRequestEntity afterOneApproval =
+                moduleRequestRepository.findById(savedModuleRequestEntity.getId()).get();
+        assertEquals(1, afterOneApproval.getApprovalCount());
+        assertNull(afterOneApproval.getFinalOutcome());
+
+        moduleRequestRepository.recordApproval(savedModuleRequestEntity.getId(), 2);
+        ModuleRequestEntity afterTwoApprovals =
+                moduleRequestRepository.findById(savedModuleRequestEntity.getId()).get();
+        assertEquals(2, afterTwoApprovals.getApprovalCount());
+        assertEquals(0, afterTwoApprovals.getRejectionCount());
+        assertTrue(afterTwoApprovals.getFinalOutcome());
+    }
+
+    @Test
+    public void testRecordRejectionDoesNotOverrideFinalOutcome() {
+        ModuleRequestEntity savedModuleRequestEntity = moduleRequestRepository.save(testModuleRequestEntity);
+
+        moduleRequestRepository.recordApproval(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordApproval(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordRejection(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordRejection(savedModuleRequestEntity.getId(), 2);
+
+        ModuleRequestEntity result = moduleRequestRepository.findById(savedModuleRequestEntity.getId()).get();
+        assertEquals(2, result.getRejectionCount());
+        assertTrue(result.getFinalOutcome());
+    }
+
+    @Test
+    public void testRevokeApprovalFallsBackToRejectionQuorum() {
+        ModuleRequestEntity savedModuleRequestEntity = moduleRequestRepository.save(testModuleRequestEntity);
+
+        moduleRequestRepository.recordApproval(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordApproval(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordRejection(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordRejection(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.revokeApproval(savedModuleRequestEntity.getId(), 2);
+
+        ModuleRequestEntity result = moduleRequestRepository.findById(savedModuleRequestEntity.getId()).get();
+        assertEquals(1, result.getApprovalCount());
+        assertFalse(result.getFinalOutcome());
+    }
+
+    @Test
+    public void testRevokeRejectionClearsFinalOutcome() {
+        ModuleRequestEntity savedModuleRequestEntity = moduleRequestRepository.save(testModuleRequestEntity);
+
+        moduleRequestRepository.recordRejection(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.recordRejection(savedModuleRequestEntity.getId(), 2);
+        moduleRequestRepository.revokeRejection(savedModuleRequestEntity.getId(), 2);
+
+        ModuleRequestEntity result = moduleRequestRepository.findById(savedModuleRequestEntity.getId()).get();
+        assertEquals(1, result.getRejectionCount());
+        assertNull(result.getFinalOutcome());
+    }
+
     @Test
     public void testDeleteById() {
         ModuleRequestEntity savedModuleRequestEntity = moduleRequestRepository.save(testModuleRequestEntity);
@@ -0,0 +1,502 @@
+package com.theodoremeras.dissertation.unit_tests.repositories;
+
+import com.theodoremeras.dissertation.ec_application.EcApplicationRepository;
+import com.theodoremeras.dissertation.ec_application.EcApplicationStatus;
+import com.theodoremeras.dissertation.email.EmailJobRepository;
+import com.theodoremeras.dissertation.email.EmailOutboxRepository;
+import com.theodoremeras.dissertation.email.EmailOutboxStatus;
+import com.theodoremeras.dissertation.evidence.EvidenceContentRepository;
+import com.theodoremeras.dissertation.evidence.EvidenceRepository;
+import com.theodoremeras.dissertation.module.ModuleRepository;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionRepository;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
+import com.theodoremeras.dissertation.role.RoleRepository;
+import com.theodoremeras.dissertation.student_information.StudentInformationRepository;
+import com.theodoremeras.dissertation.user.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/*
+    Calls each repository query against a seeded PostgreSQL database with the Flyway migrations
+    applied, records the SQL Hibernate issues for it and its bound parameters, and fails if
+    EXPLAIN shows that any of those statements reads a whole table, i.e. is not backed by one of
+    the indexes created by the migrations. Skipped when Docker is not available to start PostgreSQL
+ */
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RepositoryQueryPlanUnitTests.StatementRecorder.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RepositoryQueryPlanUnitTests {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    public static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    // Tables small enough that reading them whole is the cheapest plan, however large the rest gets
+    private static final Set<String> SMALL_TABLES = Set.of("role", "department");
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    private static final int DEPARTMENTS = 200;
+
+    private static final int USERS = 4000;
+
+    private static final int MODULES = 2000;
+
+    private static final int EC_APPLICATIONS = 40000;
+
+    private static final int EMAIL_JOBS = 2000;
+
+    private static final int EMAILS = 8000;
+
+    // Number of module requests, and of decisions, per EC application
+    private static final int REQUESTS_PER_APPLICATION = 2;
+
+    private static final LocalDate PAGE_SUBMITTED_ON = LocalDate.of(2024, 3, 1);
+
+    private static final Limit PAGE_LIMIT = Limit.of(11);
+
+    private static final List<Integer> IDS = List.of(1, 2, 3);
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private StudentInformationRepository studentInformationRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private EcApplicationRepository ecApplicationRepository;
+
+    @Autowired
+    private EvidenceRepository evidenceRepository;
+
+    @Autowired
+    private EvidenceContentRepository evidenceContentRepository;
+
+    @Autowired
+    private ModuleRequestRepository moduleRequestRepository;
+
+    @Autowired
+    private ModuleDecisionRepository moduleDecisionRepository;
+
+    @Autowired
+    private EmailJobRepository emailJobRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @BeforeAll
+    public void seed() {
+        // Replace the initial data inserted by the migrations
+        jdbcTemplate.execute("TRUNCATE department, role CASCADE");
+
+        String[] roles = {"Student", "Administrator", "Clerical_Staff", "Academic_Staff"};
+        for (int i = 0; i < roles.length; i++)
+            jdbcTemplate.update("INSERT INTO role (id, name) VALUES (?, ?)", i + 1, roles[i]);
+
+        batchInsert("INSERT INTO department (id, name) VALUES (?, ?)", DEPARTMENTS,
+                i -> new Object[]{i, "Department " + i});
+
+        batchInsert("INSERT INTO _user (id, name, email, password, is_approved, role_id, department_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", USERS,
+                i -> new Object[]{i, "User " + i, "user" + i + "@test.com", "password", true,
+                        i % roles.length + 1, i % DEPARTMENTS + 1});
+
+        batchInsert("INSERT INTO student_information (id, has_health_issues, has_disability, has_lsp, student_id) " +
+                        "VALUES (?, ?, ?, ?, ?)", USERS,
+                i -> new Object[]{i, false, false, false, i});
+
+        batchInsert("INSERT INTO module (code, name, department_id) VALUES (?, ?, ?)", MODULES,
+                i -> new Object[]{"M" + i, "Module " + i, i % DEPARTMENTS + 1});
+
+        // Mostly closed applications, with a few at each of the other statuses
+        EcApplicationStatus[] statuses = EcApplicationStatus.values();
+        batchInsert("INSERT INTO ec_application (id, circumstances_details, affected_date_start, affected_date_end, " +
+                        "submitted_on, requires_further_evidence, is_referred, status, student_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", EC_APPLICATIONS,
+                i -> {
+                    Date date = Date.valueOf(LocalDate.of(2023, 1, 1).plusDays(i % 730));
+                    EcApplicationStatus status = statuses[Math.min(i % 20, statuses.length - 1)];
+                    return new Object[]{i, "Details " + i, date, date, date,
+                            status == EcApplicationStatus.AWAITING_EVIDENCE, status != EcApplicationStatus.REJECTED,
+                            status.name(), i % USERS + 1};
+                });
+
+        batchInsert("INSERT INTO evidence (id, file_name, content_hash, application_id) VALUES (?, ?, ?, ?)",
+                EC_APPLICATIONS,
+                i -> new Object[]{i, "file" + i + ".pdf", (i % 2 == 0) ? "hash" + i : null, i});
+
+        batchInsert("INSERT INTO evidence_content (content_hash) VALUES (?)", EC_APPLICATIONS / 2,
+                i -> new Object[]{"hash" + i * 2});
+
+        batchInsert("INSERT INTO module_outcome_request (id, requested_outcome, related_assessment, application_id, " +
+                        "module_code, approval_count, rejection_count, final_outcome) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                EC_APPLICATIONS * REQUESTS_PER_APPLICATION,
+                i -> new Object[]{i, "Extension", "Coursework", (i - 1) / REQUESTS_PER_APPLICATION + 1,
+                        "M" + (i % MODULES + 1), 2, 0, true});
+
+        batchInsert("INSERT INTO module_request_decision (id, comments, is_approved, module_request_id, staff_id, " +
+                        "application_id) VALUES (?, ?, ?, ?, ?, ?)",
+                EC_APPLICATIONS * REQUESTS_PER_APPLICATION,
+                i -> new Object[]{i, "Comment", true, i, i % USERS + 1, (i - 1) / REQUESTS_PER_APPLICATION + 1});
+
+        // Mostly prepared jobs, with a few still selecting their recipients
+        batchInsert("INSERT INTO email_job (id, department_id, role_id, subject, body, last_recipient_id, " +
+                        "recipient_count, created_at, prepared_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", EMAIL_JOBS,
+                i -> {
+                    Timestamp timestamp = Timestamp.valueOf(LocalDate.of(2024, 1, 1).atStartOfDay().plusMinutes(i));
+                    return new Object[]{i, i % DEPARTMENTS + 1, i % roles.length + 1, "Subject", "Body", 0, 0,
+                            timestamp, (i % 100 == 0) ? null : timestamp};
+                });
+
+        // Mostly sent emails, with a few still pending, a quarter of them queued by a job
+        batchInsert("INSERT INTO email_outbox (id, recipient, subject, body, status, attempts, next_attempt_at, " +
+                        "created_at, job_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", EMAILS,
+                i -> {
+                    Timestamp timestamp = Timestamp.valueOf(LocalDate.of(2024, 1, 1).atStartOfDay().plusMinutes(i));
+                    return new Object[]{i, "user" + i + "@test.com", "Subject", "Body",
+                            (i % 100 == 0) ? "PENDING" : "SENT", 0, timestamp, timestamp,
+                            (i % 4 == 0) ? (long) (i % EMAIL_JOBS + 1) : null};
+                });
+
+        // Refresh the selectivity statistics used by the query planner
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public Stream<Arguments> repositoryQueries() {
+        Instant now = Instant.parse("2024-01-03T00:00:00Z");
+
+        return Stream.of(
+                // UserRepository
+                query("UserRepository.findById", () -> userRepository.findById(42)),
+                query("UserRepository.findAllByEmail", () -> userRepository.findAllByEmail("user42@test.com")),
+                query("UserRepository.findByEmail", () -> userRepository.findByEmail("user42@test.com")),
+                query("UserRepository.findAllByDepartmentIdAndRoleId",
+                        () -> userRepository.findAllByDepartmentIdAndRoleId(3, 4)),
+                query("UserRepository.findPageByDepartmentIdAndRoleId",
+                        () -> userRepository.findPageByDepartmentIdAndRoleId(3, 4, 1000, Limit.of(50))),
+                query("UserRepository.findAllByIdIn", () -> userRepository.findAllByIdIn(IDS)),
+
+                // RoleRepository
+                query("RoleRepository.findAllByName", () -> roleRepository.findAllByName("Student")),
+
+                // StudentInformationRepository
+                query("StudentInformationRepository.findByStudentId",
+                        () -> studentInformationRepository.findByStudentId(42)),
+
+                // ModuleRepository
+                query("ModuleRepository.findAllByCodeIn", () -> moduleRepository.findAllByCodeIn(List.of("M1", "M2"))),
+
+                // EcApplicationRepository
+                query("EcApplicationRepository.findAllByIdIn", () -> ecApplicationRepository.findAllByIdIn(IDS)),
+                query("EcApplicationRepository.findAllByStudentId",
+                        () -> ecApplicationRepository.findAllByStudentId(42)),
+                query("EcApplicationRepository.findAllByStudentDepartmentId",
+                        () -> ecApplicationRepository.findAllByStudentDepartmentId(3)),
+                query("EcApplicationRepository.findAllByStudentDepartmentIdAndIsReferred",
+                        () -> ecApplicationRepository.findAllByStudentDepartmentIdAndIsReferred(3, false)),
+                query("EcApplicationRepository.findAllByStatus",
+                        () -> ecApplicationRepository.findAllByStatus(EcApplicationStatus.REFERRED)),
+                query("EcApplicationRepository.findAllByStudentDepartmentIdAndStatus",
+                        () -> ecApplicationRepository.findAllByStudentDepartmentIdAndStatus(
+                                3, EcApplicationStatus.REFERRED)),
+                query("EcApplicationRepository.findByIdForUpdate",
+                        () -> ecApplicationRepository.findByIdForUpdate(42)),
+                query("EcApplicationRepository.findPage",
+                        () -> ecApplicationRepository.findPage(PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                query("EcApplicationRepository.findPageByIdIn",
+                        () -> ecApplicationRepository.findPageByIdIn(IDS, PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                query("EcApplicationRepository.findPageByStudentId",
+                        () -> ecApplicationRepository.findPageByStudentId(42, PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                query("EcApplicationRepository.findPageByStudentDepartmentId",
+                        () -> ecApplicationRepository.findPageByStudentDepartmentId(
+                                3, PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                query("EcApplicationRepository.findPageByStudentDepartmentIdAndIsReferred",
+                        () -> ecApplicationRepository.findPageByStudentDepartmentIdAndIsReferred(
+                                3, true, PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                query("EcApplicationRepository.findPageByStatus",
+                        () -> ecApplicationRepository.findPageByStatus(
+                                EcApplicationStatus.REFERRED, PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                query("EcApplicationRepository.findPageByStudentDepartmentIdAndStatus",
+                        () -> ecApplicationRepository.findPageByStudentDepartmentIdAndStatus(
+                                3, EcApplicationStatus.REFERRED, PAGE_SUBMITTED_ON, 4000, PAGE_LIMIT)),
+                // Everything referring to the applications is deleted first, as by EcApplicationDeletionService
+                query("EcApplicationRepository.deleteAllByIdIn", () -> {
+                    moduleDecisionRepository.deleteAllByEcApplicationIdIn(IDS);
+                    moduleRequestRepository.deleteAllByEcApplicationIdIn(IDS);
+                    evidenceRepository.deleteAllByEcApplicationIdIn(IDS);
+                    ecApplicationRepository.deleteAllByIdIn(IDS);
+                }),
+
+                // EvidenceRepository
+                query("EvidenceRepository.findAllByEcApplicationId",
+                        () -> evidenceRepository.findAllByEcApplicationId(42)),
+                query("EvidenceRepository.findAllByEcApplicationIdIn",
+                        () -> evidenceRepository.findAllByEcApplicationIdIn(IDS)),
+                query("EvidenceRepository.findFirstByFileName",
+                        () -> evidenceRepository.findFirstByFileName("file42.pdf")),
+                query("EvidenceRepository.existsByContentHash",
+                        () -> evidenceRepository.existsByContentHash("hash42")),
+                query("EvidenceRepository.findContentHashesIn",
+                        () -> evidenceRepository.findContentHashesIn(List.of("hash2", "hash4"))),
+                query("EvidenceRepository.findUnhashedFileNamesIn",
+                        () -> evidenceRepository.findUnhashedFileNamesIn(List.of("file1.pdf", "file3.pdf"))),
+                query("EvidenceRepository.findAllByIdGreaterThanOrderByIdAsc",
+                        () -> evidenceRepository.findAllByIdGreaterThanOrderByIdAsc(4000, Limit.of(100))),
+                query("EvidenceRepository.deleteAllByEcApplicationIdIn",
+                        () -> evidenceRepository.deleteAllByEcApplicationIdIn(IDS)),
+
+                // EvidenceContentRepository
+                query("EvidenceContentRepository.insertIfAbsent",
+                        () -> evidenceContentRepository.insertIfAbsent("hash42")),
+                query("EvidenceContentRepository.findByIdForUpdate",
+                        () -> evidenceContentRepository.findByIdForUpdate("hash42")),
+
+                // ModuleRequestRepository
+                query("ModuleRequestRepository.findAllByEcApplicationIdIn",
+                        () -> moduleRequestRepository.findAllByEcApplicationIdIn(IDS)),
+                query("ModuleRequestRepository.findAllByIdIn", () -> moduleRequestRepository.findAllByIdIn(IDS)),
+                query("ModuleRequestRepository.findEcApplicationIdById",
+                        () -> moduleRequestRepository.findEcApplicationIdById(42)),
+                query("ModuleRequestRepository.existsByEcApplicationIdAndFinalOutcomeIsNull",
+                        () -> moduleRequestRepository.existsByEcApplicationIdAndFinalOutcomeIsNull(42)),
+                query("ModuleRequestRepository.deleteAllByEcApplicationIdIn", () -> {
+                    moduleDecisionRepository.deleteAllByEcApplicationIdIn(IDS);
+                    moduleRequestRepository.deleteAllByEcApplicationIdIn(IDS);
+                }),
+                query("ModuleRequestRepository.recordApproval", () -> moduleRequestRepository.recordApproval(42, 2)),
+                query("ModuleRequestRepository.recordRejection",
+                        () -> moduleRequestRepository.recordRejection(42, 2)),
+                query("ModuleRequestRepository.revokeApproval", () -> moduleRequestRepository.revokeApproval(42, 2)),
+                query("ModuleRequestRepository.revokeRejection",
+                        () -> moduleRequestRepository.revokeRejection(42, 2)),
+
+                // ModuleDecisionRepository
+                query("ModuleDecisionRepository.findAllByModuleRequestId",
+                        () -> moduleDecisionRepository.findAllByModuleRequestId(42)),
+                query("ModuleDecisionRepository.findAllByStaffMemberId",
+                        () -> moduleDecisionRepository.findAllByStaffMemberId(42)),
+                query("ModuleDecisionRepository.findAllByEcApplicationIdIn",
+                        () -> moduleDecisionRepository.findAllByEcApplicationIdIn(IDS)),
+                query("ModuleDecisionRepository.deleteAllByEcApplicationIdIn",
+                        () -> moduleDecisionRepository.deleteAllByEcApplicationIdIn(IDS)),
+
+                // EmailJobRepository
+                query("EmailJobRepository.findUnpreparedForUpdate",
+                        () -> emailJobRepository.findUnpreparedForUpdate(Limit.of(1))),
+
+                // EmailOutboxRepository
+                query("EmailOutboxRepository.findDueForUpdate",
+                        () -> emailOutboxRepository.findDueForUpdate(EmailOutboxStatus.PENDING, now, Limit.of(50))),
+                query("EmailOutboxRepository.countByStatus",
+                        () -> emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)),
+                query("EmailOutboxRepository.countByJobIdGroupByStatus",
+                        () -> emailOutboxRepository.countByJobIdGroupByStatus(42L)),
+                query("EmailOutboxRepository.findOldestCreatedAtByStatus",
+                        () -> emailOutboxRepository.findOldestCreatedAtByStatus(EmailOutboxStatus.PENDING))
+        );
+    }
+
+    // Lookups made by the database itself, in the form it makes them, when deleting a referenced row
+    public Stream<Arguments> foreignKeyChecks() {
+        return Stream.of(
+                Arguments.of("module_outcome_request.module_code",
+                        "SELECT 1 FROM ONLY module_outcome_request x WHERE module_code = 'M42' FOR KEY SHARE OF x"),
+                Arguments.of("module.department_id",
+                        "SELECT 1 FROM ONLY module x WHERE department_id = 3 FOR KEY SHARE OF x"),
+                Arguments.of("_user.role_id",
+                        "SELECT 1 FROM ONLY _user x WHERE role_id = 2 FOR KEY SHARE OF x")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    public void testQueryDoesNotScanWholeTable(String query, Runnable call) {
+        statementRecorder.clear();
+        // Rolled back, so that the modifying queries leave the dataset as it was
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            call.run();
+        });
+        List<RecordedStatement> statements = statementRecorder.statements();
+
+        assertFalse(statements.isEmpty(), query + " did not issue any SQL");
+        for (RecordedStatement statement : statements) {
+            String plan = String.join("\n", jdbcTemplate.query("EXPLAIN " + statement.sql(),
+                    statement::bind, (resultSet, row) -> resultSet.getString(1)));
+            assertNoFullTableScan(query, statement.sql() + "\n" + plan);
+        }
+    }
+
+    @ParameterizedTest(name = "Foreign key check on {0}")
+    @MethodSource("foreignKeyChecks")
+    public void testForeignKeyCheckDoesNotScanWholeTable(String foreignKey, String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        assertNoFullTableScan("Foreign key check on " + foreignKey, sql + "\n" + plan);
+    }
+
+    private void assertNoFullTableScan(String query, String plan) {
+        Matcher seqScan = SEQ_SCAN.matcher(plan);
+        while (seqScan.find()) {
+            if (!SMALL_TABLES.contains(seqScan.group(1)))
+                fail(query + " reads the whole " + seqScan.group(1) + " table:\n" + plan);
+        }
+    }
+
+    private static Arguments query(String query, Runnable call) {
+        return Arguments.of(query, call);
+    }
+
+    private void batchInsert(String sql, int rows, IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(rows);
+        IntStream.rangeClosed(1, rows).forEach(i -> batch.add(row.apply(i)));
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    // A call to one of the set... methods of a prepared statement, made again to bind the same value
+    private record Parameter(Method setter, Object[] args) {}
+
+    private record RecordedStatement(String sql, List<Parameter> parameters) {
+
+        private void bind(PreparedStatement preparedStatement) throws SQLException {
+            for (Parameter parameter : parameters) {
+                try {
+                    parameter.setter().invoke(preparedStatement, parameter.args());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Could not bind " + parameter.setter().getName(), e);
+                }
+            }
+        }
+
+    }
+
+    /*
+        Wraps the data source so that every statement prepared through it is recorded, along with the
+        values bound to it
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+        public List<RecordedStatement> statements() {
+            return List.copyOf(statements);
+        }
+
+        public void clear() {
+            statements.clear();
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource)
+                return wrap(DataSource.class, dataSource, (method, args, result) ->
+                        (result instanceof Connection connection)
+                                ? wrap(Connection.class, connection, this::recordStatement)
+                                : result);
+            return bean;
+        }
+
+        private Object recordStatement(Method method, Object[] args, Object result) {
+            if (!method.getName().equals("prepareStatement"))
+                return result;
+
+            RecordedStatement statement = new RecordedStatement((String) args[0], new ArrayList<>());
+            statements.add(statement);
+            return wrap(PreparedStatement.class, (PreparedStatement) result, (setter, setterArgs, setterResult) -> {
+                if (setter.getName().startsWith("set") && setterArgs != null && setterArgs.length >= 2 &&
+                        setterArgs[0] instanceof Integer)
+                    statement.parameters().add(new Parameter(setter, setterArgs));
+                return setterResult;
+            });
+        }
+
+        private interface Interceptor {
+            Object intercept(Method method, Object[] args, Object result);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(Class<T> type, T target, Interceptor interceptor) {
+            return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        try {
+                            return interceptor.intercept(method, args, method.invoke(target, args));
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+    }
+
+}
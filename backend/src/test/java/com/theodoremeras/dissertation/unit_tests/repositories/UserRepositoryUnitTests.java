@@ -7,10 +7,12 @@ import com.theodoremeras.dissertation.role.RoleEntity;
 import com.theodoremeras.dissertation.role.RoleRepository;
 import com.theodoremeras.dissertation.user.UserEntity;
 import com.theodoremeras.dissertation.user.UserRepository;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -33,6 +35,9 @@ public class UserRepositoryUnitTests {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private RoleEntity testRoleEntity;
 
     private DepartmentEntity testDepartmentEntity;
@@ -60,6 +65,18 @@ public class UserRepositoryUnitTests {
         assertEquals(result, List.of(testUserEntity));
     }
 
+    @Test
+    public void testFindAllLoadsRoleAndDepartment() {
+        userRepository.save(testUserEntity);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        List<UserEntity> result = userRepository.findAll();
+
+        assertTrue(Hibernate.isInitialized(result.get(0).getRole()));
+        assertTrue(Hibernate.isInitialized(result.get(0).getDepartment()));
+    }
+
     @Test
     public void testFindAllByEmail() {
         userRepository.save(testUserEntity);
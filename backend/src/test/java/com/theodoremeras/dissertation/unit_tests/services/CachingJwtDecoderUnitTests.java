@@ -0,0 +1,112 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.authentication.CachingJwtDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingJwtDecoderUnitTests {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private CachingJwtDecoder cachingJwtDecoder;
+
+    @BeforeEach
+    public void setUp() {
+        cachingJwtDecoder = new CachingJwtDecoder(delegate, 2);
+    }
+
+    private static Jwt createJwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .claim("userId", 1L)
+                .claim("roles", "Student")
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    @Test
+    public void testDecodeVerifiesEachTokenOnce() {
+        Jwt jwt = createJwt("token", Instant.now().plusSeconds(60));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertEquals(jwt, cachingJwtDecoder.decode("token"));
+        assertEquals(jwt, cachingJwtDecoder.decode("token"));
+
+        verify(delegate, times(1)).decode("token");
+    }
+
+    @Test
+    public void testDecodeVerifiesDifferentTokensSeparately() {
+        Jwt jwtA = createJwt("tokenA", Instant.now().plusSeconds(60));
+        Jwt jwtB = createJwt("tokenB", Instant.now().plusSeconds(60));
+        when(delegate.decode("tokenA")).thenReturn(jwtA);
+        when(delegate.decode("tokenB")).thenReturn(jwtB);
+
+        assertEquals(jwtA, cachingJwtDecoder.decode("tokenA"));
+        assertEquals(jwtB, cachingJwtDecoder.decode("tokenB"));
+        assertEquals(jwtA, cachingJwtDecoder.decode("tokenA"));
+
+        verify(delegate, times(1)).decode("tokenA");
+        verify(delegate, times(1)).decode("tokenB");
+    }
+
+    @Test
+    public void testDecodeDoesNotReuseExpiredTokens() {
+        Jwt jwt = createJwt("token", Instant.now().minusSeconds(1));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        cachingJwtDecoder.decode("token");
+        cachingJwtDecoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+        assertEquals(0, cachingJwtDecoder.size());
+    }
+
+    @Test
+    public void testDecodeDoesNotCacheTokensWithoutExpiry() {
+        Jwt jwt = createJwt("token", null);
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        cachingJwtDecoder.decode("token");
+        cachingJwtDecoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    public void testDecodeDoesNotCacheInvalidTokens() {
+        when(delegate.decode("token")).thenThrow(new BadJwtException("Invalid signature"));
+
+        assertThrows(BadJwtException.class, () -> cachingJwtDecoder.decode("token"));
+        assertThrows(BadJwtException.class, () -> cachingJwtDecoder.decode("token"));
+
+        verify(delegate, times(2)).decode("token");
+        assertEquals(0, cachingJwtDecoder.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        for (int i = 0; i < 10; i++) {
+            String token = "token" + i;
+            when(delegate.decode(token)).thenReturn(createJwt(token, Instant.now().plusSeconds(60)));
+            cachingJwtDecoder.decode(token);
+        }
+
+        assertEquals(2, cachingJwtDecoder.size());
+    }
+
+}
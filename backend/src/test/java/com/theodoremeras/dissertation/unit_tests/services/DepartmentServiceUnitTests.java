@@ -4,6 +4,7 @@ import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.department.DepartmentRepository;
 import com.theodoremeras.dissertation.department.DepartmentService;
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +25,9 @@ public class DepartmentServiceUnitTests {
     @Mock
     private DepartmentRepository departmentRepository;
 
+    @Mock
+    private PartialUpdater partialUpdater;
+
     @InjectMocks
     private DepartmentService departmentService;
 
@@ -75,26 +80,33 @@ public class DepartmentServiceUnitTests {
     public void testPartialUpdate() {
         DepartmentEntity updatedDepartmentEntity = TestDataUtil.createTestDepartmentEntityB();
 
+        when(partialUpdater.update(
+                DepartmentEntity.class, "id", testDepartmentEntity.getId(),
+                null, Map.of("name", updatedDepartmentEntity.getName())
+        )).thenReturn(true);
         when(departmentRepository.findById(testDepartmentEntity.getId())).
-                thenReturn(Optional.of(testDepartmentEntity));
-        when(departmentRepository.save(testDepartmentEntity)).thenReturn(updatedDepartmentEntity);
+                thenReturn(Optional.of(updatedDepartmentEntity));
 
-        DepartmentEntity result =
-                departmentService.partialUpdate(testDepartmentEntity.getId(), updatedDepartmentEntity);
+        Optional<DepartmentEntity> result =
+                departmentService.partialUpdate(testDepartmentEntity.getId(), updatedDepartmentEntity, null);
 
-        assertEquals(result, updatedDepartmentEntity);
+        assertTrue(result.isPresent());
+        assertEquals(result.get(), updatedDepartmentEntity);
+        verify(departmentRepository, never()).save(any());
     }
 
     @Test
     public void testPartialUpdateWhenNoDepartmentExists() {
         DepartmentEntity updatedDepartmentEntity = TestDataUtil.createTestDepartmentEntityB();
 
-        when(departmentRepository.findById(testDepartmentEntity.getId())).
-                thenReturn(Optional.empty());
+        when(partialUpdater.update(
+                eq(DepartmentEntity.class), eq("id"), eq(testDepartmentEntity.getId()), isNull(), anyMap()
+        )).thenReturn(false);
 
+        Optional<DepartmentEntity> result =
+                departmentService.partialUpdate(testDepartmentEntity.getId(), updatedDepartmentEntity, null);
 
-        assertThrows(RuntimeException.class,
-                () -> departmentService.partialUpdate(testDepartmentEntity.getId(), updatedDepartmentEntity));
+        assertTrue(result.isEmpty());
     }
 
     @Test
@@ -0,0 +1,123 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.ec_application.EcApplicationDeletionService;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationRepository;
+import com.theodoremeras.dissertation.evidence.EvidenceEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceRepository;
+import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionRepository;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
+import com.theodoremeras.dissertation.user.UserEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EcApplicationDeletionServiceUnitTests {
+
+    @Mock
+    private EcApplicationRepository ecApplicationRepository;
+
+    @Mock
+    private ModuleRequestRepository moduleRequestRepository;
+
+    @Mock
+    private ModuleDecisionRepository moduleDecisionRepository;
+
+    @Mock
+    private EvidenceRepository evidenceRepository;
+
+    @Mock
+    private EvidenceService evidenceService;
+
+    private EcApplicationDeletionService ecApplicationDeletionService;
+
+    private EcApplicationEntity testEcApplicationEntity;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize test objects
+        UserEntity testUserEntity = TestDataUtil.createTestUserEntityA(
+                TestDataUtil.createTestRoleEntityA(),
+                TestDataUtil.createTestDepartmentEntityA()
+        );
+        testEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityA(testUserEntity);
+
+        // Stored files are removed on the calling thread, so the tests can verify it directly
+        ecApplicationDeletionService = new EcApplicationDeletionService(
+                ecApplicationRepository, moduleRequestRepository, moduleDecisionRepository,
+                evidenceRepository, evidenceService, new SyncTaskExecutor()
+        );
+
+        // Stands in for the transaction that the service would run in
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void testDeleteAll() {
+        List<Integer> ids = List.of(testEcApplicationEntity.getId(), 2);
+        when(ecApplicationRepository.deleteAllByIdIn(ids)).thenReturn(2);
+
+        int result = ecApplicationDeletionService.deleteAll(List.of(testEcApplicationEntity.getId(), 2, 2));
+
+        assertEquals(2, result);
+
+        // Rows are deleted after every row that refers to them
+        InOrder inOrder = inOrder(
+                moduleDecisionRepository, moduleRequestRepository, evidenceRepository, ecApplicationRepository
+        );
+        inOrder.verify(moduleDecisionRepository).deleteAllByEcApplicationIdIn(ids);
+        inOrder.verify(moduleRequestRepository).deleteAllByEcApplicationIdIn(ids);
+        inOrder.verify(evidenceRepository).deleteAllByEcApplicationIdIn(ids);
+        inOrder.verify(ecApplicationRepository).deleteAllByIdIn(ids);
+
+        // There is no evidence, so there are no files to remove
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    public void testDeleteAllRemovesStoredFilesAfterCommit() {
+        List<Integer> ids = List.of(testEcApplicationEntity.getId());
+        List<EvidenceEntity> evidence = List.of(TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity));
+        when(evidenceRepository.findAllByEcApplicationIdIn(ids)).thenReturn(evidence);
+
+        ecApplicationDeletionService.delete(testEcApplicationEntity.getId());
+
+        // Nothing is removed before the transaction has committed
+        verifyNoInteractions(evidenceService);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(evidenceService, times(1)).deleteStoredFiles(evidence);
+    }
+
+    @Test
+    public void testDeleteAllWhenNoIdsAreGiven() {
+        int result = ecApplicationDeletionService.deleteAll(List.of());
+
+        assertEquals(0, result);
+        verifyNoInteractions(
+                ecApplicationRepository, moduleRequestRepository, moduleDecisionRepository, evidenceRepository
+        );
+    }
+
+}
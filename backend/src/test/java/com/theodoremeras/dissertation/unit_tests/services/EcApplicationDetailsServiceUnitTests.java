@@ -0,0 +1,174 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationDetailsDto;
+import com.theodoremeras.dissertation.ec_application.EcApplicationDetailsService;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationMapper;
+import com.theodoremeras.dissertation.ec_application.EcApplicationService;
+import com.theodoremeras.dissertation.evidence.EvidenceEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceMapper;
+import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.module.ModuleEntity;
+import com.theodoremeras.dissertation.module.ModuleMapper;
+import com.theodoremeras.dissertation.module.ModuleService;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionEntity;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionMapper;
+import com.theodoremeras.dissertation.module_decision.ModuleDecisionService;
+import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestMapper;
+import com.theodoremeras.dissertation.module_request.ModuleRequestService;
+import com.theodoremeras.dissertation.student_information.StudentInformationEntity;
+import com.theodoremeras.dissertation.student_information.StudentInformationMapper;
+import com.theodoremeras.dissertation.student_information.StudentInformationService;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.user.UserMapper;
+import com.theodoremeras.dissertation.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EcApplicationDetailsServiceUnitTests {
+
+    @Mock
+    private EcApplicationService ecApplicationService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private StudentInformationService studentInformationService;
+
+    @Mock
+    private EvidenceService evidenceService;
+
+    @Mock
+    private ModuleRequestService moduleRequestService;
+
+    @Mock
+    private ModuleService moduleService;
+
+    @Mock
+    private ModuleDecisionService moduleDecisionService;
+
+    @Spy
+    private EcApplicationMapper ecApplicationMapper;
+
+    @Spy
+    private UserMapper userMapper;
+
+    @Spy
+    private StudentInformationMapper studentInformationMapper;
+
+    @Spy
+    private EvidenceMapper evidenceMapper;
+
+    @Spy
+    private ModuleRequestMapper moduleRequestMapper;
+
+    @Spy
+    private ModuleMapper moduleMapper;
+
+    @Spy
+    private ModuleDecisionMapper moduleDecisionMapper;
+
+    @InjectMocks
+    private EcApplicationDetailsService ecApplicationDetailsService;
+
+    private UserEntity testUserEntity;
+
+    private EcApplicationEntity testEcApplicationEntity;
+
+    private ModuleEntity testModuleEntity;
+
+    private ModuleRequestEntity testModuleRequestEntity;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize test objects
+        DepartmentEntity testDepartmentEntity = TestDataUtil.createTestDepartmentEntityA();
+        testUserEntity = TestDataUtil.createTestUserEntityA(TestDataUtil.createTestRoleEntityA(), testDepartmentEntity);
+        testEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityA(testUserEntity);
+        testModuleEntity = TestDataUtil.createTestModuleEntityA(testDepartmentEntity);
+        testModuleRequestEntity = TestDataUtil.createTestRequestEntityA(testEcApplicationEntity, testModuleEntity);
+    }
+
+    @Test
+    public void testFindOneById() {
+        Integer id = testEcApplicationEntity.getId();
+        StudentInformationEntity testStudentInformationEntity =
+                TestDataUtil.createTestStudentInformationEntityA(testUserEntity);
+        EvidenceEntity testEvidenceEntity = TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity);
+        ModuleDecisionEntity testModuleDecisionEntity = TestDataUtil.createTestModuleDecisionEntityA(
+                testModuleRequestEntity, testUserEntity, testEcApplicationEntity
+        );
+
+        when(ecApplicationService.findOneById(id)).thenReturn(Optional.of(testEcApplicationEntity));
+        when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.of(testUserEntity));
+        when(studentInformationService.findOneByStudentId(testUserEntity.getId()))
+                .thenReturn(Optional.of(testStudentInformationEntity));
+        when(evidenceService.findAllByApplicationId(id)).thenReturn(List.of(testEvidenceEntity));
+        when(moduleRequestService.findAllByEcApplicationIdIn(List.of(id))).thenReturn(List.of(testModuleRequestEntity));
+        when(moduleService.findAllByModuleCodeIn(List.of(testModuleEntity.getCode())))
+                .thenReturn(List.of(testModuleEntity));
+        when(moduleDecisionService.findAllByApplicationIdIn(List.of(id))).thenReturn(List.of(testModuleDecisionEntity));
+
+        Optional<EcApplicationDetailsDto> result = ecApplicationDetailsService.findOneById(id);
+
+        assertTrue(result.isPresent());
+        assertEquals(result.get().getEcApplication(), ecApplicationMapper.mapToDto(testEcApplicationEntity));
+        assertEquals(result.get().getStudent(), userMapper.mapToDto(testUserEntity));
+        assertEquals(
+                result.get().getStudentInformation(),
+                studentInformationMapper.mapToDto(testStudentInformationEntity)
+        );
+        assertEquals(result.get().getEvidence(), List.of(evidenceMapper.mapToDto(testEvidenceEntity)));
+        assertEquals(result.get().getModuleRequests(), List.of(moduleRequestMapper.mapToDto(testModuleRequestEntity)));
+        assertEquals(result.get().getModules(), List.of(moduleMapper.mapToDto(testModuleEntity)));
+        assertEquals(
+                result.get().getModuleDecisions(),
+                List.of(moduleDecisionMapper.mapToDto(testModuleDecisionEntity))
+        );
+    }
+
+    @Test
+    public void testFindOneByIdWhenNoModuleRequestsExist() {
+        Integer id = testEcApplicationEntity.getId();
+
+        when(ecApplicationService.findOneById(id)).thenReturn(Optional.of(testEcApplicationEntity));
+        when(userService.findOneById(testUserEntity.getId())).thenReturn(Optional.of(testUserEntity));
+        when(studentInformationService.findOneByStudentId(testUserEntity.getId())).thenReturn(Optional.empty());
+        when(evidenceService.findAllByApplicationId(id)).thenReturn(List.of());
+        when(moduleRequestService.findAllByEcApplicationIdIn(List.of(id))).thenReturn(List.of());
+        when(moduleDecisionService.findAllByApplicationIdIn(List.of(id))).thenReturn(List.of());
+
+        Optional<EcApplicationDetailsDto> result = ecApplicationDetailsService.findOneById(id);
+
+        assertTrue(result.isPresent());
+        assertNull(result.get().getStudentInformation());
+        assertTrue(result.get().getModules().isEmpty());
+        verify(moduleService, never()).findAllByModuleCodeIn(any());
+    }
+
+    @Test
+    public void testFindOneByIdWhenNoApplicationExists() {
+        when(ecApplicationService.findOneById(testEcApplicationEntity.getId())).thenReturn(Optional.empty());
+
+        Optional<EcApplicationDetailsDto> result = ecApplicationDetailsService.findOneById(testEcApplicationEntity.getId());
+
+        assertTrue(result.isEmpty());
+    }
+
+}
@@ -2,19 +2,25 @@ package com.theodoremeras.dissertation.unit_tests.services;
 
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationCursor;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationRepository;
 import com.theodoremeras.dissertation.ec_application.EcApplicationService;
+import com.theodoremeras.dissertation.ec_application.EcApplicationStatus;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
 import com.theodoremeras.dissertation.role.RoleEntity;
 import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +32,12 @@ public class EcApplicationServiceUnitTests {
     @Mock
     private EcApplicationRepository ecApplicationRepository;
 
+    @Mock
+    private ModuleRequestRepository moduleRequestRepository;
+
+    @Mock
+    private PartialUpdater partialUpdater;
+
     @InjectMocks
     private EcApplicationService ecApplicationService;
 
@@ -51,6 +63,20 @@ public class EcApplicationServiceUnitTests {
         assertEquals(result, testEcApplicationEntity);
     }
 
+    @Test
+    public void testSaveSetsStatus() {
+        EcApplicationEntity newEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityA(testUserEntity);
+        newEcApplicationEntity.setId(null);
+        newEcApplicationEntity.setIsReferred(null);
+        newEcApplicationEntity.setRequiresFurtherEvidence(true);
+        when(ecApplicationRepository.save(newEcApplicationEntity)).thenReturn(newEcApplicationEntity);
+
+        EcApplicationEntity result = ecApplicationService.save(newEcApplicationEntity);
+
+        assertEquals(EcApplicationStatus.AWAITING_EVIDENCE, result.getStatus());
+        verifyNoInteractions(moduleRequestRepository);
+    }
+
     @Test
     public void testFindAll() {
         when(ecApplicationRepository.findAll()).thenReturn(List.of(testEcApplicationEntity));
@@ -92,6 +118,28 @@ public class EcApplicationServiceUnitTests {
         assertEquals(result, List.of(testEcApplicationEntity));
     }
 
+    @Test
+    public void testFindAllByStatus() {
+        when(ecApplicationRepository.findAllByStatus(EcApplicationStatus.REFERRED))
+                .thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result = ecApplicationService.findAllByStatus(EcApplicationStatus.REFERRED);
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindAllByStudentDepartmentIdAndStatus() {
+        Integer departmentId = testUserEntity.getDepartment().getId();
+        when(ecApplicationRepository.findAllByStudentDepartmentIdAndStatus(departmentId, EcApplicationStatus.REFERRED))
+                .thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result =
+                ecApplicationService.findAllByStudentDepartmentIdAndStatus(departmentId, EcApplicationStatus.REFERRED);
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
     @Test
     public void testFindAllByStudentDepartmentIdAndIsReferred() {
         when(ecApplicationRepository
@@ -110,6 +158,73 @@ public class EcApplicationServiceUnitTests {
         assertEquals(result, List.of(testEcApplicationEntity));
     }
 
+    @Test
+    public void testFindPage() {
+        EcApplicationCursor cursor = EcApplicationCursor.after(testEcApplicationEntity);
+
+        when(ecApplicationRepository.findPage(cursor.getSubmittedOn(), cursor.getId(), Limit.of(10)))
+                .thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result = ecApplicationService.findPage(cursor, 10);
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByIdIn() {
+        List<Integer> ids = List.of(testEcApplicationEntity.getId());
+
+        when(ecApplicationRepository.findPageByIdIn(
+                ids, EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10))
+        ).thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result = ecApplicationService.findPageByIdIn(ids, EcApplicationCursor.FIRST, 10);
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentId() {
+        when(ecApplicationRepository.findPageByStudentId(
+                testUserEntity.getId(),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10))
+        ).thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result =
+                ecApplicationService.findPageByStudentId(testUserEntity.getId(), EcApplicationCursor.FIRST, 10);
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentDepartmentId() {
+        when(ecApplicationRepository.findPageByStudentDepartmentId(
+                testUserEntity.getDepartment().getId(),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10))
+        ).thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result = ecApplicationService.findPageByStudentDepartmentId(
+                testUserEntity.getDepartment().getId(), EcApplicationCursor.FIRST, 10
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
+    @Test
+    public void testFindPageByStudentDepartmentIdAndIsReferred() {
+        when(ecApplicationRepository.findPageByStudentDepartmentIdAndIsReferred(
+                testUserEntity.getDepartment().getId(), testEcApplicationEntity.getIsReferred(),
+                EcApplicationCursor.FIRST.getSubmittedOn(), EcApplicationCursor.FIRST.getId(), Limit.of(10))
+        ).thenReturn(List.of(testEcApplicationEntity));
+
+        List<EcApplicationEntity> result = ecApplicationService.findPageByStudentDepartmentIdAndIsReferred(
+                testUserEntity.getDepartment().getId(), testEcApplicationEntity.getIsReferred(),
+                EcApplicationCursor.FIRST, 10
+        );
+
+        assertEquals(result, List.of(testEcApplicationEntity));
+    }
+
     @Test
     public void testFindOneById() {
         when(ecApplicationRepository.findById(testEcApplicationEntity.getId()))
@@ -133,32 +248,86 @@ public class EcApplicationServiceUnitTests {
     public void testPartialUpdate() {
         EcApplicationEntity updatedEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityB(testUserEntity);
 
+        when(partialUpdater.update(
+                eq(EcApplicationEntity.class), eq("id"), eq(testEcApplicationEntity.getId()), isNull(), anyMap(),
+                anyMap()
+        )).thenReturn(true);
         when(ecApplicationRepository.findById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.of(testEcApplicationEntity));
-        when(ecApplicationRepository.save(testEcApplicationEntity)).thenReturn(updatedEcApplicationEntity);
+                .thenReturn(Optional.of(updatedEcApplicationEntity));
 
-        EcApplicationEntity result =
-                ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity);
+        Optional<EcApplicationEntity> result =
+                ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity, null);
 
-        assertEquals(result, updatedEcApplicationEntity);
+        assertTrue(result.isPresent());
+        assertEquals(result.get(), updatedEcApplicationEntity);
+        verify(ecApplicationRepository, never()).save(any());
     }
 
     @Test
-    public void testPartialUpdateWhenNoApplicationExists() {
-        EcApplicationEntity updatedEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityB(testUserEntity);
+    public void testPartialUpdateSetsStatus() {
+        EcApplicationEntity updatedEcApplicationEntity = EcApplicationEntity.builder().isReferred(true).build();
 
+        when(partialUpdater.update(
+                eq(EcApplicationEntity.class), eq("id"), eq(testEcApplicationEntity.getId()), isNull(),
+                eq(Map.of("isReferred", true)), argThat(derivations -> derivations.containsKey("status"))
+        )).thenReturn(true);
         when(ecApplicationRepository.findById(testEcApplicationEntity.getId()))
-                .thenReturn(Optional.empty());
+                .thenReturn(Optional.of(testEcApplicationEntity));
+
+        Optional<EcApplicationEntity> result =
+                ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity, null);
+
+        assertTrue(result.isPresent());
+        // The status is set by the UPDATE statement itself, after locking out concurrent module decisions
+        verify(ecApplicationRepository, times(1)).findByIdForUpdate(testEcApplicationEntity.getId());
+        verify(moduleRequestRepository, never()).existsByEcApplicationIdAndFinalOutcomeIsNull(any());
+    }
+
+    @Test
+    public void testPartialUpdateKeepsStatus() {
+        EcApplicationEntity updatedEcApplicationEntity =
+                EcApplicationEntity.builder().circumstancesDetails("Circumstances details B").build();
+
+        when(partialUpdater.update(
+                eq(EcApplicationEntity.class), eq("id"), eq(testEcApplicationEntity.getId()), isNull(), anyMap(),
+                eq(Map.of())
+        )).thenReturn(true);
+        when(ecApplicationRepository.findById(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity));
+
+        Optional<EcApplicationEntity> result =
+                ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity, null);
 
-        assertThrows(RuntimeException.class,
-                () -> ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity));
+        assertTrue(result.isPresent());
+        verify(ecApplicationRepository, never()).findByIdForUpdate(any());
     }
 
     @Test
-    public void testDelete() {
-        ecApplicationService.delete(testEcApplicationEntity.getId());
+    public void testRefreshStatus() {
+        when(ecApplicationRepository.findByIdForUpdate(testEcApplicationEntity.getId()))
+                .thenReturn(Optional.of(testEcApplicationEntity));
+        when(moduleRequestRepository.existsByEcApplicationIdAndFinalOutcomeIsNull(testEcApplicationEntity.getId()))
+                .thenReturn(false);
+
+        ecApplicationService.refreshStatus(testEcApplicationEntity.getId());
+
+        // Every module request of the referred application has a final outcome
+        assertEquals(EcApplicationStatus.CLOSED, testEcApplicationEntity.getStatus());
+    }
+
+    @Test
+    public void testPartialUpdateWhenNoApplicationExists() {
+        EcApplicationEntity updatedEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityB(testUserEntity);
+
+        when(partialUpdater.update(
+                eq(EcApplicationEntity.class), eq("id"), eq(testEcApplicationEntity.getId()), isNull(), anyMap(),
+                anyMap()
+        )).thenReturn(false);
+
+        Optional<EcApplicationEntity> result =
+                ecApplicationService.partialUpdate(testEcApplicationEntity.getId(), updatedEcApplicationEntity, null);
 
-        verify(ecApplicationRepository, times(1)).deleteById(testEcApplicationEntity.getId());
+        assertTrue(result.isEmpty());
     }
 
 }
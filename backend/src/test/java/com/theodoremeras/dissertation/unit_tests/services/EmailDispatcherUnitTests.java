@@ -0,0 +1,198 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.conf.EmailOutboxProperties;
+import com.theodoremeras.dissertation.email.EmailDispatcher;
+import com.theodoremeras.dissertation.email.EmailOutboxEntity;
+import com.theodoremeras.dissertation.email.EmailOutboxRepository;
+import com.theodoremeras.dissertation.email.EmailOutboxStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailDispatcherUnitTests {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailOutboxProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmailDispatcher emailDispatcher;
+
+    // Messages passed to each call of the mail sender
+    private final List<MimeMessage[]> sentBatches = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        properties = new EmailOutboxProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        emailDispatcher = new EmailDispatcher(
+                emailOutboxRepository, mailSender, properties, transactionManager, meterRegistry
+        );
+
+        lenient().when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+    }
+
+    private static EmailOutboxEntity createEmail(long id, String recipient) {
+        Instant createdAt = Instant.now().minusSeconds(60);
+        return EmailOutboxEntity.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject " + id)
+                .body("Body " + id)
+                .createdAt(createdAt)
+                .nextAttemptAt(createdAt)
+                .build();
+    }
+
+    // Mockito passes each message of a varargs call as a separate argument
+    private static MimeMessage[] messages(InvocationOnMock invocation) {
+        return Arrays.stream(invocation.getArguments()).toArray(MimeMessage[]::new);
+    }
+
+    private void returnDueEmails(List<EmailOutboxEntity> emails) {
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(), any()))
+                .thenReturn(emails);
+    }
+
+    @Test
+    public void testDispatchBatchSendsBatchOverOneConnection() throws Exception {
+        EmailOutboxEntity emailA = createEmail(1, "a@test.com");
+        EmailOutboxEntity emailB = createEmail(2, "b@test.com");
+        returnDueEmails(List.of(emailA, emailB));
+        doAnswer(invocation -> sentBatches.add(messages(invocation)))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        int result = emailDispatcher.dispatchBatch();
+
+        assertEquals(2, result);
+        assertEquals(1, sentBatches.size());
+        assertEquals(2, sentBatches.get(0).length);
+        assertEquals("a@test.com", sentBatches.get(0)[0].getAllRecipients()[0].toString());
+        assertEquals("Subject 2", sentBatches.get(0)[1].getSubject());
+        assertEquals(EmailOutboxStatus.SENT, emailA.getStatus());
+        assertEquals(EmailOutboxStatus.SENT, emailB.getStatus());
+        assertNotNull(emailA.getSentAt());
+        verify(emailOutboxRepository).findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(), eq(Limit.of(50)));
+        assertEquals(1, meterRegistry.get("email.send").tag("outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("email.send").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    public void testDispatchBatchRetriesFailedEmailsWithBackoff() {
+        EmailOutboxEntity emailA = createEmail(1, "a@test.com");
+        EmailOutboxEntity emailB = createEmail(2, "b@test.com");
+        returnDueEmails(List.of(emailA, emailB));
+        // The second message is rejected by the server
+        doAnswer(invocation -> {
+            MimeMessage[] messages = messages(invocation);
+            throw new MailSendException(Map.of(messages[1], new IllegalStateException("Mailbox unavailable")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        Instant before = Instant.now();
+        emailDispatcher.dispatchBatch();
+
+        assertEquals(EmailOutboxStatus.SENT, emailA.getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, emailB.getStatus());
+        assertEquals(1, emailB.getAttempts());
+        assertEquals("Mailbox unavailable", emailB.getLastError());
+        assertFalse(emailB.getNextAttemptAt().isBefore(before.plus(properties.getInitialBackoff())));
+        assertNull(emailB.getSentAt());
+        assertEquals(1, meterRegistry.get("email.send").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    public void testDispatchBatchGivesUpAfterMaxAttempts() {
+        EmailOutboxEntity email = createEmail(1, "a@test.com");
+        email.setAttempts(properties.getMaxAttempts() - 1);
+        returnDueEmails(List.of(email));
+        // Nothing is sent when the connection itself is refused
+        doThrow(new MailAuthenticationException("Authentication failed"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        emailDispatcher.dispatchBatch();
+
+        assertEquals(EmailOutboxStatus.FAILED, email.getStatus());
+        assertEquals(properties.getMaxAttempts(), email.getAttempts());
+        assertEquals("Authentication failed", email.getLastError());
+    }
+
+    @Test
+    public void testDispatchBatchFailsMalformedEmailWithoutHoldingUpBatch() {
+        EmailOutboxEntity malformedEmail = createEmail(1, "<broken");
+        EmailOutboxEntity email = createEmail(2, "b@test.com");
+        returnDueEmails(List.of(malformedEmail, email));
+        doAnswer(invocation -> sentBatches.add(messages(invocation)))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        emailDispatcher.dispatchBatch();
+
+        assertEquals(EmailOutboxStatus.FAILED, malformedEmail.getStatus());
+        assertEquals(1, malformedEmail.getAttempts());
+        assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+        assertEquals(1, sentBatches.get(0).length);
+    }
+
+    @Test
+    public void testDispatchBatchWhenNothingIsDue() {
+        returnDueEmails(List.of());
+
+        assertEquals(0, emailDispatcher.dispatchBatch());
+
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    public void testDispatchPendingDrainsFullBatches() {
+        properties.setBatchSize(2);
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(), eq(Limit.of(2))))
+                .thenReturn(List.of(createEmail(1, "a@test.com"), createEmail(2, "b@test.com")))
+                .thenReturn(List.of(createEmail(3, "c@test.com")));
+
+        emailDispatcher.dispatchPending();
+
+        verify(mailSender, times(2)).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    public void testBackoff() {
+        assertEquals(Duration.ofSeconds(30), emailDispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(60), emailDispatcher.backoff(2));
+        assertEquals(Duration.ofMinutes(32), emailDispatcher.backoff(7));
+        // Capped at the maximum backoff
+        assertEquals(Duration.ofHours(1), emailDispatcher.backoff(8));
+        assertEquals(Duration.ofHours(1), emailDispatcher.backoff(100));
+    }
+
+}
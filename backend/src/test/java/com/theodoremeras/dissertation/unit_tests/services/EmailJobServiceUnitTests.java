@@ -0,0 +1,194 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.conf.EmailOutboxProperties;
+import com.theodoremeras.dissertation.department.DepartmentEntity;
+import com.theodoremeras.dissertation.email.*;
+import com.theodoremeras.dissertation.role.RoleEntity;
+import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailJobServiceUnitTests {
+
+    @Mock
+    private EmailJobRepository emailJobRepository;
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailOutboxProperties properties;
+
+    private EmailJobService emailJobService;
+
+    private RoleEntity testRoleEntity;
+
+    private DepartmentEntity testDepartmentEntity;
+
+    private EmailJobEntity testEmailJobEntity;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new EmailOutboxProperties();
+        emailJobService = new EmailJobService(
+                emailJobRepository, emailOutboxRepository, userService, properties, transactionManager
+        );
+
+        testRoleEntity = TestDataUtil.createTestRoleEntityA();
+        testDepartmentEntity = TestDataUtil.createTestDepartmentEntityA();
+        testEmailJobEntity = EmailJobEntity.builder()
+                .id(1L)
+                .department(testDepartmentEntity)
+                .role(testRoleEntity)
+                .subject("Deadline for {{name}}")
+                .body("Dear {{ name }}, we will write to {{email}}")
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EmailOutboxEntity> captureQueuedEmails() {
+        ArgumentCaptor<List<EmailOutboxEntity>> emails = ArgumentCaptor.forClass(List.class);
+        verify(emailOutboxRepository).saveAll(emails.capture());
+        return emails.getValue();
+    }
+
+    @Test
+    public void testCreateRejectsUnknownPlaceholder() {
+        assertThrows(EmailTemplateException.class, () -> emailJobService.create(
+                testDepartmentEntity, testRoleEntity, "Subject", "Dear {{surname}}"
+        ));
+
+        verify(emailJobRepository, never()).save(any());
+    }
+
+    @Test
+    public void testCreateRejectsUnclosedPlaceholder() {
+        assertThrows(EmailTemplateException.class, () -> emailJobService.create(
+                testDepartmentEntity, testRoleEntity, "Deadline for {{name", "Body"
+        ));
+    }
+
+    @Test
+    public void testPrepareNextPageQueuesRenderedEmailForEveryRecipient() {
+        UserEntity userA = TestDataUtil.createTestUserEntityA(testRoleEntity, testDepartmentEntity);
+        UserEntity userB = TestDataUtil.createTestUserEntityB(testRoleEntity, testDepartmentEntity);
+        when(emailJobRepository.findUnpreparedForUpdate(any())).thenReturn(List.of(testEmailJobEntity));
+        when(userService.findPageByDepartmentIdAndRoleId(
+                testDepartmentEntity.getId(), testRoleEntity.getId(), 0, properties.getRecipientPageSize()
+        )).thenReturn(List.of(userA, userB));
+
+        boolean result = emailJobService.prepareNextPage();
+
+        assertTrue(result);
+        List<EmailOutboxEntity> emails = captureQueuedEmails();
+        assertEquals(2, emails.size());
+        assertEquals(userA.getEmail(), emails.get(0).getRecipient());
+        assertEquals("Deadline for User A", emails.get(0).getSubject());
+        assertEquals("Dear User B, we will write to userB@gmail.com", emails.get(1).getBody());
+        assertSame(testEmailJobEntity, emails.get(1).getJob());
+        assertEquals(userB.getId(), testEmailJobEntity.getLastRecipientId());
+        assertEquals(2, testEmailJobEntity.getRecipientCount());
+        // Fewer recipients than a full page, so there are none left
+        assertNotNull(testEmailJobEntity.getPreparedAt());
+    }
+
+    @Test
+    public void testPrepareNextPageResumesAfterLastRecipient() {
+        properties.setRecipientPageSize(1);
+        testEmailJobEntity.setLastRecipientId(1);
+        testEmailJobEntity.setRecipientCount(1);
+        UserEntity userB = TestDataUtil.createTestUserEntityB(testRoleEntity, testDepartmentEntity);
+        when(emailJobRepository.findUnpreparedForUpdate(any())).thenReturn(List.of(testEmailJobEntity));
+        when(userService.findPageByDepartmentIdAndRoleId(
+                testDepartmentEntity.getId(), testRoleEntity.getId(), 1, 1
+        )).thenReturn(List.of(userB));
+
+        emailJobService.prepareNextPage();
+
+        assertEquals(1, captureQueuedEmails().size());
+        assertEquals(2, testEmailJobEntity.getLastRecipientId());
+        assertEquals(2, testEmailJobEntity.getRecipientCount());
+        // A full page may be followed by more recipients
+        assertNull(testEmailJobEntity.getPreparedAt());
+    }
+
+    @Test
+    public void testPrepareNextPageCompilesTemplatesOncePerJob() {
+        properties.setRecipientPageSize(1);
+        UserEntity userA = TestDataUtil.createTestUserEntityA(testRoleEntity, testDepartmentEntity);
+        UserEntity userB = TestDataUtil.createTestUserEntityB(testRoleEntity, testDepartmentEntity);
+        when(emailJobRepository.findUnpreparedForUpdate(any())).thenReturn(List.of(testEmailJobEntity));
+        when(userService.findPageByDepartmentIdAndRoleId(
+                testDepartmentEntity.getId(), testRoleEntity.getId(), 0, 1
+        )).thenReturn(List.of(userA));
+        when(userService.findPageByDepartmentIdAndRoleId(
+                testDepartmentEntity.getId(), testRoleEntity.getId(), 1, 1
+        )).thenReturn(List.of(userB));
+
+        emailJobService.prepareNextPage();
+        // Not parsed again for the next page, so a change to the stored template is not picked up
+        testEmailJobEntity.setSubject("Changed");
+        emailJobService.prepareNextPage();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmailOutboxEntity>> emails = ArgumentCaptor.forClass(List.class);
+        verify(emailOutboxRepository, times(2)).saveAll(emails.capture());
+        assertEquals("Deadline for User B", emails.getAllValues().get(1).get(0).getSubject());
+    }
+
+    @Test
+    public void testPrepareNextPageWhenNoJobIsPending() {
+        when(emailJobRepository.findUnpreparedForUpdate(any())).thenReturn(List.of());
+
+        boolean result = emailJobService.prepareNextPage();
+
+        assertFalse(result);
+        verifyNoInteractions(userService, emailOutboxRepository);
+    }
+
+    @Test
+    public void testCountEmailsByStatus() {
+        when(emailOutboxRepository.countByJobIdGroupByStatus(1L)).thenReturn(List.of(
+                new EmailStatusCount(EmailOutboxStatus.PENDING, 3L),
+                new EmailStatusCount(EmailOutboxStatus.SENT, 5L)
+        ));
+
+        Map<EmailOutboxStatus, Long> result = emailJobService.countEmailsByStatus(1L);
+
+        assertEquals(Map.of(EmailOutboxStatus.PENDING, 3L, EmailOutboxStatus.SENT, 5L), result);
+    }
+
+    @Test
+    public void testTemplateRendersEveryOccurrence() {
+        EmailTemplate template = EmailTemplate.compile(
+                "{{name}} / {{name}} <{{email}}>", EmailJobService.TEMPLATE_VARIABLES
+        );
+
+        assertEquals("A / A <a@test.com>", template.render(Map.of("name", "A", "email", "a@test.com")));
+        assertEquals("No placeholders", EmailTemplate.compile("No placeholders", Set.of()).render(Map.of()));
+    }
+
+}
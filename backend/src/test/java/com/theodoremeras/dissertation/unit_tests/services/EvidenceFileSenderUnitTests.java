@@ -0,0 +1,174 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.evidence.EvidenceFileSender;
+import com.theodoremeras.dissertation.evidence.FileSystemEvidenceStorage;
+import com.theodoremeras.dissertation.evidence.StoredEvidenceFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvidenceFileSenderUnitTests {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private static final String ETAG = "\"content-hash\"";
+
+    private EvidenceFileSender evidenceFileSender;
+
+    private StoredEvidenceFile storedFile;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setUp(@TempDir Path directory) throws IOException {
+        // Initialize test objects
+        Path file = Files.writeString(directory.resolve("letter.pdf"), CONTENT);
+        storedFile = new StoredEvidenceFile(
+                "letter.pdf", "letter.pdf", file, CONTENT.length(), Instant.parse("2024-03-01T10:15:30Z"), ETAG
+        );
+        evidenceFileSender = new EvidenceFileSender(new FileSystemEvidenceStorage(directory));
+        request = new MockHttpServletRequest("GET", "/evidence/letter.pdf");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testSendWholeFile() throws IOException {
+        long sent = evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals(CONTENT.length(), sent);
+        assertEquals("application/pdf", response.getContentType());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("attachment; filename=\"letter.pdf\"", response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    public void testSendRange() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        long sent = evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(5, response.getContentLengthLong());
+        assertEquals(5, sent);
+        assertEquals("bytes 5-9/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testSendSuffixRange() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=-4");
+
+        evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("ghij", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("bytes 16-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testSendUnsatisfiableRange() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=50-60");
+
+        long sent = evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals(0, sent);
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testSendRangeWhenIfRangeDoesNotMatch() throws IOException {
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other-hash\"");
+
+        evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSendWhenETagMatches() throws IOException {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testSendWhenNotModifiedSince() throws IOException {
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE,
+                storedFile.lastModified().plus(1, ChronoUnit.HOURS).toEpochMilli());
+
+        evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testSendWhenModifiedSince() throws IOException {
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE,
+                storedFile.lastModified().minus(1, ChronoUnit.HOURS).toEpochMilli());
+
+        evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSendRangeOfFileWithoutLocalCopy() throws IOException {
+        // Files in remote storage are read through the storage, which only returns the requested range
+        StoredEvidenceFile remoteFile = new StoredEvidenceFile(
+                storedFile.fileName(), storedFile.key(), null, storedFile.size(), storedFile.lastModified(), ETAG
+        );
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        evidenceFileSender.send(remoteFile, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString(StandardCharsets.UTF_8));
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    @Test
+    public void testSendHandsFileToContainerWhenSendfileIsSupported() throws IOException {
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        evidenceFileSender.send(storedFile, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(storedFile.localFile().toAbsolutePath().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(5L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        // The body is written by the container, not by the application
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+}
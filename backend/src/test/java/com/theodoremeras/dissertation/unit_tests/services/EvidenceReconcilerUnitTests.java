@@ -0,0 +1,179 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.conf.StorageProperties;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.evidence.*;
+import com.theodoremeras.dissertation.user.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EvidenceReconcilerUnitTests {
+
+    // Content hashes whose files are kept at blobs/ab/cd/<hash>
+    private static final String REFERENCED_HASH = "abcd" + "0".repeat(60);
+
+    private static final String UNREFERENCED_HASH = "abcd" + "1".repeat(60);
+
+    @Mock
+    private EvidenceRepository evidenceRepository;
+
+    @Mock
+    private EvidenceContentRepository evidenceContentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path root;
+
+    private StorageProperties storageProperties;
+
+    private EvidenceReconciler evidenceReconciler;
+
+    private EcApplicationEntity testEcApplicationEntity;
+
+    // Older than the grace period, so eligible for removal
+    private Instant oldEnough;
+
+    @BeforeEach
+    public void setUp() {
+        // Initialize test objects
+        UserEntity testUserEntity = TestDataUtil.createTestUserEntityA(
+                TestDataUtil.createTestRoleEntityA(),
+                TestDataUtil.createTestDepartmentEntityA()
+        );
+        testEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityA(testUserEntity);
+        // Chunked uploads are kept in the uploads directory under the location
+        storageProperties = spy(new StorageProperties());
+        doReturn(root.toString()).when(storageProperties).getLocation();
+        oldEnough = Instant.now()
+                .minus(storageProperties.getReconciliation().getGracePeriod())
+                .minus(Duration.ofHours(1));
+
+        FileSystemEvidenceStorage storage = new FileSystemEvidenceStorage(root);
+        EvidenceService evidenceService = new EvidenceService(
+                evidenceRepository, evidenceContentRepository, storageProperties, storage, transactionManager,
+                new SimpleMeterRegistry()
+        );
+        evidenceReconciler = new EvidenceReconciler(evidenceRepository, evidenceService, storage, storageProperties);
+    }
+
+    private void storeFile(String key, Instant lastModified) throws IOException {
+        Path file = root.resolve(key);
+        Files.createDirectories(file.getParent());
+        Files.write(file, "Medical letter".getBytes());
+        Files.setLastModifiedTime(file, FileTime.from(lastModified));
+    }
+
+    @Test
+    public void testReconcileRemovesOldUnreferencedFiles() throws IOException {
+        storeFile("referenced.pdf", oldEnough);
+        storeFile("unreferenced.pdf", oldEnough);
+        storeFile("blobs/ab/cd/" + REFERENCED_HASH, oldEnough);
+        storeFile("blobs/ab/cd/" + UNREFERENCED_HASH, oldEnough);
+        storeFile("blobs/tmp/upload-1.part", oldEnough);
+        storeFile("uploads/upload-2.part", oldEnough);
+        // Too recent to be removed, even though no evidence refers to it yet
+        storeFile("recent.pdf", Instant.now());
+        // Not written by the application, so not checked
+        storeFile("backups/notes.txt", oldEnough);
+
+        when(evidenceRepository.findUnhashedFileNamesIn(anyCollection())).thenReturn(List.of("referenced.pdf"));
+        when(evidenceRepository.findContentHashesIn(anyCollection())).thenReturn(List.of(REFERENCED_HASH));
+        when(evidenceRepository.existsByContentHash(UNREFERENCED_HASH)).thenReturn(false);
+
+        EvidenceReconciliationReport result = evidenceReconciler.reconcile();
+
+        assertEquals(6, result.checkedFiles());
+        assertEquals(4, result.removedFiles());
+        assertTrue(Files.exists(root.resolve("referenced.pdf")));
+        assertTrue(Files.exists(root.resolve("blobs/ab/cd/" + REFERENCED_HASH)));
+        assertTrue(Files.exists(root.resolve("recent.pdf")));
+        assertFalse(Files.exists(root.resolve("unreferenced.pdf")));
+        assertFalse(Files.exists(root.resolve("blobs/ab/cd/" + UNREFERENCED_HASH)));
+        assertFalse(Files.exists(root.resolve("blobs/tmp/upload-1.part")));
+        assertFalse(Files.exists(root.resolve("uploads/upload-2.part")));
+        assertTrue(Files.exists(root.resolve("backups/notes.txt")));
+    }
+
+    @Test
+    public void testReconcileKeepsUploadsInProgress() throws IOException {
+        // Older than the grace period, but still within the time an upload may be idle for
+        storageProperties.getReconciliation().setGracePeriod(Duration.ofHours(1));
+        storeFile("uploads/upload-1.part", Instant.now().minus(Duration.ofHours(2)));
+        storeFile("uploads/upload-2.part", oldEnough);
+
+        EvidenceReconciliationReport result = evidenceReconciler.reconcile();
+
+        assertEquals(2, result.checkedFiles());
+        assertEquals(1, result.removedFiles());
+        assertTrue(Files.exists(root.resolve("uploads/upload-1.part")));
+        assertFalse(Files.exists(root.resolve("uploads/upload-2.part")));
+    }
+
+    @Test
+    public void testReconcileRefusesS3WithoutKeyPrefix() throws IOException {
+        storageProperties.setBackend(StorageProperties.Backend.S3);
+        storeFile("unreferenced.pdf", oldEnough);
+
+        EvidenceReconciliationReport result = evidenceReconciler.reconcile();
+
+        assertEquals(0, result.checkedFiles());
+        assertTrue(Files.exists(root.resolve("unreferenced.pdf")));
+        verifyNoInteractions(evidenceRepository);
+    }
+
+    @Test
+    public void testReconcileChecksFilesInBatches() throws IOException {
+        storageProperties.getReconciliation().setBatchSize(2);
+        storeFile("a.pdf", oldEnough);
+        storeFile("b.pdf", oldEnough);
+        storeFile("c.pdf", oldEnough);
+
+        EvidenceReconciliationReport result = evidenceReconciler.reconcile();
+
+        assertEquals(3, result.checkedFiles());
+        assertEquals(3, result.removedFiles());
+        verify(evidenceRepository, times(2)).findUnhashedFileNamesIn(anyCollection());
+    }
+
+    @Test
+    public void testReconcileReportsDanglingEvidence() throws IOException {
+        EvidenceEntity storedEvidenceEntity = TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity);
+        EvidenceEntity danglingEvidenceEntity = TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity);
+        danglingEvidenceEntity.setId(2);
+        danglingEvidenceEntity.setFileName("missing.pdf");
+        storeFile(storedEvidenceEntity.getFileName(), Instant.now());
+
+        when(evidenceRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any(Limit.class)))
+                .thenReturn(List.of(storedEvidenceEntity, danglingEvidenceEntity));
+
+        EvidenceReconciliationReport result = evidenceReconciler.reconcile();
+
+        assertEquals(1, result.danglingEvidence());
+        assertEquals(List.of(danglingEvidenceEntity.getId()), result.danglingEvidenceIds());
+        // Evidence whose file is missing is only reported
+        verify(evidenceRepository, never()).deleteById(any());
+    }
+
+}
@@ -3,25 +3,33 @@ package com.theodoremeras.dissertation.unit_tests.services;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.conf.StorageProperties;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceContentRepository;
 import com.theodoremeras.dissertation.evidence.EvidenceEntity;
 import com.theodoremeras.dissertation.evidence.EvidenceRepository;
 import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.evidence.FileSystemEvidenceStorage;
+import com.theodoremeras.dissertation.evidence.StoredEvidenceFile;
 import com.theodoremeras.dissertation.user.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,11 +40,19 @@ public class EvidenceServiceUnitTests {
     @Mock
     private EvidenceRepository evidenceRepository;
 
+    @Mock
+    private EvidenceContentRepository evidenceContentRepository;
+
     @Mock
     private StorageProperties storageProperties;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private EvidenceService evidenceService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private EcApplicationEntity testEcApplicationEntity;
 
     private EvidenceEntity testEvidenceEntity;
@@ -61,7 +77,10 @@ public class EvidenceServiceUnitTests {
         when(storageProperties.getLocation()).thenReturn(uploadLocation);
 
         // Manually instantiate EvidenceService with the mocked dependencies
-        evidenceService = new EvidenceService(evidenceRepository, storageProperties);
+        evidenceService = new EvidenceService(
+                evidenceRepository, evidenceContentRepository, storageProperties,
+                new FileSystemEvidenceStorage(Paths.get(uploadLocation)), transactionManager, meterRegistry
+        );
     }
 
     @Test
@@ -76,29 +95,34 @@ public class EvidenceServiceUnitTests {
         EvidenceEntity saveResult = evidenceService.save(multipartFile, testEvidenceEntity);
 
         assertEquals(saveResult, testEvidenceEntity);
+        assertEquals("Test file content".length(), meterRegistry.get("evidence.uploaded").counter().count());
 
-        // Load file as path
-        Path loadResult = evidenceService.load(saveResult.getFileName());
+        // Load file along with its metadata
+        Optional<StoredEvidenceFile> storedFileResult = evidenceService.findStoredFile(saveResult.getFileName());
 
-        assertInstanceOf(Path.class, loadResult);
-
-        // Load file as resource
-        Resource loadResourceResult = evidenceService.loadAsResource(saveResult.getFileName());
-
-        assertInstanceOf(Resource.class, loadResourceResult);
-
-        // Delete file
-        when(evidenceRepository.findById(testEvidenceEntity.getId())).thenReturn(Optional.of(testEvidenceEntity));
+        assertTrue(storedFileResult.isPresent());
+        assertEquals("Test file content".length(), storedFileResult.get().size());
+        assertEquals(saveResult.getFileName(), storedFileResult.get().key());
+        assertTrue(Files.isRegularFile(storedFileResult.get().localFile()));
 
+        // Delete the evidence; its file is left for the reconciler to remove
         evidenceService.delete(testEvidenceEntity.getId());
 
         verify(evidenceRepository, times(1)).deleteById(testEvidenceEntity.getId());
+        assertTrue(Files.isRegularFile(storedFileResult.get().localFile()));
+        Files.delete(storedFileResult.get().localFile());
     }
 
     @Test
-    public void testDeleteWhenNoFileExists() {
-        when(evidenceRepository.findById(testEvidenceEntity.getId())).thenReturn(Optional.empty());
+    public void testRecordDownload() {
+        evidenceService.recordDownload(1024);
+        evidenceService.recordDownload(512);
 
+        assertEquals(1536, meterRegistry.get("evidence.downloaded").counter().count());
+    }
+
+    @Test
+    public void testDeleteWhenNoFileExists() {
         evidenceService.delete(testEvidenceEntity.getId());
 
         verify(evidenceRepository, times(1)).deleteById(testEvidenceEntity.getId());
@@ -114,4 +138,179 @@ public class EvidenceServiceUnitTests {
         assertEquals(result, List.of(testEvidenceEntity));
     }
 
+    private EvidenceService createContentAddressedEvidenceService(Path uploadLocation) {
+        when(storageProperties.getLocation()).thenReturn(uploadLocation.toString());
+        when(storageProperties.isContentAddressed()).thenReturn(true);
+        return new EvidenceService(
+                evidenceRepository, evidenceContentRepository, storageProperties,
+                new FileSystemEvidenceStorage(uploadLocation), transactionManager, meterRegistry
+        );
+    }
+
+    private static long countStoredFiles(Path uploadLocation) throws IOException {
+        try (Stream<Path> files = Files.walk(uploadLocation.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    public void testSaveContentAddressedStoresFileUnderContentHash(@TempDir Path uploadLocation) throws IOException {
+        EvidenceService contentAddressedEvidenceService = createContentAddressedEvidenceService(uploadLocation);
+        MockMultipartFile multipartFile =
+                new MockMultipartFile("file", "test.txt",
+                        "text/plain", "Test file content".getBytes(StandardCharsets.UTF_8));
+        // SHA-256 of "Test file content"
+        String contentHash = "6c76f7bd4b84eb68c26d2e8f48ea76f90b9bdf8836e27235a0ca4325f8fe4ce5";
+
+        when(evidenceRepository.save(testEvidenceEntity)).thenReturn(testEvidenceEntity);
+
+        EvidenceEntity result = contentAddressedEvidenceService.save(multipartFile, testEvidenceEntity);
+
+        assertEquals(contentHash, result.getContentHash());
+        Path storedFile = uploadLocation.resolve("blobs").resolve("6c").resolve("76").resolve(contentHash);
+        assertEquals("Test file content", Files.readString(storedFile));
+
+        // Downloads are resolved through the evidence's content hash
+        when(evidenceRepository.findFirstByFileName(result.getFileName())).thenReturn(Optional.of(result));
+
+        assertEquals(storedFile, contentAddressedEvidenceService.findStoredFile(result.getFileName()).get().localFile());
+        // The content hash serves as a strong entity tag
+        assertEquals("\"" + contentHash + "\"",
+                contentAddressedEvidenceService.findStoredFile(result.getFileName()).get().eTag());
+    }
+
+    @Test
+    public void testSaveContentAddressedStoresIdenticalFilesOnce(@TempDir Path uploadLocation) throws IOException {
+        EvidenceService contentAddressedEvidenceService = createContentAddressedEvidenceService(uploadLocation);
+        EvidenceEntity otherEvidenceEntity = TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity);
+        otherEvidenceEntity.setId(2);
+
+        when(evidenceRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EvidenceEntity resultA = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", "Medical letter".getBytes()),
+                testEvidenceEntity
+        );
+        EvidenceEntity resultB = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "copy.pdf", "application/pdf", "Medical letter".getBytes()),
+                otherEvidenceEntity
+        );
+        contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "other.pdf", "application/pdf", "Other letter".getBytes()),
+                TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity)
+        );
+
+        assertEquals(resultA.getContentHash(), resultB.getContentHash());
+        assertNotEquals(resultA.getFileName(), resultB.getFileName());
+        assertEquals(2, countStoredFiles(uploadLocation));
+    }
+
+    @Test
+    public void testDeleteContentAddressedLeavesFile(@TempDir Path uploadLocation) throws IOException {
+        EvidenceService contentAddressedEvidenceService = createContentAddressedEvidenceService(uploadLocation);
+
+        when(evidenceRepository.save(testEvidenceEntity)).thenReturn(testEvidenceEntity);
+        EvidenceEntity savedEvidenceEntity = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", "Medical letter".getBytes()),
+                testEvidenceEntity
+        );
+
+        contentAddressedEvidenceService.delete(savedEvidenceEntity.getId());
+
+        verify(evidenceRepository, times(1)).deleteById(savedEvidenceEntity.getId());
+        assertEquals(1, countStoredFiles(uploadLocation));
+    }
+
+    @Test
+    public void testDeleteUnreferencedContentKeepsFileWhileReferenced(@TempDir Path uploadLocation) throws IOException {
+        EvidenceService contentAddressedEvidenceService = createContentAddressedEvidenceService(uploadLocation);
+
+        when(evidenceRepository.save(testEvidenceEntity)).thenReturn(testEvidenceEntity);
+        String contentHash = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", "Medical letter".getBytes()),
+                testEvidenceEntity
+        ).getContentHash();
+
+        when(evidenceRepository.existsByContentHash(contentHash)).thenReturn(true);
+
+        assertFalse(contentAddressedEvidenceService.deleteUnreferencedContent(contentHash));
+        assertEquals(1, countStoredFiles(uploadLocation));
+    }
+
+    @Test
+    public void testDeleteUnreferencedContentRemovesUnreferencedFile(@TempDir Path uploadLocation) throws IOException {
+        EvidenceService contentAddressedEvidenceService = createContentAddressedEvidenceService(uploadLocation);
+
+        when(evidenceRepository.save(testEvidenceEntity)).thenReturn(testEvidenceEntity);
+        String contentHash = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", "Medical letter".getBytes()),
+                testEvidenceEntity
+        ).getContentHash();
+
+        when(evidenceRepository.existsByContentHash(contentHash)).thenReturn(false);
+
+        assertTrue(contentAddressedEvidenceService.deleteUnreferencedContent(contentHash));
+        assertEquals(0, countStoredFiles(uploadLocation));
+
+        // Both the upload and the deletion lock the content's row before using the evidence table
+        InOrder inOrder = inOrder(evidenceContentRepository, evidenceRepository, transactionManager);
+        inOrder.verify(evidenceContentRepository).insertIfAbsent(contentHash);
+        inOrder.verify(evidenceContentRepository).findByIdForUpdate(contentHash);
+        inOrder.verify(evidenceRepository).save(testEvidenceEntity);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(evidenceContentRepository).insertIfAbsent(contentHash);
+        inOrder.verify(evidenceContentRepository).findByIdForUpdate(contentHash);
+        inOrder.verify(evidenceRepository).existsByContentHash(contentHash);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void testDeleteStoredFiles() throws IOException {
+        when(evidenceRepository.save(testEvidenceEntity)).thenReturn(testEvidenceEntity);
+        EvidenceEntity savedEvidenceEntity = evidenceService.save(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", "Medical letter".getBytes()),
+                testEvidenceEntity
+        );
+
+        evidenceService.deleteStoredFiles(List.of(savedEvidenceEntity));
+
+        assertTrue(evidenceService.findStoredFile(savedEvidenceEntity.getFileName()).isEmpty());
+        verify(evidenceRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void testDeleteStoredFilesKeepsReferencedContent(@TempDir Path uploadLocation) throws IOException {
+        EvidenceService contentAddressedEvidenceService = createContentAddressedEvidenceService(uploadLocation);
+        EvidenceEntity otherEvidenceEntity = TestDataUtil.createTestEvidenceEntityA(testEcApplicationEntity);
+        otherEvidenceEntity.setId(2);
+
+        when(evidenceRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        EvidenceEntity referencedEvidenceEntity = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "letter.pdf", "application/pdf", "Medical letter".getBytes()),
+                testEvidenceEntity
+        );
+        EvidenceEntity unreferencedEvidenceEntity = contentAddressedEvidenceService.save(
+                new MockMultipartFile("file", "other.pdf", "application/pdf", "Other letter".getBytes()),
+                otherEvidenceEntity
+        );
+
+        // Other evidence still shares the content of the first file
+        when(evidenceRepository.existsByContentHash(referencedEvidenceEntity.getContentHash())).thenReturn(true);
+        when(evidenceRepository.existsByContentHash(unreferencedEvidenceEntity.getContentHash())).thenReturn(false);
+
+        contentAddressedEvidenceService.deleteStoredFiles(
+                List.of(referencedEvidenceEntity, unreferencedEvidenceEntity)
+        );
+
+        assertEquals(1, countStoredFiles(uploadLocation));
+        assertTrue(contentAddressedEvidenceService.findStoredFile(referencedEvidenceEntity).isPresent());
+    }
+
+    @Test
+    public void testFindStoredFileWhenNoFileExists() {
+        Optional<StoredEvidenceFile> result = evidenceService.findStoredFile("missing.pdf");
+
+        assertTrue(result.isEmpty());
+    }
+
 }
@@ -0,0 +1,196 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.TestDataUtil;
+import com.theodoremeras.dissertation.conf.StorageProperties;
+import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceEntity;
+import com.theodoremeras.dissertation.evidence.EvidenceService;
+import com.theodoremeras.dissertation.evidence.EvidenceUpload;
+import com.theodoremeras.dissertation.evidence.EvidenceUploadService;
+import com.theodoremeras.dissertation.user.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EvidenceUploadServiceUnitTests {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes();
+
+    @Mock
+    private EvidenceService evidenceService;
+
+    @TempDir
+    private Path uploadLocation;
+
+    private EvidenceUploadService evidenceUploadService;
+
+    private EcApplicationEntity testEcApplicationEntity;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Initialize test objects
+        UserEntity testUserEntity = TestDataUtil.createTestUserEntityA(
+                TestDataUtil.createTestRoleEntityA(),
+                TestDataUtil.createTestDepartmentEntityA()
+        );
+        testEcApplicationEntity = TestDataUtil.createTestEcApplicationEntityA(testUserEntity);
+        lenient().when(evidenceService.createUploadFile())
+                .thenAnswer(invocation -> Files.createTempFile(uploadLocation, "upload-", ".part"));
+
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setMaxUploadsPerUser(2);
+
+        evidenceUploadService = new EvidenceUploadService(evidenceService, storageProperties);
+    }
+
+    @Test
+    public void testUploadInChunksAndComplete() throws Exception {
+        EvidenceUpload upload = evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", CONTENT.length)
+                .orElseThrow();
+        assertEquals(Optional.of(upload), evidenceUploadService.findOneById(upload.getUploadId()));
+
+        assertEquals(Optional.of(8L), evidenceUploadService.append(upload, 0, chunk(0, 8)));
+        assertEquals(Optional.of(20L), evidenceUploadService.append(upload, 8, chunk(8, 20)));
+        assertTrue(upload.isComplete());
+
+        EvidenceEntity savedEvidenceEntity = EvidenceEntity.builder().id(1).build();
+        when(evidenceService.uniqueFileName("letter.pdf")).thenReturn("2024-01-01T00_00letter.pdf");
+        ArgumentCaptor<EvidenceEntity> evidenceEntity = ArgumentCaptor.forClass(EvidenceEntity.class);
+        when(evidenceService.saveUploadedFile(any(Path.class), eq(sha256(CONTENT)), evidenceEntity.capture()))
+                .thenAnswer(invocation -> {
+                    // The file handed over holds the whole content
+                    assertArrayEquals(CONTENT, Files.readAllBytes(invocation.getArgument(0)));
+                    return savedEvidenceEntity;
+                });
+
+        assertEquals(Optional.of(savedEvidenceEntity), evidenceUploadService.complete(upload));
+        assertEquals("2024-01-01T00_00letter.pdf", evidenceEntity.getValue().getFileName());
+        assertEquals(testEcApplicationEntity, evidenceEntity.getValue().getEcApplication());
+
+        // A completed upload is over
+        assertTrue(evidenceUploadService.findOneById(upload.getUploadId()).isEmpty());
+    }
+
+    @Test
+    public void testAppendResumesAfterDroppedConnection() throws Exception {
+        EvidenceUpload upload = evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", CONTENT.length)
+                .orElseThrow();
+
+        // The connection drops after part of the chunk arrived
+        InputStream droppedConnection = new InputStream() {
+            private final InputStream content = chunk(0, 5);
+
+            @Override
+            public int read() throws IOException {
+                int next = content.read();
+                if (next == -1)
+                    throw new IOException("Connection reset");
+                return next;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int read = content.read(bytes, offset, length);
+                if (read == -1)
+                    throw new IOException("Connection reset");
+                return read;
+            }
+        };
+        assertThrows(IOException.class, () -> evidenceUploadService.append(upload, 0, droppedConnection));
+        assertEquals(5, upload.getOffset());
+
+        // The chunk is resent from the offset that was reached
+        assertEquals(Optional.of(20L), evidenceUploadService.append(upload, 5, chunk(5, 20)));
+
+        when(evidenceService.saveUploadedFile(any(Path.class), eq(sha256(CONTENT)), any(EvidenceEntity.class)))
+                .thenAnswer(invocation -> {
+                    assertArrayEquals(CONTENT, Files.readAllBytes(invocation.getArgument(0)));
+                    return invocation.getArgument(2);
+                });
+        assertTrue(evidenceUploadService.complete(upload).isPresent());
+    }
+
+    @Test
+    public void testAppendRejectsChunkAtWrongOffset() throws Exception {
+        EvidenceUpload upload = evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", CONTENT.length)
+                .orElseThrow();
+        evidenceUploadService.append(upload, 0, chunk(0, 8));
+
+        assertTrue(evidenceUploadService.append(upload, 4, chunk(4, 20)).isEmpty());
+        assertTrue(evidenceUploadService.append(upload, 12, chunk(12, 20)).isEmpty());
+        assertEquals(8, upload.getOffset());
+    }
+
+    @Test
+    public void testAppendStopsAtDeclaredSize() throws Exception {
+        EvidenceUpload upload = evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", 10)
+                .orElseThrow();
+
+        assertEquals(Optional.of(10L), evidenceUploadService.append(upload, 0, chunk(0, 20)));
+        assertTrue(upload.isComplete());
+    }
+
+    @Test
+    public void testCompleteWhenContentIsMissing() throws Exception {
+        EvidenceUpload upload = evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", CONTENT.length)
+                .orElseThrow();
+        evidenceUploadService.append(upload, 0, chunk(0, 8));
+
+        assertTrue(evidenceUploadService.complete(upload).isEmpty());
+        verify(evidenceService, never()).saveUploadedFile(any(), any(), any());
+    }
+
+    @Test
+    public void testInitiateLimitsUploadsInProgressPerUser() throws Exception {
+        EvidenceUpload first = evidenceUploadService.initiate(1L, testEcApplicationEntity, "a.pdf", 10).orElseThrow();
+        assertTrue(evidenceUploadService.initiate(1L, testEcApplicationEntity, "b.pdf", 10).isPresent());
+
+        assertTrue(evidenceUploadService.initiate(1L, testEcApplicationEntity, "c.pdf", 10).isEmpty());
+        // Other users are not affected
+        assertTrue(evidenceUploadService.initiate(2L, testEcApplicationEntity, "c.pdf", 10).isPresent());
+
+        // Finishing an upload frees its place
+        evidenceUploadService.abort(first);
+        assertTrue(evidenceUploadService.initiate(1L, testEcApplicationEntity, "c.pdf", 10).isPresent());
+    }
+
+    @Test
+    public void testAbortRemovesPartialFile() throws Exception {
+        EvidenceUpload upload = evidenceUploadService.initiate(1L, testEcApplicationEntity, "letter.pdf", CONTENT.length)
+                .orElseThrow();
+        evidenceUploadService.append(upload, 0, chunk(0, 8));
+
+        evidenceUploadService.abort(upload);
+
+        assertTrue(evidenceUploadService.findOneById(upload.getUploadId()).isEmpty());
+        try (var files = Files.list(uploadLocation)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static InputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(CONTENT, from, to - from);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+}
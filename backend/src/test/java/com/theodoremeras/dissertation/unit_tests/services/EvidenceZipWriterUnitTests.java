@@ -0,0 +1,121 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.evidence.EvidenceZipWriter;
+import com.theodoremeras.dissertation.evidence.FileSystemEvidenceStorage;
+import com.theodoremeras.dissertation.evidence.StoredEvidenceFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvidenceZipWriterUnitTests {
+
+    @TempDir
+    private Path directory;
+
+    private EvidenceZipWriter evidenceZipWriter;
+
+    @BeforeEach
+    public void setUp() {
+        evidenceZipWriter = new EvidenceZipWriter(new FileSystemEvidenceStorage(directory));
+    }
+
+    @Test
+    public void testWriteStoresCompressedFormatsAndDeflatesOthers() throws IOException {
+        byte[] pdfContent = "%PDF-1.7 scanned letter".getBytes();
+        byte[] textContent = "Notes ".repeat(1000).getBytes();
+
+        List<ZipEntry> entries = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        readArchive(write(List.of(storedFile("letter.PDF", pdfContent), storedFile("notes.txt", textContent))),
+                entries, contents);
+
+        assertEquals(2, entries.size());
+        assertEquals("letter.PDF", entries.get(0).getName());
+        assertEquals(ZipEntry.STORED, entries.get(0).getMethod());
+        assertEquals(pdfContent.length, entries.get(0).getCompressedSize());
+        CRC32 crc = new CRC32();
+        crc.update(pdfContent);
+        assertEquals(crc.getValue(), entries.get(0).getCrc());
+        assertArrayEquals(pdfContent, contents.get(0));
+
+        assertEquals("notes.txt", entries.get(1).getName());
+        assertEquals(ZipEntry.DEFLATED, entries.get(1).getMethod());
+        assertArrayEquals(textContent, contents.get(1));
+    }
+
+    @Test
+    public void testWriteDoesNotCompressFilesWithoutLocalCopy() throws IOException {
+        byte[] pdfContent = "%PDF-1.7 scanned letter".getBytes();
+        StoredEvidenceFile localFile = storedFile("letter.pdf", pdfContent);
+        // Remote files are only read once, so their checksum is not known before they are written
+        StoredEvidenceFile remoteFile = new StoredEvidenceFile(
+                localFile.fileName(), localFile.key(), null, localFile.size(), localFile.lastModified(), localFile.eTag()
+        );
+
+        List<ZipEntry> entries = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        readArchive(write(List.of(remoteFile)), entries, contents);
+
+        assertEquals(ZipEntry.DEFLATED, entries.get(0).getMethod());
+        assertArrayEquals(pdfContent, contents.get(0));
+    }
+
+    @Test
+    public void testWriteGivesDuplicateNamesUniqueEntries() throws IOException {
+        StoredEvidenceFile storedFile = storedFile("letter.pdf", "content".getBytes());
+
+        List<ZipEntry> entries = new ArrayList<>();
+        readArchive(write(List.of(storedFile, storedFile)), entries, new ArrayList<>());
+
+        assertEquals(List.of("letter.pdf", "1_letter.pdf"), entries.stream().map(ZipEntry::getName).toList());
+    }
+
+    @Test
+    public void testWriteSkipsMissingFiles() throws IOException {
+        StoredEvidenceFile missingFile = storedFile("missing.pdf", "content".getBytes());
+        Files.delete(missingFile.localFile());
+
+        List<ZipEntry> entries = new ArrayList<>();
+        readArchive(write(List.of(missingFile, storedFile("notes.txt", "notes".getBytes()))), entries, new ArrayList<>());
+
+        assertEquals(List.of("notes.txt"), entries.stream().map(ZipEntry::getName).toList());
+    }
+
+    private StoredEvidenceFile storedFile(String fileName, byte[] content) throws IOException {
+        Path file = Files.write(directory.resolve(fileName), content);
+        return new StoredEvidenceFile(
+                fileName, fileName, file, content.length, Instant.parse("2024-03-01T10:15:30Z"), "\"etag\""
+        );
+    }
+
+    private byte[] write(List<StoredEvidenceFile> files) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        evidenceZipWriter.write(files, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static void readArchive(byte[] archive, List<ZipEntry> entries, List<byte[]> contents) throws IOException {
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                contents.add(zipInputStream.readAllBytes());
+                entries.add(entry);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.evidence.EvidenceStorage;
+import com.theodoremeras.dissertation.evidence.FileSystemEvidenceStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemEvidenceStorageUnitTests {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes();
+
+    @TempDir
+    private Path root;
+
+    private FileSystemEvidenceStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        storage = new FileSystemEvidenceStorage(root);
+    }
+
+    @Test
+    public void testStoreStatOpenDelete() throws IOException {
+        storage.store("blobs/ab/cd/abcd", new ByteArrayInputStream(CONTENT));
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(root.resolve("blobs/ab/cd/abcd")));
+        assertEquals(Optional.of(root.resolve("blobs/ab/cd/abcd")), storage.localFile("blobs/ab/cd/abcd"));
+
+        Optional<EvidenceStorage.StoredObject> storedObject = storage.stat("blobs/ab/cd/abcd");
+        assertTrue(storedObject.isPresent());
+        assertEquals(CONTENT.length, storedObject.get().size());
+
+        try (InputStream inputStream = storage.open("blobs/ab/cd/abcd")) {
+            assertArrayEquals(CONTENT, inputStream.readAllBytes());
+        }
+
+        storage.delete("blobs/ab/cd/abcd");
+        assertTrue(storage.stat("blobs/ab/cd/abcd").isEmpty());
+        // Deleting a missing object does nothing
+        storage.delete("blobs/ab/cd/abcd");
+    }
+
+    @Test
+    public void testOpenRange() throws IOException {
+        storage.store("letter.pdf", new ByteArrayInputStream(CONTENT));
+
+        try (InputStream inputStream = storage.open("letter.pdf", 5, 5)) {
+            assertArrayEquals("56789".getBytes(), inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testOpenWhenNoObjectExists() {
+        assertThrows(NoSuchFileException.class, () -> storage.open("missing.pdf"));
+        assertThrows(NoSuchFileException.class, () -> storage.open("missing.pdf", 0, 1));
+    }
+
+    @Test
+    public void testStoreFileMovesItIntoPlace() throws IOException {
+        Path file = Files.write(Files.createDirectories(root.resolve("uploads")).resolve("upload.part"), CONTENT);
+
+        storage.store("letter.pdf", file);
+
+        assertFalse(Files.exists(file));
+        assertArrayEquals(CONTENT, Files.readAllBytes(root.resolve("letter.pdf")));
+    }
+
+    @Test
+    public void testMoveReplacesTarget() throws IOException {
+        storage.store("blobs/tmp/upload.part", new ByteArrayInputStream(CONTENT));
+        storage.store("letter.pdf", new ByteArrayInputStream("Old content".getBytes()));
+
+        storage.move("blobs/tmp/upload.part", "letter.pdf");
+
+        assertTrue(storage.stat("blobs/tmp/upload.part").isEmpty());
+        assertArrayEquals(CONTENT, Files.readAllBytes(root.resolve("letter.pdf")));
+    }
+
+    @Test
+    public void testListReturnsEveryFile() throws IOException {
+        storage.store("letter.pdf", new ByteArrayInputStream(CONTENT));
+        storage.store("blobs/ab/cd/abcd", new ByteArrayInputStream(CONTENT));
+
+        List<EvidenceStorage.ListedObject> result;
+        try (Stream<EvidenceStorage.ListedObject> objects = storage.list()) {
+            result = objects.sorted((a, b) -> a.key().compareTo(b.key())).toList();
+        }
+
+        // Directories are not listed, and keys use slashes whatever the platform
+        assertEquals(List.of("blobs/ab/cd/abcd", "letter.pdf"),
+                result.stream().map(EvidenceStorage.ListedObject::key).toList());
+        assertEquals(CONTENT.length, result.get(0).size());
+        assertEquals(Files.getLastModifiedTime(root.resolve("letter.pdf")).toInstant(), result.get(1).lastModified());
+    }
+
+    @Test
+    public void testListWhenRootDoesNotExist() throws IOException {
+        try (Stream<EvidenceStorage.ListedObject> objects =
+                     new FileSystemEvidenceStorage(root.resolve("missing")).list()) {
+            assertEquals(0, objects.count());
+        }
+    }
+
+    @Test
+    public void testKeysOutsideOfRootAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> storage.stat("../outside.pdf"));
+        assertThrows(IllegalArgumentException.class,
+                () -> storage.store("blobs/../../outside.pdf", new ByteArrayInputStream(CONTENT)));
+    }
+
+}
@@ -3,10 +3,12 @@ package com.theodoremeras.dissertation.unit_tests.services;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationService;
 import com.theodoremeras.dissertation.module_decision.ModuleDecisionEntity;
 import com.theodoremeras.dissertation.module_decision.ModuleDecisionRepository;
 import com.theodoremeras.dissertation.module_decision.ModuleDecisionService;
 import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
+import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
 import com.theodoremeras.dissertation.user.UserEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,12 @@ public class ModuleDecisionServiceUnitTests {
     @Mock
     private ModuleDecisionRepository moduleDecisionRepository;
 
+    @Mock
+    private ModuleRequestRepository moduleRequestRepository;
+
+    @Mock
+    private EcApplicationService ecApplicationService;
+
     @InjectMocks
     private ModuleDecisionService moduleDecisionService;
 
@@ -68,6 +76,63 @@ public class ModuleDecisionServiceUnitTests {
         assertEquals(result, testModuleDecisionEntity);
     }
 
+    @Test
+    public void testSaveRecordsApproval() {
+        testModuleDecisionEntity.setId(null);
+        testModuleDecisionEntity.setIsApproved(true);
+        when(moduleDecisionRepository.save(testModuleDecisionEntity)).thenReturn(testModuleDecisionEntity);
+
+        moduleDecisionService.save(testModuleDecisionEntity);
+
+        verify(moduleRequestRepository, times(1))
+                .recordApproval(testModuleRequestEntity.getId(), ModuleDecisionService.DECISION_QUORUM);
+        verify(moduleRequestRepository, never()).recordRejection(any(), anyInt());
+        verify(ecApplicationService, times(1)).lock(testEcApplicationEntity.getId());
+        verify(ecApplicationService, times(1)).refreshStatus(testEcApplicationEntity.getId());
+    }
+
+    @Test
+    public void testSaveRecordsRejection() {
+        testModuleDecisionEntity.setId(null);
+        testModuleDecisionEntity.setIsApproved(false);
+        when(moduleDecisionRepository.save(testModuleDecisionEntity)).thenReturn(testModuleDecisionEntity);
+
+        moduleDecisionService.save(testModuleDecisionEntity);
+
+        verify(moduleRequestRepository, times(1))
+                .recordRejection(testModuleRequestEntity.getId(), ModuleDecisionService.DECISION_QUORUM);
+        verify(moduleRequestRepository, never()).recordApproval(any(), anyInt());
+    }
+
+    @Test
+    public void testSaveDoesNotRecordExistingDecisionAgain() {
+        when(moduleDecisionRepository.existsById(testModuleDecisionEntity.getId())).thenReturn(true);
+        when(moduleDecisionRepository.save(testModuleDecisionEntity)).thenReturn(testModuleDecisionEntity);
+
+        moduleDecisionService.save(testModuleDecisionEntity);
+
+        verifyNoInteractions(moduleRequestRepository, ecApplicationService);
+    }
+
+    @Test
+    public void testSaveAllRecordsEveryDecisionAndRefreshesApplicationOnce() {
+        ModuleDecisionEntity testModuleDecisionEntityB = TestDataUtil.createTestModuleDecisionEntityB(
+                testModuleRequestEntity, testUserEntity, testEcApplicationEntity
+        );
+        List<ModuleDecisionEntity> testModuleDecisionEntities = List.of(testModuleDecisionEntity, testModuleDecisionEntityB);
+        when(moduleDecisionRepository.saveAll(testModuleDecisionEntities)).thenReturn(testModuleDecisionEntities);
+
+        List<ModuleDecisionEntity> result = moduleDecisionService.saveAll(testModuleDecisionEntities);
+
+        assertEquals(testModuleDecisionEntities, result);
+        verify(moduleRequestRepository, times(1))
+                .recordRejection(testModuleRequestEntity.getId(), ModuleDecisionService.DECISION_QUORUM);
+        verify(moduleRequestRepository, times(1))
+                .recordApproval(testModuleRequestEntity.getId(), ModuleDecisionService.DECISION_QUORUM);
+        verify(ecApplicationService, times(1)).lock(testEcApplicationEntity.getId());
+        verify(ecApplicationService, times(1)).refreshStatus(testEcApplicationEntity.getId());
+    }
+
     @Test
     public void testFindAll() {
         when(moduleDecisionRepository.findAll()).thenReturn(List.of(testModuleDecisionEntity));
@@ -130,10 +195,25 @@ public class ModuleDecisionServiceUnitTests {
 
     @Test
     public void testDelete() {
+        when(moduleDecisionRepository.findById(testModuleDecisionEntity.getId()))
+                .thenReturn(Optional.of(testModuleDecisionEntity));
+
+        moduleDecisionService.delete(testModuleDecisionEntity.getId());
+
+        verify(moduleDecisionRepository, times(1)).delete(testModuleDecisionEntity);
+        verify(moduleRequestRepository, times(1))
+                .revokeRejection(testModuleRequestEntity.getId(), ModuleDecisionService.DECISION_QUORUM);
+        verify(ecApplicationService, times(1)).refreshStatus(testEcApplicationEntity.getId());
+    }
+
+    @Test
+    public void testDeleteWhenNoDecisionExists() {
+        when(moduleDecisionRepository.findById(testModuleDecisionEntity.getId())).thenReturn(Optional.empty());
+
         moduleDecisionService.delete(testModuleDecisionEntity.getId());
 
-        verify(moduleDecisionRepository, times(1))
-                .deleteById(testModuleDecisionEntity.getId());
+        verify(moduleDecisionRepository, never()).delete(any());
+        verifyNoInteractions(moduleRequestRepository);
     }
 
 }
@@ -3,6 +3,7 @@ package com.theodoremeras.dissertation.unit_tests.services;
 import com.theodoremeras.dissertation.TestDataUtil;
 import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.ec_application.EcApplicationEntity;
+import com.theodoremeras.dissertation.ec_application.EcApplicationService;
 import com.theodoremeras.dissertation.module.ModuleEntity;
 import com.theodoremeras.dissertation.module_request.ModuleRequestEntity;
 import com.theodoremeras.dissertation.module_request.ModuleRequestRepository;
@@ -27,6 +28,9 @@ public class ModuleRequestServiceUnitTests {
     @Mock
     private ModuleRequestRepository moduleRequestRepository;
 
+    @Mock
+    private EcApplicationService ecApplicationService;
+
     @InjectMocks
     private ModuleRequestService moduleRequestService;
 
@@ -52,6 +56,7 @@ public class ModuleRequestServiceUnitTests {
         ModuleRequestEntity result = moduleRequestService.save(testModuleRequestEntity);
 
         assertEquals(result, testModuleRequestEntity);
+        verify(ecApplicationService, times(1)).refreshStatus(testModuleRequestEntity.getEcApplication().getId());
     }
 
     @Test
@@ -95,9 +100,13 @@ public class ModuleRequestServiceUnitTests {
 
     @Test
     public void testDelete() {
+        when(moduleRequestRepository.findById(testModuleRequestEntity.getId()))
+                .thenReturn(Optional.of(testModuleRequestEntity));
+
         moduleRequestService.delete(testModuleRequestEntity.getId());
 
-        verify(moduleRequestRepository, times(1)).deleteById(testModuleRequestEntity.getId());
+        verify(moduleRequestRepository, times(1)).delete(testModuleRequestEntity);
+        verify(ecApplicationService, times(1)).refreshStatus(testModuleRequestEntity.getEcApplication().getId());
     }
 
 }
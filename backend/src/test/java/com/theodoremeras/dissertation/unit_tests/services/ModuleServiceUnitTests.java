@@ -5,6 +5,7 @@ import com.theodoremeras.dissertation.department.DepartmentEntity;
 import com.theodoremeras.dissertation.module.ModuleEntity;
 import com.theodoremeras.dissertation.module.ModuleRepository;
 import com.theodoremeras.dissertation.module.ModuleService;
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +25,9 @@ public class ModuleServiceUnitTests {
     @Mock
     private ModuleRepository moduleRepository;
 
+    @Mock
+    private PartialUpdater partialUpdater;
+
     @InjectMocks
     private ModuleService moduleService;
 
@@ -84,20 +88,25 @@ public class ModuleServiceUnitTests {
 
     @Test
     public void testPartialUpdate() {
+        when(partialUpdater.update(eq(ModuleEntity.class), eq("code"), eq(testModuleEntity.getCode()), anyMap()))
+                .thenReturn(true);
         when(moduleRepository.findById(testModuleEntity.getCode())).thenReturn(Optional.of(testModuleEntity));
-        when(moduleRepository.save(testModuleEntity)).thenReturn(testModuleEntity);
 
-        ModuleEntity result = moduleService.partialUpdate(testModuleEntity.getCode(), testModuleEntity);
+        Optional<ModuleEntity> result = moduleService.partialUpdate(testModuleEntity.getCode(), testModuleEntity);
 
-        assertEquals(result, testModuleEntity);
+        assertTrue(result.isPresent());
+        assertEquals(result.get(), testModuleEntity);
+        verify(moduleRepository, never()).save(any());
     }
 
     @Test
     public void testPartialUpdateWhenNoModuleExists() {
-        when(moduleRepository.findById(testModuleEntity.getCode())).thenReturn(Optional.empty());
+        when(partialUpdater.update(eq(ModuleEntity.class), eq("code"), eq(testModuleEntity.getCode()), anyMap()))
+                .thenReturn(false);
+
+        Optional<ModuleEntity> result = moduleService.partialUpdate(testModuleEntity.getCode(), testModuleEntity);
 
-        assertThrows(RuntimeException.class,
-                () -> moduleService.partialUpdate(testModuleEntity.getCode(), testModuleEntity));
+        assertTrue(result.isEmpty());
     }
     
     @Test
@@ -0,0 +1,204 @@
+package com.theodoremeras.dissertation.unit_tests.services;
+
+import com.theodoremeras.dissertation.evidence.EvidenceStorage;
+import com.theodoremeras.dissertation.evidence.S3EvidenceStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class S3EvidenceStorageUnitTests {
+
+    private static final int PART_SIZE = S3EvidenceStorage.MIN_PART_SIZE;
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3EvidenceStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        storage = new S3EvidenceStorage(s3Client, "evidence", "dissertation/", PART_SIZE);
+    }
+
+    @Test
+    public void testStoreSmallContentWithSingleRequest() throws IOException {
+        byte[] content = "Medical letter".getBytes();
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+
+        storage.store("letter.pdf", new ByteArrayInputStream(content));
+
+        verify(s3Client).putObject(request.capture(), body.capture());
+        assertEquals("evidence", request.getValue().bucket());
+        assertEquals("dissertation/letter.pdf", request.getValue().key());
+        assertArrayEquals(content, readBody(body.getValue()));
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void testStoreLargeContentAsMultipartUpload() throws IOException {
+        byte[] content = new byte[2 * PART_SIZE + 10];
+        Arrays.fill(content, PART_SIZE, 2 * PART_SIZE, (byte) 1);
+        Arrays.fill(content, 2 * PART_SIZE, content.length, (byte) 2);
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        // The part buffer is reused, so each part is read while it is being uploaded, as the client does
+        List<byte[]> parts = new ArrayList<>();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenAnswer(invocation -> {
+                    parts.add(readBody(invocation.getArgument(1)));
+                    return UploadPartResponse.builder()
+                            .eTag("etag-" + invocation.<UploadPartRequest>getArgument(0).partNumber()).build();
+                });
+        ArgumentCaptor<UploadPartRequest> partRequests = ArgumentCaptor.forClass(UploadPartRequest.class);
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeRequest =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+
+        storage.store("letter.pdf", new ByteArrayInputStream(content));
+
+        verify(s3Client, times(3)).uploadPart(partRequests.capture(), any(RequestBody.class));
+        assertEquals(List.of(1, 2, 3), partRequests.getAllValues().stream().map(UploadPartRequest::partNumber).toList());
+        assertArrayEquals(Arrays.copyOfRange(content, 0, PART_SIZE), parts.get(0));
+        assertArrayEquals(Arrays.copyOfRange(content, PART_SIZE, 2 * PART_SIZE), parts.get(1));
+        assertArrayEquals(new byte[]{2, 2, 2, 2, 2, 2, 2, 2, 2, 2}, parts.get(2));
+
+        verify(s3Client).completeMultipartUpload(completeRequest.capture());
+        assertEquals("upload-id", completeRequest.getValue().uploadId());
+        assertEquals(List.of("etag-1", "etag-2", "etag-3"), completeRequest.getValue().multipartUpload().parts()
+                .stream().map(CompletedPart::eTag).toList());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    public void testStoreAbortsMultipartUploadOnFailure() {
+        InputStream failingContent = new InputStream() {
+            private long remaining = PART_SIZE + 1;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- <= 0)
+                    throw new IOException("Connection reset");
+                return 0;
+            }
+        };
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        assertThrows(IOException.class, () -> storage.store("letter.pdf", failingContent));
+
+        verify(s3Client).abortMultipartUpload(
+                AbortMultipartUploadRequest.builder()
+                        .bucket("evidence").key("dissertation/letter.pdf").uploadId("upload-id").build()
+        );
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void testStat() {
+        Instant lastModified = Instant.parse("2024-03-01T10:15:30Z");
+        when(s3Client.headObject(HeadObjectRequest.builder().bucket("evidence").key("dissertation/letter.pdf").build()))
+                .thenReturn(HeadObjectResponse.builder().contentLength(14L).lastModified(lastModified).build());
+
+        assertEquals(Optional.of(new EvidenceStorage.StoredObject(14, lastModified)), storage.stat("letter.pdf"));
+    }
+
+    @Test
+    public void testStatWhenNoObjectExists() {
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(404).build());
+
+        assertTrue(storage.stat("letter.pdf").isEmpty());
+    }
+
+    @Test
+    public void testOpenRequestsOnlyTheRange() throws IOException {
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        when(s3Client.getObject(request.capture())).thenReturn(null);
+
+        storage.open("letter.pdf", 5, 10);
+
+        assertEquals("dissertation/letter.pdf", request.getValue().key());
+        assertEquals("bytes=5-14", request.getValue().range());
+    }
+
+    @Test
+    public void testOpenWhenNoObjectExists() {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThrows(NoSuchFileException.class, () -> storage.open("letter.pdf"));
+    }
+
+    @Test
+    public void testMoveCopiesWithinTheStore() throws IOException {
+        storage.move("blobs/tmp/upload.part", "blobs/ab/cd/abcd");
+
+        verify(s3Client).copyObject(CopyObjectRequest.builder()
+                .sourceBucket("evidence").sourceKey("dissertation/blobs/tmp/upload.part")
+                .destinationBucket("evidence").destinationKey("dissertation/blobs/ab/cd/abcd")
+                .build());
+        verify(s3Client).deleteObject(
+                DeleteObjectRequest.builder().bucket("evidence").key("dissertation/blobs/tmp/upload.part").build()
+        );
+    }
+
+    @Test
+    public void testListReadsEveryPage() {
+        Instant lastModified = Instant.parse("2024-03-01T10:15:30Z");
+        ArgumentCaptor<ListObjectsV2Request> request = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        // The paginator requests each page through listObjectsV2
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenCallRealMethod();
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder()
+                        .contents(S3Object.builder()
+                                .key("dissertation/letter.pdf").size(14L).lastModified(lastModified).build())
+                        .isTruncated(true).nextContinuationToken("next-page")
+                        .build(),
+                ListObjectsV2Response.builder()
+                        .contents(S3Object.builder()
+                                .key("dissertation/blobs/ab/cd/abcd").size(20L).lastModified(lastModified).build())
+                        .isTruncated(false)
+                        .build()
+        );
+
+        List<EvidenceStorage.ListedObject> result = storage.list().toList();
+
+        assertEquals(List.of(
+                new EvidenceStorage.ListedObject("letter.pdf", 14, lastModified),
+                new EvidenceStorage.ListedObject("blobs/ab/cd/abcd", 20, lastModified)
+        ), result);
+        verify(s3Client, times(2)).listObjectsV2(request.capture());
+        assertEquals("dissertation/", request.getAllValues().get(0).prefix());
+        assertEquals("next-page", request.getAllValues().get(1).continuationToken());
+    }
+
+    private static byte[] readBody(RequestBody body) throws IOException {
+        try (InputStream inputStream = body.contentStreamProvider().newStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+}
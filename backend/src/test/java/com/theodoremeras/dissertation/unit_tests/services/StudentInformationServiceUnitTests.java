@@ -5,6 +5,7 @@ import com.theodoremeras.dissertation.student_information.StudentInformationEnti
 import com.theodoremeras.dissertation.student_information.StudentInformationRepository;
 import com.theodoremeras.dissertation.student_information.StudentInformationService;
 import com.theodoremeras.dissertation.user.UserEntity;
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +25,9 @@ public class StudentInformationServiceUnitTests {
     @Mock
     private StudentInformationRepository studentInformationRepository;
 
+    @Mock
+    private PartialUpdater partialUpdater;
+
     @InjectMocks
     private StudentInformationService studentInformationService;
 
@@ -95,15 +99,18 @@ public class StudentInformationServiceUnitTests {
         StudentInformationEntity updatedStudentInformationEntity =
                 TestDataUtil.createTestStudentInformationEntityB(testUserEntity);
 
+        when(partialUpdater.update(
+                eq(StudentInformationEntity.class), eq("id"), eq(testStudentInformationEntity.getId()), isNull(), anyMap()
+        )).thenReturn(true);
         when(studentInformationRepository.findById(testStudentInformationEntity.getId()))
-                .thenReturn(Optional.of(testStudentInformationEntity));
-        when(studentInformationRepository.save(testStudentInformationEntity))
-                .thenReturn(updatedStudentInformationEntity);
+                .thenReturn(Optional.of(updatedStudentInformationEntity));
 
-        StudentInformationEntity result = studentInformationService
-                        .partialUpdate(testStudentInformationEntity.getId(), updatedStudentInformationEntity);
+        Optional<StudentInformationEntity> result = studentInformationService
+                        .partialUpdate(testStudentInformationEntity.getId(), updatedStudentInformationEntity, null);
 
-        assertEquals(result, updatedStudentInformationEntity);
+        assertTrue(result.isPresent());
+        assertEquals(result.get(), updatedStudentInformationEntity);
+        verify(studentInformationRepository, never()).save(any());
     }
 
     @Test
@@ -111,13 +118,14 @@ public class StudentInformationServiceUnitTests {
         StudentInformationEntity updatedStudentInformationEntity =
                 TestDataUtil.createTestStudentInformationEntityB(testUserEntity);
 
-        when(studentInformationRepository.findById(testStudentInformationEntity.getId()))
-                .thenReturn(Optional.empty());
+        when(partialUpdater.update(
+                eq(StudentInformationEntity.class), eq("id"), eq(testStudentInformationEntity.getId()), isNull(), anyMap()
+        )).thenReturn(false);
 
-        assertThrows(RuntimeException.class, () ->
-                studentInformationService.partialUpdate(
-                        testStudentInformationEntity.getId(), updatedStudentInformationEntity)
-        );
+        Optional<StudentInformationEntity> result = studentInformationService
+                .partialUpdate(testStudentInformationEntity.getId(), updatedStudentInformationEntity, null);
+
+        assertTrue(result.isEmpty());
     }
 
     @Test
@@ -6,6 +6,7 @@ import com.theodoremeras.dissertation.role.RoleEntity;
 import com.theodoremeras.dissertation.user.UserEntity;
 import com.theodoremeras.dissertation.user.UserRepository;
 import com.theodoremeras.dissertation.user.UserService;
+import com.theodoremeras.dissertation.utils.PartialUpdater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,6 +28,9 @@ public class UserServiceUnitTests {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PartialUpdater partialUpdater;
+
     @InjectMocks
     private UserService userService;
 
@@ -122,22 +126,29 @@ public class UserServiceUnitTests {
     public void testPartialUpdate() {
         UserEntity updatedUserEntity = TestDataUtil.createTestUserEntityB(testRoleEntity, testDepartmentEntity);
 
-        when(userRepository.findById(testUserEntity.getId())).thenReturn(Optional.of(testUserEntity));
-        when(userRepository.save(testUserEntity)).thenReturn(updatedUserEntity);
+        when(partialUpdater.update(
+                eq(UserEntity.class), eq("id"), eq(testUserEntity.getId()), isNull(), anyMap()
+        )).thenReturn(true);
+        when(userRepository.findById(testUserEntity.getId())).thenReturn(Optional.of(updatedUserEntity));
 
-        UserEntity result = userService.partialUpdate(testUserEntity.getId(), updatedUserEntity);
+        Optional<UserEntity> result = userService.partialUpdate(testUserEntity.getId(), updatedUserEntity, null);
 
-        assertEquals(result, updatedUserEntity);
+        assertTrue(result.isPresent());
+        assertEquals(result.get(), updatedUserEntity);
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     public void testPartialUpdateWhenNoUserExists() {
         UserEntity updatedUserEntity = TestDataUtil.createTestUserEntityB(testRoleEntity, testDepartmentEntity);
 
-        when(userRepository.findById(testUserEntity.getId())).thenReturn(Optional.empty());
+        when(partialUpdater.update(
+                eq(UserEntity.class), eq("id"), eq(testUserEntity.getId()), isNull(), anyMap()
+        )).thenReturn(false);
+
+        Optional<UserEntity> result = userService.partialUpdate(testUserEntity.getId(), updatedUserEntity, null);
 
-        assertThrows(RuntimeException.class,
-                () -> userService.partialUpdate(testUserEntity.getId(), updatedUserEntity));
+        assertTrue(result.isEmpty());
     }
 
     @Test
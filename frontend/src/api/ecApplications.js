@@ -36,9 +36,11 @@ export function getEcApplication(id) {
         .then(res => res.data)
 }
 
-export function updateEcApplication(data) {
+// If a version is given, the update is rejected with a 409 if the application has been updated since
+export function updateEcApplication({ version, ...data }) {
+    const headers = version != null ? { 'If-Match': `"${version}"` } : {}
     return axios
-        .patch(`/ec-applications/${data.id}`, data)
+        .patch(`/ec-applications/${data.id}`, data, { headers })
         .then(res => res.data)
 }
 
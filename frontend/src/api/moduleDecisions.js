@@ -6,6 +6,12 @@ export function createModuleDecision(data) {
         .then(res => res.data)
 }
 
+export function createModuleDecisions(moduleDecisions) {
+    return axios
+        .post(`/module-decisions/batch`, { moduleDecisions })
+        .then(res => res.data)
+}
+
 export function getModuleDecisionsByStaffMemberId(staffMemberId) {
     return axios
         .get(`/module-decisions?staffMemberId=${staffMemberId}`)
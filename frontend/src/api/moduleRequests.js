@@ -11,3 +11,9 @@ export function createModuleRequest(data) {
         .post(`/module-requests`, data)
         .then(res => res.data)
 }
+
+export function createModuleRequests(moduleRequests) {
+    return axios
+        .post(`/module-requests/batch`, { moduleRequests })
+        .then(res => res.data)
+}
@@ -259,6 +259,7 @@ export default function ClericalStaffEcDetails() {
 
         updateEcApplicationMutation.mutate({
             id: ecApplication.id,
+            version: ecApplication.version,
             requiresFurtherEvidence: true
         })
     }
@@ -267,6 +268,7 @@ export default function ClericalStaffEcDetails() {
     function referApplication() {
         updateEcApplicationMutation.mutate({
             id: ecApplication.id,
+            version: ecApplication.version,
             isReferred: true
         })
     }
@@ -283,6 +285,7 @@ export default function ClericalStaffEcDetails() {
 
         updateEcApplicationMutation.mutate({
             id: ecApplication.id,
+            version: ecApplication.version,
             isReferred: false
         })
     }
@@ -6,7 +6,7 @@ import { getModules } from '../../api/modules'
 import { bytesToMb, getCurrentDate } from '../../utils'
 import { createEcApplication } from '../../api/ecApplications'
 import { createEvidence } from '../../api/evidence'
-import { createModuleRequest } from '../../api/moduleRequests'
+import { createModuleRequests } from '../../api/moduleRequests'
 import { Navigate, useNavigate } from 'react-router'
 import ErrorPage from "../ErrorPage"
 
@@ -57,7 +57,7 @@ export default function StudentEcApplicationForm() {
     })
 
     const createModuleRequestMutation = useMutation({
-        mutationFn: createModuleRequest,
+        mutationFn: createModuleRequests,
         onSuccess: data => {
             queryClient.invalidateQueries(["moduleRequests"])
         }
@@ -225,15 +225,14 @@ export default function StudentEcApplicationForm() {
                     })
                 })
 
-                // Create the module requests
-                moduleRequests.forEach(request => {
-                    createModuleRequestMutation.mutate({
+                // Create all the module requests in a single request
+                if (moduleRequests.length > 0)
+                    createModuleRequestMutation.mutate(moduleRequests.map(request => ({
                         requestedOutcome: request.requestedOutcome,
                         moduleCode: request.moduleCode,
                         relatedAssessment: request.relatedAssessment,
                         ecApplicationId: data.id
-                    })
-                })
+                    })))
 
                 navigate("/student/ec-applications", { state: { applicationSubmitted: true } })
             }
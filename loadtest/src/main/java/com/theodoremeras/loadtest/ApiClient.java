@@ -0,0 +1,141 @@
+package com.theodoremeras.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/*
+    Sends requests to the backend, recording the latency of each under the name of its endpoint.
+    A request fails if it can not be sent, or if its response has a status other than those expected
+ */
+public class ApiClient {
+
+    private static final String MULTIPART_BOUNDARY = "loadtest-boundary";
+
+    private final HttpClient httpClient;
+
+    private final URI baseUrl;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // The recorder that requests are currently measured by, replaced once the warm-up is over
+    private final Supplier<LatencyRecorder> recorder;
+
+    public ApiClient(URI baseUrl, Supplier<LatencyRecorder> recorder) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    // A logged in user
+    public record Session(Role role, int userId, int departmentId, String token) {
+    }
+
+    public Optional<Session> login(Role role, String email, String password) {
+        return send("login", null, post("/auth/login", Map.of("email", email, "password", password)), 200)
+                .map(response -> new Session(
+                        role,
+                        response.get("user").get("id").asInt(),
+                        response.get("user").get("departmentId").asInt(),
+                        response.get("jwt").asText()
+                ));
+    }
+
+    public HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path)).GET();
+    }
+
+    public HttpRequest.Builder post(String path, Object body) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(body)));
+    }
+
+    public HttpRequest.Builder patch(String path, Object body) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(toJson(body)));
+    }
+
+    // A multipart/form-data upload of a file, along with the given form fields
+    public HttpRequest.Builder upload(String path, Map<String, String> fields, String fileName, byte[] content) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> field : fields.entrySet())
+            write(body, "--" + MULTIPART_BOUNDARY + "\r\n" +
+                    "Content-Disposition: form-data; name=\"" + field.getKey() + "\"\r\n\r\n" +
+                    field.getValue() + "\r\n");
+        write(body, "--" + MULTIPART_BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n" +
+                "Content-Type: application/pdf\r\n\r\n");
+        body.writeBytes(content);
+        write(body, "\r\n--" + MULTIPART_BOUNDARY + "--\r\n");
+
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "multipart/form-data; boundary=" + MULTIPART_BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+    }
+
+    /*
+        Send the request as the given user (or anonymously if there is none), returning the body of its
+        response, or nothing if the request failed
+     */
+    public Optional<JsonNode> send(
+            String endpoint, Session session, HttpRequest.Builder request, int... expectedStatuses
+    ) {
+        if (session != null)
+            request.header("Authorization", "Bearer " + session.token());
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            recorder.get().record(endpoint, System.nanoTime() - start, true);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        long latency = System.nanoTime() - start;
+
+        boolean expected = Arrays.stream(expectedStatuses).anyMatch(status -> status == response.statusCode());
+        recorder.get().record(endpoint, latency, !expected);
+        if (!expected)
+            return Optional.empty();
+
+        try {
+            return Optional.of(response.body().length == 0 ?
+                    objectMapper.missingNode() : objectMapper.readTree(response.body()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not serialise the request body", e);
+        }
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
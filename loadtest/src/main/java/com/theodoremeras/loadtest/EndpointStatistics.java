@@ -0,0 +1,13 @@
+package com.theodoremeras.loadtest;
+
+// Outcome of the requests made to an endpoint during a load test; latencies are in milliseconds
+public record EndpointStatistics(
+        String endpoint, long requests, long failures, double throughput,
+        double p50Millis, double p95Millis, double p99Millis, double maxMillis
+) {
+
+    public double errorRate() {
+        return requests == 0 ? 0 : (double) failures / requests;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.theodoremeras.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Collects the latency of every request, per endpoint. Every sample is kept, so the percentiles are exact
+    rather than estimated; at 8 bytes a sample, a million requests take 8MB
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean failed) {
+        samplesByEndpoint.computeIfAbsent(endpoint, name -> new Samples()).add(latencyNanos, failed);
+    }
+
+    // Statistics of every endpoint, over requests made during the given period
+    public List<EndpointStatistics> statistics(Duration elapsed) {
+        return samplesByEndpoint.entrySet().stream()
+                .map(entry -> entry.getValue().statistics(entry.getKey(), elapsed))
+                .sorted(Comparator.comparing(EndpointStatistics::endpoint))
+                .toList();
+    }
+
+    // Nearest-rank percentile of the given sorted latencies
+    static long percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0)
+            return 0;
+
+        int rank = (int) Math.ceil(percentile / 100 * sortedLatencies.length);
+        return sortedLatencies[Math.max(rank, 1) - 1];
+    }
+
+    private static class Samples {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private int failures;
+
+        synchronized void add(long latencyNanos, boolean failed) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latencyNanos;
+
+            if (failed)
+                failures++;
+        }
+
+        synchronized EndpointStatistics statistics(String endpoint, Duration elapsed) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            return new EndpointStatistics(
+                    endpoint, count, failures, count / (elapsed.toMillis() / 1000.0),
+                    toMillis(percentile(sorted, 50)), toMillis(percentile(sorted, 95)),
+                    toMillis(percentile(sorted, 99)), toMillis(count == 0 ? 0 : sorted[count - 1])
+            );
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.theodoremeras.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+    Replays the exam period surge against a running backend, loaded with the dataset generator's data:
+    virtual users repeatedly pick a role by the configured mix, then a user of that role, and run the
+    role's scenario. Requests are only measured once the warm-up is over. The run fails, with exit status 1,
+    if any endpoint is over its latency budget or error rate, or if the overall throughput is too low
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+
+        AtomicReference<LatencyRecorder> recorder = new AtomicReference<>(new LatencyRecorder());
+        ApiClient client = new ApiClient(config.baseUrl(), recorder::get);
+
+        Map<Role, List<ApiClient.Session>> sessions = logIn(client, config);
+        Map<Integer, List<String>> moduleCodes =
+                Scenarios.fetchModuleCodes(client, sessions.get(Role.STUDENT).get(0));
+        byte[] evidence = new byte[config.evidenceSize()];
+        new Random(config.seed()).nextBytes(evidence);
+        Scenarios scenarios = new Scenarios(client, moduleCodes, evidence);
+
+        System.out.printf("Warming up for %s, then measuring for %s with %d virtual users%n",
+                config.warmup(), config.duration(), config.virtualUsers());
+
+        long end = System.nanoTime() + config.warmup().plus(config.duration()).toNanos();
+        ExecutorService virtualUsers = Executors.newFixedThreadPool(config.virtualUsers());
+        for (int index = 0; index < config.virtualUsers(); index++) {
+            Random random = new Random(config.seed() + index);
+            virtualUsers.submit(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    Role role = pickRole(config.mix(), random);
+                    List<ApiClient.Session> roleSessions = sessions.get(role);
+                    scenarios.run(roleSessions.get(random.nextInt(roleSessions.size())), random);
+                    sleep(config.thinkTime());
+                }
+            });
+        }
+
+        // Discard everything recorded during the warm-up
+        Thread.sleep(config.warmup().toMillis());
+        recorder.set(new LatencyRecorder());
+        long measuredStart = System.nanoTime();
+
+        virtualUsers.shutdown();
+        if (!virtualUsers.awaitTermination(config.duration().toMillis() + 60_000, TimeUnit.MILLISECONDS))
+            virtualUsers.shutdownNow();
+        Duration measured = Duration.ofNanos(System.nanoTime() - measuredStart);
+
+        List<EndpointStatistics> statistics = recorder.get().statistics(measured);
+        List<String> violations = violations(config, statistics, measured);
+
+        printReport(statistics, violations);
+        writeReport(config, statistics, violations, measured);
+
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    // Log in the configured number of users of each role, failing if any of them can not log in
+    private static Map<Role, List<ApiClient.Session>> logIn(ApiClient client, LoadTestConfig config) {
+        Map<Role, List<ApiClient.Session>> sessions = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            List<ApiClient.Session> roleSessions = new ArrayList<>();
+            for (int index = 0; index < config.users().get(role); index++) {
+                String email = role.email(index);
+                roleSessions.add(client.login(role, email, config.password())
+                        .orElseThrow(() -> new IllegalStateException("Could not log in as " + email)));
+            }
+            if (roleSessions.isEmpty() && config.mix().get(role) > 0)
+                throw new IllegalStateException("No users to run the " + role.key() + " scenario as");
+            sessions.put(role, roleSessions);
+        }
+        return sessions;
+    }
+
+    private static Role pickRole(Map<Role, Integer> mix, Random random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<Role, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0)
+                return entry.getKey();
+        }
+        throw new IllegalStateException("The role mix is empty");
+    }
+
+    // Every broken budget, as a readable message
+    static List<String> violations(LoadTestConfig config, List<EndpointStatistics> statistics, Duration measured) {
+        List<String> violations = new ArrayList<>();
+        long totalRequests = 0;
+        for (EndpointStatistics endpoint : statistics) {
+            totalRequests += endpoint.requests();
+
+            LoadTestConfig.Budget budget = config.budgetOf(endpoint.endpoint());
+            if (endpoint.p95Millis() > budget.p95Millis())
+                violations.add(String.format("%s: p95 of %.1fms is over the budget of %dms",
+                        endpoint.endpoint(), endpoint.p95Millis(), budget.p95Millis()));
+            if (endpoint.p99Millis() > budget.p99Millis())
+                violations.add(String.format("%s: p99 of %.1fms is over the budget of %dms",
+                        endpoint.endpoint(), endpoint.p99Millis(), budget.p99Millis()));
+            if (endpoint.errorRate() > config.maxErrorRate())
+                violations.add(String.format("%s: error rate of %.2f%% is over the budget of %.2f%%",
+                        endpoint.endpoint(), endpoint.errorRate() * 100, config.maxErrorRate() * 100));
+        }
+
+        double throughput = totalRequests / (measured.toMillis() / 1000.0);
+        if (throughput < config.minThroughput())
+            violations.add(String.format("Throughput of %.1f requests/s is under the budget of %.1f requests/s",
+                    throughput, config.minThroughput()));
+        return violations;
+    }
+
+    private static void printReport(List<EndpointStatistics> statistics, List<String> violations) {
+        System.out.printf("%n%-34s %9s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "Max ms");
+        for (EndpointStatistics endpoint : statistics)
+            System.out.printf("%-34s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    endpoint.endpoint(), endpoint.requests(), endpoint.failures(), endpoint.throughput(),
+                    endpoint.p50Millis(), endpoint.p95Millis(), endpoint.p99Millis(), endpoint.maxMillis());
+
+        if (violations.isEmpty()) {
+            System.out.println("\nAll budgets met");
+        } else {
+            System.out.println("\nBudgets broken:");
+            violations.forEach(violation -> System.out.println("  " + violation));
+        }
+    }
+
+    private static void writeReport(
+            LoadTestConfig config, List<EndpointStatistics> statistics, List<String> violations, Duration measured
+    ) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", config.baseUrl().toString());
+        report.put("virtualUsers", config.virtualUsers());
+        report.put("measuredSeconds", measured.toMillis() / 1000.0);
+        report.put("endpoints", statistics);
+        report.put("violations", violations);
+
+        if (config.reportFile().getParent() != null)
+            Files.createDirectories(config.reportFile().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(config.reportFile().toFile(), report);
+        System.out.println("Report written to " + config.reportFile());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.theodoremeras.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/*
+    Settings of a load test run, read from loadtest.properties and overridden by system properties
+    of the same name
+ */
+public record LoadTestConfig(
+        URI baseUrl, Duration warmup, Duration duration, int virtualUsers, Duration thinkTime, long seed,
+        Map<Role, Integer> mix, Map<Role, Integer> users, String password, int evidenceSize, Path reportFile,
+        Budget defaultBudget, Map<String, Budget> endpointBudgets, double maxErrorRate, double minThroughput
+) {
+
+    private static final String PREFIX = "loadtest.";
+
+    private static final String BUDGET_PREFIX = PREFIX + "budget.";
+
+    // Latency budget of an endpoint, in milliseconds
+    public record Budget(long p95Millis, long p99Millis) {
+    }
+
+    public static LoadTestConfig load() {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (defaults != null)
+                properties.load(defaults);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(PREFIX))
+                .forEach(name -> properties.setProperty(name, System.getProperty(name)));
+
+        return from(properties);
+    }
+
+    public static LoadTestConfig from(Properties properties) {
+        Map<Role, Integer> mix = new EnumMap<>(Role.class);
+        Map<Role, Integer> users = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            mix.put(role, Integer.parseInt(required(properties, "mix." + role.key())));
+            users.put(role, Integer.parseInt(required(properties, "users." + role.key())));
+        }
+
+        Budget defaultBudget = new Budget(
+                parseDuration(required(properties, "budget.p95")).toMillis(),
+                parseDuration(required(properties, "budget.p99")).toMillis()
+        );
+
+        // Endpoints whose budget differs from the default, e.g. loadtest.budget.upload-evidence.p95
+        Map<String, Budget> endpointBudgets = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith(BUDGET_PREFIX) || !(name.endsWith(".p95") || name.endsWith(".p99")))
+                continue;
+
+            // Everything between the prefix and the percentile; the default budget has no endpoint
+            String setting = name.substring(BUDGET_PREFIX.length());
+            int percentileStart = setting.lastIndexOf('.');
+            if (percentileStart <= 0)
+                continue;
+            String endpoint = setting.substring(0, percentileStart);
+            if (endpointBudgets.containsKey(endpoint))
+                continue;
+
+            String p95 = properties.getProperty(BUDGET_PREFIX + endpoint + ".p95");
+            String p99 = properties.getProperty(BUDGET_PREFIX + endpoint + ".p99");
+            endpointBudgets.put(endpoint, new Budget(
+                    p95 == null ? defaultBudget.p95Millis() : parseDuration(p95).toMillis(),
+                    p99 == null ? defaultBudget.p99Millis() : parseDuration(p99).toMillis()
+            ));
+        }
+
+        return new LoadTestConfig(
+                URI.create(required(properties, "base-url")),
+                parseDuration(required(properties, "warmup")),
+                parseDuration(required(properties, "duration")),
+                Integer.parseInt(required(properties, "virtual-users")),
+                parseDuration(required(properties, "think-time")),
+                Long.parseLong(required(properties, "seed")),
+                mix, users,
+                required(properties, "password"),
+                Integer.parseInt(required(properties, "evidence-size")),
+                Path.of(required(properties, "report-file")),
+                defaultBudget, endpointBudgets,
+                Double.parseDouble(required(properties, "budget.max-error-rate")),
+                Double.parseDouble(required(properties, "budget.min-throughput"))
+        );
+    }
+
+    public Budget budgetOf(String endpoint) {
+        return endpointBudgets.getOrDefault(endpoint, defaultBudget);
+    }
+
+    private static String required(Properties properties, String name) {
+        String value = properties.getProperty(PREFIX + name);
+        if (value == null || value.isBlank())
+            throw new IllegalArgumentException("Missing load test setting " + PREFIX + name);
+        return value.trim();
+    }
+
+    // Parse a duration such as 250ms, 30s, 5m or 1h
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim();
+        if (trimmed.endsWith("ms"))
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+
+        long amount = Long.parseLong(trimmed.substring(0, trimmed.length() - 1));
+        return switch (trimmed.charAt(trimmed.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration " + value);
+        };
+    }
+
+}
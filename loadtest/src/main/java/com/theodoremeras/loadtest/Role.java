@@ -0,0 +1,29 @@
+package com.theodoremeras.loadtest;
+
+// The roles whose users take part in the load test
+public enum Role {
+
+    STUDENT("student", "student"),
+    CLERICAL_STAFF("clerical", "clerical"),
+    ACADEMIC_STAFF("academic", "staff");
+
+    // Name of the role in the load test settings
+    private final String key;
+
+    // Start of the emails that the dataset generator gives to users of the role
+    private final String emailPrefix;
+
+    Role(String key, String emailPrefix) {
+        this.key = key;
+        this.emailPrefix = emailPrefix;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String email(int index) {
+        return emailPrefix + index + "@dataset.test";
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.theodoremeras.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+    What each role does during the exam period surge; one call of a scenario is one visit of the user,
+    made up of the requests that the frontend sends for it
+ */
+public class Scenarios {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final ApiClient client;
+
+    // Codes of the modules of each department, which students request outcomes for
+    private final Map<Integer, List<String>> moduleCodesByDepartment;
+
+    private final byte[] evidence;
+
+    public Scenarios(ApiClient client, Map<Integer, List<String>> moduleCodesByDepartment, byte[] evidence) {
+        this.client = client;
+        this.moduleCodesByDepartment = moduleCodesByDepartment;
+        this.evidence = evidence;
+    }
+
+    // Group the codes of every module by its department, as fetched by the given user
+    public static Map<Integer, List<String>> fetchModuleCodes(ApiClient client, ApiClient.Session session) {
+        JsonNode modules = client.send("list-modules", session, client.get("/modules"), 200)
+                .orElseThrow(() -> new IllegalStateException("Could not fetch the modules"));
+
+        Map<Integer, List<String>> moduleCodesByDepartment = new HashMap<>();
+        for (JsonNode module : modules)
+            moduleCodesByDepartment.computeIfAbsent(module.get("departmentId").asInt(), id -> new ArrayList<>())
+                    .add(module.get("code").asText());
+        return moduleCodesByDepartment;
+    }
+
+    public void run(ApiClient.Session session, Random random) {
+        switch (session.role()) {
+            case STUDENT -> student(session, random);
+            case CLERICAL_STAFF -> clericalStaff(session, random);
+            case ACADEMIC_STAFF -> academicStaff(session, random);
+        }
+    }
+
+    // Submit an EC application with two module requests and a piece of evidence, then view own applications
+    private void student(ApiClient.Session session, Random random) {
+        LocalDate today = LocalDate.now();
+        Map<String, Object> ecApplication = new LinkedHashMap<>();
+        ecApplication.put("circumstancesDetails", "Load test circumstances");
+        ecApplication.put("affectedDateStart", today.minusDays(1 + random.nextInt(14)).toString());
+        ecApplication.put("affectedDateEnd", today.toString());
+        ecApplication.put("submittedOn", today.toString());
+        ecApplication.put("studentId", session.userId());
+
+        Optional<JsonNode> created = client.send(
+                "create-ec-application", session, client.post("/ec-applications", ecApplication), 201
+        );
+        if (created.isEmpty())
+            return;
+        int ecApplicationId = created.get().get("id").asInt();
+
+        List<String> moduleCodes = moduleCodesByDepartment.getOrDefault(session.departmentId(), List.of());
+        if (!moduleCodes.isEmpty()) {
+            List<Map<String, Object>> moduleRequests = random.ints(2, 0, moduleCodes.size())
+                    .mapToObj(index -> Map.<String, Object>of(
+                            "requestedOutcome", "Deadline extension",
+                            "relatedAssessment", "Coursework",
+                            "ecApplicationId", ecApplicationId,
+                            "moduleCode", moduleCodes.get(index)
+                    ))
+                    .toList();
+            client.send("create-module-requests", session,
+                    client.post("/module-requests/batch", Map.of("moduleRequests", moduleRequests)), 201);
+        }
+
+        client.send("upload-evidence", session, client.upload(
+                "/evidence", Map.of("ecApplicationId", String.valueOf(ecApplicationId)), "evidence.pdf", evidence
+        ), 201);
+
+        client.send("list-own-ec-applications", session,
+                client.get("/ec-applications?limit=" + PAGE_SIZE + "&studentId=" + session.userId()), 200);
+    }
+
+    /*
+        List the department's submitted EC applications and refer one of them. Several clerical staff members
+        may refer the same application at once, in which case all but one are rejected as stale (409)
+     */
+    private void clericalStaff(ApiClient.Session session, Random random) {
+        Optional<JsonNode> page = client.send("list-department-ec-applications", session, client.get(
+                "/ec-applications?limit=" + PAGE_SIZE + "&studentDepartmentId=" + session.departmentId() +
+                        "&status=SUBMITTED"
+        ), 200);
+        Optional<JsonNode> ecApplication = page.flatMap(found -> pick(found.get("items"), random));
+        if (ecApplication.isEmpty())
+            return;
+
+        client.send("update-ec-application", session, client.patch(
+                        "/ec-applications/" + ecApplication.get().get("id").asInt(), Map.of("isReferred", true)
+                ).header("If-Match", "\"" + ecApplication.get().get("version").asLong() + "\""),
+                200, 409);
+    }
+
+    // List the department's referred EC applications and decide on one of their undecided module requests
+    private void academicStaff(ApiClient.Session session, Random random) {
+        Optional<JsonNode> page = client.send("list-referred-ec-applications", session, client.get(
+                "/ec-applications?limit=" + PAGE_SIZE + "&studentDepartmentId=" + session.departmentId() +
+                        "&status=REFERRED"
+        ), 200);
+        if (page.isEmpty() || page.get().get("items").isEmpty())
+            return;
+
+        String ecApplicationIds = stream(page.get().get("items"))
+                .map(ecApplication -> ecApplication.get("id").asText())
+                .collect(Collectors.joining(","));
+        Optional<JsonNode> moduleRequests = client.send("list-module-requests", session,
+                client.get("/module-requests?ecApplicationIds=" + ecApplicationIds), 200);
+        if (moduleRequests.isEmpty())
+            return;
+
+        List<JsonNode> undecided = stream(moduleRequests.get())
+                .filter(moduleRequest -> moduleRequest.path("finalOutcome").isNull() ||
+                        moduleRequest.path("finalOutcome").isMissingNode())
+                .toList();
+        if (undecided.isEmpty())
+            return;
+        JsonNode moduleRequest = undecided.get(random.nextInt(undecided.size()));
+
+        Map<String, Object> moduleDecision = new LinkedHashMap<>();
+        moduleDecision.put("comments", "Load test decision");
+        moduleDecision.put("isApproved", random.nextInt(4) != 0);
+        moduleDecision.put("moduleRequestId", moduleRequest.get("id").asInt());
+        moduleDecision.put("staffMemberId", session.userId());
+        moduleDecision.put("ecApplicationId", moduleRequest.get("ecApplicationId").asInt());
+        client.send("create-module-decision", session, client.post("/module-decisions", moduleDecision), 201);
+    }
+
+    private static Optional<JsonNode> pick(JsonNode items, Random random) {
+        if (items == null || items.isEmpty())
+            return Optional.empty();
+        return Optional.of(items.get(random.nextInt(items.size())));
+    }
+
+    private static Stream<JsonNode> stream(JsonNode array) {
+        List<JsonNode> nodes = new ArrayList<>();
+        array.forEach(nodes::add);
+        return nodes.stream();
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.theodoremeras.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadTestUnitTests {
+
+    @Test
+    public void testPercentileUsesNearestRank() {
+        long[] sorted = new long[100];
+        for (int index = 0; index < sorted.length; index++)
+            sorted[index] = index + 1;
+
+        assertEquals(50, LatencyRecorder.percentile(sorted, 50));
+        assertEquals(95, LatencyRecorder.percentile(sorted, 95));
+        assertEquals(99, LatencyRecorder.percentile(sorted, 99));
+        assertEquals(100, LatencyRecorder.percentile(sorted, 100));
+        assertEquals(7, LatencyRecorder.percentile(new long[]{7}, 99));
+        assertEquals(0, LatencyRecorder.percentile(new long[0], 99));
+    }
+
+    @Test
+    public void testStatisticsArePerEndpoint() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int index = 1; index <= 2000; index++)
+            recorder.record("list", index * 1_000_000L, index % 100 == 0);
+        recorder.record("create", 5_000_000L, false);
+
+        List<EndpointStatistics> statistics = recorder.statistics(Duration.ofSeconds(10));
+
+        assertEquals(2, statistics.size());
+        assertEquals("create", statistics.get(0).endpoint());
+        assertEquals(1, statistics.get(0).requests());
+        assertEquals(5, statistics.get(0).p99Millis());
+
+        EndpointStatistics list = statistics.get(1);
+        assertEquals(2000, list.requests());
+        assertEquals(20, list.failures());
+        assertEquals(0.01, list.errorRate());
+        assertEquals(200, list.throughput());
+        assertEquals(1000, list.p50Millis());
+        assertEquals(1900, list.p95Millis());
+        assertEquals(1980, list.p99Millis());
+        assertEquals(2000, list.maxMillis());
+    }
+
+    @Test
+    public void testConfigReadsDefaultAndEndpointBudgets() throws IOException {
+        Properties properties = defaults();
+        properties.setProperty("loadtest.budget.list-module-requests.p99", "750ms");
+
+        LoadTestConfig config = LoadTestConfig.from(properties);
+
+        assertEquals(new LoadTestConfig.Budget(500, 1500), config.budgetOf("create-ec-application"));
+        assertEquals(new LoadTestConfig.Budget(2000, 4000), config.budgetOf("upload-evidence"));
+        assertEquals(new LoadTestConfig.Budget(500, 750), config.budgetOf("list-module-requests"));
+        assertEquals(Duration.ofMinutes(5), config.duration());
+        assertEquals(70, config.mix().get(Role.STUDENT));
+    }
+
+    @Test
+    public void testViolationsReportBrokenBudgets() throws IOException {
+        LoadTestConfig config = LoadTestConfig.from(defaults());
+        List<EndpointStatistics> statistics = List.of(
+                new EndpointStatistics("upload-evidence", 10_000, 0, 100, 500, 1900, 3900, 5000),
+                new EndpointStatistics("update-ec-application", 10_000, 500, 100, 20, 600, 900, 1000)
+        );
+
+        List<String> violations = LoadTest.violations(config, statistics, Duration.ofSeconds(100));
+
+        assertEquals(2, violations.size());
+        assertTrue(violations.get(0).startsWith("update-ec-application: p95"));
+        assertTrue(violations.get(1).startsWith("update-ec-application: error rate"));
+
+        assertTrue(LoadTest.violations(config, statistics, Duration.ofSeconds(1000)).get(2)
+                .startsWith("Throughput of 20.0 requests/s"));
+    }
+
+    @Test
+    public void testParseDuration() {
+        assertEquals(Duration.ofMillis(250), LoadTestConfig.parseDuration("250ms"));
+        assertEquals(Duration.ofSeconds(30), LoadTestConfig.parseDuration("30s"));
+        assertEquals(Duration.ofHours(1), LoadTestConfig.parseDuration(" 1h "));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parseDuration("5d"));
+    }
+
+    private static Properties defaults() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestUnitTests.class.getResourceAsStream("/loadtest.properties")) {
+            properties.load(defaults);
+        }
+        return properties;
+    }
+
+}